@@ -0,0 +1,443 @@
+package org.hy.common.ftp.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hy.common.ftp.FTPConnectionPool;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPInfo;
+import org.hy.common.ftp.FTPLatency;
+import org.hy.common.ftp.junit.LoopbackFTPServer;
+
+
+
+
+
+/**
+ * 压力测试。启动本机回环FTP服务，由 N 个并发的 FTPHelp 客户端持续上传、下载，统计每种操作的吞吐量及耗时分位。
+ *
+ * 完全离线运行，不依赖外部的FTP服务。
+ *
+ * 运行：
+ *   java -cp benchmark/target/benchmarks.jar org.hy.common.ftp.benchmark.FTPLoadTest clients=200 duration=60
+ *
+ * 参数（均为 key=value 的形式，均可省略）：
+ *   clients    并发的客户端数量。默认 200
+ *   duration   测量时长（单位：秒）。默认 30
+ *   warmup     预热时长（单位：秒），预热期间的统计丢弃。默认 5
+ *   sizes      文件大小的分布。格式为 大小:权重，多个用逗号分隔，大小可用 K、M 后缀。默认 4K:50,256K:35,4M:15
+ *   upload     上传操作的占比（0 ~ 100），其余为下载。默认 50
+ *   dataSafe   数据安全性（加密）。默认 false
+ *   zeroCopy   零拷贝。默认 true
+ *   pool       每次操作从连接池中借出连接（否则每个客户端独占一个连接）。默认 false
+ *   dir        临时文件（FTP服务的根目录及本地文件）所在的目录。默认为系统的临时目录。
+ *              ext4 等文件系统覆盖写已有文件时会同步刷盘，测量网络及本类库时，建议用内存文件系统，如 /dev/shm
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPLoadTest
+{
+    
+    /** 参数 */
+    private final Map<String ,String>       params;
+    
+    /** 文件大小的分布。Map.key 为累加的权重，Map.value 为文件大小（单位：Byte） */
+    private final TreeMap<Integer ,Integer> sizes;
+    
+    /** 权重的总和 */
+    private int                             sizeWeight;
+    
+    /** 按 "操作 文件大小" 分别统计 */
+    private final Map<String ,Stat>         stats;
+    
+    
+    
+    public FTPLoadTest(Map<String ,String> i_Params)
+    {
+        this.params = i_Params;
+        this.sizes  = new TreeMap<Integer ,Integer>();
+        this.stats  = new ConcurrentHashMap<String ,Stat>();
+        
+        for (String v_Item : this.getParam("sizes" ,"4K:50,256K:35,4M:15").split(","))
+        {
+            String [] v_SizeWeight = v_Item.trim().split(":");
+            
+            this.sizeWeight += v_SizeWeight.length >= 2 ? Integer.parseInt(v_SizeWeight[1].trim()) : 1;
+            this.sizes.put(this.sizeWeight ,toSize(v_SizeWeight[0].trim()));
+        }
+    }
+    
+    
+    
+    public static void main(String [] i_Args) throws Exception
+    {
+        Map<String ,String> v_Params = new HashMap<String ,String>();
+        
+        for (String v_Arg : i_Args)
+        {
+            int v_Index = v_Arg.indexOf('=');
+            
+            if ( v_Index > 0 )
+            {
+                v_Params.put(v_Arg.substring(0 ,v_Index).trim() ,v_Arg.substring(v_Index + 1).trim());
+            }
+        }
+        
+        new FTPLoadTest(v_Params).run();
+        System.exit(0);
+    }
+    
+    
+    
+    /**
+     * 执行压力测试并输出报告
+     *
+     * @throws Exception
+     */
+    public void run() throws Exception
+    {
+        int     v_Clients  = Integer.parseInt(this.getParam("clients"  ,"200"));
+        long    v_Duration = Long.parseLong(  this.getParam("duration" ,"30"));
+        long    v_Warmup   = Long.parseLong(  this.getParam("warmup"   ,"5"));
+        int     v_Upload   = Integer.parseInt(this.getParam("upload"   ,"50"));
+        boolean v_DataSafe = Boolean.parseBoolean(this.getParam("dataSafe" ,"false"));
+        boolean v_IsPool   = Boolean.parseBoolean(this.getParam("pool"     ,"false"));
+        
+        String            v_Dir     = this.getParam("dir" ,System.getProperty("java.io.tmpdir"));
+        File              v_TempDir = Files.createTempDirectory(new File(v_Dir).toPath() ,"hy.common.ftp.load").toFile();
+        LoopbackFTPServer v_Server  = new LoopbackFTPServer(new File(v_TempDir ,"root"));
+        FTPInfo           v_FTPInfo = new FTPInfo(v_Server.getIp() ,v_Server.getPort() ,"load" ,"load");
+        FTPConnectionPool v_Pool    = v_IsPool ? new FTPConnectionPool() : null;
+        ExecutorService   v_Workers = Executors.newFixedThreadPool(v_Clients);
+        
+        v_FTPInfo.setZeroCopy(Boolean.parseBoolean(this.getParam("zeroCopy" ,"true")));
+        if ( v_Pool != null )
+        {
+            v_Pool.setMaxTotal(v_Clients);
+            v_Pool.setMaxIdle( v_Clients);
+        }
+        
+        try
+        {
+            this.prepare(v_TempDir ,v_FTPInfo);
+            
+            System.out.println("clients=" + v_Clients + " duration=" + v_Duration + "s warmup=" + v_Warmup + "s upload=" + v_Upload
+                             + "% sizes=" + this.getParam("sizes" ,"4K:50,256K:35,4M:15") + " dataSafe=" + v_DataSafe + " pool=" + v_IsPool + " dir=" + v_Dir);
+            
+            long           v_Begin   = System.nanoTime();
+            long           v_Measure = v_Begin + TimeUnit.SECONDS.toNanos(v_Warmup);
+            long           v_End     = v_Measure + TimeUnit.SECONDS.toNanos(v_Duration);
+            CountDownLatch v_Done    = new CountDownLatch(v_Clients);
+            
+            for (int v_ClientNo=0; v_ClientNo<v_Clients; v_ClientNo++)
+            {
+                final int v_No = v_ClientNo;
+                
+                v_Workers.execute(() ->
+                {
+                    try
+                    {
+                        this.client(v_No ,v_TempDir ,v_FTPInfo ,v_Pool ,v_DataSafe ,v_Upload ,v_Measure ,v_End);
+                    }
+                    finally
+                    {
+                        v_Done.countDown();
+                    }
+                });
+            }
+            
+            v_Done.await();
+            this.report(Math.max(System.nanoTime() ,v_End) - v_Measure);
+        }
+        finally
+        {
+            v_Workers.shutdownNow();
+            if ( v_Pool != null )
+            {
+                v_Pool.close();
+            }
+            v_Server.close();
+            FTPTransferBenchmark.delete(v_TempDir);
+        }
+    }
+    
+    
+    
+    /**
+     * 生成每种大小的本地文件，并上传一份用于下载
+     *
+     * @param i_TempDir
+     * @param i_FTPInfo
+     * @throws IOException
+     */
+    private void prepare(File i_TempDir ,FTPInfo i_FTPInfo) throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp(i_FTPInfo);
+        
+        FTPTransferBenchmark.check(v_FTPHelp.connect());
+        
+        try
+        {
+            for (Integer v_Size : this.sizes.values())
+            {
+                byte [] v_Data = new byte[v_Size];
+                File    v_File = new File(i_TempDir ,"local_" + v_Size + ".bin");
+                
+                new Random(v_Size).nextBytes(v_Data);
+                Files.write(v_File.toPath() ,v_Data);
+                
+                FTPTransferBenchmark.check(v_FTPHelp.upload(v_File.getAbsolutePath() ,"/load/download_" + v_Size + ".bin"));
+            }
+        }
+        finally
+        {
+            v_FTPHelp.close();
+        }
+    }
+    
+    
+    
+    /**
+     * 一个客户端：持续随机地上传或下载，直到测量结束
+     */
+    private void client(int i_ClientNo ,File i_TempDir ,FTPInfo i_FTPInfo ,FTPConnectionPool i_Pool ,boolean i_DataSafe ,int i_Upload ,long i_Measure ,long i_End)
+    {
+        Random  v_Random   = new Random(i_ClientNo);
+        File    v_SaveFile = new File(i_TempDir ,"save_" + i_ClientNo + ".bin");
+        FTPHelp v_FTPHelp  = new FTPHelp(i_FTPInfo ,i_Pool);
+        
+        v_FTPHelp.setDataSafe(i_DataSafe);
+        
+        try
+        {
+            if ( i_Pool == null )
+            {
+                this.record("connect" ,0 ,System.nanoTime() ,Long.MIN_VALUE ,v_FTPHelp.connect());
+            }
+            
+            long v_Now = System.nanoTime();
+            while ( v_Now < i_End )
+            {
+                int     v_Size     = this.nextSize(v_Random);
+                boolean v_IsUpload = v_Random.nextInt(100) < i_Upload;
+                String  v_Error    = null;
+                
+                if ( i_Pool != null )
+                {
+                    v_Error = v_FTPHelp.connect();
+                }
+                
+                if ( v_Error == null )
+                {
+                    if ( v_IsUpload )
+                    {
+                        v_Error = v_FTPHelp.upload(new File(i_TempDir ,"local_" + v_Size + ".bin").getAbsolutePath()
+                                                  ,"/load/c" + i_ClientNo + "/upload_" + v_Size + ".bin");
+                    }
+                    else
+                    {
+                        v_Error = v_FTPHelp.download("/load/download_" + v_Size + ".bin" ,v_SaveFile.getAbsolutePath());
+                    }
+                }
+                
+                if ( i_Pool != null )
+                {
+                    v_FTPHelp.close();
+                }
+                
+                this.record(v_IsUpload ? "upload" : "download" ,v_Size ,v_Now ,i_Measure ,v_Error);
+                v_Now = System.nanoTime();
+            }
+        }
+        finally
+        {
+            v_FTPHelp.close();
+        }
+    }
+    
+    
+    
+    /**
+     * 记录一次操作。预热期间开始的操作不统计
+     * 
+     * @param i_Operation  操作
+     * @param i_Size       文件大小。为0时表示与文件无关的操作（如建立连接）
+     * @param i_Begin      操作开始的时间（单位：纳秒）
+     * @param i_Measure    测量开始的时间（单位：纳秒）。建立连接总在预热期间，为 Long.MIN_VALUE 表示总是统计
+     * @param i_Error      异常信息。成功时为 null
+     */
+    private void record(String i_Operation ,int i_Size ,long i_Begin ,long i_Measure ,String i_Error)
+    {
+        long v_Nanos = System.nanoTime() - i_Begin;
+        
+        if ( i_Begin < i_Measure )
+        {
+            return;
+        }
+        
+        Stat v_Stat = this.stats.computeIfAbsent(i_Size > 0 ? i_Operation + " " + toSizeName(i_Size) : i_Operation ,k -> new Stat());
+        
+        if ( i_Error == null )
+        {
+            v_Stat.latency.record(v_Nanos);
+            v_Stat.bytes.add(i_Size);
+        }
+        else
+        {
+            v_Stat.errors.increment();
+            v_Stat.lastError = i_Error;
+        }
+    }
+    
+    
+    
+    /**
+     * 输出报告
+     *
+     * @param i_Nanos  测量时长（单位：纳秒）
+     */
+    private void report(long i_Nanos)
+    {
+        double v_Seconds = i_Nanos / 1000000000D;
+        long   v_Ops     = 0;
+        long   v_Bytes   = 0;
+        long   v_Errors  = 0;
+        
+        System.out.println();
+        System.out.println(String.format("%-18s %9s %7s %10s %10s %10s %10s %10s %10s"
+                                        ,"operation" ,"ops" ,"errors" ,"ops/s" ,"MB/s" ,"p50(ms)" ,"p99(ms)" ,"p999(ms)" ,"max(ms)"));
+        
+        for (Map.Entry<String ,Stat> v_Item : new TreeMap<String ,Stat>(this.stats).entrySet())
+        {
+            Stat v_Stat  = v_Item.getValue();
+            long v_Count = v_Stat.latency.getCount();
+            
+            System.out.println(String.format("%-18s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f"
+                                            ,v_Item.getKey()
+                                            ,v_Count
+                                            ,v_Stat.errors.sum()
+                                            ,v_Count / v_Seconds
+                                            ,v_Stat.bytes.sum() / v_Seconds / 1024 / 1024
+                                            ,v_Stat.latency.getP50Millis()
+                                            ,v_Stat.latency.getP99Millis()
+                                            ,v_Stat.latency.getP999Millis()
+                                            ,v_Stat.latency.getMaxMillis()));
+            
+            v_Ops    += v_Count;
+            v_Bytes  += v_Stat.bytes.sum();
+            v_Errors += v_Stat.errors.sum();
+        }
+        
+        System.out.println(String.format("%-18s %9d %7d %10.1f %10.2f" ,"total" ,v_Ops ,v_Errors ,v_Ops / v_Seconds ,v_Bytes / v_Seconds / 1024 / 1024));
+        
+        for (Map.Entry<String ,Stat> v_Item : this.stats.entrySet())
+        {
+            if ( v_Item.getValue().lastError != null )
+            {
+                System.out.println("last error of " + v_Item.getKey() + ": " + v_Item.getValue().lastError);
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 按权重随机选取文件大小
+     *
+     * @param i_Random
+     * @return
+     */
+    private int nextSize(Random i_Random)
+    {
+        return this.sizes.higherEntry(i_Random.nextInt(this.sizeWeight)).getValue();
+    }
+    
+    
+    
+    private String getParam(String i_Name ,String i_Default)
+    {
+        String v_Value = this.params.get(i_Name);
+        
+        return v_Value == null || v_Value.isEmpty() ? i_Default : v_Value;
+    }
+    
+    
+    
+    /**
+     * 解析文件大小。可用 K、M 后缀
+     *
+     * @param i_Size
+     * @return
+     */
+    private static int toSize(String i_Size)
+    {
+        String v_Size = i_Size.toUpperCase();
+        
+        if ( v_Size.endsWith("M") )
+        {
+            return Integer.parseInt(v_Size.substring(0 ,v_Size.length() - 1)) * 1024 * 1024;
+        }
+        else if ( v_Size.endsWith("K") )
+        {
+            return Integer.parseInt(v_Size.substring(0 ,v_Size.length() - 1)) * 1024;
+        }
+        else
+        {
+            return Integer.parseInt(v_Size);
+        }
+    }
+    
+    
+    
+    private static String toSizeName(int i_Size)
+    {
+        if ( i_Size >= 1024 * 1024 && i_Size % (1024 * 1024) == 0 )
+        {
+            return (i_Size / 1024 / 1024) + "M";
+        }
+        else if ( i_Size >= 1024 && i_Size % 1024 == 0 )
+        {
+            return (i_Size / 1024) + "K";
+        }
+        else
+        {
+            return String.valueOf(i_Size);
+        }
+    }
+    
+    
+    
+    
+    
+    /**
+     * 一种操作的统计
+     */
+    private static class Stat
+    {
+        /** 成功操作的耗时 */
+        private final FTPLatency latency = new FTPLatency();
+        
+        /** 成功操作的传输大小 */
+        private final LongAdder  bytes   = new LongAdder();
+        
+        /** 失败的次数 */
+        private final LongAdder  errors  = new LongAdder();
+        
+        /** 最后一次失败的异常信息 */
+        private volatile String  lastError;
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.hy.common.ftp.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPInfo;
+import org.hy.common.ftp.junit.LoopbackFTPServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+
+
+
+/**
+ * 创建多级目录（FTPHelp.makeDirectory()）的基准测试。
+ *
+ * 每次调用都创建一个新的目录树（首级目录的名称递增），即每级目录都须真正创建。
+ *
+ * 参数：
+ *   depth  目录的级数
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3 ,time = 2)
+@Measurement(iterations = 5 ,time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FTPMakeDirectoryBenchmark
+{
+    
+    @Param({"1" ,"4" ,"16"})
+    public int                 depth;
+    
+    
+    
+    /** 临时目录（FTP服务的根目录） */
+    private File               tempDir;
+    
+    private LoopbackFTPServer  server;
+    
+    private FTPHelp            ftpHelp;
+    
+    /** 首级目录的序号 */
+    private long               serialNo;
+    
+    /** 首级目录之后的各级目录 */
+    private String             subDirs;
+    
+    
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        this.tempDir  = Files.createTempDirectory("hy.common.ftp.benchmark").toFile();
+        this.server   = new LoopbackFTPServer(this.tempDir);
+        this.ftpHelp  = new FTPHelp(new FTPInfo(this.server.getIp() ,this.server.getPort() ,"bench" ,"bench"));
+        this.serialNo = 0;
+        
+        StringBuilder v_SubDirs = new StringBuilder();
+        for (int x=1; x<this.depth; x++)
+        {
+            v_SubDirs.append("/d").append(x);
+        }
+        this.subDirs = v_SubDirs.toString();
+        
+        FTPTransferBenchmark.check(this.ftpHelp.connect());
+    }
+    
+    
+    
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        this.ftpHelp.close();
+        this.server.close();
+        
+        FTPTransferBenchmark.delete(this.tempDir);
+    }
+    
+    
+    
+    /**
+     * 创建多级目录
+     *
+     * @return  返回值防止被 JIT 优化掉
+     */
+    @Benchmark
+    public int makeDirectory()
+    {
+        return this.ftpHelp.makeDirectory("/mkd" + (++this.serialNo) + this.subDirs);
+    }
+
+}
@@ -0,0 +1,249 @@
+package org.hy.common.ftp.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPInfo;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.hy.common.ftp.junit.LoopbackFTPServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+
+
+
+/**
+ * 上传及下载的拷贝循环的基准测试。
+ *
+ * 连接进程内的本机回环FTP服务，测量 FTPHelp 的数据拷贝本身（网络的影响降到最低）。
+ * 关闭零拷贝（FTPInfo.setZeroCopy(false)），即测量的是数据流的拷贝循环。
+ *
+ * 参数：
+ *   bufferSize     传输时每次拷贝的缓存大小（FTPInfo.setTransferBufferSize()）
+ *   dataSafe       数据安全性（加密）
+ *   listenerCount  注册的空事件监听器的数量，测量触发传输中事件的开销
+ *   fileSize       文件的大小
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3 ,time = 2)
+@Measurement(iterations = 5 ,time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FTPTransferBenchmark
+{
+    
+    private static final String $RemoteUpload   = "/bench/upload.bin";
+    
+    private static final String $RemoteDownload = "/bench/download.bin";
+    
+    
+    
+    @Param({"4096" ,"65536" ,"262144"})
+    public int                 bufferSize;
+    
+    @Param({"false" ,"true"})
+    public boolean             dataSafe;
+    
+    @Param({"0" ,"1" ,"8"})
+    public int                 listenerCount;
+    
+    @Param({"4194304"})
+    public int                 fileSize;
+    
+    
+    
+    /** 临时目录（FTP服务的根目录及本地文件） */
+    private File               tempDir;
+    
+    private LoopbackFTPServer  server;
+    
+    private FTPHelp            ftpHelp;
+    
+    /** 上传的本地文件 */
+    private File               localFile;
+    
+    /** 下载保存的本地文件 */
+    private File               saveFile;
+    
+    
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        this.tempDir   = Files.createTempDirectory("hy.common.ftp.benchmark").toFile();
+        this.server    = new LoopbackFTPServer(new File(this.tempDir ,"root"));
+        this.localFile = new File(this.tempDir ,"local.bin");
+        this.saveFile  = new File(this.tempDir ,"save.bin");
+        
+        byte [] v_Data = new byte[this.fileSize];
+        new Random(this.fileSize).nextBytes(v_Data);
+        Files.write(this.localFile.toPath() ,v_Data);
+        
+        FTPInfo v_FTPInfo = new FTPInfo(this.server.getIp() ,this.server.getPort() ,"bench" ,"bench");
+        v_FTPInfo.setZeroCopy(false);
+        v_FTPInfo.setTransferBufferSize(this.bufferSize);
+        
+        this.ftpHelp = new FTPHelp(v_FTPInfo);
+        this.ftpHelp.setDataSafe(this.dataSafe);
+        for (int x=0; x<this.listenerCount; x++)
+        {
+            this.ftpHelp.addFTPListener(new NoopListener());
+        }
+        
+        check(this.ftpHelp.connect());
+        check(this.ftpHelp.upload(this.localFile.getAbsolutePath() ,$RemoteDownload));
+    }
+    
+    
+    
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        this.ftpHelp.close();
+        this.server.close();
+        
+        delete(this.tempDir);
+    }
+    
+    
+    
+    /**
+     * 上传文件（FTPHelp.upload(String ,String)）
+     */
+    @Benchmark
+    public void upload()
+    {
+        check(this.ftpHelp.upload(this.localFile.getAbsolutePath() ,$RemoteUpload));
+    }
+    
+    
+    
+    /**
+     * 下载文件（FTPHelp.download(String ,String)）
+     */
+    @Benchmark
+    public void download()
+    {
+        check(this.ftpHelp.download($RemoteDownload ,this.saveFile.getAbsolutePath()));
+    }
+    
+    
+    
+    /**
+     * 下载文件内容的十六进制字符串（FTPHelp.download(String)）
+     *
+     * @return  返回值防止被 JIT 优化掉
+     */
+    @Benchmark
+    public int downloadHex()
+    {
+        return this.ftpHelp.download($RemoteDownload).length();
+    }
+    
+    
+    
+    /**
+     * 下载文件的字节内容（FTPHelp.downloadBytes()），与十六进制字符串的方式做对比
+     *
+     * @return  返回值防止被 JIT 优化掉
+     */
+    @Benchmark
+    public int downloadBytes()
+    {
+        return this.ftpHelp.downloadBytes($RemoteDownload).length;
+    }
+    
+    
+    
+    /**
+     * 传输失败时中止基准测试，防止测量的是失败的快速返回
+     *
+     * @param i_Error
+     */
+    static void check(String i_Error)
+    {
+        if ( i_Error != null )
+        {
+            throw new IllegalStateException(i_Error);
+        }
+    }
+    
+    
+    
+    /**
+     * 删除目录及其下的所有文件
+     *
+     * @param i_File
+     */
+    static void delete(File i_File)
+    {
+        File [] v_Children = i_File.listFiles();
+        
+        if ( v_Children != null )
+        {
+            for (File v_Child : v_Children)
+            {
+                delete(v_Child);
+            }
+        }
+        
+        i_File.delete();
+    }
+    
+    
+    
+    
+    
+    /**
+     * 空的事件监听器
+     */
+    private static class NoopListener implements FTPListener
+    {
+        
+        @Override
+        public boolean ftpBefore(FTPEvent e)
+        {
+            return true;
+        }
+        
+        
+        
+        @Override
+        public boolean ftpProcess(FTPEvent e)
+        {
+            return e.getCompletedSize() >= 0;
+        }
+        
+        
+        
+        @Override
+        public void ftpAfter(FTPEvent e)
+        {
+            // Nothing.
+        }
+    
+    }
+
+}
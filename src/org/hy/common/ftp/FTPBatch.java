@@ -0,0 +1,562 @@
+package org.hy.common.ftp;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hy.common.Date;
+import org.hy.common.ftp.event.DefaultFTPEvent;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.hy.common.ftp.transform.TransferTransform;
+
+
+
+
+
+/**
+ * 批量传输文件。
+ *
+ * 用有限数量（concurrency）的并发连接，批量上传或下载大量文件。每个工作线程独占一个 FTPHelp 连接，
+ * 依次领取待传输的文件，直到全部完成。
+ *
+ * 1. addFTPListener()   注册的监听器，收到每个文件的传输事件（与 FTPHelp 的事件相同）
+ * 2. addBatchListener() 注册的监听器，收到批量汇总的事件。事件源为本对象，每完成一个文件触发一次 ftpProcess()，
+ *                       返回 false 时不再传输尚未开始的文件
+ *
+ * 注：监听器会被多个工作线程同时调用，须是线程安全的。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPBatch
+{
+    
+    private FTPInfo                        ftpInfo;
+    
+    /** FTP连接池。为 null 时，每个工作线程新建自己的连接 */
+    private FTPConnectionPool              ftpPool;
+    
+    /** 并发的连接数量 */
+    private int                            concurrency;
+    
+    /** 数据安全性。如果为真，将对上传的文件进行数据加密 */
+    private boolean                        dataSafe;
+    
+    /** 传输时压缩（见 FTPHelp.setCompress()） */
+    private boolean                        compress;
+    
+    /** 传输时计算校验值的类型（见 FTPHelp.setChecksumType()） */
+    private String                         checksumType;
+    
+    /** 上传前，与服务端的文件比较，一致时不再上传（见 FTPHelp.setSkipIfIdentical()） */
+    private boolean                        skipIfIdentical;
+    
+    /** 两次传输中事件间已完成大小的下限（见 FTPHelp.setProcessSize()） */
+    private long                           processSize;
+    
+    /** 两次传输中事件间时长的下限（见 FTPHelp.setProcessInterval()） */
+    private long                           processInterval;
+    
+    /** 传输中事件是否异步分发（见 FTPHelp.setProcessAsync()） */
+    private boolean                        processAsync;
+    
+    /** 传输数据的变换链（每个工作线程的连接共用） */
+    private Collection<TransferTransform>  transforms;
+    
+    /** 每个文件的事件监听器 */
+    private Collection<FTPListener>        ftpListeners;
+    
+    /** 批量汇总的事件监听器 */
+    private Collection<FTPListener>        batchListeners;
+    
+    
+    
+    /**
+     * 构造器
+     *
+     * @param i_FTPInfo
+     * @param i_Concurrency  并发的连接数量
+     */
+    public FTPBatch(FTPInfo i_FTPInfo ,int i_Concurrency)
+    {
+        this(i_FTPInfo ,i_Concurrency ,null);
+    }
+    
+    
+    
+    /**
+     * 构造器
+     *
+     * @param i_FTPInfo
+     * @param i_Concurrency  并发的连接数量
+     * @param i_FTPPool      FTP连接池。批量传输结束后，连接归还给连接池，供下次复用
+     */
+    public FTPBatch(FTPInfo i_FTPInfo ,int i_Concurrency ,FTPConnectionPool i_FTPPool)
+    {
+        this.ftpInfo         = i_FTPInfo;
+        this.ftpPool         = i_FTPPool;
+        this.concurrency     = Math.max(i_Concurrency ,1);
+        this.dataSafe        = false;
+        this.compress        = false;
+        this.checksumType    = null;
+        this.skipIfIdentical = false;
+        this.processSize     = 0;
+        this.processInterval = 0;
+        this.processAsync    = false;
+        this.transforms      = new CopyOnWriteArrayList<TransferTransform>();
+        this.ftpListeners    = new CopyOnWriteArraySet<FTPListener>();
+        this.batchListeners  = new CopyOnWriteArraySet<FTPListener>();
+    }
+    
+    
+    
+    /**
+     * 批量上传文件
+     *
+     * @param i_Files  Map.key 为本地文件的全路径，Map.value 为远程文件的全路径
+     * @return
+     */
+    public FTPBatchResult uploadAll(Map<String ,String> i_Files)
+    {
+        List<FTPTransferResult> v_Tasks     = new ArrayList<FTPTransferResult>(i_Files.size());
+        long                    v_TotalSize = 0;
+        
+        for (Map.Entry<String ,String> v_Item : i_Files.entrySet())
+        {
+            v_Tasks.add(new FTPTransferResult(1 ,v_Item.getKey() ,v_Item.getValue()));
+            v_TotalSize += new File(v_Item.getKey()).length();
+        }
+        
+        return this.execute(v_Tasks ,v_TotalSize ,1);
+    }
+    
+    
+    
+    /**
+     * 批量下载文件
+     *
+     * @param i_Files  Map.key 为远程文件的全路径，Map.value 为保存文件的全路径(下载路径)
+     * @return
+     */
+    public FTPBatchResult downloadAll(Map<String ,String> i_Files)
+    {
+        List<FTPTransferResult> v_Tasks = new ArrayList<FTPTransferResult>(i_Files.size());
+        
+        for (Map.Entry<String ,String> v_Item : i_Files.entrySet())
+        {
+            v_Tasks.add(new FTPTransferResult(2 ,v_Item.getValue() ,v_Item.getKey()));
+        }
+        
+        // 下载前不逐个查询远程文件的大小，汇总事件的总大小为0，只累计已完成的大小
+        return this.execute(v_Tasks ,0 ,2);
+    }
+    
+    
+    
+    /**
+     * 用 concurrency 个工作线程执行批量传输
+     *
+     * 本线程被中断时不再等待，中断工作线程后即返回。正在传输的文件的结果由其工作线程稍后记录
+     *
+     * @param io_Tasks      待传输的文件。执行后即为每个文件的传输结果
+     * @param i_TotalSize   总大小
+     * @param i_ActionType  1. 上传动作；2. 下载动作
+     * @return
+     */
+    private FTPBatchResult execute(List<FTPTransferResult> io_Tasks ,long i_TotalSize ,int i_ActionType)
+    {
+        Date            v_BeginTime    = new Date();
+        DefaultFTPEvent v_BatchEvent   = new DefaultFTPEvent(this ,i_TotalSize);
+        AtomicInteger   v_NextIndex    = new AtomicInteger(0);
+        AtomicBoolean   v_IsContinue   = new AtomicBoolean(true);
+        long []         v_CompleteSize = {0};
+        ReentrantLock   v_EventLock    = new ReentrantLock();
+        int             v_WorkerCount  = Math.min(this.concurrency ,io_Tasks.size());
+        
+        v_BatchEvent.setActionType(i_ActionType);
+        v_IsContinue.set(this.notifyBatchBefore(v_BatchEvent));
+        
+        if ( v_WorkerCount > 0 && v_IsContinue.get() )
+        {
+            ExecutorService v_Executor = FTPExecutors.getInstance().newExecutor("FTPBatch-Worker" ,v_WorkerCount);
+            
+            for (int v_WorkerNo=0; v_WorkerNo<v_WorkerCount; v_WorkerNo++)
+            {
+                v_Executor.execute(() ->
+                {
+                    FTPHelp v_FTPHelp = this.newFTPHelp();
+                    String  v_Connect = v_FTPHelp.connect();
+                    int     v_Index   = 0;
+                    
+                    try
+                    {
+                        while ( v_IsContinue.get() && (v_Index = v_NextIndex.getAndIncrement()) < io_Tasks.size() )
+                        {
+                            FTPTransferResult v_Task = io_Tasks.get(v_Index);
+                            
+                            this.transfer(v_FTPHelp ,v_Connect ,v_Task);
+                            
+                            if ( !v_Task.isSucceed() )
+                            {
+                                // 连接可能已异常，重新连接后再传输下一个文件
+                                v_FTPHelp.close();
+                                v_Connect = v_FTPHelp.connect();
+                            }
+                            
+                            // 监听器可能有I/O，用 ReentrantLock 而非 synchronized，虚拟线程阻塞时不会被固定在平台线程上
+                            v_EventLock.lock();
+                            try
+                            {
+                                // 与 FTPBatchResult.getTotalSize() 一致，只累计成功的文件，失败文件的大小并未传输
+                                if ( v_Task.isSucceed() )
+                                {
+                                    v_CompleteSize[0] += v_Task.getSize();
+                                }
+                                v_BatchEvent.setCompleteSize(v_CompleteSize[0]);
+                                
+                                if ( !this.notifyBatchProcess(v_BatchEvent) )
+                                {
+                                    v_IsContinue.set(false);
+                                }
+                            }
+                            finally
+                            {
+                                v_EventLock.unlock();
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        v_FTPHelp.close();
+                    }
+                });
+            }
+            
+            v_Executor.shutdown();
+            
+            try
+            {
+                v_Executor.awaitTermination(Long.MAX_VALUE ,TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException exce)
+            {
+                // 不再等待。正在传输的文件仍由工作线程记录其结果，本线程不能改写
+                v_IsContinue.set(false);
+                v_Executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        // 取走还未被工作线程取走的文件，标记为已取消。已取走的文件由工作线程记录其结果
+        int v_Index = 0;
+        while ( (v_Index = v_NextIndex.getAndIncrement()) < io_Tasks.size() )
+        {
+            io_Tasks.get(v_Index).finish(0 ,"Batch is canceled.");
+        }
+        
+        if ( v_IsContinue.get() )
+        {
+            v_BatchEvent.setSucceedFinish();
+        }
+        else
+        {
+            v_BatchEvent.setEndTime();
+        }
+        this.notifyBatchAfter(v_BatchEvent);
+        
+        return new FTPBatchResult(io_Tasks ,v_BeginTime);
+    }
+    
+    
+    
+    /**
+     * 传输一个文件
+     *
+     * @param i_FTPHelp  工作线程的连接
+     * @param i_Connect  连接的结果。为 null 时表示连接成功
+     * @param io_Task
+     */
+    private void transfer(FTPHelp i_FTPHelp ,String i_Connect ,FTPTransferResult io_Task)
+    {
+        io_Task.begin();
+        
+        if ( i_Connect != null )
+        {
+            io_Task.finish(0 ,i_Connect);
+            return;
+        }
+        
+        if ( io_Task.getActionType() == 1 )
+        {
+            File   v_File  = new File(io_Task.getLocalFullName());
+            String v_Error = i_FTPHelp.upload(io_Task.getLocalFullName() ,io_Task.getRemoteFullName());
+            
+            io_Task.finish(v_File.length() ,v_Error);
+        }
+        else
+        {
+            String v_Error = i_FTPHelp.download(io_Task.getRemoteFullName() ,io_Task.getLocalFullName());
+            
+            io_Task.finish(new File(io_Task.getLocalFullName()).length() ,v_Error);
+        }
+    }
+    
+    
+    
+    /**
+     * 新建工作线程的连接，并注册每个文件的事件监听器
+     *
+     * @return
+     */
+    private FTPHelp newFTPHelp()
+    {
+        FTPHelp v_FTPHelp = new FTPHelp(this.ftpInfo ,this.ftpPool);
+        
+        v_FTPHelp.setDataSafe(this.dataSafe);
+        v_FTPHelp.setCompress(this.compress);
+        v_FTPHelp.setChecksumType(this.checksumType);
+        v_FTPHelp.setSkipIfIdentical(this.skipIfIdentical);
+        v_FTPHelp.setProcessSize(this.processSize);
+        v_FTPHelp.setProcessInterval(this.processInterval);
+        v_FTPHelp.setProcessAsync(this.processAsync);
+        
+        for (TransferTransform v_Transform : this.transforms)
+        {
+            v_FTPHelp.addTransform(v_Transform);
+        }
+        
+        for (FTPListener v_Listener : this.ftpListeners)
+        {
+            v_FTPHelp.addFTPListener(v_Listener);
+        }
+        
+        return v_FTPHelp;
+    }
+    
+    
+    
+    /**
+     * 添加传输数据的变换（见 FTPHelp.addTransform()）
+     *
+     * @param i_Transform
+     */
+    public void addTransform(TransferTransform i_Transform)
+    {
+        this.transforms.add(i_Transform);
+    }
+    
+    
+    
+    /**
+     * 注册每个文件的事件监听器
+     *
+     * @param e
+     */
+    public void addFTPListener(FTPListener e)
+    {
+        this.ftpListeners.add(e);
+    }
+    
+    
+    
+    /**
+     * 移除每个文件的事件监听器
+     *
+     * @param e
+     */
+    public void removeFTPListener(FTPListener e)
+    {
+        this.ftpListeners.remove(e);
+    }
+    
+    
+    
+    /**
+     * 注册批量汇总的事件监听器
+     *
+     * @param e
+     */
+    public void addBatchListener(FTPListener e)
+    {
+        this.batchListeners.add(e);
+    }
+    
+    
+    
+    /**
+     * 移除批量汇总的事件监听器
+     *
+     * @param e
+     */
+    public void removeBatchListener(FTPListener e)
+    {
+        this.batchListeners.remove(e);
+    }
+    
+    
+    
+    private boolean notifyBatchBefore(FTPEvent i_Event)
+    {
+        Iterator<FTPListener> v_Iter       = this.batchListeners.iterator();
+        boolean               v_IsContinue = true;
+        
+        while ( v_IsContinue && v_Iter.hasNext() )
+        {
+            v_IsContinue = v_Iter.next().ftpBefore(i_Event);
+        }
+        
+        return v_IsContinue;
+    }
+    
+    
+    
+    private boolean notifyBatchProcess(FTPEvent i_Event)
+    {
+        Iterator<FTPListener> v_Iter       = this.batchListeners.iterator();
+        boolean               v_IsContinue = true;
+        
+        while ( v_IsContinue && v_Iter.hasNext() )
+        {
+            v_IsContinue = v_Iter.next().ftpProcess(i_Event);
+        }
+        
+        return v_IsContinue;
+    }
+    
+    
+    
+    private void notifyBatchAfter(FTPEvent i_Event)
+    {
+        Iterator<FTPListener> v_Iter = this.batchListeners.iterator();
+        
+        while ( v_Iter.hasNext() )
+        {
+            v_Iter.next().ftpAfter(i_Event);
+        }
+    }
+    
+    
+    
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+    
+    
+    
+    public void setConcurrency(int concurrency)
+    {
+        this.concurrency = Math.max(concurrency ,1);
+    }
+    
+    
+    
+    public boolean isDataSafe()
+    {
+        return dataSafe;
+    }
+    
+    
+    
+    public void setDataSafe(boolean dataSafe)
+    {
+        this.dataSafe = dataSafe;
+    }
+    
+    
+    
+    public boolean isCompress()
+    {
+        return compress;
+    }
+    
+    
+    
+    public void setCompress(boolean compress)
+    {
+        this.compress = compress;
+    }
+    
+    
+    
+    public String getChecksumType()
+    {
+        return checksumType;
+    }
+    
+    
+    
+    public void setChecksumType(String checksumType)
+    {
+        this.checksumType = checksumType;
+    }
+    
+    
+    
+    public boolean isSkipIfIdentical()
+    {
+        return skipIfIdentical;
+    }
+    
+    
+    
+    public void setSkipIfIdentical(boolean skipIfIdentical)
+    {
+        this.skipIfIdentical = skipIfIdentical;
+    }
+
+    
+    
+    public long getProcessSize()
+    {
+        return processSize;
+    }
+    
+    
+    
+    public void setProcessSize(long processSize)
+    {
+        this.processSize = processSize;
+    }
+    
+    
+    
+    public long getProcessInterval()
+    {
+        return processInterval;
+    }
+    
+    
+    
+    public void setProcessInterval(long processInterval)
+    {
+        this.processInterval = processInterval;
+    }
+    
+    
+    
+    public boolean isProcessAsync()
+    {
+        return processAsync;
+    }
+    
+    
+    
+    public void setProcessAsync(boolean processAsync)
+    {
+        this.processAsync = processAsync;
+    }
+
+}
@@ -0,0 +1,159 @@
+package org.hy.common.ftp;
+
+import java.util.List;
+
+import org.hy.common.Date;
+
+
+
+
+
+/**
+ * 批量传输的结果
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPBatchResult
+{
+    
+    /** 每个文件的传输结果。顺序与入参的顺序一致 */
+    private List<FTPTransferResult> results;
+    
+    /** 开始时间 */
+    private Date                    beginTime;
+    
+    /** 结束时间 */
+    private Date                    endTime;
+    
+    
+    
+    public FTPBatchResult(List<FTPTransferResult> i_Results ,Date i_BeginTime)
+    {
+        this.results   = i_Results;
+        this.beginTime = i_BeginTime;
+        this.endTime   = new Date();
+    }
+    
+    
+    
+    /**
+     * 成功传输的文件数量
+     *
+     * @return
+     */
+    public int getSucceedCount()
+    {
+        int v_Count = 0;
+        
+        for (FTPTransferResult v_Result : this.results)
+        {
+            if ( v_Result.isSucceed() )
+            {
+                v_Count++;
+            }
+        }
+        
+        return v_Count;
+    }
+    
+    
+    
+    /**
+     * 失败（含未执行的）的文件数量
+     *
+     * @return
+     */
+    public int getFailCount()
+    {
+        return this.results.size() - this.getSucceedCount();
+    }
+    
+    
+    
+    /**
+     * 是否全部传输成功
+     *
+     * @return
+     */
+    public boolean isSucceed()
+    {
+        return this.getFailCount() == 0;
+    }
+    
+    
+    
+    /**
+     * 成功传输的总大小（单位：Byte）
+     *
+     * @return
+     */
+    public long getTotalSize()
+    {
+        long v_Size = 0;
+        
+        for (FTPTransferResult v_Result : this.results)
+        {
+            if ( v_Result.isSucceed() )
+            {
+                v_Size += v_Result.getSize();
+            }
+        }
+        
+        return v_Size;
+    }
+    
+    
+    
+    /**
+     * 批量传输的总用时（单位：毫秒）
+     *
+     * @return
+     */
+    public long getTimeLen()
+    {
+        return this.endTime.getTime() - this.beginTime.getTime();
+    }
+    
+    
+    
+    /**
+     * 总吞吐量（单位：Byte/秒）
+     *
+     * @return
+     */
+    public double getSpeed()
+    {
+        long v_TimeLen = this.getTimeLen();
+        
+        if ( v_TimeLen <= 0 )
+        {
+            return 0;
+        }
+        
+        return this.getTotalSize() * 1000D / v_TimeLen;
+    }
+    
+    
+    
+    public List<FTPTransferResult> getResults()
+    {
+        return results;
+    }
+    
+    
+    
+    public Date getBeginTime()
+    {
+        return beginTime;
+    }
+    
+    
+    
+    public Date getEndTime()
+    {
+        return endTime;
+    }
+
+}
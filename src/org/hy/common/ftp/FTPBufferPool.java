@@ -0,0 +1,198 @@
+package org.hy.common.ftp;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+
+
+/**
+ * 传输缓存的缓存池。
+ *
+ * 上传及下载时拷贝数据用的缓存，从本池中借出、用完后归还，传输过程中不再每次新建缓存。
+ * 按缓存大小分组，每组最多保留 maxCount 个空闲缓存，超出的归还时直接丢弃（由GC回收）。
+ *
+ * 1. 堆内缓存 byte[]：用于数据流（InputStream / OutputStream）的拷贝
+ * 2. 堆外缓存 ByteBuffer.allocateDirect()：用于文件通道（FileChannel）的读写，可省去JVM内部的一次拷贝
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPBufferPool
+{
+    
+    private static final FTPBufferPool $Instance = new FTPBufferPool();
+    
+    
+    
+    /** 每种大小的空闲缓存最多保留的数量 */
+    private int                                     maxCount;
+    
+    /** 堆内缓存。Map.key 为缓存大小 */
+    private final Map<Integer ,Bucket<byte []>>     heapBuffers;
+    
+    /** 堆外缓存。Map.key 为缓存大小 */
+    private final Map<Integer ,Bucket<ByteBuffer>>  directBuffers;
+    
+    
+    
+    /**
+     * 获取全局共享的缓存池
+     *
+     * @return
+     */
+    public static FTPBufferPool getInstance()
+    {
+        return $Instance;
+    }
+    
+    
+    
+    private FTPBufferPool()
+    {
+        this.maxCount      = 64;
+        this.heapBuffers   = new ConcurrentHashMap<Integer ,Bucket<byte []>>();
+        this.directBuffers = new ConcurrentHashMap<Integer ,Bucket<ByteBuffer>>();
+    }
+    
+    
+    
+    /**
+     * 借出堆内缓存
+     *
+     * @param i_Size  缓存大小
+     * @return
+     */
+    public byte [] borrow(int i_Size)
+    {
+        byte [] v_Buffer = this.heapBuffers.computeIfAbsent(i_Size ,k -> new Bucket<byte []>()).poll();
+        
+        return v_Buffer != null ? v_Buffer : new byte[i_Size];
+    }
+    
+    
+    
+    /**
+     * 归还堆内缓存
+     *
+     * @param i_Buffer
+     */
+    public void giveBack(byte [] i_Buffer)
+    {
+        if ( i_Buffer == null )
+        {
+            return;
+        }
+        
+        this.heapBuffers.computeIfAbsent(i_Buffer.length ,k -> new Bucket<byte []>()).offer(i_Buffer ,this.maxCount);
+    }
+    
+    
+    
+    /**
+     * 借出堆外缓存。借出时已 clear()
+     *
+     * @param i_Size  缓存大小
+     * @return
+     */
+    public ByteBuffer borrowDirect(int i_Size)
+    {
+        ByteBuffer v_Buffer = this.directBuffers.computeIfAbsent(i_Size ,k -> new Bucket<ByteBuffer>()).poll();
+        
+        if ( v_Buffer == null )
+        {
+            return ByteBuffer.allocateDirect(i_Size);
+        }
+        
+        v_Buffer.clear();
+        return v_Buffer;
+    }
+    
+    
+    
+    /**
+     * 归还堆外缓存
+     *
+     * @param i_Buffer
+     */
+    public void giveBack(ByteBuffer i_Buffer)
+    {
+        if ( i_Buffer == null || !i_Buffer.isDirect() )
+        {
+            return;
+        }
+        
+        this.directBuffers.computeIfAbsent(i_Buffer.capacity() ,k -> new Bucket<ByteBuffer>()).offer(i_Buffer ,this.maxCount);
+    }
+    
+    
+    
+    /**
+     * 获取：每种大小的空闲缓存最多保留的数量
+     */
+    public int getMaxCount()
+    {
+        return maxCount;
+    }
+    
+    
+    
+    /**
+     * 设置：每种大小的空闲缓存最多保留的数量
+     *
+     * @param maxCount
+     */
+    public void setMaxCount(int maxCount)
+    {
+        this.maxCount = maxCount;
+    }
+    
+    
+    
+    
+    
+    /**
+     * 同一大小的空闲缓存
+     */
+    private static class Bucket<T>
+    {
+        private final Queue<T>      buffers = new ConcurrentLinkedQueue<T>();
+        
+        private final AtomicInteger count   = new AtomicInteger(0);
+        
+        
+        
+        private T poll()
+        {
+            T v_Buffer = this.buffers.poll();
+            
+            if ( v_Buffer != null )
+            {
+                this.count.decrementAndGet();
+            }
+            
+            return v_Buffer;
+        }
+        
+        
+        
+        private void offer(T i_Buffer ,int i_MaxCount)
+        {
+            if ( this.count.incrementAndGet() <= i_MaxCount )
+            {
+                this.buffers.offer(i_Buffer);
+            }
+            else
+            {
+                this.count.decrementAndGet();
+            }
+        }
+    }
+
+}
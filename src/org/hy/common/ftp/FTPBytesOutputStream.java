@@ -0,0 +1,61 @@
+package org.hy.common.ftp;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+
+
+
+
+/**
+ * 按预估大小预分配内存的字节输出流。
+ *
+ * 写入的大小与预估的大小相同时，toByteArray() 直接返回内部数组，不再拷贝一次。
+ * toByteBuffer() 总是直接包装内部数组。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+class FTPBytesOutputStream extends ByteArrayOutputStream
+{
+    
+    /**
+     * 构造器
+     *
+     * @param i_Size  预估的大小。小于等于0时表示大小未知
+     */
+    public FTPBytesOutputStream(int i_Size)
+    {
+        super(i_Size > 0 ? i_Size : 32);
+    }
+    
+    
+    
+    /**
+     * 获取写入的字节内容。写满预分配的内存时，直接返回内部数组
+     */
+    @Override
+    public synchronized byte [] toByteArray()
+    {
+        if ( this.count == this.buf.length )
+        {
+            return this.buf;
+        }
+        
+        return super.toByteArray();
+    }
+    
+    
+    
+    /**
+     * 获取写入的字节内容（直接包装内部数组）
+     *
+     * @return  position 为 0，limit 为写入的大小
+     */
+    public synchronized ByteBuffer toByteBuffer()
+    {
+        return ByteBuffer.wrap(this.buf ,0 ,this.count);
+    }
+
+}
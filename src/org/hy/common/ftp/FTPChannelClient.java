@@ -0,0 +1,415 @@
+package org.hy.common.ftp;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import javax.net.ServerSocketFactory;
+import javax.net.SocketFactory;
+
+import org.apache.commons.net.ftp.FTPClient;
+
+
+
+
+
+/**
+ * 可直接打开数据连接的 FTPClient。
+ *
+ * 1. 数据连接的 Socket 由 SocketChannel 创建，Socket.getChannel() 不为 null，
+ *    可用 FileChannel.transferTo() 等零拷贝的方式在本地文件与数据连接间传输数据。
+ *    控制连接仍用普通的 Socket
+ * 2. 有代理时（setProxy）仍用普通的 Socket，此时 Socket.getChannel() 为 null
+ * 3. 设置了传输指标（setMetrics）时，统计打开数据连接、传输数据、完成命令、创建目录的耗时及失败次数
+ * 4. 设置了自动调优（setTuning）时，每次打开上传及下载的数据连接前，设置调优后的Socket缓存
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+class FTPChannelClient extends FTPClient
+{
+    
+    /** 被动模式下，创建数据连接的 Socket */
+    private static final SocketFactory $ChannelSocketFactory = new ChannelSocketFactory();
+    
+    
+    
+    /** 数据连接是否使用由 SocketChannel 创建的 Socket */
+    private boolean          channelSocket;
+    
+    /** 传输指标。为 null 时不统计 */
+    private FTPServerMetrics metrics;
+    
+    /** 数据连接开始传输的时间（单位：纳秒）。为 0 表示没有正在传输的数据连接 */
+    private long             dataBegin;
+    
+    /** 正在传输的数据连接是否为上传 */
+    private boolean          dataUpload;
+    
+    /** 数据连接的自动调优。为 null 时不调优 */
+    private FTPTuning        tuning;
+    
+    
+    
+    /**
+     * 数据连接使用由 SocketChannel 创建的 Socket（主动模式及被动模式均是）。
+     *
+     * 主动模式的 ServerSocketFactory 只用于数据连接。
+     * 被动模式的 SocketFactory 也用于控制连接，所以只在打开数据连接时替换（见 _openDataConnection_）
+     */
+    public void useChannelSocket()
+    {
+        this.channelSocket = true;
+        this.setServerSocketFactory(new ChannelServerSocketFactory());
+    }
+    
+    
+    
+    /**
+     * 发送命令并打开数据连接（含 REST 断点位置的处理）。
+     *
+     * 数据传输完成并关闭 Socket 后，须调用 completePendingCommand()
+     *
+     * @param i_Command  如 STOR、APPE、RETR
+     * @param i_Arg      远程文件的全路径（已转码的）
+     * @return           服务端拒绝时返回 null
+     * @throws IOException
+     */
+    public Socket openDataSocket(String i_Command ,String i_Arg) throws IOException
+    {
+        return this._openDataConnection_(i_Command ,i_Arg);
+    }
+    
+    
+    
+    /**
+     * 打开数据连接。使用由 SocketChannel 创建的 Socket 时，被动模式的数据连接用 $ChannelSocketFactory 创建，
+     * 之后恢复默认的 SocketFactory，不影响控制连接
+     */
+    @Override
+    protected Socket _openDataConnection_(String i_Command ,String i_Arg) throws IOException
+    {
+        if ( !this.channelSocket )
+        {
+            return this.openDataConnection(i_Command ,i_Arg);
+        }
+        
+        this.setSocketFactory($ChannelSocketFactory);
+        try
+        {
+            return this.openDataConnection(i_Command ,i_Arg);
+        }
+        finally
+        {
+            this.setSocketFactory(null);
+        }
+    }
+    
+    
+    
+    /**
+     * 打开数据连接。上传及下载时（STOR、APPE、STOU、RETR）设置调优后的Socket缓存，并统计耗时及失败次数
+     */
+    private Socket openDataConnection(String i_Command ,String i_Arg) throws IOException
+    {
+        if ( this.tuning != null && isTransfer(i_Command) )
+        {
+            this.tuning.apply(this);
+        }
+        
+        if ( this.metrics == null || !isTransfer(i_Command) )
+        {
+            return super._openDataConnection_(i_Command ,i_Arg);
+        }
+        
+        long   v_Begin  = System.nanoTime();
+        Socket v_Socket = null;
+        
+        try
+        {
+            v_Socket = super._openDataConnection_(i_Command ,i_Arg);
+        }
+        catch (IOException exce)
+        {
+            this.metrics.failure("open" ,exce);
+            throw exce;
+        }
+        
+        this.metrics.getOpen().record(System.nanoTime() - v_Begin);
+        
+        if ( v_Socket == null )
+        {
+            this.metrics.failure("open" ,String.valueOf(this.getReplyCode()));
+        }
+        else
+        {
+            this.endTransfer(false);
+            this.metrics.transferBegin();
+            this.dataBegin  = System.nanoTime();
+            this.dataUpload = !"RETR".equalsIgnoreCase(i_Command);
+        }
+        
+        return v_Socket;
+    }
+    
+    
+    
+    /**
+     * 完成命令。统计传输数据及完成命令的耗时
+     */
+    @Override
+    public boolean completePendingCommand() throws IOException
+    {
+        if ( this.metrics == null || this.dataBegin == 0 )
+        {
+            return super.completePendingCommand();
+        }
+        
+        this.endTransfer(false);
+        
+        long v_Begin = System.nanoTime();
+        
+        try
+        {
+            boolean v_Ret = super.completePendingCommand();
+            
+            this.metrics.getComplete().record(System.nanoTime() - v_Begin);
+            if ( !v_Ret )
+            {
+                this.metrics.failure("complete" ,String.valueOf(this.getReplyCode()));
+            }
+            
+            return v_Ret;
+        }
+        catch (IOException exce)
+        {
+            this.metrics.failure("complete" ,exce);
+            throw exce;
+        }
+    }
+    
+    
+    
+    /**
+     * 创建目录。统计耗时
+     */
+    @Override
+    public boolean makeDirectory(String i_Pathname) throws IOException
+    {
+        if ( this.metrics == null )
+        {
+            return super.makeDirectory(i_Pathname);
+        }
+        
+        long v_Begin = System.nanoTime();
+        
+        try
+        {
+            return super.makeDirectory(i_Pathname);
+        }
+        finally
+        {
+            this.metrics.getMkd().record(System.nanoTime() - v_Begin);
+        }
+    }
+    
+    
+    
+    /**
+     * 断开连接。有正在传输的数据连接时，记为传输中断
+     */
+    @Override
+    public void disconnect() throws IOException
+    {
+        this.endTransfer(true);
+        super.disconnect();
+    }
+    
+    
+    
+    /**
+     * 结束正在传输的数据连接的统计
+     * 
+     * @param i_IsAborted  是否为异常中断
+     */
+    private void endTransfer(boolean i_IsAborted)
+    {
+        if ( this.metrics == null || this.dataBegin == 0 )
+        {
+            return;
+        }
+        
+        this.metrics.transferEnd(this.dataUpload ,System.nanoTime() - this.dataBegin);
+        this.dataBegin = 0;
+        
+        if ( i_IsAborted )
+        {
+            this.metrics.failure("data" ,"aborted");
+        }
+    }
+    
+    
+    
+    /**
+     * 是否为上传或下载的命令
+     * 
+     * @param i_Command
+     * @return
+     */
+    private static boolean isTransfer(String i_Command)
+    {
+        return "STOR".equalsIgnoreCase(i_Command)
+            || "APPE".equalsIgnoreCase(i_Command)
+            || "STOU".equalsIgnoreCase(i_Command)
+            || "RETR".equalsIgnoreCase(i_Command);
+    }
+    
+    
+    
+    /**
+     * 获取：传输指标
+     */
+    public FTPServerMetrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    
+    
+    /**
+     * 设置：传输指标。为 null 时不统计
+     * 
+     * @param i_Metrics
+     */
+    public void setMetrics(FTPServerMetrics i_Metrics)
+    {
+        this.metrics = i_Metrics;
+    }
+    
+    
+    
+    /**
+     * 获取：数据连接的自动调优
+     */
+    public FTPTuning getTuning()
+    {
+        return tuning;
+    }
+    
+    
+    
+    /**
+     * 设置：数据连接的自动调优。为 null 时不调优
+     * 
+     * @param i_Tuning
+     */
+    public void setTuning(FTPTuning i_Tuning)
+    {
+        this.tuning = i_Tuning;
+    }
+    
+    
+    
+    
+    
+    /**
+     * 创建由 SocketChannel 支撑的 Socket
+     */
+    private static class ChannelSocketFactory extends SocketFactory
+    {
+        
+        @Override
+        public Socket createSocket() throws IOException
+        {
+            return SocketChannel.open().socket();
+        }
+        
+        
+        
+        @Override
+        public Socket createSocket(String i_Host ,int i_Port) throws IOException
+        {
+            return this.createSocket(InetAddress.getByName(i_Host) ,i_Port);
+        }
+        
+        
+        
+        @Override
+        public Socket createSocket(InetAddress i_Host ,int i_Port) throws IOException
+        {
+            Socket v_Socket = this.createSocket();
+            v_Socket.connect(new InetSocketAddress(i_Host ,i_Port));
+            return v_Socket;
+        }
+        
+        
+        
+        @Override
+        public Socket createSocket(String i_Host ,int i_Port ,InetAddress i_LocalHost ,int i_LocalPort) throws IOException
+        {
+            return this.createSocket(InetAddress.getByName(i_Host) ,i_Port ,i_LocalHost ,i_LocalPort);
+        }
+        
+        
+        
+        @Override
+        public Socket createSocket(InetAddress i_Host ,int i_Port ,InetAddress i_LocalHost ,int i_LocalPort) throws IOException
+        {
+            Socket v_Socket = this.createSocket();
+            v_Socket.bind(new InetSocketAddress(i_LocalHost ,i_LocalPort));
+            v_Socket.connect(new InetSocketAddress(i_Host ,i_Port));
+            return v_Socket;
+        }
+    
+    }
+    
+    
+    
+    
+    
+    /**
+     * 创建由 ServerSocketChannel 支撑的 ServerSocket。accept() 得到的 Socket 也由 SocketChannel 支撑
+     */
+    private static class ChannelServerSocketFactory extends ServerSocketFactory
+    {
+        
+        @Override
+        public ServerSocket createServerSocket() throws IOException
+        {
+            return ServerSocketChannel.open().socket();
+        }
+        
+        
+        
+        @Override
+        public ServerSocket createServerSocket(int i_Port) throws IOException
+        {
+            return this.createServerSocket(i_Port ,50 ,null);
+        }
+        
+        
+        
+        @Override
+        public ServerSocket createServerSocket(int i_Port ,int i_Backlog) throws IOException
+        {
+            return this.createServerSocket(i_Port ,i_Backlog ,null);
+        }
+        
+        
+        
+        @Override
+        public ServerSocket createServerSocket(int i_Port ,int i_Backlog ,InetAddress i_BindAddress) throws IOException
+        {
+            ServerSocket v_ServerSocket = this.createServerSocket();
+            v_ServerSocket.bind(new InetSocketAddress(i_BindAddress ,i_Port) ,i_Backlog);
+            return v_ServerSocket;
+        }
+    
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.hy.common.ftp;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+
+import org.hy.common.Help;
+import org.hy.common.StringHelp;
+
+
+
+
+
+/**
+ * 传输时边传边计算的校验值。
+ *
+ * 校验的是FTP服务上保存的数据（即压缩、数据变换之后的数据），可与服务端的 HASH、XCRC、XMD5 命令的结果直接比较。
+ *
+ * 1. CRC32：与 XCRC 命令相同
+ * 2. MD5：  与 XMD5 命令相同
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPChecksum
+{
+    
+    /** CRC32 校验 */
+    public static final String $CRC32 = "CRC32";
+    
+    /** MD5 校验 */
+    public static final String $MD5   = "MD5";
+    
+    
+    
+    /** 校验的类型 */
+    private final String        type;
+    
+    private final CRC32         crc;
+    
+    private final MessageDigest md5;
+    
+    /** 计算完成后的校验值。MessageDigest.digest() 之后会重置，所以缓存下来 */
+    private String              value;
+    
+    
+    
+    /**
+     * 创建校验
+     * 
+     * @param i_Type  校验的类型（$CRC32、$MD5）。为空时返回 null，表示不校验
+     * @return
+     */
+    public static FTPChecksum newInstance(String i_Type)
+    {
+        if ( Help.isNull(i_Type) )
+        {
+            return null;
+        }
+        
+        return new FTPChecksum(i_Type);
+    }
+    
+    
+    
+    /**
+     * 统一校验值的格式（大写的十六进制，CRC32 补足8位），便于与服务端的结果比较
+     * 
+     * @param i_Type   校验的类型
+     * @param i_Value  十六进制的校验值
+     * @return
+     */
+    public static String normalize(String i_Type ,String i_Value)
+    {
+        if ( Help.isNull(i_Value) )
+        {
+            return null;
+        }
+        
+        String v_Value = i_Value.trim().toUpperCase();
+        
+        if ( v_Value.startsWith("0X") )
+        {
+            v_Value = v_Value.substring(2);
+        }
+        
+        if ( $CRC32.equalsIgnoreCase(i_Type) )
+        {
+            while ( v_Value.length() < 8 )
+            {
+                v_Value = "0" + v_Value;
+            }
+        }
+        
+        return v_Value;
+    }
+    
+    
+    
+    private FTPChecksum(String i_Type)
+    {
+        this.type = i_Type.trim().toUpperCase();
+        
+        if ( $CRC32.equals(this.type) )
+        {
+            this.crc = new CRC32();
+            this.md5 = null;
+        }
+        else if ( $MD5.equals(this.type) )
+        {
+            this.crc = null;
+            
+            try
+            {
+                this.md5 = MessageDigest.getInstance("MD5");
+            }
+            catch (NoSuchAlgorithmException exce)
+            {
+                throw new IllegalStateException(exce);
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Checksum type[" + i_Type + "] is not supported.");
+        }
+    }
+    
+    
+    
+    /**
+     * 累计计算校验值
+     * 
+     * @param i_Bytes
+     * @param i_Offset
+     * @param i_Length
+     */
+    public void update(byte [] i_Bytes ,int i_Offset ,int i_Length)
+    {
+        if ( this.crc != null )
+        {
+            this.crc.update(i_Bytes ,i_Offset ,i_Length);
+        }
+        else
+        {
+            this.md5.update(i_Bytes ,i_Offset ,i_Length);
+        }
+    }
+    
+    
+    
+    /**
+     * 累计计算校验值。计算后 i_Buffer 的 position 移至 limit
+     * 
+     * @param i_Buffer
+     */
+    public void update(ByteBuffer i_Buffer)
+    {
+        if ( this.crc != null )
+        {
+            this.crc.update(i_Buffer);
+        }
+        else
+        {
+            this.md5.update(i_Buffer);
+        }
+    }
+    
+    
+    
+    /**
+     * 获取校验值（大写的十六进制）。获取后不应再累计计算
+     * 
+     * @return
+     */
+    public String getValue()
+    {
+        if ( this.value == null )
+        {
+            if ( this.crc != null )
+            {
+                this.value = normalize(this.type ,Long.toHexString(this.crc.getValue()));
+            }
+            else
+            {
+                byte [] v_Digest = this.md5.digest();
+                this.value = StringHelp.bytesToHex(v_Digest ,0 ,v_Digest.length).toUpperCase();
+            }
+        }
+        
+        return this.value;
+    }
+    
+    
+    
+    /**
+     * 获取：校验的类型
+     */
+    public String getType()
+    {
+        return this.type;
+    }
+
+}
@@ -0,0 +1,300 @@
+package org.hy.common.ftp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+
+
+
+
+
+/**
+ * 传输时的压缩及解压（GZIP格式）。
+ *
+ * 1. 上传时压缩：GZIP头部的扩展字段（FEXTRA）中带有 HY 标记，仍是标准的GZIP文件，可用其它工具解压
+ * 2. 下载时解压：只解压带有 HY 标记的文件。用户原本上传的 .gz 等文件，原样下载
+ * 3. 按文件头部的魔数，识别已压缩过的内容（如 gzip、zip、7z、rar、png、jpeg 等），这些内容不再压缩
+ * 4. 解压时由 GZIPInputStream 校验尾部的 CRC32 及原始大小（ISIZE，原始大小对 2^32 取模），不一致时下载失败
+ *
+ * 局限：是否压缩过不另行记录（FTP服务端没有存放元数据处），下载时只按头部的16个字节识别。
+ *      开启压缩的下载，遇到恰好以这16个字节开头的普通文件时，也会按GZIP解压：
+ *      内容不是有效的GZIP数据时，解压或尾部的校验失败，下载返回异常信息，而不会静默地得到错误的内容。
+ *      未开启压缩的下载，得到的总是服务端文件的原样内容（上传时压缩过的即为GZIP文件）。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+final class FTPCompress
+{
+    
+    /** 识别内容时，读取的头部大小 */
+    public  static final int      $HeadSize = 16;
+    
+    /** 带有 HY 标记的GZIP头部：魔数、Deflate、FEXTRA标志、MTIME、XFL、OS(未知)、XLEN=4、子字段 HY 长度为0 */
+    private static final byte []  $Header   = {0x1F ,(byte)0x8B ,8 ,4 ,0 ,0 ,0 ,0 ,0 ,(byte)0xFF ,4 ,0 ,'H' ,'Y' ,0 ,0};
+    
+    /** 已压缩过的内容的魔数 */
+    private static final byte [][] $Magics  = {
+                                                {0x1F ,(byte)0x8B}                                          // gzip
+                                               ,{'P' ,'K' ,3 ,4}                                            // zip、docx、xlsx、jar
+                                               ,{'7' ,'z' ,(byte)0xBC ,(byte)0xAF ,0x27 ,0x1C}              // 7z
+                                               ,{'R' ,'a' ,'r' ,'!'}                                        // rar
+                                               ,{'B' ,'Z' ,'h'}                                             // bzip2
+                                               ,{(byte)0xFD ,'7' ,'z' ,'X' ,'Z' ,0}                         // xz
+                                               ,{0x28 ,(byte)0xB5 ,0x2F ,(byte)0xFD}                        // zstd
+                                               ,{0x04 ,0x22 ,0x4D ,0x18}                                    // lz4
+                                               ,{(byte)0x89 ,'P' ,'N' ,'G'}                                 // png
+                                               ,{(byte)0xFF ,(byte)0xD8 ,(byte)0xFF}                        // jpeg
+                                               ,{'G' ,'I' ,'F' ,'8'}                                        // gif
+                                               ,{'O' ,'g' ,'g' ,'S'}                                        // ogg
+                                               ,{'I' ,'D' ,'3'}                                             // mp3
+                                              };
+    
+    
+    
+    private FTPCompress()
+    {
+    
+    }
+    
+    
+    
+    /**
+     * 读取数据流的头部（读取后退回，数据流仍从头开始）
+     * 
+     * @param io_Input
+     * @return  头部的内容。数据流不足 $HeadSize 时，返回实际读取到的内容
+     * @throws IOException
+     */
+    public static byte [] peek(PushbackInputStream io_Input) throws IOException
+    {
+        byte [] v_Head  = new byte[$HeadSize];
+        int     v_Size  = 0;
+        int     v_RSize = 0;
+        
+        while ( v_Size < v_Head.length && (v_RSize = io_Input.read(v_Head ,v_Size ,v_Head.length - v_Size)) >= 0 )
+        {
+            v_Size += v_RSize;
+        }
+        
+        io_Input.unread(v_Head ,0 ,v_Size);
+        
+        if ( v_Size < v_Head.length )
+        {
+            byte [] v_Ret = new byte[v_Size];
+            System.arraycopy(v_Head ,0 ,v_Ret ,0 ,v_Size);
+            return v_Ret;
+        }
+        
+        return v_Head;
+    }
+    
+    
+    
+    /**
+     * 按头部的魔数，判定内容是否已压缩过
+     * 
+     * @param i_Head  内容的头部
+     * @return
+     */
+    public static boolean isCompressed(byte [] i_Head)
+    {
+        for (byte [] v_Magic : $Magics)
+        {
+            if ( startsWith(i_Head ,v_Magic) )
+            {
+                return true;
+            }
+        }
+        
+        // mp4、mov 等：第4个字节起为 ftyp
+        return i_Head.length >= 8 && i_Head[4] == 'f' && i_Head[5] == 't' && i_Head[6] == 'y' && i_Head[7] == 'p';
+    }
+    
+    
+    
+    /**
+     * 是否为上传时压缩的内容（带有 HY 标记的GZIP头部）
+     * 
+     * @param i_Head  内容的头部
+     * @return
+     */
+    public static boolean isMarked(byte [] i_Head)
+    {
+        return startsWith(i_Head ,$Header);
+    }
+    
+    
+    
+    private static boolean startsWith(byte [] i_Head ,byte [] i_Prefix)
+    {
+        if ( i_Head.length < i_Prefix.length )
+        {
+            return false;
+        }
+        
+        for (int x=0; x<i_Prefix.length; x++)
+        {
+            if ( i_Head[x] != i_Prefix[x] )
+            {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    
+    
+    /**
+     * 创建压缩的输出流。
+     * 
+     * 压缩完成时须调用 finish()，之后调用 end() 释放压缩器。两者均不关闭 io_Output
+     * 
+     * @param io_Output     压缩后的数据的写入处
+     * @param i_Level       压缩级别（0~9，-1为默认级别）
+     * @param i_BufferSize  压缩用的缓存大小
+     * @return
+     * @throws IOException
+     */
+    public static CompressOutputStream newCompressor(OutputStream io_Output ,int i_Level ,int i_BufferSize) throws IOException
+    {
+        return new CompressOutputStream(io_Output ,i_Level ,i_BufferSize);
+    }
+    
+    
+    
+    /**
+     * 创建解压的输入流。带有 HY 标记的内容才解压，否则原样读取
+     * 
+     * @param i_Input       压缩后的数据
+     * @param i_BufferSize  解压用的缓存大小
+     * @return
+     * @throws IOException
+     */
+    public static InputStream newDecompressor(InputStream i_Input ,int i_BufferSize) throws IOException
+    {
+        PushbackInputStream v_Input = new PushbackInputStream(i_Input ,$HeadSize);
+        
+        if ( isMarked(peek(v_Input)) )
+        {
+            return new GZIPInputStream(v_Input ,i_BufferSize);
+        }
+        
+        return v_Input;
+    }
+    
+    
+    
+    /**
+     * 释放解压器（见 newDecompressor()）。会同时关闭下层的输入流
+     * 
+     * @param i_Input
+     */
+    public static void end(InputStream i_Input)
+    {
+        if ( i_Input instanceof GZIPInputStream )
+        {
+            try
+            {
+                i_Input.close();
+            }
+            catch (Exception exce)
+            {
+                // Nothing.
+            }
+        }
+    }
+    
+    
+    
+    
+    
+    /**
+     * 带有 HY 标记的GZIP格式的压缩输出流
+     */
+    static class CompressOutputStream extends DeflaterOutputStream
+    {
+        
+        private final CRC32 crc;
+        
+        
+        
+        private CompressOutputStream(OutputStream io_Output ,int i_Level ,int i_BufferSize) throws IOException
+        {
+            super(io_Output ,new Deflater(i_Level ,true) ,i_BufferSize);
+            
+            this.crc = new CRC32();
+            this.out.write($Header);
+        }
+        
+        
+        
+        @Override
+        public void write(byte [] i_Bytes ,int i_Offset ,int i_Length) throws IOException
+        {
+            super.write(i_Bytes ,i_Offset ,i_Length);
+            this.crc.update(i_Bytes ,i_Offset ,i_Length);
+        }
+        
+        
+        
+        /**
+         * 完成压缩，写入GZIP的尾部（CRC32 及原始大小）
+         */
+        @Override
+        public void finish() throws IOException
+        {
+            if ( this.def.finished() )
+            {
+                return;
+            }
+            
+            super.finish();
+            
+            long    v_CRC     = this.crc.getValue();
+            long    v_RawSize = this.def.getBytesRead();
+            byte [] v_Trailer = new byte[8];
+            
+            for (int x=0; x<4; x++)
+            {
+                v_Trailer[x]     = (byte)(v_CRC     >>> (x * 8));
+                v_Trailer[x + 4] = (byte)(v_RawSize >>> (x * 8));
+            }
+            
+            this.out.write(v_Trailer);
+        }
+        
+        
+        
+        /**
+         * 释放压缩器（不关闭下层的输出流）
+         */
+        public void end()
+        {
+            this.def.end();
+        }
+        
+        
+        
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                this.end();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,636 @@
+package org.hy.common.ftp;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.net.ftp.FTPClient;
+
+
+
+
+
+/**
+ * FTP连接池。
+ *
+ * 按 FTPInfo 的 用户@IP:端口/初始目录 分组缓存已登录的 FTPClient，避免每次都重新连接、登录、设置参数。
+ *
+ * 1. 借出时用 NOOP 命令校验连接是否可用（testOnBorrow）
+ * 2. 每组最多同时借出 maxTotal 个连接，超出时等待 maxWait 毫秒；最多保持 maxIdle 个空闲连接
+ * 3. 后台定时回收空闲超过 maxIdleTime 毫秒的连接，并预建 minIdle 个空闲连接
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPConnectionPool
+{
+    
+    /** 全局共享的默认连接池 */
+    private static FTPConnectionPool $Default;
+    
+    
+    
+    /** 每组最少保持的空闲连接数 */
+    private int                          minIdle;
+    
+    /** 每组最多保持的空闲连接数 */
+    private int                          maxIdle;
+    
+    /** 每组最多同时借出的连接数 */
+    private int                          maxTotal;
+    
+    /** 连接池耗尽时，借出连接的最长等待时长（单位：毫秒） */
+    private long                         maxWait;
+    
+    /** 空闲连接的最长空闲时长，超过后被回收（单位：毫秒） */
+    private long                         maxIdleTime;
+    
+    /** 后台回收线程的执行间隔（单位：毫秒） */
+    private long                         evictInterval;
+    
+    /** 借出时是否用 NOOP 命令校验连接 */
+    private boolean                      testOnBorrow;
+    
+    /** 分组的连接池。Map.key 为 getKey(FTPInfo) */
+    private final Map<String ,KeyPool>   keyPools;
+    
+    /** 后台回收线程 */
+    private ScheduledExecutorService     evictor;
+    
+    
+    
+    /**
+     * 获取全局共享的默认连接池
+     *
+     * @return
+     */
+    public static synchronized FTPConnectionPool getInstance()
+    {
+        if ( $Default == null )
+        {
+            $Default = new FTPConnectionPool();
+        }
+        
+        return $Default;
+    }
+    
+    
+    
+    /**
+     * 连接池分组的关键字
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public static String getKey(FTPInfo i_FTPInfo)
+    {
+        return i_FTPInfo.getUser() + "@" + i_FTPInfo.getIp() + ":" + i_FTPInfo.getPort() + i_FTPInfo.getInitPath();
+    }
+    
+    
+    
+    public FTPConnectionPool()
+    {
+        this.minIdle       = 0;
+        this.maxIdle       = 8;
+        this.maxTotal      = 8;
+        this.maxWait       = 30 * 1000;
+        this.maxIdleTime   = 5 * 60 * 1000;
+        this.evictInterval = 30 * 1000;
+        this.testOnBorrow  = true;
+        this.keyPools      = new ConcurrentHashMap<String ,KeyPool>();
+    }
+    
+    
+    
+    /**
+     * 借出一个已登录的连接。用完后须调用 giveBack() 或 invalidate() 归还
+     *
+     * @param i_FTPInfo
+     * @return
+     * @throws IOException  连接池耗尽并等待超时，或新建连接时异常
+     */
+    public FTPClient borrow(FTPInfo i_FTPInfo) throws IOException
+    {
+        KeyPool v_KeyPool = this.getKeyPool(i_FTPInfo);
+        
+        try
+        {
+            if ( !v_KeyPool.permits.tryAcquire(this.maxWait ,TimeUnit.MILLISECONDS) )
+            {
+                throw new IOException("FTP connection pool is exhausted: " + v_KeyPool.key);
+            }
+        }
+        catch (InterruptedException exce)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("FTP connection pool borrow is interrupted: " + v_KeyPool.key);
+        }
+        
+        return this.borrow(v_KeyPool ,i_FTPInfo);
+    }
+    
+    
+    
+    /**
+     * 不等待地借出一个已登录的连接。用完后须调用 giveBack() 或 invalidate() 归还
+     * 
+     * 用于持有其它锁时借出连接，不因连接池耗尽而长时间阻塞
+     *
+     * @param i_FTPInfo
+     * @return           连接池已耗尽时返回 null
+     * @throws IOException  新建连接时异常
+     */
+    public FTPClient tryBorrow(FTPInfo i_FTPInfo) throws IOException
+    {
+        KeyPool v_KeyPool = this.getKeyPool(i_FTPInfo);
+        
+        if ( !v_KeyPool.permits.tryAcquire() )
+        {
+            return null;
+        }
+        
+        return this.borrow(v_KeyPool ,i_FTPInfo);
+    }
+    
+    
+    
+    /**
+     * 已获取许可后，借出空闲的连接，没有可用的空闲连接时新建连接。异常时释放许可
+     *
+     * @param i_KeyPool
+     * @param i_FTPInfo
+     * @return
+     * @throws IOException
+     */
+    private FTPClient borrow(KeyPool i_KeyPool ,FTPInfo i_FTPInfo) throws IOException
+    {
+        try
+        {
+            IdleClient v_Idle = null;
+            
+            while ( (v_Idle = i_KeyPool.idles.pollFirst()) != null )
+            {
+                if ( !this.testOnBorrow || validate(v_Idle.ftpClient) )
+                {
+                    return v_Idle.ftpClient;
+                }
+                
+                destroy(v_Idle.ftpClient);
+            }
+            
+            return FTPHelp.newFTPClient(i_FTPInfo);
+        }
+        catch (IOException | RuntimeException exce)
+        {
+            i_KeyPool.permits.release();
+            throw exce;
+        }
+    }
+    
+    
+    
+    /**
+     * 归还连接。连接已断开，或空闲连接已满时，直接关闭连接
+     *
+     * @param i_FTPInfo
+     * @param i_FTPClient
+     */
+    public void giveBack(FTPInfo i_FTPInfo ,FTPClient i_FTPClient)
+    {
+        if ( i_FTPClient == null )
+        {
+            return;
+        }
+        
+        KeyPool v_KeyPool = this.getKeyPool(i_FTPInfo);
+        
+        if ( !i_FTPClient.isConnected() || v_KeyPool.idles.size() >= this.maxIdle )
+        {
+            destroy(i_FTPClient);
+        }
+        else
+        {
+            // 后进先出，让最近用过的连接优先被借出，长期不用的连接在队尾等待回收
+            v_KeyPool.idles.offerFirst(new IdleClient(i_FTPClient));
+        }
+        
+        v_KeyPool.permits.release();
+    }
+    
+    
+    
+    /**
+     * 作废连接（如传输过程中异常，控制连接的应答可能已错位时）。直接关闭连接，不再放回池中
+     *
+     * @param i_FTPInfo
+     * @param i_FTPClient
+     */
+    public void invalidate(FTPInfo i_FTPInfo ,FTPClient i_FTPClient)
+    {
+        if ( i_FTPClient == null )
+        {
+            return;
+        }
+        
+        destroy(i_FTPClient);
+        this.getKeyPool(i_FTPInfo).permits.release();
+    }
+    
+    
+    
+    /**
+     * 回收空闲超时的连接，并预建 minIdle 个空闲连接。
+     *
+     * 由后台线程定时执行，也可外界主动调用。
+     */
+    public void evict()
+    {
+        long v_Now = System.currentTimeMillis();
+        
+        for (KeyPool v_KeyPool : this.keyPools.values())
+        {
+            Iterator<IdleClient> v_Iter = v_KeyPool.idles.descendingIterator();
+            
+            while ( v_Iter.hasNext() && v_KeyPool.idles.size() > this.minIdle )
+            {
+                IdleClient v_Idle = v_Iter.next();
+                
+                if ( v_Now - v_Idle.idleTime >= this.maxIdleTime && v_KeyPool.idles.remove(v_Idle) )
+                {
+                    destroy(v_Idle.ftpClient);
+                }
+            }
+            
+            while ( v_KeyPool.idles.size() < this.minIdle && v_KeyPool.permits.tryAcquire() )
+            {
+                try
+                {
+                    v_KeyPool.idles.offerLast(new IdleClient(FTPHelp.newFTPClient(v_KeyPool.ftpInfo)));
+                }
+                catch (Exception exce)
+                {
+                    exce.printStackTrace();
+                    break;
+                }
+                finally
+                {
+                    v_KeyPool.permits.release();
+                }
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 关闭连接池：停止后台线程，并关闭所有空闲连接。已借出的连接在归还时再关闭
+     */
+    public synchronized void close()
+    {
+        if ( this.evictor != null )
+        {
+            this.evictor.shutdownNow();
+            this.evictor = null;
+        }
+        
+        for (KeyPool v_KeyPool : this.keyPools.values())
+        {
+            IdleClient v_Idle = null;
+            
+            while ( (v_Idle = v_KeyPool.idles.pollFirst()) != null )
+            {
+                destroy(v_Idle.ftpClient);
+            }
+        }
+        
+        this.maxIdle = 0;
+    }
+    
+    
+    
+    /**
+     * 获取某一分组中空闲连接的数量
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public int getIdleCount(FTPInfo i_FTPInfo)
+    {
+        KeyPool v_KeyPool = this.keyPools.get(getKey(i_FTPInfo));
+        return v_KeyPool == null ? 0 : v_KeyPool.idles.size();
+    }
+    
+    
+    
+    /**
+     * 获取某一分组中已借出连接的数量
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public int getActiveCount(FTPInfo i_FTPInfo)
+    {
+        KeyPool v_KeyPool = this.keyPools.get(getKey(i_FTPInfo));
+        return v_KeyPool == null ? 0 : v_KeyPool.maxTotal - v_KeyPool.permits.availablePermits();
+    }
+    
+    
+    
+    private KeyPool getKeyPool(FTPInfo i_FTPInfo)
+    {
+        String  v_Key     = getKey(i_FTPInfo);
+        KeyPool v_KeyPool = this.keyPools.get(v_Key);
+        
+        if ( v_KeyPool == null )
+        {
+            v_KeyPool = this.keyPools.computeIfAbsent(v_Key ,k -> new KeyPool(k ,i_FTPInfo ,this.maxTotal));
+            this.startEvictor();
+        }
+        
+        return v_KeyPool;
+    }
+    
+    
+    
+    private synchronized void startEvictor()
+    {
+        if ( this.evictor != null || this.evictInterval <= 0 )
+        {
+            return;
+        }
+        
+        this.evictor = Executors.newSingleThreadScheduledExecutor(v_Runnable ->
+        {
+            Thread v_Thread = new Thread(v_Runnable ,"FTPConnectionPool-Evictor");
+            v_Thread.setDaemon(true);
+            return v_Thread;
+        });
+        
+        this.evictor.scheduleWithFixedDelay(this::evict ,this.evictInterval ,this.evictInterval ,TimeUnit.MILLISECONDS);
+    }
+    
+    
+    
+    /**
+     * 用 NOOP 命令校验连接是否可用
+     *
+     * @param i_FTPClient
+     * @return
+     */
+    private static boolean validate(FTPClient i_FTPClient)
+    {
+        try
+        {
+            return i_FTPClient.isConnected() && i_FTPClient.sendNoOp();
+        }
+        catch (Exception exce)
+        {
+            return false;
+        }
+    }
+    
+    
+    
+    private static void destroy(FTPClient i_FTPClient)
+    {
+        try
+        {
+            if ( i_FTPClient.isConnected() )
+            {
+                i_FTPClient.logout();
+            }
+        }
+        catch (Exception exce)
+        {
+            // Nothing.
+        }
+        
+        try
+        {
+            i_FTPClient.disconnect();
+        }
+        catch (Exception exce)
+        {
+            // Nothing.
+        }
+    }
+    
+    
+    
+    /**
+     * 获取：每组最少保持的空闲连接数
+     */
+    public int getMinIdle()
+    {
+        return minIdle;
+    }
+    
+    
+    
+    /**
+     * 设置：每组最少保持的空闲连接数
+     *
+     * @param minIdle
+     */
+    public void setMinIdle(int minIdle)
+    {
+        this.minIdle = minIdle;
+    }
+    
+    
+    
+    /**
+     * 获取：每组最多保持的空闲连接数
+     */
+    public int getMaxIdle()
+    {
+        return maxIdle;
+    }
+    
+    
+    
+    /**
+     * 设置：每组最多保持的空闲连接数
+     *
+     * @param maxIdle
+     */
+    public void setMaxIdle(int maxIdle)
+    {
+        this.maxIdle = maxIdle;
+    }
+    
+    
+    
+    /**
+     * 获取：每组最多同时借出的连接数
+     */
+    public int getMaxTotal()
+    {
+        return maxTotal;
+    }
+    
+    
+    
+    /**
+     * 设置：每组最多同时借出的连接数。只对之后新建的分组生效
+     *
+     * @param maxTotal
+     */
+    public void setMaxTotal(int maxTotal)
+    {
+        this.maxTotal = maxTotal;
+    }
+    
+    
+    
+    /**
+     * 获取：连接池耗尽时，借出连接的最长等待时长（单位：毫秒）
+     */
+    public long getMaxWait()
+    {
+        return maxWait;
+    }
+    
+    
+    
+    /**
+     * 设置：连接池耗尽时，借出连接的最长等待时长（单位：毫秒）
+     *
+     * @param maxWait
+     */
+    public void setMaxWait(long maxWait)
+    {
+        this.maxWait = maxWait;
+    }
+    
+    
+    
+    /**
+     * 获取：空闲连接的最长空闲时长，超过后被回收（单位：毫秒）
+     */
+    public long getMaxIdleTime()
+    {
+        return maxIdleTime;
+    }
+    
+    
+    
+    /**
+     * 设置：空闲连接的最长空闲时长，超过后被回收（单位：毫秒）
+     *
+     * @param maxIdleTime
+     */
+    public void setMaxIdleTime(long maxIdleTime)
+    {
+        this.maxIdleTime = maxIdleTime;
+    }
+    
+    
+    
+    /**
+     * 获取：后台回收线程的执行间隔（单位：毫秒）
+     */
+    public long getEvictInterval()
+    {
+        return evictInterval;
+    }
+    
+    
+    
+    /**
+     * 设置：后台回收线程的执行间隔（单位：毫秒）。小于等于0时不启动后台回收线程
+     *
+     * @param evictInterval
+     */
+    public void setEvictInterval(long evictInterval)
+    {
+        this.evictInterval = evictInterval;
+    }
+    
+    
+    
+    /**
+     * 获取：借出时是否用 NOOP 命令校验连接
+     */
+    public boolean isTestOnBorrow()
+    {
+        return testOnBorrow;
+    }
+    
+    
+    
+    /**
+     * 设置：借出时是否用 NOOP 命令校验连接
+     *
+     * @param testOnBorrow
+     */
+    public void setTestOnBorrow(boolean testOnBorrow)
+    {
+        this.testOnBorrow = testOnBorrow;
+    }
+    
+    
+    
+    
+    
+    /**
+     * 一组（同一 FTPInfo 关键字的）连接池
+     */
+    private static class KeyPool
+    {
+        private final String                          key;
+        
+        private final FTPInfo                         ftpInfo;
+        
+        private final int                             maxTotal;
+        
+        /** 借出的许可。许可数 = maxTotal - 已借出的连接数 */
+        private final Semaphore                       permits;
+        
+        /** 空闲连接。队首为最近归还的 */
+        private final LinkedBlockingDeque<IdleClient> idles;
+        
+        
+        
+        private KeyPool(String i_Key ,FTPInfo i_FTPInfo ,int i_MaxTotal)
+        {
+            this.key      = i_Key;
+            this.ftpInfo  = i_FTPInfo;
+            this.maxTotal = i_MaxTotal;
+            this.permits  = new Semaphore(i_MaxTotal ,true);
+            this.idles    = new LinkedBlockingDeque<IdleClient>();
+        }
+    }
+    
+    
+    
+    
+    
+    /**
+     * 空闲的连接
+     */
+    private static class IdleClient
+    {
+        private final FTPClient ftpClient;
+        
+        /** 开始空闲的时间 */
+        private final long      idleTime;
+        
+        
+        
+        private IdleClient(FTPClient i_FTPClient)
+        {
+            this.ftpClient = i_FTPClient;
+            this.idleTime  = System.currentTimeMillis();
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+package org.hy.common.ftp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hy.common.ExpireMap;
+import org.hy.common.Help;
+
+
+
+
+
+/**
+ * FTP服务上已存在目录的缓存（每个FTP服务一个缓存）。
+ *
+ * 上传文件前须逐级创建目录（一级目录一次 MKD 命令），同一目录下大量上传文件时，绝大部分 MKD 命令是多余的。
+ * 本缓存记录已确认存在的目录，在有效期内不再发送 MKD 命令。
+ *
+ * 1. 只有 MKD 成功，或文件上传成功后，才认为目录是存在的
+ * 2. 上传时目录不存在（如已被外界删除），作废此目录及其子目录的缓存
+ * 3. 统计 MKD 命令的发送次数及省去的次数
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPDirectoryCache
+{
+    
+    /** 每个FTP服务的目录缓存。Map.key 为 getKey(FTPInfo) */
+    private static final Map<String ,FTPDirectoryCache> $Caches = new ConcurrentHashMap<String ,FTPDirectoryCache>();
+    
+    
+    
+    /** 已存在的目录。Map.key 为规范化后的目录全路径 */
+    private final ExpireMap<String ,Boolean> directories;
+    
+    /** 已发送 MKD 命令的次数 */
+    private final AtomicLong                 mkdCount;
+    
+    /** 因缓存而省去 MKD 命令的次数 */
+    private final AtomicLong                 skipCount;
+    
+    
+    
+    /**
+     * 获取某一FTP服务的目录缓存
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public static FTPDirectoryCache getInstance(FTPInfo i_FTPInfo)
+    {
+        return $Caches.computeIfAbsent(getKey(i_FTPInfo) ,k -> new FTPDirectoryCache());
+    }
+    
+    
+    
+    /**
+     * 目录缓存的关键字。不同用户的根目录可能不同，所以按用户区分
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public static String getKey(FTPInfo i_FTPInfo)
+    {
+        return i_FTPInfo.getUser() + "@" + i_FTPInfo.getIp() + ":" + i_FTPInfo.getPort();
+    }
+    
+    
+    
+    /**
+     * 规范化目录全路径：去掉多余的 / 符号，统一以 / 开头、不以 / 结尾
+     *
+     * @param i_DirFullName
+     * @return
+     */
+    public static String normalize(String i_DirFullName)
+    {
+        StringBuilder v_Buffer = new StringBuilder();
+        
+        for (String v_DirName : i_DirFullName.trim().split("/"))
+        {
+            if ( !Help.isNull(v_DirName) )
+            {
+                v_Buffer.append("/").append(v_DirName);
+            }
+        }
+        
+        return v_Buffer.length() <= 0 ? "/" : v_Buffer.toString();
+    }
+    
+    
+    
+    private FTPDirectoryCache()
+    {
+        this.directories = new ExpireMap<String ,Boolean>();
+        this.mkdCount    = new AtomicLong(0);
+        this.skipCount   = new AtomicLong(0);
+    }
+    
+    
+    
+    /**
+     * 目录是否已确认存在
+     *
+     * @param i_DirFullName  规范化后的目录全路径
+     * @return
+     */
+    public boolean isExists(String i_DirFullName)
+    {
+        synchronized ( this.directories )
+        {
+            return this.directories.get(i_DirFullName) != null;
+        }
+    }
+    
+    
+    
+    /**
+     * 记录目录及其所有上级目录已存在
+     *
+     * @param i_DirFullName  目录全路径
+     * @param i_Timeout      缓存的有效时长（单位：秒）。小于等于0时不缓存
+     */
+    public void put(String i_DirFullName ,long i_Timeout)
+    {
+        if ( i_Timeout <= 0 || Help.isNull(i_DirFullName) )
+        {
+            return;
+        }
+        
+        String v_Dir = normalize(i_DirFullName);
+        
+        synchronized ( this.directories )
+        {
+            while ( v_Dir.length() > 1 )
+            {
+                this.directories.put(v_Dir ,Boolean.TRUE ,i_Timeout);
+                v_Dir = v_Dir.substring(0 ,v_Dir.lastIndexOf("/"));
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 作废目录及其所有子目录的缓存
+     *
+     * @param i_DirFullName  目录全路径
+     */
+    public void invalidate(String i_DirFullName)
+    {
+        if ( Help.isNull(i_DirFullName) )
+        {
+            return;
+        }
+        
+        String v_Dir = normalize(i_DirFullName);
+        
+        synchronized ( this.directories )
+        {
+            List<String> v_Removes = new ArrayList<String>();
+            
+            for (String v_Key : this.directories.keySet())
+            {
+                if ( v_Key.equals(v_Dir) || v_Key.startsWith(v_Dir + "/") )
+                {
+                    v_Removes.add(v_Key);
+                }
+            }
+            
+            for (String v_Key : v_Removes)
+            {
+                this.directories.remove(v_Key);
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 清空缓存
+     */
+    public void clear()
+    {
+        synchronized ( this.directories )
+        {
+            this.directories.clear();
+        }
+    }
+    
+    
+    
+    /**
+     * 计一次 MKD 命令的发送
+     */
+    public void countMKD()
+    {
+        this.mkdCount.incrementAndGet();
+    }
+    
+    
+    
+    /**
+     * 计因缓存而省去的 MKD 命令
+     *
+     * @param i_Count  省去的次数
+     */
+    public void countSkip(int i_Count)
+    {
+        this.skipCount.addAndGet(i_Count);
+    }
+    
+    
+    
+    /**
+     * 获取：已发送 MKD 命令的次数
+     */
+    public long getMKDCount()
+    {
+        return this.mkdCount.get();
+    }
+    
+    
+    
+    /**
+     * 获取：因缓存而省去 MKD 命令的次数
+     */
+    public long getSkipCount()
+    {
+        return this.skipCount.get();
+    }
+
+}
@@ -0,0 +1,192 @@
+package org.hy.common.ftp;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+
+
+/**
+ * 执行传输的线程池的创建（异步传输、批量传输、分段下载）。
+ *
+ * 1. 虚拟线程：JDK 21 及以上时，每个传输一个虚拟线程，阻塞在网络I/O上时不占用平台线程，可同时进行上千个传输。
+ *    本工程按 JDK 8 编译，虚拟线程通过反射创建
+ * 2. 有界线程池：不支持虚拟线程或关闭虚拟线程时，用最多 maxThreads 个平台线程，超出的传输排队等待（不拒收）
+ *
+ * 传输过程中对网络I/O、及通知事件监听器（监听器中可能有I/O）加锁的地方均用 ReentrantLock，而非 synchronized，
+ * 防止虚拟线程被固定（pinned）在平台线程上。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPExecutors
+{
+    
+    private static final FTPExecutors $Instance = new FTPExecutors();
+    
+    
+    
+    /** 是否用虚拟线程（JDK 支持时）。默认为：true */
+    private boolean         virtual;
+    
+    /** 有界线程池的最大线程数量 */
+    private int             maxThreads;
+    
+    /** 创建虚拟线程的线程工厂的方法（Thread.ofVirtual() 等）。为 null 时表示 JDK 不支持虚拟线程 */
+    private final Method [] virtualMethods;
+    
+    
+    
+    /**
+     * 获取全局共享的线程池的创建
+     *
+     * @return
+     */
+    public static FTPExecutors getInstance()
+    {
+        return $Instance;
+    }
+    
+    
+    
+    private FTPExecutors()
+    {
+        this.virtual        = true;
+        this.maxThreads     = Math.max(Runtime.getRuntime().availableProcessors() * 8 ,64);
+        this.virtualMethods = findVirtualMethods();
+    }
+    
+    
+    
+    /**
+     * 查找创建虚拟线程的方法：Thread.ofVirtual()、Thread.Builder.name(String ,long)、Thread.Builder.factory()
+     * 及 Executors.newThreadPerTaskExecutor(ThreadFactory)
+     *
+     * @return  JDK 不支持虚拟线程时返回 null
+     */
+    private static Method [] findVirtualMethods()
+    {
+        try
+        {
+            Class<?> v_Builder = Class.forName("java.lang.Thread$Builder");
+            
+            return new Method[] {Thread.class.getMethod("ofVirtual")
+                                ,v_Builder.getMethod("name" ,String.class ,long.class)
+                                ,v_Builder.getMethod("factory")
+                                ,Executors.class.getMethod("newThreadPerTaskExecutor" ,ThreadFactory.class)};
+        }
+        catch (Exception exce)
+        {
+            return null;
+        }
+    }
+    
+    
+    
+    /**
+     * 创建执行传输的线程池。用完后须由调用者关闭（shutdown）
+     *
+     * @param i_Name        线程名称的前缀
+     * @param i_MaxThreads  最大线程数量（仅对有界线程池有效）。小于等于 0 时用 maxThreads
+     * @return
+     */
+    public ExecutorService newExecutor(String i_Name ,int i_MaxThreads)
+    {
+        if ( this.isVirtual() )
+        {
+            try
+            {
+                Object        v_Builder = this.virtualMethods[0].invoke(null);
+                ThreadFactory v_Factory = null;
+                
+                v_Builder = this.virtualMethods[1].invoke(v_Builder ,i_Name + "-" ,1L);
+                v_Factory = (ThreadFactory)this.virtualMethods[2].invoke(v_Builder);
+                
+                return (ExecutorService)this.virtualMethods[3].invoke(null ,v_Factory);
+            }
+            catch (Exception exce)
+            {
+                // 用有界线程池
+            }
+        }
+        
+        int                v_MaxThreads = i_MaxThreads <= 0 ? this.maxThreads : i_MaxThreads;
+        AtomicInteger      v_No         = new AtomicInteger(0);
+        ThreadPoolExecutor v_Executor   = new ThreadPoolExecutor(v_MaxThreads ,v_MaxThreads ,60 ,TimeUnit.SECONDS
+                                                                ,new LinkedBlockingQueue<Runnable>()
+                                                                ,v_Runnable ->
+        {
+            Thread v_Thread = new Thread(v_Runnable ,i_Name + "-" + v_No.incrementAndGet());
+            v_Thread.setDaemon(true);
+            return v_Thread;
+        });
+        v_Executor.allowCoreThreadTimeOut(true);
+        
+        return v_Executor;
+    }
+    
+    
+    
+    /**
+     * JDK 是否支持虚拟线程
+     *
+     * @return
+     */
+    public boolean isVirtualSupported()
+    {
+        return this.virtualMethods != null;
+    }
+    
+    
+    
+    /**
+     * 获取：是否用虚拟线程。JDK 不支持时返回 false
+     */
+    public boolean isVirtual()
+    {
+        return this.virtual && this.virtualMethods != null;
+    }
+    
+    
+    
+    /**
+     * 设置：是否用虚拟线程（JDK 支持时）。只对之后创建的线程池生效
+     *
+     * @param virtual
+     */
+    public void setVirtual(boolean virtual)
+    {
+        this.virtual = virtual;
+    }
+    
+    
+    
+    /**
+     * 获取：有界线程池的最大线程数量
+     */
+    public int getMaxThreads()
+    {
+        return maxThreads;
+    }
+    
+    
+    
+    /**
+     * 设置：有界线程池的最大线程数量。只对之后创建的线程池生效
+     *
+     * @param maxThreads
+     */
+    public void setMaxThreads(int maxThreads)
+    {
+        this.maxThreads = Math.max(maxThreads ,1);
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.hy.common.ftp;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -8,14 +9,42 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.zip.Deflater;
 
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPReply;
 
-import org.hy.common.ByteHelp;
-import org.hy.common.ExpireMap;
 import org.hy.common.Help;
 import org.hy.common.StringHelp;
 import org.hy.common.file.FileDataPacket;
@@ -23,6 +52,9 @@ import org.hy.common.file.FileHelp;
 import org.hy.common.ftp.event.DefaultFTPEvent;
 import org.hy.common.ftp.event.FTPEvent;
 import org.hy.common.ftp.event.FTPListener;
+import org.hy.common.ftp.transform.TransferTransform;
+import org.hy.common.ftp.transform.TransferTransformChain;
+import org.hy.common.ftp.transform.XorTransform;
 
 
 
@@ -38,15 +70,48 @@ import org.hy.common.ftp.event.FTPListener;
  *                             添加：3. FileDataPacket 文件的数据包的上传（默认开启断点续传）
  *                             添加：4. 创建FTP目录。可连续创建多级目录
  *                             添加：5. 支持中文目录及中文文件
+ *           V3.0  2026-10-17  添加：1. FTPConnectionPool 连接池，复用已登录的连接
+ *                             添加：2. 分段并行下载大文件
+ *                             添加：3. 上传时已确认存在的目录不再发送 MKD 命令（FTPDirectoryCache）
+ *                             添加：4. 传输缓存的大小可配置，并从缓存池中借出（FTPBufferPool）
+ *                             添加：5. 本地文件与数据连接间零拷贝的传输（FileChannel）
+ *                             添加：6. 下载文件到内存时，按文件大小预分配内存，并可返回字节内容（downloadBytes）
+ *                             添加：7. 读写远程文件的数据流（openRead、openWrite）
+ *                             添加：8. 传输数据的变换链（TransferTransform），在缓存上就地变换。数据安全性的加密为内置的变换
+ *                             添加：9. 传输时压缩（GZIP），事件中可获取网络上传输的大小及压缩比
+ *                             添加：10. 传输时计算校验值（CRC32、MD5），可与服务端的校验值比较，相同文件不再上传
+ *                             添加：11. 断点续传的下载（REST 偏移量），下载后核对文件大小
+ *                             添加：12. 断点续传的上传，用 SIZE 命令自动获取续传的位置
+ *                             添加：13. 按会话上传数据包，可并发、可乱序到达（见 FTPPacketSessions）
+ *                             添加：14. 数据包流模式，同一会话的数据包写入同一个持续打开的数据流
+ *                             添加：15. 传输中事件的节流及异步分发，事件监听器集合改为写时复制的
+ *                             添加：16. 传输指标（见 FTPMetrics），按服务端统计并通过 JMX 查看
+ *                             添加：17. 异步的上传、下载及删除，返回 CompletableFuture
+ *                             添加：18. 异步传输及分段下载的线程池，JDK 支持时用虚拟线程（见 FTPExecutors）
+ *                             添加：19. 传输带宽的限速（见 FTPRateLimiter）
+ *                             添加：20. 按测得的往返时延及吞吐量，自动调优Socket缓存及拷贝缓存（见 FTPTuning）
  *                                   
  */
 public final class FTPHelp 
 {
-    /** 缓存大小 */
-    private static final int $BufferSize     = 4 * 1024;
+    /** 分段下载时，每段的最小大小 */
+    private static final int $SegmentMinSize = 1024 * 1024;
+    
+    /** 内存中下载文件时，数组的最大长度 */
+    private static final int $MaxArraySize   = Integer.MAX_VALUE - 8;
+    
+    /** 零拷贝上传时，每次 transferTo() 的最大大小，即触发传送文件进度事件的间隔 */
+    private static final int $ZeroCopySize   = 8 * 1024 * 1024;
+    
+    /** 传输后与服务端的校验值不一致时，异常信息的前缀 */
+    private static final String $ChecksumMismatch = "Checksum is mismatch: ";
+    
+    /** 数据包流模式下，已应答的数据包丢失时，异常信息的前缀 */
+    private static final String $PacketLost       = "Packet is lost: ";
+    
+    /** 全局共享的执行异步传输的线程池。首次异步传输时才创建 */
+    private static volatile ExecutorService $AsyncExecutor;
     
-    /** 临时记录最新一次数据包信息 */
-    private static final ExpireMap<String ,FileDataPacket> $DataPackets = new ExpireMap<String ,FileDataPacket>();
     
     
     
@@ -60,9 +125,54 @@ public final class FTPHelp
     /** 自定义事件的监听器集合--文件拷贝 */
     private Collection<FTPListener>    ftpListeners;
     
-    /** 数据包的超时时长（单位：秒） */
+    /** 数据包的超时时长（单位：秒）。即上传会话超时时长内没有收到数据包时，作废会话 */
     private long                       dataPacketTimeOut = 10 * 60;
     
+    /** FTP连接池。为 null 时，表示不使用连接池 */
+    private FTPConnectionPool          ftpPool;
+    
+    /** 连接是否在传输过程中异常过。异常过的连接在 close() 时不再放回连接池 */
+    private boolean                    isBroken;
+    
+    /** 传输数据的变换链。上传时编码，下载时解码。数据安全性的加密总在变换链之后（最接近网络） */
+    private TransferTransformChain     transforms;
+    
+    /** 传输时压缩。如果为真，上传时压缩（已压缩过的内容除外），下载时解压（上传时压缩过的内容才解压） */
+    private boolean                    compress;
+    
+    /** 传输时压缩的压缩级别（0~9，-1为默认级别） */
+    private int                        compressLevel;
+    
+    /** 传输时计算校验值的类型（FTPChecksum.$CRC32、$MD5）。为空时不计算 */
+    private String                     checksumType;
+    
+    /** 传输后，是否与服务端的校验值（HASH、XCRC、XMD5命令）比较。不一致时视为传输失败 */
+    private boolean                    checksumVerify;
+    
+    /** 上传前，与服务端的文件比较大小及校验值，一致时不再上传 */
+    private boolean                    skipIfIdentical;
+    
+    /** 数据包流模式。同一会话连续的数据包写入同一个持续打开的数据流，不再每个数据包一次 APPE 命令 */
+    private boolean                    packetStream;
+    
+    /** 两次传输中事件间已完成大小的下限（单位：Byte）。小于等于0表示不限制 */
+    private long                       processSize;
+    
+    /** 两次传输中事件间时长的下限（单位：毫秒）。小于等于0表示不限制 */
+    private long                       processInterval;
+    
+    /** 传输中事件是否异步分发（见 FTPProgressDispatcher） */
+    private boolean                    processAsync;
+    
+    /** 执行异步传输（uploadAsync() 等）的线程池。为 null 时用全局共享的线程池 */
+    private Executor                   asyncExecutor;
+    
+    /** 传输带宽的限速器。为 null 时用服务端的限速器（见 getRateLimiter()） */
+    private FTPRateLimiter             rateLimiter;
+    
+    /** 最后一次传输的校验值 */
+    private String                     lastChecksum;
+    
     
     
     /**
@@ -72,8 +182,36 @@ public final class FTPHelp
      */
     public FTPHelp(FTPInfo i_FTPInfo)
     {
-        this.ftpInfo  = i_FTPInfo;
-        this.dataSafe = false;
+        this.ftpInfo         = i_FTPInfo;
+        this.dataSafe        = false;
+        this.transforms      = new TransferTransformChain();
+        this.compress        = false;
+        this.compressLevel   = Deflater.DEFAULT_COMPRESSION;
+        this.checksumVerify  = false;
+        this.skipIfIdentical = false;
+        this.packetStream    = false;
+        this.processSize     = 0;
+        this.processInterval = 0;
+        this.processAsync    = false;
+        this.rateLimiter     = null;
+    }
+    
+    
+    
+    /**
+     * 构造器。连接及关闭时，从连接池中借出及归还已登录的连接
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_FTPInfo
+     * @param i_FTPPool  FTP连接池
+     */
+    public FTPHelp(FTPInfo i_FTPInfo ,FTPConnectionPool i_FTPPool)
+    {
+        this(i_FTPInfo);
+        this.ftpPool = i_FTPPool;
     }
     
     
@@ -90,9 +228,21 @@ public final class FTPHelp
     
     
     
+    /**
+     * 获取：FTP连接池。为 null 时，表示不使用连接池
+     */
+    public FTPConnectionPool getFTPPool()
+    {
+        return this.ftpPool;
+    }
+    
+    
+    
     /**
      * 连接 FTP 服务器。
      * 
+     * 有连接池时，从连接池中借出已登录的连接。
+     * 
      * @return  连接成功返回 null。 否则为异常信息。
      */
     public String connect()
@@ -109,67 +259,173 @@ public final class FTPHelp
                 this.close();
             }
             
+            if ( this.ftpPool != null )
+            {
+                this.ftpClient = this.ftpPool.borrow(this.ftpInfo);
+            }
+            else
+            {
+                this.ftpClient = newFTPClient(this.ftpInfo);
+            }
+            this.isBroken = false;
+        } 
+        catch (Exception exce) 
+        {
+            this.ftpClient = null;
+            exce.printStackTrace();
+            return exce.getMessage();
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 新建一个已登录的连接
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_FTPInfo
+     * @return
+     * @throws IOException
+     */
+    static FTPClient newFTPClient(FTPInfo i_FTPInfo) throws IOException
+    {
+        FTPChannelClient v_FTPClient = new FTPChannelClient();
+        FTPServerMetrics v_Metrics   = FTPMetrics.getInstance().getServer(i_FTPInfo);
+        long             v_Begin     = 0;
+        
+        try
+        {
+            v_FTPClient.setMetrics(v_Metrics);
+            if ( i_FTPInfo.isAutoTuning() )
+            {
+                v_FTPClient.setTuning(FTPTuning.getInstance(i_FTPInfo));
+            }
+            v_FTPClient.setProxy(                       i_FTPInfo.getProxy());
+            if ( i_FTPInfo.getProxy() == null && i_FTPInfo.isZeroCopy() )
+            {
+                v_FTPClient.useChannelSocket();
+            }
+            v_FTPClient.setDefaultTimeout(              i_FTPInfo.getDefaultTimeout());
+            v_FTPClient.setConnectTimeout(              i_FTPInfo.getConnectTimeout());
+            v_FTPClient.setControlKeepAliveReplyTimeout(i_FTPInfo.getControlKeepAliveReplyTimeout());
+            v_FTPClient.setControlKeepAliveTimeout(     i_FTPInfo.getControlKeepAliveTimeout());
+            v_FTPClient.setDataTimeout(                 i_FTPInfo.getDataTimeout());
             
-            this.ftpClient = new FTPClient();
-            
+            v_Begin = System.nanoTime();
+            v_FTPClient.connect(i_FTPInfo.getIp() ,i_FTPInfo.getPort());
+            if ( v_Metrics != null )
+            {
+                v_Metrics.getConnect().record(System.nanoTime() - v_Begin);
+            }
             
-            this.ftpClient.setProxy(                       this.ftpInfo.getProxy());
-            this.ftpClient.setDefaultTimeout(              this.ftpInfo.getDefaultTimeout());
-            this.ftpClient.setConnectTimeout(              this.ftpInfo.getConnectTimeout());
-            this.ftpClient.setControlKeepAliveReplyTimeout(this.ftpInfo.getControlKeepAliveReplyTimeout());
-            this.ftpClient.setControlKeepAliveTimeout(     this.ftpInfo.getControlKeepAliveTimeout());
-            this.ftpClient.setDataTimeout(                 this.ftpInfo.getDataTimeout());
+            v_Begin = System.nanoTime();
+            if ( !v_FTPClient.login(i_FTPInfo.getUser() ,i_FTPInfo.getPassword()) )
+            {
+                if ( v_Metrics != null )
+                {
+                    v_Metrics.failure("login" ,String.valueOf(v_FTPClient.getReplyCode()));
+                }
+                throw new IOException("Ftp login is faild: " + v_FTPClient.getReplyString());
+            }
+            if ( v_Metrics != null )
+            {
+                v_Metrics.getLogin().record(System.nanoTime() - v_Begin);
+            }
             
-            this.ftpClient.connect(this.ftpInfo.getIp()   ,this.ftpInfo.getPort());
-            this.ftpClient.login(  this.ftpInfo.getUser() ,this.ftpInfo.getPassword());
+            if ( i_FTPInfo.isAutoTuning() )
+            {
+                // 用一次 NOOP 命令测量往返时延
+                v_Begin = System.nanoTime();
+                if ( v_FTPClient.sendNoOp() )
+                {
+                    v_FTPClient.getTuning().recordRtt(System.nanoTime() - v_Begin);
+                }
+            }
             
-            if ( this.ftpInfo.isLocalPassiveMode() )
+            if ( i_FTPInfo.isLocalPassiveMode() )
             {
-                this.ftpClient.enterLocalPassiveMode();
+                v_FTPClient.enterLocalPassiveMode();
             }
-            if ( this.ftpInfo.isRemotePassiveMode() )
+            if ( i_FTPInfo.isRemotePassiveMode() )
             {
-                this.ftpClient.enterRemotePassiveMode();
+                v_FTPClient.enterRemotePassiveMode();
             }
-            this.ftpClient.setFileType(FTPClient.BINARY_FILE_TYPE);
+            v_FTPClient.setFileType(FTPClient.BINARY_FILE_TYPE);
             
-            this.ftpClient.setBufferSize(                  this.ftpInfo.getBufferSize());
-            this.ftpClient.setReceiveBufferSize(           this.ftpInfo.getReceiveBufferSize());
-            this.ftpClient.setReceieveDataSocketBufferSize(this.ftpInfo.getReceiveDataSocketBufferSize());
-            this.ftpClient.setSendBufferSize(              this.ftpInfo.getSendBufferSize());
-            this.ftpClient.setSendDataSocketBufferSize(    this.ftpInfo.getSendDataSocketBufferSize());
+            v_FTPClient.setBufferSize(                  i_FTPInfo.getBufferSize());
+            v_FTPClient.setReceiveBufferSize(           i_FTPInfo.getReceiveBufferSize());
+            v_FTPClient.setReceieveDataSocketBufferSize(i_FTPInfo.getReceiveDataSocketBufferSize());
+            v_FTPClient.setSendBufferSize(              i_FTPInfo.getSendBufferSize());
+            v_FTPClient.setSendDataSocketBufferSize(    i_FTPInfo.getSendDataSocketBufferSize());
             
             
-            this.ftpClient.setStrictMultilineParsing(      this.ftpInfo.isStrictMultilineParsing());
-            this.ftpClient.setStrictReplyParsing(          this.ftpInfo.isStrictReplyParsing());
-            this.ftpClient.setUseEPSVwithIPv4(             this.ftpInfo.isUseEPSVwithIPv4());
-            this.ftpClient.setRemoteVerificationEnabled(   this.ftpInfo.isRemoteVerificationEnabled());
+            v_FTPClient.setStrictMultilineParsing(      i_FTPInfo.isStrictMultilineParsing());
+            v_FTPClient.setStrictReplyParsing(          i_FTPInfo.isStrictReplyParsing());
+            v_FTPClient.setUseEPSVwithIPv4(             i_FTPInfo.isUseEPSVwithIPv4());
+            v_FTPClient.setRemoteVerificationEnabled(   i_FTPInfo.isRemoteVerificationEnabled());
             
-            this.ftpClient.setListHiddenFiles(             this.ftpInfo.getListHiddenFiles());
-            this.ftpClient.setControlEncoding(             this.ftpInfo.getControlEncoding());
-            this.ftpClient.setAutodetectUTF8(              this.ftpInfo.getAutodetectUTF8());
-            this.ftpClient.setCharset(                     this.ftpInfo.getCharset());
-            this.ftpClient.changeWorkingDirectory(         this.ftpInfo.getInitPath());
-        } 
-        catch (Exception exce) 
+            v_FTPClient.setListHiddenFiles(             i_FTPInfo.getListHiddenFiles());
+            v_FTPClient.setControlEncoding(             i_FTPInfo.getControlEncoding());
+            v_FTPClient.setAutodetectUTF8(              i_FTPInfo.getAutodetectUTF8());
+            v_FTPClient.setCharset(                     i_FTPInfo.getCharset());
+            v_FTPClient.changeWorkingDirectory(         i_FTPInfo.getInitPath());
+        }
+        catch (IOException | RuntimeException exce)
         {
-            this.ftpClient = null;
-            exce.printStackTrace();
-            return exce.getMessage();
+            if ( v_Metrics != null && !v_FTPClient.isConnected() )
+            {
+                v_Metrics.failure("connect" ,exce);
+            }
+            
+            if ( v_FTPClient.isConnected() )
+            {
+                try
+                {
+                    v_FTPClient.disconnect();
+                }
+                catch (Exception e)
+                {
+                    // Nothing.
+                }
+            }
+            
+            throw exce;
         }
         
-        return null;
+        return v_FTPClient;
     }
     
     
     
     /**
      * 关闭与 FTP 服务间的连接服务
+     * 
+     * 有连接池时，将连接归还给连接池。传输异常过的连接不再放回池中。
      */
     public void close()
     {
         if ( this.ftpClient != null )
         {
+            if ( this.ftpPool != null )
+            {
+                if ( this.isBroken )
+                {
+                    this.ftpPool.invalidate(this.ftpInfo ,this.ftpClient);
+                }
+                else
+                {
+                    this.ftpPool.giveBack(this.ftpInfo ,this.ftpClient);
+                }
+                
+                this.ftpClient = null;
+                return;
+            }
+            
             try 
             {
                 this.ftpClient.logout();
@@ -188,6 +444,76 @@ public final class FTPHelp
     
     
     
+    /**
+     * 借出一个额外的连接（如分段下载时）。有连接池时从连接池中借出，否则新建连接
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @return
+     * @throws IOException
+     */
+    private FTPClient borrowFTPClient() throws IOException
+    {
+        if ( this.ftpPool != null )
+        {
+            return this.ftpPool.borrow(this.ftpInfo);
+        }
+        else
+        {
+            return newFTPClient(this.ftpInfo);
+        }
+    }
+    
+    
+    
+    /**
+     * 归还 borrowFTPClient() 借出的连接
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_FTPClient
+     * @param i_IsBroken   连接是否在传输过程中异常过
+     */
+    private void giveBackFTPClient(FTPClient i_FTPClient ,boolean i_IsBroken)
+    {
+        if ( this.ftpPool != null )
+        {
+            if ( i_IsBroken )
+            {
+                this.ftpPool.invalidate(this.ftpInfo ,i_FTPClient);
+            }
+            else
+            {
+                this.ftpPool.giveBack(this.ftpInfo ,i_FTPClient);
+            }
+            return;
+        }
+        
+        try 
+        {
+            i_FTPClient.logout();
+        } 
+        catch (Exception e) 
+        {
+            // Nothing.
+        }
+        
+        try 
+        {
+            i_FTPClient.disconnect();
+        } 
+        catch (Exception e) 
+        {
+            // Nothing.
+        }
+    }
+    
+    
+    
     /**
      * 下载文件
      * 
@@ -217,13 +543,18 @@ public final class FTPHelp
             return "Ftp Client is not connect.";
         }
         
+        if ( this.isZeroCopy() )
+        {
+            return this.downloadByChannel(i_RemoteFullName ,i_SaveFullName ,i_FileSize);
+        }
+        
         
         InputStream       v_Input          = null;
         DataInputStream   v_DataInput      = null;
         File              v_SaveFile       = null;
         FileOutputStream  v_SaveFileOutput = null;
-        long              v_FTPingSize     = 0;
         DefaultFTPEvent   v_Event          = new DefaultFTPEvent(this ,i_FileSize);
+        FTPChecksum       v_Checksum       = FTPChecksum.newInstance(this.checksumType);
         boolean           v_IsContinue     = true;
         
         v_Event.setActionType(2);
@@ -234,36 +565,11 @@ public final class FTPHelp
             v_DataInput      = new DataInputStream(v_Input);
             v_SaveFile       = new File(i_SaveFullName);
             v_SaveFileOutput = new FileOutputStream(v_SaveFile);
-            byte [] v_Buffer = new byte[$BufferSize];
-            int     v_RSize  = 0;
             
             
             v_IsContinue = this.fireFTPBeforeListener(v_Event);
             
-            if ( this.dataSafe )
-            {
-                while ( v_IsContinue && (v_RSize = v_DataInput.read(v_Buffer)) >= 0 )
-                {
-                    v_SaveFileOutput.write(ByteHelp.xorMV(v_Buffer ,0 ,v_RSize) ,0 ,v_RSize);
-                    
-                    v_FTPingSize += v_RSize;
-                    
-                    v_Event.setCompleteSize(v_FTPingSize);
-                    v_IsContinue = this.fireFTPingListener(v_Event);
-                } 
-            }
-            else
-            {
-                while ( v_IsContinue && (v_RSize = v_DataInput.read(v_Buffer)) >= 0 )
-                {
-                    v_SaveFileOutput.write(v_Buffer ,0 ,v_RSize);
-                    
-                    v_FTPingSize += v_RSize;
-                    
-                    v_Event.setCompleteSize(v_FTPingSize);
-                    v_IsContinue = this.fireFTPingListener(v_Event);
-                }   
-            }
+            this.copyStream(v_DataInput ,v_SaveFileOutput ,v_Event ,v_IsContinue ,false ,v_Checksum ,0);
             
             v_SaveFileOutput.flush();
             v_SaveFileOutput.close();
@@ -272,10 +578,18 @@ public final class FTPHelp
             // 此语句十分关键，如果没有此句，只能下载第一个文件，其后的所有文件都将失败
             this.ftpClient.completePendingCommand();
             
+            String v_Error = this.finishChecksum(v_Checksum ,i_RemoteFullName ,true ,v_Event);
+            if ( v_Error != null )
+            {
+                v_Event.setEndTime();
+                return v_Error;
+            }
+            
             v_Event.setSucceedFinish();
         } 
         catch (Exception e) 
         {
+            this.isBroken = true;
             v_Event.setEndTime();
             return e.toString();
         }
@@ -332,406 +646,510 @@ public final class FTPHelp
     
     
     /**
-     * 下载文件(返回文件内容)
-     * 
-     * 即，加载文件内容在内存中
-     * 
+     * 下载文件，可断点续传
+     *
+     * 续传时，以本地已存在的（未下载完的）文件的大小为断点，通过 REST 偏移量只下载剩余的部分，
+     * 并用 FileChannel 写在本地文件的末尾。下载完成后，用 SIZE 命令核对本地文件与远程文件的大小。
+     *
+     * 1. 本地文件不存在、或比远程文件还大（不是同一文件）时，重新下载整个文件
+     * 2. 获取不到远程文件的大小、或传输时压缩（不能从中间解压）时，也重新下载整个文件
+     * 3. 事件的已完成大小包含断点之前的部分
+     *
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
      * @param i_RemoteFullName  远程文件的全路径
      * @param i_SaveFullName    保存文件的全路径(下载路径)
-     * @return  下载成功返回文件内容
-     */
-    public String download(String i_RemoteFullName)
-    {
-        return this.download(i_RemoteFullName ,0);
-    }
-    
-    
-    
-    /**
-     * 下载文件(返回文件内容)
-     * 
-     * 即，加载文件内容在内存中
-     * 
-     * @param i_RemoteFullName  远程文件的全路径
-     * @param i_FileSize        文件的大小（单位：Byte）。不自动获取远程文件的大小，而是由外在传参确定大小
-     * @return  下载成功返回文件内容
+     * @param i_IsResume        是否断点续传
+     * @return  下载成功返回 null 。否则返回异常信息
      */
-    public String download(String i_RemoteFullName ,long i_FileSize)
+    public String download(String i_RemoteFullName ,String i_SaveFullName ,boolean i_IsResume)
     {
+        if ( !i_IsResume )
+        {
+            return this.download(i_RemoteFullName ,i_SaveFullName ,0);
+        }
+        
         if ( this.ftpClient == null )
         {
             return "Ftp Client is not connect.";
         }
         
+        File v_SaveFile = new File(i_SaveFullName);
+        long v_FileSize = this.getFileSize(i_RemoteFullName);
+        long v_Begin    = v_SaveFile.isFile() ? v_SaveFile.length() : 0;
+        
+        if ( v_Begin <= 0 || v_FileSize < 0 || v_Begin > v_FileSize || this.compress )
+        {
+            return this.download(i_RemoteFullName ,i_SaveFullName ,Math.max(v_FileSize ,0));
+        }
         
-        InputStream       v_Input          = null;
-        DataInputStream   v_DataInput      = null;
-        long              v_FTPingSize     = 0;
-        StringBuilder     v_OutBuffer      = new StringBuilder();
-        DefaultFTPEvent   v_Event          = new DefaultFTPEvent(this ,i_FileSize);
-        boolean           v_IsContinue     = true;
+        
+        FileChannel     v_Output     = null;
+        AtomicLong      v_FTPingSize = new AtomicLong(v_Begin);
+        AtomicBoolean   v_IsContinue = new AtomicBoolean(true);
+        DefaultFTPEvent v_Event      = new DefaultFTPEvent(this ,v_FileSize);
+        String          v_Error      = null;
         
         v_Event.setActionType(2);
+        v_Event.setCompleteSize(v_Begin);
+        v_Event.setStartSize(v_Begin);
         
-        try 
+        try
         {
-            v_Input          = this.ftpClient.retrieveFileStream(new String(i_RemoteFullName.getBytes("GBK") ,"ISO-8859-1"));
-            v_DataInput      = new DataInputStream(v_Input);
-            byte [] v_Buffer = new byte[$BufferSize];
-            int     v_RSize  = 0;
+            v_Output = FileChannel.open(v_SaveFile.toPath() ,StandardOpenOption.WRITE);
             
+            v_IsContinue.set(this.fireFTPBeforeListener(v_Event));
             
-            v_IsContinue = this.fireFTPBeforeListener(v_Event);
+            if ( v_Begin < v_FileSize )
+            {
+                this.downloadSegment(this.ftpClient ,toFTPName(i_RemoteFullName) ,v_Output ,v_Begin ,v_FileSize ,v_FTPingSize ,v_IsContinue ,v_Event ,new ReentrantLock());
+            }
             
-            if ( this.dataSafe )
+            v_Output.close();
+            v_Output = null;
+            
+            if ( v_IsContinue.get() )
             {
-                while ( v_IsContinue && (v_RSize = v_DataInput.read(v_Buffer)) >= 0 )
+                // 下载期间远程文件可能已被改写，再次核对大小
+                long v_RemoteSize = this.getFileSize(i_RemoteFullName);
+                if ( v_SaveFile.length() != v_RemoteSize )
                 {
-                    v_OutBuffer.append(StringHelp.bytesToHex(ByteHelp.xorMV(v_Buffer ,0 ,v_RSize) ,0 ,v_RSize));
-                    
-                    v_FTPingSize += v_RSize;
-                    
-                    v_Event.setCompleteSize(v_FTPingSize);
-                    v_IsContinue = this.fireFTPingListener(v_Event);
-                } 
+                    v_Error = "Resume download is incomplete: local size " + v_SaveFile.length() + " ,remote size " + v_RemoteSize + ".";
+                }
+                else if ( !Help.isNull(this.checksumType) )
+                {
+                    v_Error = this.finishChecksum(this.checksumFile(v_SaveFile ,this.checksumType) ,i_RemoteFullName ,true ,v_Event);
+                }
+            }
+            
+            if ( v_Error == null && v_FTPingSize.get() == v_FileSize )
+            {
+                v_Event.setSucceedFinish();
             }
             else
             {
-                while ( v_IsContinue && (v_RSize = v_DataInput.read(v_Buffer)) >= 0 )
-                {
-                    v_OutBuffer.append(StringHelp.bytesToHex(v_Buffer ,0 ,v_RSize));
-                    
-                    v_FTPingSize += v_RSize;
-                    
-                    v_Event.setCompleteSize(v_FTPingSize);
-                    v_IsContinue = this.fireFTPingListener(v_Event);
-                }   
+                v_Event.setEndTime();
             }
-            
-            // 此语句十分关键，如果没有此句，只能下载第一个文件，其后的所有文件都将失败
-            this.ftpClient.completePendingCommand();
-            
-            v_Event.setSucceedFinish();
-        } 
-        catch (Exception e) 
+        }
+        catch (Exception exce)
         {
+            this.isBroken = true;
             v_Event.setEndTime();
-            return e.toString();
+            v_Error = exce.toString();
         }
         finally
         {
-            if ( v_DataInput != null )
-            {
-                try 
-                {
-                    v_DataInput.close();
-                } 
-                catch (Exception e) 
-                {
-                    // Nothing.
-                }
-                
-                v_DataInput = null;
-            }
-            
-            if ( v_Input != null )
-            {
-                try
-                {
-                    v_Input.close();
-                }
-                catch (Exception e)
-                {
-                    // Nothing.
-                }
-                
-                v_Input = null;
-            }
+            closeQuietly(v_Output);
             
             this.fireFTPAfterListener(v_Event);
         }
         
-        return v_OutBuffer.toString();
+        return v_Error;
     }
     
     
     
     /**
-     * 上传文件
+     * 分段并行下载文件。
      * 
-     * @param i_LocalFullName   本地文件的全路径
-     * @param i_RemoteFullName  远程文件的全路径
-     * @param i_IsAppend        追加模式（断点续传）
-     * @return  上传成功返回 null 。否则返回异常信息
-     */
-    public String upload(String i_LocalFullName ,String i_RemoteFullName)
-    {
-        return this.upload(i_LocalFullName ,i_RemoteFullName ,false);
-    }
-    
-    
-    
-    /**
-     * 上传文件
+     * 将文件按字节区间分成多段，每段用一个独立的连接，通过 REST 偏移量并行下载，
+     * 并直接写入目标文件的对应位置。适用于高延迟链路上的大文件。
+     * 
+     * 1. 第一段使用本对象的连接，其它段从连接池中借出（无连接池时新建连接）
+     * 2. 事件监听器收到的是所有段汇总后的进度，任一监听器返回 false 时所有段均停止
+     * 3. 获取不到文件大小，或文件太小时，退化为普通的单连接下载
+     * 4. 服务端不支持 REST 命令时，也退化为普通的单连接下载
+     * 5. 下载失败或被中止时，删除本地未下载完的文件。本地文件已按文件大小预先分配，
+     *    保留时会被断点续传误认为已下载完成
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
      * 
-     * @param i_LocalFullName   本地文件的全路径
      * @param i_RemoteFullName  远程文件的全路径
-     * @param i_IsAppend        追加模式（断点续传）
-     * @return  上传成功返回 null 。否则返回异常信息
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时，用 SIZE 命令获取远程文件的大小
+     * @param i_SegmentCount    分段数量，即并行的连接数量
+     * @return  下载成功返回 null 。否则返回异常信息
      */
-    public String upload(String i_LocalFullName ,String i_RemoteFullName ,boolean i_IsAppend)
+    public String download(String i_RemoteFullName ,String i_SaveFullName ,long i_FileSize ,int i_SegmentCount)
     {
-        File            v_File       = new File(i_LocalFullName);
-        FileInputStream v_Input      = null;
-        DataInputStream v_DataInput  = null;
+        if ( this.ftpClient == null )
+        {
+            return "Ftp Client is not connect.";
+        }
         
-        try 
+        long v_FileSize = i_FileSize > 0 ? i_FileSize : this.getFileSize(i_RemoteFullName);
+        int  v_SegCount = (int)Math.min(i_SegmentCount ,(v_FileSize + $SegmentMinSize - 1) / $SegmentMinSize);
+        
+        // 传输时压缩的文件不能分段解压
+        if ( v_SegCount <= 1 || this.compress )
         {
-            v_Input     = new FileInputStream(i_LocalFullName);
-            v_DataInput = new DataInputStream(v_Input);
+            return this.download(i_RemoteFullName ,i_SaveFullName ,Math.max(v_FileSize ,0));
+        }
+        
+        long v_SegSize = (v_FileSize + v_SegCount - 1) / v_SegCount;
+        
+        try
+        {
+            // 探测服务端是否支持 REST 命令。探测后用 REST 0 复位，否则偏移量会作用在第一段的 RETR 命令上
+            if ( !FTPReply.isPositiveIntermediate(this.ftpClient.rest(String.valueOf(v_SegSize))) )
+            {
+                return this.download(i_RemoteFullName ,i_SaveFullName ,v_FileSize);
+            }
             
-            return this.upload(v_DataInput ,v_File.length() ,i_RemoteFullName ,i_IsAppend);
-        } 
-        catch (Exception e) 
+            if ( !FTPReply.isPositiveIntermediate(this.ftpClient.rest("0")) )
+            {
+                this.isBroken = true;
+                return "Reset restart offset is faild: " + this.ftpClient.getReplyString();
+            }
+        }
+        catch (IOException exce)
         {
-            return e.toString();
+            this.isBroken = true;
+            return exce.toString();
         }
-        finally
+        
+        
+        RandomAccessFile           v_SaveFile     = null;
+        ExecutorService            v_Executor     = null;
+        List<Future<?>>            v_Futures      = new ArrayList<Future<?>>(v_SegCount);
+        AtomicLong                 v_FTPingSize   = new AtomicLong(0);
+        AtomicBoolean              v_IsContinue   = new AtomicBoolean(true);
+        DefaultFTPEvent            v_Event        = new DefaultFTPEvent(this ,v_FileSize);
+        ReentrantLock              v_EventLock    = new ReentrantLock();
+        String                     v_Error        = null;
+        boolean                    v_IsSucceed    = false;
+        
+        v_Event.setActionType(2);
+        
+        try
         {
-            if ( v_DataInput != null )
+            String v_RemoteName = toFTPName(i_RemoteFullName);
+            
+            v_SaveFile = new RandomAccessFile(i_SaveFullName ,"rw");
+            v_SaveFile.setLength(v_FileSize);
+            
+            v_IsContinue.set(this.fireFTPBeforeListener(v_Event));
+            
+            FileChannel v_Channel = v_SaveFile.getChannel();
+            v_Executor = FTPExecutors.getInstance().newExecutor("FTPHelp-Segment" ,v_SegCount - 1);
+            
+            for (int v_SegNo=1; v_SegNo<v_SegCount; v_SegNo++)
             {
-                try 
-                {
-                    v_DataInput.close();
-                } 
-                catch (Exception e) 
-                {
-                    // Nothing.
-                }
+                long v_Begin = v_SegNo * v_SegSize;
+                long v_End   = Math.min(v_Begin + v_SegSize ,v_FileSize);
                 
-                v_DataInput = null;
+                v_Futures.add(v_Executor.submit(() ->
+                {
+                    FTPClient v_FTPClient = this.borrowFTPClient();
+                    boolean   v_IsBroken  = true;
+                    
+                    try
+                    {
+                        this.downloadSegment(v_FTPClient ,v_RemoteName ,v_Channel ,v_Begin ,v_End ,v_FTPingSize ,v_IsContinue ,v_Event ,v_EventLock);
+                        v_IsBroken = false;
+                    }
+                    finally
+                    {
+                        this.giveBackFTPClient(v_FTPClient ,v_IsBroken);
+                    }
+                    
+                    return null;
+                }));
             }
             
-            if ( v_Input != null )
+            // 第一段在本线程中用本对象的连接下载
+            try
+            {
+                this.downloadSegment(this.ftpClient ,v_RemoteName ,v_Channel ,0 ,Math.min(v_SegSize ,v_FileSize) ,v_FTPingSize ,v_IsContinue ,v_Event ,v_EventLock);
+            }
+            catch (Exception exce)
+            {
+                this.isBroken = true;
+                v_IsContinue.set(false);
+                v_Error = exce.toString();
+            }
+            
+            for (Future<?> v_Future : v_Futures)
             {
                 try
                 {
-                    v_Input.close();
+                    v_Future.get();
                 }
-                catch (Exception e)
+                catch (ExecutionException exce)
+                {
+                    v_IsContinue.set(false);
+                    if ( v_Error == null )
+                    {
+                        v_Error = exce.getCause().toString();
+                    }
+                }
+            }
+            
+            // 分段下载的数据不是顺序到达的，下载后再读取本地文件计算校验值
+            if ( v_Error == null && v_FTPingSize.get() == v_FileSize && !Help.isNull(this.checksumType) )
+            {
+                v_Error = this.finishChecksum(this.checksumFile(new File(i_SaveFullName) ,this.checksumType) ,i_RemoteFullName ,true ,v_Event);
+            }
+            
+            if ( v_Error == null && v_FTPingSize.get() == v_FileSize )
+            {
+                v_Event.setSucceedFinish();
+                v_IsSucceed = true;
+            }
+            else
+            {
+                v_Event.setEndTime();
+            }
+        }
+        catch (Exception exce)
+        {
+            v_Event.setEndTime();
+            v_Error = exce.toString();
+        }
+        finally
+        {
+            if ( v_Executor != null )
+            {
+                v_Executor.shutdownNow();
+            }
+            
+            if ( v_SaveFile != null )
+            {
+                try 
+                {
+                    v_SaveFile.close();
+                } 
+                catch (Exception e) 
                 {
                     // Nothing.
                 }
                 
-                v_Input = null;
+                v_SaveFile = null;
+                
+                if ( !v_IsSucceed )
+                {
+                    new File(i_SaveFullName).delete();
+                }
             }
+            
+            this.fireFTPAfterListener(v_Event);
         }
+        
+        return v_Error;
     }
     
     
     
     /**
-     * 上传文件
+     * 下载文件的一段数据 [i_Begin ,i_End)，写入本地文件的对应位置
      * 
      * @author      ZhengWei(HY)
-     * @createDate  2020-05-20
+     * @createDate  2026-10-17
      * @version     v1.0
      *
-     * @param i_FileDataPacket  文件的数据包（默认开启断点续传）
-     * @return                  本次数据包上传结果。请参考 FileHelp.$Upload_* 的系列说明 
+     * @param i_FTPClient    下载本段使用的连接
+     * @param i_RemoteName   远程文件的全路径（已转码的）
+     * @param i_Channel      本地文件的通道
+     * @param i_Begin        本段的开始位置（包含）
+     * @param i_End          本段的结束位置（不包含）
+     * @param io_FTPingSize  所有段已下载的总大小
+     * @param io_IsContinue  是否继续下载。任一段异常或被监听器中止时为 false
+     * @param io_Event       所有段共用的事件
+     * @param i_EventLock    所有段共用的事件锁。各段依次更新事件、通知监听器。
+     *                       监听器可能有I/O，用 ReentrantLock 而非 synchronized，虚拟线程阻塞时不会被固定在平台线程上
+     * @throws IOException
      */
-    public int upload(FileDataPacket i_FileDataPacket)
+    private void downloadSegment(FTPClient       i_FTPClient
+                                ,String          i_RemoteName
+                                ,FileChannel     i_Channel
+                                ,long            i_Begin
+                                ,long            i_End
+                                ,AtomicLong      io_FTPingSize
+                                ,AtomicBoolean   io_IsContinue
+                                ,DefaultFTPEvent io_Event
+                                ,ReentrantLock   i_EventLock) throws IOException
     {
-        ByteArrayInputStream v_ByteInput = new ByteArrayInputStream(i_FileDataPacket.getDataByte());
-        DataInputStream      v_DataInput = new DataInputStream(v_ByteInput);
-        String               v_UploadRet = null;
+        InputStream v_Input    = null;
+        byte []     v_Buffer   = null;
+        long        v_Position = i_Begin;
         
-        FileDataPacket v_Old = $DataPackets.get(i_FileDataPacket.getName());
-        if ( v_Old != null )
+        try
         {
-            if ( v_Old.getDataNo().intValue() >= i_FileDataPacket.getDataNo().intValue() )
+            i_FTPClient.setRestartOffset(i_Begin);
+            v_Input = i_FTPClient.retrieveFileStream(i_RemoteName);
+            
+            if ( v_Input == null )
             {
-                return FileHelp.$Upload_GoOn;
+                throw new IOException("Retrieve file is faild: " + i_FTPClient.getReplyString());
             }
-        }
-        
-        try 
-        {
-            v_UploadRet = this.upload(v_DataInput ,i_FileDataPacket.getDataByte().length ,i_FileDataPacket.getName() ,true);
-        }
-        finally
-        {
-            if ( v_DataInput != null )
+            
+            v_Buffer = FTPBufferPool.getInstance().borrow(this.getTransferBufferSize());
+            int            v_RSize       = 0;
+            boolean        v_IsTransform = this.hasTransform();
+            FTPRateLimiter v_RateLimiter = this.getRateLimiter();
+            
+            while ( io_IsContinue.get() && v_Position < i_End 
+                && (v_RSize = v_Input.read(v_Buffer ,0 ,(int)Math.min(v_Buffer.length ,i_End - v_Position))) >= 0 )
             {
-                try 
+                v_RateLimiter.acquire(v_RSize);
+                
+                if ( v_IsTransform )
                 {
-                    v_DataInput.close();
-                } 
-                catch (Exception e) 
+                    this.decode(v_Buffer ,0 ,v_RSize ,v_Position);
+                }
+                
+                ByteBuffer v_Data = ByteBuffer.wrap(v_Buffer ,0 ,v_RSize);
+                
+                while ( v_Data.hasRemaining() )
                 {
-                    // Nothing.
+                    v_Position += i_Channel.write(v_Data ,v_Position);
                 }
                 
-                v_DataInput = null;
+                i_EventLock.lock();
+                try
+                {
+                    io_Event.setCompleteSize(io_FTPingSize.addAndGet(v_RSize));
+                    
+                    if ( !this.fireFTPingListener(io_Event) )
+                    {
+                        io_IsContinue.set(false);
+                    }
+                }
+                finally
+                {
+                    i_EventLock.unlock();
+                }
             }
-            
-            if ( v_ByteInput != null )
+        }
+        finally
+        {
+            if ( v_Input != null )
             {
                 try
                 {
-                    v_ByteInput.close();
+                    // 非最后一段会提前关闭数据连接，服务端的应答可能是 426，但控制连接的应答不会错位
+                    v_Input.close();
+                    i_FTPClient.completePendingCommand();
                 }
                 catch (Exception e)
                 {
                     // Nothing.
                 }
-                
-                v_ByteInput = null;
             }
+            
+            FTPBufferPool.getInstance().giveBack(v_Buffer);
         }
         
-        if ( Help.isNull(v_UploadRet) )
-        {
-            if ( i_FileDataPacket.getDataCount().intValue() == i_FileDataPacket.getDataNo().intValue() )
-            {
-                $DataPackets.remove(i_FileDataPacket.getName());
-                return FileHelp.$Upload_Finish;
-            }
-            else
-            {
-                $DataPackets.put(i_FileDataPacket.getName() ,i_FileDataPacket ,this.dataPacketTimeOut);
-                return FileHelp.$Upload_GoOn;
-            }
-        }
-        else
+        if ( v_Position < i_End && io_IsContinue.get() )
         {
-            return FileHelp.$Upload_Error;
+            throw new IOException("Segment [" + i_Begin + " ," + i_End + ") is incomplete at " + v_Position + ".");
         }
     }
     
     
     
     /**
-     * 上传文件
+     * 零拷贝的方式上传本地文件
      * 
-     * 1. 支持自动创建目录
-     * 2. 支持中文目录
+     * 用 FileChannel.transferTo() 直接将本地文件的数据写入数据连接，不经过用户态的缓存拷贝。
+     * 每 $ZeroCopySize 大小触发一次传送文件进度的事件。
      * 
-     * @param i_LocalDataInput  本地文件的流（方法内不关闭流）
-     * @param i_LocalDataSize   本地文件流的大小
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_LocalFile       本地文件
      * @param i_RemoteFullName  远程文件的全路径
      * @param i_IsAppend        追加模式（断点续传）
+     * @param i_Position        续传的开始位置，即服务端已有的大小。大于0时，须为追加模式
      * @return  上传成功返回 null 。否则返回异常信息
      */
-    public String upload(DataInputStream i_LocalDataInput ,long i_LocalDataSize ,String i_RemoteFullName ,boolean i_IsAppend)
+    private String uploadByChannel(File i_LocalFile ,String i_RemoteFullName ,boolean i_IsAppend ,long i_Position)
     {
-        if ( this.ftpClient == null )
-        {
-            return "Ftp Client is not connect.";
-        }
-        
-        
-        DataInputStream v_DataInput  = null;
-        OutputStream    v_Output     = null;
-        long            v_FTPingSize = 0;
-        DefaultFTPEvent v_Event      = new DefaultFTPEvent(this ,i_LocalDataSize);
-        boolean         v_IsContinue = true;
+        FileChannel     v_Input       = null;
+        Socket          v_Socket      = null;
+        String          v_DirFullName = null;
+        long            v_FTPingSize  = i_Position;
+        DefaultFTPEvent v_Event       = new DefaultFTPEvent(this ,i_LocalFile.length());
+        boolean         v_IsContinue  = true;
         
         v_Event.setActionType(1);
+        v_Event.setCompleteSize(i_Position);
+        v_Event.setStartSize(i_Position);
         
-        try 
+        try
         {
-            if ( !Help.isNull(i_RemoteFullName) )
+            v_Input       = FileChannel.open(i_LocalFile.toPath() ,StandardOpenOption.READ);
+            v_DirFullName = this.makeParentDirectory(i_RemoteFullName);
+            v_Socket      = this.openDataSocket(i_IsAppend ? "APPE" : "STOR" ,i_RemoteFullName);
+            
+            if ( v_Socket == null && this.remakeDirectory(v_DirFullName) )
             {
-                String [] v_RFNameArr   = i_RemoteFullName.split("/");
-                String    v_DirFullName = StringHelp.replaceLast(i_RemoteFullName ,"/" + v_RFNameArr[v_RFNameArr.length - 1] ,"");
-                
-                this.makeDirectory(v_DirFullName);
+                v_Socket = this.openDataSocket(i_IsAppend ? "APPE" : "STOR" ,i_RemoteFullName);
             }
             
-            v_DataInput      = i_LocalDataInput;
-            byte [] v_Buffer = new byte[$BufferSize];
-            int     v_RSize  = 0;
-            
-            if ( i_IsAppend )
-            {                                              
-                v_Output = this.ftpClient.appendFileStream(new String(i_RemoteFullName.getBytes("GBK") ,"ISO-8859-1"));
-            }
-            else
+            if ( v_Socket == null )
             {
-                v_Output = this.ftpClient.storeFileStream(new String(i_RemoteFullName.getBytes("GBK") ,"ISO-8859-1"));
+                throw new IOException("Store file is faild: " + this.ftpClient.getReplyString());
             }
             
+            WritableByteChannel v_Output      = v_Socket.getChannel() != null ? v_Socket.getChannel() : Channels.newChannel(v_Socket.getOutputStream());
+            long                v_Size        = v_Input.size();
+            FTPRateLimiter      v_RateLimiter = this.getRateLimiter();
+            // 限速时按传输缓存的大小分块，让令牌的发放更平滑
+            long                v_Block       = v_RateLimiter.isLimited() ? Math.min($ZeroCopySize ,this.getTransferBufferSize()) : $ZeroCopySize;
+            
             v_IsContinue = this.fireFTPBeforeListener(v_Event);
             
-            if ( this.dataSafe )
+            while ( v_IsContinue && v_FTPingSize < v_Size )
             {
-                while ( v_IsContinue && (v_RSize = v_DataInput.read(v_Buffer)) >= 0 )
-                {
-                    v_Output.write(ByteHelp.xorMV(v_Buffer ,0 ,v_RSize) ,0 ,v_RSize);
-                    
-                    v_FTPingSize += v_RSize;
-                    
-                    v_Event.setCompleteSize(v_FTPingSize);
-                    v_IsContinue = this.fireFTPingListener(v_Event);
-                } 
-            }
-            else
-            {
-                while ( v_IsContinue && (v_RSize = v_DataInput.read(v_Buffer)) >= 0 )
-                {
-                    v_Output.write(v_Buffer ,0 ,v_RSize);
-                    
-                    v_FTPingSize += v_RSize;
-                    
-                    v_Event.setCompleteSize(v_FTPingSize);
-                    v_IsContinue = this.fireFTPingListener(v_Event);
-                } 
+                long v_TSize = Math.min(v_Block ,v_Size - v_FTPingSize);
+                
+                v_RateLimiter.acquire(v_TSize);
+                v_FTPingSize += v_Input.transferTo(v_FTPingSize ,v_TSize ,v_Output);
+                
+                v_Event.setCompleteSize(v_FTPingSize);
+                v_IsContinue = this.fireFTPingListener(v_Event);
             }
             
-            v_Output.flush();
-            v_Output.close();
-            v_Output = null;
+            v_Socket.close();
+            v_Socket = null;
             
             // 此语句十分关键，如果没有此句，只能下载第一个文件，其后的所有文件都将失败
-            this.ftpClient.completePendingCommand();
-            
-            v_Event.setSucceedFinish();
+            if ( this.ftpClient.completePendingCommand() )
+            {
+                this.getDirectoryCache().put(v_DirFullName ,this.ftpInfo.getDirCacheTimeout());
+            }
             
+            // 零拷贝的数据不经过本进程，上传后再读取本地文件计算校验值
+            if ( !Help.isNull(this.checksumType) )
+            {
+                FTPChecksum v_Checksum = this.checksumFile(i_LocalFile ,this.checksumType);
+                String      v_Error    = this.finishChecksum(v_Checksum ,i_RemoteFullName ,!i_IsAppend || i_Position > 0 ,v_Event);
+                if ( v_Error != null )
+                {
+                    v_Event.setEndTime();
+                    return v_Error;
+                }
+            }
             
-//          下面注解的代码，可直接上传文件，不用读写数据流。
-//          boolean v_Ret = this.ftpClient.storeFile(i_RemoteFullName ,v_Input);
-//          
-//          if ( v_Ret )
-//          {
-//              System.out.println("upLoad is succeed.");
-//          }
-//          else
-//          {
-//              System.out.println("upload is faild.");
-//          }
-        } 
+            v_Event.setSucceedFinish();
+        }
         catch (Exception e) 
         {
             e.printStackTrace();
+            this.isBroken = true;
             v_Event.setEndTime();
             return e.toString();
         }
         finally
         {
-            if ( v_Output != null )
-            {
-                try 
-                {
-                    v_Output.close();
-                } 
-                catch (Exception e) 
-                {
-                    // Nothing.
-                }
-                
-                v_Output = null;
-            }
+            closeQuietly(v_Socket);
+            closeQuietly(v_Input);
             
             this.fireFTPAfterListener(v_Event);
         }
@@ -742,243 +1160,2622 @@ public final class FTPHelp
     
     
     /**
-     * 创建FTP目录。可连续创建多级目录
+     * 零拷贝的方式下载文件
      * 
-     * 1. 支持中文目录
+     * 数据连接的数据读入堆外缓存后，直接写入本地文件的 FileChannel，不经过堆内 byte[] 的拷贝。
+     * （从网络到文件，JDK 没有真正的 sendfile 零拷贝，FileChannel.transferFrom() 内部也是用很小的临时缓存循环读写）
      * 
      * @author      ZhengWei(HY)
-     * @createDate  2020-05-20
+     * @createDate  2026-10-17
      * @version     v1.0
      *
-     * @param i_DirFullName   目录的全路径名称
-     * @return                返回值表示创建的目录数量
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @param i_FileSize        文件的大小（单位：Byte）
+     * @return  下载成功返回 null 。否则返回异常信息
      */
-    public int makeDirectory(String i_DirFullName)
+    private String downloadByChannel(String i_RemoteFullName ,String i_SaveFullName ,long i_FileSize)
     {
-        if ( Help.isNull(i_DirFullName) )
-        {
-            return 0;
-        }
+        Socket          v_Socket     = null;
+        Selector        v_Selector   = null;
+        FileChannel     v_Output     = null;
+        ByteBuffer      v_Buffer     = null;
+        long            v_FTPingSize = 0;
+        DefaultFTPEvent v_Event      = new DefaultFTPEvent(this ,i_FileSize);
+        FTPChecksum     v_Checksum   = FTPChecksum.newInstance(this.checksumType);
+        boolean         v_IsContinue = true;
         
-        if ( this.ftpClient == null )
-        {
-            return -99;
-        }
+        v_Event.setActionType(2);
         
         try
         {
-            String []     v_DirFullNameArr = i_DirFullName.trim().split("/");
-            StringBuilder v_DirBuffer      = new StringBuilder();
-            int           v_CreateCount    = 0;
+            v_Socket = this.openDataSocket("RETR" ,i_RemoteFullName);
             
-            for (String v_DirName : v_DirFullNameArr)
+            if ( v_Socket == null )
             {
-                if ( Help.isNull(v_DirName) )
+                throw new IOException("Retrieve file is faild: " + this.ftpClient.getReplyString());
+            }
+            
+            ReadableByteChannel v_Input = null;
+            if ( v_Socket.getChannel() != null )
+            {
+                // 非阻塞读，用 Selector 实现数据连接的读超时（阻塞的 SocketChannel.read() 不支持 setSoTimeout()）
+                SocketChannel v_SocketChannel = v_Socket.getChannel();
+                v_SocketChannel.configureBlocking(false);
+                v_Selector = Selector.open();
+                v_SocketChannel.register(v_Selector ,SelectionKey.OP_READ);
+                v_Input = v_SocketChannel;
+            }
+            else
+            {
+                v_Input = Channels.newChannel(v_Socket.getInputStream());
+            }
+            
+            v_Output = FileChannel.open(new File(i_SaveFullName).toPath() ,StandardOpenOption.CREATE ,StandardOpenOption.WRITE ,StandardOpenOption.TRUNCATE_EXISTING);
+            v_Buffer = FTPBufferPool.getInstance().borrowDirect(this.getTransferBufferSize());
+            int            v_RSize       = 0;
+            FTPRateLimiter v_RateLimiter = this.getRateLimiter();
+            
+            v_IsContinue = this.fireFTPBeforeListener(v_Event);
+            
+            while ( v_IsContinue && (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+            {
+                if ( v_RSize == 0 )
                 {
+                    if ( v_Selector.select(this.ftpInfo.getDataTimeout()) <= 0 )
+                    {
+                        throw new SocketTimeoutException("Read timed out.");
+                    }
+                    v_Selector.selectedKeys().clear();
                     continue;
                 }
                 
-                v_DirBuffer.append("/").append(new String(v_DirName.getBytes("GBK") ,"ISO-8859-1"));
+                v_RateLimiter.acquire(v_RSize);
                 
-                if ( this.ftpClient.makeDirectory(v_DirBuffer.toString()) )
+                v_Buffer.flip();
+                if ( v_Checksum != null )
                 {
-                    v_CreateCount++;
+                    v_Checksum.update(v_Buffer.duplicate());
+                }
+                while ( v_Buffer.hasRemaining() )
+                {
+                    v_Output.write(v_Buffer);
                 }
+                v_Buffer.clear();
+                
+                v_FTPingSize += v_RSize;
+                
+                v_Event.setCompleteSize(v_FTPingSize);
+                v_IsContinue = this.fireFTPingListener(v_Event);
             }
             
-            return v_CreateCount;
+            v_Output.close();
+            v_Output = null;
+            closeQuietly(v_Selector);
+            v_Selector = null;
+            v_Socket.close();
+            v_Socket = null;
+            
+            // 此语句十分关键，如果没有此句，只能下载第一个文件，其后的所有文件都将失败
+            this.ftpClient.completePendingCommand();
+            
+            String v_Error = this.finishChecksum(v_Checksum ,i_RemoteFullName ,true ,v_Event);
+            if ( v_Error != null )
+            {
+                v_Event.setEndTime();
+                return v_Error;
+            }
+            
+            v_Event.setSucceedFinish();
         }
-        catch (Exception exce)
+        catch (Exception e) 
         {
-            exce.printStackTrace();
+            this.isBroken = true;
+            v_Event.setEndTime();
+            return e.toString();
+        }
+        finally
+        {
+            closeQuietly(v_Output);
+            closeQuietly(v_Selector);
+            closeQuietly(v_Socket);
+            FTPBufferPool.getInstance().giveBack(v_Buffer);
+            
+            this.fireFTPAfterListener(v_Event);
         }
         
-        return -1;
+        return null;
     }
     
     
     
     /**
-     * 删除文件
+     * 是否可用零拷贝的方式传输：允许零拷贝、数据不加密、没有事件监听器，且连接支持直接打开数据连接。
+     * 
+     * 零拷贝按大块传输，传输中事件的粒度粗、取消不及时，所以有事件监听器时用数据流的方式
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @return
+     */
+    private boolean isZeroCopy()
+    {
+        return this.ftpInfo.isZeroCopy()
+            && !this.hasTransform()
+            && !this.compress
+            && (this.ftpListeners == null || this.ftpListeners.isEmpty())
+            && this.ftpClient instanceof FTPChannelClient;
+    }
+    
+    
+    
+    /**
+     * 发送命令并打开数据连接
      * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Command         如 STOR、APPE、RETR
      * @param i_RemoteFullName  远程文件的全路径
-     * @return  上传成功返回 null 。否则返回异常信息
+     * @return                  服务端拒绝时返回 null
+     * @throws IOException
      */
-    public String deleteFile(String i_RemoteFullName)
+    private Socket openDataSocket(String i_Command ,String i_RemoteFullName) throws IOException
     {
-        if ( this.ftpClient == null )
-        {
-            return "Ftp Client is not connect.";
-        }
-        
-        
-        try
-        {
-            boolean v_Ret = this.ftpClient.deleteFile(new String(i_RemoteFullName.getBytes("GBK") ,"ISO-8859-1"));
-            
-            if ( !v_Ret )
-            {
-                return "Delete file is faild.";
-            }
-        }
-        catch (Exception exce)
-        {
-            return exce.toString();
-        }
-        
-        return null;
+        return ((FTPChannelClient)this.ftpClient).openDataSocket(i_Command ,toFTPName(i_RemoteFullName));
     }
     
     
     
     /**
-     * 注册FTP文件事件
+     * 关闭资源，并忽略异常
      * 
-     * @param e
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Closeable
      */
-    public void addFTPListener(FTPListener e)
+    private static void closeQuietly(Closeable i_Closeable)
     {
-        if ( this.ftpListeners == null )
+        if ( i_Closeable != null )
         {
-            this.ftpListeners = new HashSet<FTPListener>();
+            try
+            {
+                i_Closeable.close();
+            }
+            catch (Exception e)
+            {
+                // Nothing.
+            }
         }
-        
-        this.ftpListeners.add(e);
     }
     
     
     
     /**
-     * 移除FTP文件事件
+     * 下载文件(返回文件内容)
      * 
-     * @param e
+     * 即，加载文件内容在内存中
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @return  下载成功返回文件内容
      */
-    public void removeFTPListener(FTPListener e)
+    public String download(String i_RemoteFullName)
     {
-        if ( this.ftpListeners == null )
-        {
-            return;
-        }
-        
-        this.ftpListeners.remove(e);
+        return this.download(i_RemoteFullName ,0);
     }
     
     
     
     /**
-     * 触发FTP传送文件之前的事件
+     * 下载文件(返回文件内容)
      * 
-     * @param i_Event
-     * @return   返回值表示是否继续
+     * 即，加载文件内容在内存中。文件内容为十六进制的字符串，需要字节内容时，请用 downloadBytes()
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时，用 SIZE 命令获取远程文件的大小（用于预分配内存）
+     * @return  下载成功返回文件内容
      */
-    protected boolean fireFTPBeforeListener(FTPEvent i_Event)
+    public String download(String i_RemoteFullName ,long i_FileSize)
     {
-        if ( this.ftpListeners == null )
-        {
-            return true;
-        }
+        long          v_FileSize  = i_FileSize > 0 ? i_FileSize : this.getFileSize(i_RemoteFullName);
+        StringBuilder v_OutBuffer = new StringBuilder(v_FileSize > 0 && v_FileSize <= $MaxArraySize / 2 ? (int)v_FileSize * 2 : 16);
+        String        v_Error     = this.download(i_RemoteFullName ,new FTPHexOutputStream(v_OutBuffer) ,v_FileSize);
         
-        return notifyFTPBeforeListeners(i_Event);
+        return v_Error == null ? v_OutBuffer.toString() : v_Error;
     }
     
     
     
     /**
-     * 触发FTP传送文件事件
+     * 下载文件(返回文件的字节内容)
      * 
-     * @param i_Event
-     * @return   返回值表示是否继续
+     * 即，加载文件内容在内存中。按文件的大小预先分配好内存，不再十六进制编码
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  下载成功返回文件内容。下载失败返回 null
      */
-    protected boolean fireFTPingListener(FTPEvent i_Event)
+    public byte [] downloadBytes(String i_RemoteFullName)
     {
-        if ( this.ftpListeners == null )
-        {
-            return true;
-        }
-        
-        return notifyFTPingListeners(i_Event);
+        return this.downloadBytes(i_RemoteFullName ,0);
     }
     
     
     
     /**
-     * 触发FTP传送文件完成之后的事件
+     * 下载文件(返回文件的字节内容)
      * 
-     * @param i_Event
+     * 即，加载文件内容在内存中。按文件的大小预先分配好内存，不再十六进制编码
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时，用 SIZE 命令获取远程文件的大小
+     * @return  下载成功返回文件内容。下载失败返回 null
      */
-    protected void fireFTPAfterListener(FTPEvent i_Event)
+    public byte [] downloadBytes(String i_RemoteFullName ,long i_FileSize)
     {
-        if ( this.ftpListeners == null )
-        {
-            return;
-        }
+        FTPBytesOutputStream v_Output = this.downloadToMemory(i_RemoteFullName ,i_FileSize);
         
-        notifyFTPAfterListeners(i_Event);
+        return v_Output == null ? null : v_Output.toByteArray();
     }
-
+    
     
     
     /**
-     * 通知所有注册FTP传送文件之前的事件监听的对象
+     * 下载文件(返回文件的字节内容)
      * 
-     * @param i_Event
-     * @return   返回值表示是否继续
+     * 与 downloadBytes() 相同，只是返回的 ByteBuffer 直接包装下载用的内存，文件的实际大小与预估的大小不同时也不再拷贝一次
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时，用 SIZE 命令获取远程文件的大小
+     * @return  下载成功返回文件内容（position 为 0，limit 为文件的大小）。下载失败返回 null
      */
-    private boolean notifyFTPBeforeListeners(FTPEvent i_Event)
+    public ByteBuffer downloadToByteBuffer(String i_RemoteFullName ,long i_FileSize)
     {
-        Iterator<FTPListener> v_Iter       = this.ftpListeners.iterator();
-        boolean               v_IsContinue = true;
-
-        while ( v_IsContinue && v_Iter.hasNext() ) 
-        {
-            v_IsContinue = v_Iter.next().ftpBefore(i_Event);
-        }
+        FTPBytesOutputStream v_Output = this.downloadToMemory(i_RemoteFullName ,i_FileSize);
         
-        return v_IsContinue;
+        return v_Output == null ? null : v_Output.toByteBuffer();
     }
     
     
     
     /**
-     * 通知所有注册FTP传送文件事件监听的对象
+     * 下载文件(文件内容以十六进制的形式，边下载边写入 io_Hex 中)
      * 
-     * @param i_Event
+     * 与 download(String) 返回的内容相同，但不在内存中保留整个文件内容
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param io_Hex            十六进制内容的写入处。如 Writer、StringBuilder
+     * @return  下载成功返回 null 。否则返回异常信息
      */
-    private boolean notifyFTPingListeners(FTPEvent i_Event)
+    public String downloadHex(String i_RemoteFullName ,Appendable io_Hex)
     {
-        Iterator<FTPListener> v_Iter       = this.ftpListeners.iterator();
-        boolean               v_IsContinue = true; 
-
-        while ( v_IsContinue && v_Iter.hasNext() ) 
-        {
-            v_IsContinue = v_Iter.next().ftpProcess(i_Event);
-        }
-        
-        return v_IsContinue;
+        return this.download(i_RemoteFullName ,new FTPHexOutputStream(io_Hex) ,0);
     }
-
+    
     
     
     /**
-     * 通知所有注册FTP传送完成之后的事件监听的对象
+     * 下载文件到内存中。内存按文件的大小预先分配
      * 
-     * @param i_Event
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时，用 SIZE 命令获取远程文件的大小
+     * @return  下载失败返回 null
      */
-    private void notifyFTPAfterListeners(FTPEvent i_Event)
+    private FTPBytesOutputStream downloadToMemory(String i_RemoteFullName ,long i_FileSize)
     {
-        Iterator<FTPListener> v_Iter = this.ftpListeners.iterator();
-
-        while ( v_Iter.hasNext() ) 
+        long v_FileSize = i_FileSize > 0 ? i_FileSize : this.getFileSize(i_RemoteFullName);
+        
+        if ( v_FileSize > $MaxArraySize )
         {
-            v_Iter.next().ftpAfter(i_Event);
+            return null;
         }
+        
+        FTPBytesOutputStream v_Output = new FTPBytesOutputStream(v_FileSize > 0 ? (int)v_FileSize : 0);
+        
+        return this.download(i_RemoteFullName ,v_Output ,v_FileSize) == null ? v_Output : null;
     }
     
     
     
-    public boolean isDataSafe() 
+    /**
+     * 下载文件，并将文件内容写入数据流中
+     * 
+     * 数据流由调用者负责关闭
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param io_Output         文件内容的写入处
+     * @param i_FileSize        文件的大小（单位：Byte）。不自动获取远程文件的大小，而是由外在传参确定大小
+     * @return  下载成功返回 null 。否则返回异常信息
+     */
+    public String download(String i_RemoteFullName ,OutputStream io_Output ,long i_FileSize)
     {
-        return dataSafe;
+        if ( this.ftpClient == null )
+        {
+            return "Ftp Client is not connect.";
+        }
+        
+        
+        InputStream       v_Input          = null;
+        DefaultFTPEvent   v_Event          = new DefaultFTPEvent(this ,Math.max(i_FileSize ,0));
+        FTPChecksum       v_Checksum       = FTPChecksum.newInstance(this.checksumType);
+        boolean           v_IsContinue     = true;
+        
+        v_Event.setActionType(2);
+        
+        try 
+        {
+            v_Input = this.ftpClient.retrieveFileStream(toFTPName(i_RemoteFullName));
+            
+            if ( v_Input == null )
+            {
+                v_Event.setEndTime();
+                return "Retrieve file is faild: " + this.ftpClient.getReplyString();
+            }
+            
+            v_IsContinue = this.fireFTPBeforeListener(v_Event);
+            
+            this.copyStream(v_Input ,io_Output ,v_Event ,v_IsContinue ,false ,v_Checksum ,0);
+            
+            io_Output.flush();
+            v_Input.close();
+            v_Input = null;
+            
+            // 此语句十分关键，如果没有此句，只能下载第一个文件，其后的所有文件都将失败
+            this.ftpClient.completePendingCommand();
+            
+            String v_Error = this.finishChecksum(v_Checksum ,i_RemoteFullName ,true ,v_Event);
+            if ( v_Error != null )
+            {
+                v_Event.setEndTime();
+                return v_Error;
+            }
+            
+            v_Event.setSucceedFinish();
+        } 
+        catch (Exception e) 
+        {
+            this.isBroken = true;
+            v_Event.setEndTime();
+            return e.toString();
+        }
+        finally
+        {
+            if ( v_Input != null )
+            {
+                try
+                {
+                    v_Input.close();
+                }
+                catch (Exception e)
+                {
+                    // Nothing.
+                }
+                
+                v_Input = null;
+            }
+            
+            this.fireFTPAfterListener(v_Event);
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 打开读取远程文件的数据流
+     * 
+     * 数据流关闭前，本对象不能执行其它的FTP操作。
+     * 关闭数据流时，完成本次 RETR 命令，本对象可继续使用。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return
+     * @throws IOException  文件不存在等原因无法读取时
+     */
+    public InputStream openRead(String i_RemoteFullName) throws IOException
+    {
+        return this.openRead(i_RemoteFullName ,false);
+    }
+    
+    
+    
+    /**
+     * 打开读取远程文件的数据流
+     * 
+     * 数据流关闭前，本对象不能执行其它的FTP操作。
+     * 关闭数据流时，完成本次 RETR 命令。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAutoClose     关闭数据流时，是否同时关闭本对象的连接（有连接池时归还给连接池）。
+     *                          本对象未连接时，自动连接，并总是同时关闭连接
+     * @return
+     * @throws IOException  文件不存在等原因无法读取时
+     */
+    public InputStream openRead(String i_RemoteFullName ,boolean i_IsAutoClose) throws IOException
+    {
+        boolean         v_IsAutoClose = this.connectForStream() || i_IsAutoClose;
+        DefaultFTPEvent v_Event       = new DefaultFTPEvent(this ,0);
+        InputStream     v_Input       = null;
+        
+        v_Event.setActionType(2);
+        
+        try
+        {
+            v_Input = this.ftpClient.retrieveFileStream(toFTPName(i_RemoteFullName));
+            
+            if ( v_Input == null )
+            {
+                throw new IOException("Retrieve file is faild: " + this.ftpClient.getReplyString());
+            }
+            
+            if ( !this.fireFTPBeforeListener(v_Event) )
+            {
+                v_Input.close();
+                this.ftpClient.completePendingCommand();
+                throw new IOException("Ftp transfer is canceled.");
+            }
+        }
+        catch (IOException exce)
+        {
+            v_Event.setEndTime();
+            this.fireFTPAfterListener(v_Event);
+            this.closeForStream(v_Input != null ,v_IsAutoClose);
+            throw exce;
+        }
+        
+        InputStream v_Remote = new FTPRemoteInputStream(this ,v_Input ,v_Event ,FTPChecksum.newInstance(this.checksumType) ,v_IsAutoClose);
+        
+        return this.compress ? FTPCompress.newDecompressor(v_Remote ,this.getTransferBufferSize()) : v_Remote;
+    }
+    
+    
+    
+    /**
+     * 打开写入远程文件的数据流。远程文件的上级目录不存在时，自动创建
+     * 
+     * 数据流关闭前，本对象不能执行其它的FTP操作。
+     * 关闭数据流时，完成本次 STOR / APPE 命令，本对象可继续使用。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @return
+     * @throws IOException  服务端拒绝写入时
+     */
+    public OutputStream openWrite(String i_RemoteFullName ,boolean i_IsAppend) throws IOException
+    {
+        return this.openWrite(i_RemoteFullName ,i_IsAppend ,false);
+    }
+    
+    
+    
+    /**
+     * 打开写入远程文件的数据流。远程文件的上级目录不存在时，自动创建
+     * 
+     * 数据流关闭前，本对象不能执行其它的FTP操作。
+     * 关闭数据流时，完成本次 STOR / APPE 命令。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @param i_IsAutoClose     关闭数据流时，是否同时关闭本对象的连接（有连接池时归还给连接池）。
+     *                          本对象未连接时，自动连接，并总是同时关闭连接
+     * @return
+     * @throws IOException  服务端拒绝写入时
+     */
+    public OutputStream openWrite(String i_RemoteFullName ,boolean i_IsAppend ,boolean i_IsAutoClose) throws IOException
+    {
+        return this.openWrite(i_RemoteFullName ,i_IsAppend ,i_IsAutoClose ,0);
+    }
+    
+    
+    
+    /**
+     * 打开写入远程文件的数据流（可从文件的中间位置续写）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @param i_IsAutoClose     关闭数据流时，是否同时关闭本对象的连接
+     * @param i_Position        写入的数据在整个文件中的开始位置。用于数据变换
+     * @return
+     * @throws IOException  服务端拒绝写入时
+     */
+    private OutputStream openWrite(String i_RemoteFullName ,boolean i_IsAppend ,boolean i_IsAutoClose ,long i_Position) throws IOException
+    {
+        boolean         v_IsAutoClose = this.connectForStream() || i_IsAutoClose;
+        DefaultFTPEvent v_Event       = new DefaultFTPEvent(this ,0);
+        OutputStream    v_Output      = null;
+        String          v_DirFullName = null;
+        
+        v_Event.setActionType(1);
+        
+        try
+        {
+            v_DirFullName = this.makeParentDirectory(i_RemoteFullName);
+            v_Output      = this.openUploadStream(i_RemoteFullName ,i_IsAppend);
+            
+            if ( v_Output == null && this.remakeDirectory(v_DirFullName) )
+            {
+                v_Output = this.openUploadStream(i_RemoteFullName ,i_IsAppend);
+            }
+            
+            if ( v_Output == null )
+            {
+                throw new IOException("Store file is faild: " + this.ftpClient.getReplyString());
+            }
+            
+            if ( !this.fireFTPBeforeListener(v_Event) )
+            {
+                v_Output.close();
+                this.ftpClient.completePendingCommand();
+                throw new IOException("Ftp transfer is canceled.");
+            }
+        }
+        catch (IOException exce)
+        {
+            v_Event.setEndTime();
+            this.fireFTPAfterListener(v_Event);
+            this.closeForStream(v_Output != null ,v_IsAutoClose);
+            throw exce;
+        }
+        
+        FTPRemoteOutputStream v_Remote = new FTPRemoteOutputStream(this ,v_Output ,v_Event ,v_DirFullName ,this.getTransferBufferSize() ,FTPChecksum.newInstance(this.checksumType) ,v_IsAutoClose);
+        v_Remote.setPosition(i_Position);
+        
+        return this.compress ? FTPCompress.newCompressor(v_Remote ,this.compressLevel ,this.getTransferBufferSize()) : v_Remote;
+    }
+    
+    
+    
+    /**
+     * 为数据流连接FTP服务
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return  是否是本次新连接的
+     * @throws IOException
+     */
+    private boolean connectForStream() throws IOException
+    {
+        if ( this.ftpClient != null )
+        {
+            return false;
+        }
+        
+        String v_Error = this.connect();
+        if ( v_Error != null )
+        {
+            throw new IOException(v_Error);
+        }
+        
+        return true;
+    }
+    
+    
+    
+    /**
+     * 打开数据流失败时的清理
+     * 
+     * @param i_IsBroken     连接是否已不可靠
+     * @param i_IsAutoClose  是否关闭连接
+     */
+    private void closeForStream(boolean i_IsBroken ,boolean i_IsAutoClose)
+    {
+        if ( i_IsBroken )
+        {
+            this.isBroken = true;
+        }
+        
+        if ( i_IsAutoClose )
+        {
+            this.close();
+        }
+    }
+    
+    
+    
+    /**
+     * 数据流关闭时，完成本次的数据传输命令（见 openRead()、openWrite()）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param io_Event       传送文件的事件
+     * @param i_DirFullName  远程文件的上级目录。传输成功后记入目录缓存。可为 null
+     * @param i_Checksum     网络上传输的数据的校验。可为 null
+     * @param i_IsComplete   数据是否已全部传输。为假时，服务端回复传输中止也不视为异常
+     * @param i_IsAutoClose  是否同时关闭连接
+     * @throws IOException  服务端回复传输失败时
+     */
+    void finishStream(DefaultFTPEvent io_Event ,String i_DirFullName ,FTPChecksum i_Checksum ,boolean i_IsComplete ,boolean i_IsAutoClose) throws IOException
+    {
+        try
+        {
+            if ( this.ftpClient.completePendingCommand() )
+            {
+                if ( i_DirFullName != null )
+                {
+                    this.getDirectoryCache().put(i_DirFullName ,this.ftpInfo.getDirCacheTimeout());
+                }
+                
+                if ( i_Checksum != null && i_IsComplete )
+                {
+                    this.lastChecksum = i_Checksum.getValue();
+                    io_Event.setChecksum(this.lastChecksum);
+                }
+                
+                io_Event.setSucceedFinish();
+            }
+            else
+            {
+                io_Event.setEndTime();
+                
+                if ( i_IsComplete )
+                {
+                    throw new IOException("Ftp transfer is faild: " + this.ftpClient.getReplyString());
+                }
+            }
+        }
+        catch (IOException exce)
+        {
+            this.isBroken = true;
+            io_Event.setEndTime();
+            throw exce;
+        }
+        finally
+        {
+            this.fireFTPAfterListener(io_Event);
+            
+            if ( i_IsAutoClose )
+            {
+                this.close();
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 上传文件
+     * 
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @return  上传成功返回 null 。否则返回异常信息
+     */
+    public String upload(String i_LocalFullName ,String i_RemoteFullName)
+    {
+        return this.upload(i_LocalFullName ,i_RemoteFullName ,false);
+    }
+    
+    
+    
+    /**
+     * 上传文件
+     * 
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @return  上传成功返回 null 。否则返回异常信息
+     */
+    public String upload(String i_LocalFullName ,String i_RemoteFullName ,boolean i_IsAppend)
+    {
+        File            v_File       = new File(i_LocalFullName);
+        FileInputStream v_Input      = null;
+        DataInputStream v_DataInput  = null;
+        
+        if ( this.skipIfIdentical && !i_IsAppend && this.isIdentical(v_File ,i_RemoteFullName) )
+        {
+            return null;
+        }
+        
+        if ( this.ftpClient != null && this.isZeroCopy() )
+        {
+            return this.uploadByChannel(v_File ,i_RemoteFullName ,i_IsAppend ,0);
+        }
+        
+        try 
+        {
+            v_Input     = new FileInputStream(i_LocalFullName);
+            v_DataInput = new DataInputStream(v_Input);
+            
+            return this.upload(v_DataInput ,v_File.length() ,i_RemoteFullName ,i_IsAppend);
+        } 
+        catch (Exception e) 
+        {
+            return e.toString();
+        }
+        finally
+        {
+            if ( v_DataInput != null )
+            {
+                try 
+                {
+                    v_DataInput.close();
+                } 
+                catch (Exception e) 
+                {
+                    // Nothing.
+                }
+                
+                v_DataInput = null;
+            }
+            
+            if ( v_Input != null )
+            {
+                try
+                {
+                    v_Input.close();
+                }
+                catch (Exception e)
+                {
+                    // Nothing.
+                }
+                
+                v_Input = null;
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 上传文件
+     * 
+     * 以数据包中的文件名称为会话ID，同名文件的数据包视为同一会话。
+     * 多个客户端可能同时上传同名文件时，请用 upload(String ,FileDataPacket) 方法
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2020-05-20
+     * @version     v1.0
+     *
+     * @param i_FileDataPacket  文件的数据包（默认开启断点续传）
+     * @return                  本次数据包上传结果。请参考 FileHelp.$Upload_* 的系列说明 
+     */
+    public int upload(FileDataPacket i_FileDataPacket)
+    {
+        return this.upload(i_FileDataPacket.getName() ,i_FileDataPacket);
+    }
+        
+    
+    
+    /**
+     * 按会话上传文件的数据包（见 FTPPacketSessions）
+     * 
+     * 1. 数据包可乱序到达：先到达的数据包暂存，缺失的数据包到达后，与暂存的数据包一起用一次 APPE 命令连续写出
+     * 2. 重复的（已写出的）数据包直接返回成功，包括重发的第一个数据包（会话超时前不会因此重新开始上传）
+     * 3. 第一个数据包用 STOR 命令，覆盖服务端的同名文件（重新开始上传时，不应追加在上次残留的文件之后）
+     * 4. 续传：新建的会话收到的第一个数据包不是序号1时（如服务重启、会话超时后客户端继续上传），
+     *    按服务端文件的大小确定续传的位置（见 FTPPacketSessions.resume()），之后的数据包用 APPE 命令追加
+     * 5. 序号无效（不在 1 至 dataCount 之间）、暂存超出内存上限、或写出异常时返回 $Upload_Error，客户端可稍后重发此数据包
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_SessionID       会话ID。同一文件的所有数据包的会话ID须相同
+     * @param i_FileDataPacket  文件的数据包。序号（dataNo）从 1 开始
+     * @return                  本次数据包上传结果。请参考 FileHelp.$Upload_* 的系列说明 
+     */
+    public int upload(String i_SessionID ,FileDataPacket i_FileDataPacket)
+    {
+        FTPPacketSessions v_Sessions = FTPPacketSessions.getInstance();
+        
+        if ( !FTPPacketSessions.isValid(i_FileDataPacket) )
+        {
+            return FileHelp.$Upload_Error;
+        }
+        
+        v_Sessions.expire();
+        
+        ReentrantLock v_Lock = v_Sessions.getLock(i_SessionID);
+        
+        v_Lock.lock();
+        try
+        {
+            FTPPacketSessions.Session v_Session = v_Sessions.getSession(i_SessionID ,i_FileDataPacket ,this.dataPacketTimeOut);
+            int                       v_DataNo  = i_FileDataPacket.getDataNo().intValue();
+            
+            if ( v_Session.isNew && v_DataNo > 1 )
+            {
+                v_Sessions.resume(v_Session ,i_FileDataPacket ,this.getFileSize(v_Session.name) ,!this.compress);
+            }
+            
+            if ( v_DataNo < v_Session.nextNo )
+            {
+                return v_Session.isFinish() ? FileHelp.$Upload_Finish : FileHelp.$Upload_GoOn;
+            }
+            else if ( v_DataNo > v_Session.nextNo )
+            {
+                return v_Sessions.hold(v_Session ,i_FileDataPacket) ? FileHelp.$Upload_GoOn : FileHelp.$Upload_Error;
+            }
+            
+            
+            List<FileDataPacket> v_Packets   = v_Sessions.getContinuous(v_Session);
+            long                 v_Size      = i_FileDataPacket.getDataByte().length;
+            String               v_UploadRet = null;
+            
+            v_Packets.add(0 ,i_FileDataPacket);
+            for (FileDataPacket v_Packet : v_Packets.subList(1 ,v_Packets.size()))
+            {
+                v_Size += v_Packet.getDataByte().length;
+            }
+                
+            // 数据包流模式：连接池没有空闲的连接时不打开数据流，本次仍用本对象的连接追加写出
+            if ( this.packetStream && !this.compress && v_Session.output == null )
+            {
+                v_UploadRet = this.openPacketStream(v_Sessions ,v_Session);
+            }
+            
+            if ( v_UploadRet != null )
+            {
+                if ( v_UploadRet.startsWith($PacketLost) )
+                {
+                    v_Sessions.remove(i_SessionID);
+                }
+            }
+            else if ( v_Session.output != null )
+            {
+                v_UploadRet = this.uploadByStream(v_Session ,v_Packets);
+            }
+            else
+            {
+                List<ByteArrayInputStream> v_Inputs = new ArrayList<ByteArrayInputStream>(v_Packets.size());
+                for (FileDataPacket v_Packet : v_Packets)
+                {
+                    v_Inputs.add(new ByteArrayInputStream(v_Packet.getDataByte()));
+                }
+                
+                DataInputStream v_DataInput = new DataInputStream(new SequenceInputStream(Collections.enumeration(v_Inputs)));
+                
+                // 追加的数据包从已写出的大小处开始编码
+                v_UploadRet = this.upload(v_DataInput ,v_Size ,v_Session.name ,v_DataNo > 1 ,v_Session.size ,v_DataNo > 1 ? null : FTPChecksum.newInstance(this.checksumType));
+                
+                closeQuietly(v_DataInput);
+            }
+            
+            if ( !Help.isNull(v_UploadRet) )
+            {
+                return FileHelp.$Upload_Error;
+            }
+        
+            v_Sessions.advance(v_Session ,v_Packets.size() ,v_Size);
+            
+            // 已完成的会话保留到超时，迟到的重复数据包仍可得到完成的应答
+            if ( v_Session.isFinish() )
+            {
+                return FileHelp.$Upload_Finish;
+            }
+            else
+            {
+                return FileHelp.$Upload_GoOn;
+            }
+        }
+        finally
+        {
+            v_Lock.unlock();
+        }
+    }
+    
+    
+    
+    /**
+     * 数据包流模式：将连续的数据包写入会话持续打开的数据流中，最后一个数据包写出后关闭数据流
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param io_Session  会话。数据流已打开（见 openPacketStream()）
+     * @param i_Packets   从期望序号开始连续的数据包
+     * @return  写出成功返回 null 。否则返回异常信息
+     */
+    private String uploadByStream(FTPPacketSessions.Session io_Session ,List<FileDataPacket> i_Packets)
+    {
+        try
+        {
+            for (FileDataPacket v_Packet : i_Packets)
+            {
+                io_Session.output.write(v_Packet.getDataByte());
+            }
+            
+            io_Session.activeTime = System.currentTimeMillis();
+            
+            if ( io_Session.nextNo + i_Packets.size() > io_Session.dataCount )
+            {
+                OutputStream v_Output = io_Session.output;
+                
+                io_Session.output = null;
+                v_Output.close();
+            }
+            else
+            {
+                io_Session.output.flush();
+            }
+        }
+        catch (Exception exce)
+        {
+            FTPPacketSessions.closeOutput(io_Session);
+            return exce.toString();
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 为会话打开写入远程文件的数据流。
+     * 
+     * 数据流用独立的连接打开，不占用本对象的连接。
+     * 有连接池时，不等待地从连接池中借出（调用方持有会话的锁，不应因连接池耗尽而长时间阻塞），
+     * 没有空闲的连接时不打开数据流，由调用方用本对象的连接按数据包追加写出。
+     * 
+     * 首个数据包用 STOR 命令，之后（如空闲超时后）重新打开时用 APPE 命令。
+     * 服务端的文件比已写出的大时（如上次写出异常中断），用 REST 偏移量从已写出的大小处覆盖写入
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Sessions  会话管理
+     * @param io_Session  会话
+     * @return  打开成功、或没有空闲的连接时返回 null 。否则返回异常信息。
+     *          服务端的文件比已写出的小时（已应答的数据包丢失），异常信息以 $PacketLost 开头
+     */
+    private String openPacketStream(FTPPacketSessions i_Sessions ,FTPPacketSessions.Session io_Session)
+    {
+        FTPHelp v_FTPHelp  = this.newFTPHelp();
+        boolean v_IsAppend = io_Session.size > 0;
+        
+        try
+        {
+            if ( this.ftpPool != null )
+            {
+                v_FTPHelp.ftpClient = this.ftpPool.tryBorrow(this.ftpInfo);
+                
+                if ( v_FTPHelp.ftpClient == null )
+                {
+                    return null;
+                }
+            }
+            else
+            {
+                String v_Error = v_FTPHelp.connect();
+                if ( v_Error != null )
+                {
+                    return v_Error;
+                }
+            }
+            
+            if ( v_IsAppend )
+            {
+                long v_RemoteSize = v_FTPHelp.getFileSize(io_Session.name);
+                
+                if ( v_RemoteSize < io_Session.size )
+                {
+                    v_FTPHelp.close();
+                    return $PacketLost + io_Session.name + " remote size " + v_RemoteSize + " < " + io_Session.size + ".";
+                }
+                else if ( v_RemoteSize > io_Session.size )
+                {
+                    v_FTPHelp.ftpClient.setRestartOffset(io_Session.size);
+                    v_IsAppend = false;
+                }
+            }
+            
+            i_Sessions.setOutput(io_Session ,v_FTPHelp.openWrite(io_Session.name ,v_IsAppend ,true ,io_Session.size));
+        }
+        catch (IOException exce)
+        {
+            v_FTPHelp.close();
+            return exce.toString();
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 断点续传的上传文件
+     * 
+     * 用 SIZE 命令获取服务端已有的大小，作为续传的位置，本地文件从此位置开始，只用 APPE 命令上传剩余的部分。
+     * 
+     * 1. 服务端没有此文件、比本地文件还大（不是同一文件）、或传输时压缩时，用 STOR 命令重新上传整个文件
+     * 2. 服务端已有的大小与本地文件相同时，服务端支持校验命令且校验值不同时重新上传整个文件，否则不再上传
+     * 3. 开启校验比较（setChecksumVerify）时，续传后比较整个文件的校验值，不一致时重新上传整个文件
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  上传成功返回 null 。否则返回异常信息
+     */
+    public String resumeUpload(String i_LocalFullName ,String i_RemoteFullName)
+    {
+        if ( this.ftpClient == null )
+        {
+            return "Ftp Client is not connect.";
+        }
+        
+        File v_File       = new File(i_LocalFullName);
+        long v_LocalSize  = v_File.length();
+        long v_RemoteSize = this.compress ? -1 : this.getFileSize(i_RemoteFullName);
+        
+        if ( !v_File.isFile() || v_RemoteSize <= 0 || v_RemoteSize > v_LocalSize )
+        {
+            return this.upload(i_LocalFullName ,i_RemoteFullName ,false);
+        }
+        
+        if ( v_RemoteSize == v_LocalSize )
+        {
+            if ( this.getRemoteChecksumType() == null || this.isIdentical(v_File ,i_RemoteFullName) )
+            {
+                return null;
+            }
+            
+            return this.upload(i_LocalFullName ,i_RemoteFullName ,false);
+        }
+        
+        
+        String          v_Error = null;
+        FileInputStream v_Input = null;
+        
+        if ( this.isZeroCopy() )
+        {
+            v_Error = this.uploadByChannel(v_File ,i_RemoteFullName ,true ,v_RemoteSize);
+        }
+        else
+        {
+            try
+            {
+                // 服务端已有部分的校验值，续传的部分在此基础上继续计算
+                FTPChecksum v_Checksum = Help.isNull(this.checksumType) ? null : this.checksumFile(v_File ,this.checksumType ,v_RemoteSize);
+                
+                v_Input = new FileInputStream(v_File);
+                v_Input.getChannel().position(v_RemoteSize);
+                
+                v_Error = this.upload(new DataInputStream(v_Input) ,v_LocalSize - v_RemoteSize ,i_RemoteFullName ,true ,v_RemoteSize ,v_Checksum);
+            }
+            catch (Exception e)
+            {
+                v_Error = e.toString();
+            }
+            finally
+            {
+                closeQuietly(v_Input);
+            }
+        }
+        
+        // 服务端已有的部分与本地文件不一致
+        if ( v_Error != null && v_Error.startsWith($ChecksumMismatch) )
+        {
+            return this.upload(i_LocalFullName ,i_RemoteFullName ,false);
+        }
+        
+        return v_Error;
+    }
+    
+    
+    
+    /**
+     * 上传文件
+     * 
+     * 1. 支持自动创建目录
+     * 2. 支持中文目录
+     * 
+     * @param i_LocalDataInput  本地文件的流（方法内不关闭流）
+     * @param i_LocalDataSize   本地文件流的大小
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @return  上传成功返回 null 。否则返回异常信息
+     */
+    public String upload(DataInputStream i_LocalDataInput ,long i_LocalDataSize ,String i_RemoteFullName ,boolean i_IsAppend)
+    {
+        return this.upload(i_LocalDataInput ,i_LocalDataSize ,i_RemoteFullName ,i_IsAppend ,0 ,FTPChecksum.newInstance(this.checksumType));
+    }
+    
+    
+    
+    /**
+     * 上传文件（可从文件的中间位置续传）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_LocalDataInput  本地文件的流（方法内不关闭流）。续传时，已跳过服务端已有的部分
+     * @param i_LocalDataSize   本地文件流的大小（续传时为剩余部分的大小）
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @param i_Position        续传的开始位置，即服务端已有的大小。大于0时，须为追加模式，且不能压缩
+     * @param io_Checksum       校验。续传时，已包含服务端已有部分的校验。可为 null
+     * @return  上传成功返回 null 。否则返回异常信息
+     */
+    private String upload(DataInputStream i_LocalDataInput ,long i_LocalDataSize ,String i_RemoteFullName ,boolean i_IsAppend ,long i_Position ,FTPChecksum io_Checksum)
+    {
+        if ( this.ftpClient == null )
+        {
+            return "Ftp Client is not connect.";
+        }
+        
+        
+        DataInputStream v_DataInput     = null;
+        OutputStream    v_Output        = null;
+        String          v_DirFullName   = null;
+        DefaultFTPEvent v_Event         = new DefaultFTPEvent(this ,i_Position + i_LocalDataSize);
+        FTPChecksum     v_Checksum      = io_Checksum;
+        boolean         v_IsContinue    = true;
+        
+        v_Event.setActionType(1);
+        v_Event.setCompleteSize(i_Position);
+        v_Event.setStartSize(i_Position);
+        
+        try 
+        {
+            v_DirFullName = this.makeParentDirectory(i_RemoteFullName);
+            v_DataInput   = i_LocalDataInput;
+            v_Output      = this.openUploadStream(i_RemoteFullName ,i_IsAppend);
+            
+            if ( v_Output == null && this.remakeDirectory(v_DirFullName) )
+            {
+                v_Output = this.openUploadStream(i_RemoteFullName ,i_IsAppend);
+            }
+            
+            if ( v_Output == null )
+            {
+                throw new IOException("Store file is faild: " + this.ftpClient.getReplyString());
+            }
+            
+            v_IsContinue = this.fireFTPBeforeListener(v_Event);
+            
+            this.copyStream(v_DataInput ,v_Output ,v_Event ,v_IsContinue ,true ,v_Checksum ,i_Position);
+            
+            v_Output.flush();
+            v_Output.close();
+            v_Output = null;
+            
+            // 此语句十分关键，如果没有此句，只能下载第一个文件，其后的所有文件都将失败
+            if ( this.ftpClient.completePendingCommand() )
+            {
+                this.getDirectoryCache().put(v_DirFullName ,this.ftpInfo.getDirCacheTimeout());
+            }
+            
+            // 追加模式只校验了追加的部分，不能与服务端整个文件的校验值比较（续传时已包含服务端已有部分的校验）
+            String v_Error = this.finishChecksum(v_Checksum ,i_RemoteFullName ,!i_IsAppend || i_Position > 0 ,v_Event);
+            if ( v_Error != null )
+            {
+                v_Event.setEndTime();
+                return v_Error;
+            }
+            
+            v_Event.setSucceedFinish();
+            
+            
+//          下面注解的代码，可直接上传文件，不用读写数据流。
+//          boolean v_Ret = this.ftpClient.storeFile(i_RemoteFullName ,v_Input);
+//          
+//          if ( v_Ret )
+//          {
+//              System.out.println("upLoad is succeed.");
+//          }
+//          else
+//          {
+//              System.out.println("upload is faild.");
+//          }
+        } 
+        catch (Exception e) 
+        {
+            e.printStackTrace();
+            this.isBroken = true;
+            v_Event.setEndTime();
+            return e.toString();
+        }
+        finally
+        {
+            if ( v_Output != null )
+            {
+                try 
+                {
+                    v_Output.close();
+                } 
+                catch (Exception e) 
+                {
+                    // Nothing.
+                }
+                
+                v_Output = null;
+            }
+            
+            this.fireFTPAfterListener(v_Event);
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 数据流的拷贝（上传及下载共用）
+     * 
+     * 开启传输时压缩时，上传压缩（已压缩过的内容除外），下载解压（上传时压缩过的内容才解压）。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Input       输入流（方法内不关闭流）
+     * @param i_Output      输出流（方法内不关闭流）
+     * @param io_Event      传送文件的事件
+     * @param i_IsContinue  是否继续（即传送文件之前的事件的返回值）
+     * @param i_IsUpload    是否为上传。上传时编码，下载时解码
+     * @param io_Checksum   网络上传输的数据的校验。可为 null
+     * @param i_Position    数据在整个文件中的开始位置（断点续传时大于0）。传输时压缩时不支持，须为0
+     * @return              已拷贝的原始内容的大小（单位：Byte）
+     * @throws IOException
+     */
+    private long copyStream(InputStream i_Input ,OutputStream i_Output ,DefaultFTPEvent io_Event ,boolean i_IsContinue ,boolean i_IsUpload ,FTPChecksum io_Checksum ,long i_Position) throws IOException
+    {
+        if ( !this.compress )
+        {
+            return this.copyRaw(i_Input ,i_Output ,io_Event ,i_IsContinue ,i_IsUpload ,io_Checksum ,i_Position);
+        }
+        
+        if ( !i_IsUpload )
+        {
+            return this.copyDecompress(i_Input ,i_Output ,io_Event ,i_IsContinue ,io_Checksum);
+        }
+        
+        PushbackInputStream v_Input = new PushbackInputStream(i_Input ,FTPCompress.$HeadSize);
+        
+        if ( FTPCompress.isCompressed(FTPCompress.peek(v_Input)) )
+        {
+            return this.copyRaw(v_Input ,i_Output ,io_Event ,i_IsContinue ,i_IsUpload ,io_Checksum ,0);
+        }
+        else
+        {
+            return this.copyCompress(v_Input ,i_Output ,io_Event ,i_IsContinue ,io_Checksum);
+        }
+    }
+    
+    
+    
+    /**
+     * 边压缩边上传。压缩后的数据再编码（数据安全性、变换链）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Input       输入流（方法内不关闭流）
+     * @param i_Output      数据连接的输出流（方法内不关闭流）
+     * @param io_Event      传送文件的事件
+     * @param i_IsContinue  是否继续（即传送文件之前的事件的返回值）
+     * @param io_Checksum   网络上传输的数据的校验。可为 null
+     * @return              已拷贝的原始内容的大小（单位：Byte）
+     * @throws IOException
+     */
+    private long copyCompress(InputStream i_Input ,OutputStream i_Output ,DefaultFTPEvent io_Event ,boolean i_IsContinue ,FTPChecksum io_Checksum) throws IOException
+    {
+        int                              v_BufferSize = this.getTransferBufferSize();
+        byte []                          v_Buffer     = FTPBufferPool.getInstance().borrow(v_BufferSize);
+        FTPWireOutputStream              v_Wire       = new FTPWireOutputStream(this ,i_Output ,v_BufferSize ,io_Checksum);
+        FTPCompress.CompressOutputStream v_Compressor = null;
+        long                             v_FTPingSize = 0;
+        int                              v_RSize      = 0;
+        boolean                          v_IsContinue = i_IsContinue;
+        
+        try
+        {
+            v_Compressor = FTPCompress.newCompressor(v_Wire ,this.compressLevel ,v_BufferSize);
+            
+            while ( v_IsContinue && (v_RSize = i_Input.read(v_Buffer)) >= 0 )
+            {
+                v_Compressor.write(v_Buffer ,0 ,v_RSize);
+                
+                v_FTPingSize += v_RSize;
+                
+                io_Event.setCompleteSize(v_FTPingSize);
+                io_Event.setWireSize(v_Wire.getWireSize());
+                v_IsContinue = this.fireFTPingListener(io_Event);
+            }
+            
+            v_Compressor.finish();
+            v_Wire.flush();
+            io_Event.setWireSize(v_Wire.getWireSize());
+        }
+        finally
+        {
+            if ( v_Compressor != null )
+            {
+                v_Compressor.end();
+            }
+            v_Wire.release();
+            FTPBufferPool.getInstance().giveBack(v_Buffer);
+        }
+        
+        return v_FTPingSize;
+    }
+    
+    
+    
+    /**
+     * 边下载边解压。先解码（数据安全性、变换链），再解压。上传时未压缩过的内容原样下载
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Input       数据连接的输入流（方法内可能会关闭流）
+     * @param i_Output      输出流（方法内不关闭流）
+     * @param io_Event      传送文件的事件
+     * @param i_IsContinue  是否继续（即传送文件之前的事件的返回值）
+     * @param io_Checksum   网络上传输的数据的校验。可为 null
+     * @return              已拷贝的原始内容的大小（单位：Byte）
+     * @throws IOException
+     */
+    private long copyDecompress(InputStream i_Input ,OutputStream i_Output ,DefaultFTPEvent io_Event ,boolean i_IsContinue ,FTPChecksum io_Checksum) throws IOException
+    {
+        int                v_BufferSize = this.getTransferBufferSize();
+        byte []            v_Buffer     = FTPBufferPool.getInstance().borrow(v_BufferSize);
+        FTPWireInputStream v_Wire       = new FTPWireInputStream(this ,i_Input ,io_Checksum);
+        InputStream        v_Input      = null;
+        long               v_FTPingSize = 0;
+        int                v_RSize      = 0;
+        boolean            v_IsContinue = i_IsContinue;
+        
+        try
+        {
+            v_Input = FTPCompress.newDecompressor(v_Wire ,v_BufferSize);
+            
+            while ( v_IsContinue && (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+            {
+                i_Output.write(v_Buffer ,0 ,v_RSize);
+                
+                v_FTPingSize += v_RSize;
+                
+                io_Event.setCompleteSize(v_FTPingSize);
+                io_Event.setWireSize(v_Wire.getWireSize());
+                v_IsContinue = this.fireFTPingListener(io_Event);
+            }
+        }
+        finally
+        {
+            FTPCompress.end(v_Input);
+            FTPBufferPool.getInstance().giveBack(v_Buffer);
+        }
+        
+        return v_FTPingSize;
+    }
+    
+    
+    
+    /**
+     * 拷贝数据用的缓存大小（单位：Byte）。
+     *
+     * 开启自动调优且已调优时，用调优后的大小，否则用 FTPInfo.getTransferBufferSize()
+     *
+     * @return
+     */
+    private int getTransferBufferSize()
+    {
+        if ( this.ftpInfo.isAutoTuning() )
+        {
+            int v_Size = FTPTuning.getInstance(this.ftpInfo).getTransferBufferSize();
+            
+            if ( v_Size > 0 )
+            {
+                return v_Size;
+            }
+        }
+        
+        return this.ftpInfo.getTransferBufferSize();
+    }
+    
+    
+    
+    /**
+     * 数据流的原样拷贝（上传及下载共用）
+     * 
+     * 拷贝用的缓存按 getTransferBufferSize() 的大小从缓存池中借出，用完后归还。
+     * 每拷贝一次缓存，触发一次传送文件进度的事件。
+     * 有数据变换（数据安全性、变换链）时，在缓存上就地编码（上传）或解码（下载）。
+     * 每拷贝一次缓存，按拷贝的大小限速（见 FTPRateLimiter）。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Input       输入流（方法内不关闭流）
+     * @param i_Output      输出流（方法内不关闭流）
+     * @param io_Event      传送文件的事件
+     * @param i_IsContinue  是否继续（即传送文件之前的事件的返回值）
+     * @param i_IsUpload    是否为上传。上传时编码，下载时解码
+     * @param io_Checksum   网络上传输的数据的校验。可为 null
+     * @param i_Position    数据在整个文件中的开始位置（断点续传时大于0）
+     * @return              已拷贝的大小（单位：Byte）
+     * @throws IOException
+     */
+    private long copyRaw(InputStream i_Input ,OutputStream i_Output ,DefaultFTPEvent io_Event ,boolean i_IsContinue ,boolean i_IsUpload ,FTPChecksum io_Checksum ,long i_Position) throws IOException
+    {
+        byte []        v_Buffer      = FTPBufferPool.getInstance().borrow(this.getTransferBufferSize());
+        long           v_FTPingSize  = 0;
+        int            v_RSize       = 0;
+        boolean        v_IsContinue  = i_IsContinue;
+        boolean        v_IsTransform = this.hasTransform();
+        FTPRateLimiter v_RateLimiter = this.getRateLimiter();
+        
+        try
+        {
+            while ( v_IsContinue && (v_RSize = i_Input.read(v_Buffer)) >= 0 )
+            {
+                if ( i_IsUpload )
+                {
+                    if ( v_IsTransform )
+                    {
+                        this.encode(v_Buffer ,0 ,v_RSize ,i_Position + v_FTPingSize);
+                    }
+                    if ( io_Checksum != null )
+                    {
+                        io_Checksum.update(v_Buffer ,0 ,v_RSize);
+                    }
+                }
+                else
+                {
+                    if ( io_Checksum != null )
+                    {
+                        io_Checksum.update(v_Buffer ,0 ,v_RSize);
+                    }
+                    if ( v_IsTransform )
+                    {
+                        this.decode(v_Buffer ,0 ,v_RSize ,i_Position + v_FTPingSize);
+                    }
+                }
+                
+                v_RateLimiter.acquire(v_RSize);
+                i_Output.write(v_Buffer ,0 ,v_RSize);
+                
+                v_FTPingSize += v_RSize;
+                
+                io_Event.setCompleteSize(i_Position + v_FTPingSize);
+                v_IsContinue = this.fireFTPingListener(io_Event);
+            }
+        }
+        finally
+        {
+            FTPBufferPool.getInstance().giveBack(v_Buffer);
+        }
+        
+        return v_FTPingSize;
+    }
+    
+    
+    
+    /**
+     * 创建远程文件的上级目录
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return                  上级目录的全路径
+     */
+    private String makeParentDirectory(String i_RemoteFullName)
+    {
+        if ( Help.isNull(i_RemoteFullName) )
+        {
+            return null;
+        }
+        
+        String [] v_RFNameArr   = i_RemoteFullName.split("/");
+        String    v_DirFullName = StringHelp.replaceLast(i_RemoteFullName ,"/" + v_RFNameArr[v_RFNameArr.length - 1] ,"");
+        
+        this.makeDirectory(v_DirFullName);
+        
+        return v_DirFullName;
+    }
+    
+    
+    
+    /**
+     * 上传被服务端拒绝时，缓存中的目录可能已被外界删除。作废缓存，并重建目录
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_DirFullName  目录的全路径
+     * @return               是否值得再试一次上传（即目录曾在缓存中）
+     */
+    private boolean remakeDirectory(String i_DirFullName)
+    {
+        if ( i_DirFullName == null || !this.getDirectoryCache().isExists(FTPDirectoryCache.normalize(i_DirFullName)) )
+        {
+            return false;
+        }
+        
+        this.getDirectoryCache().invalidate(i_DirFullName);
+        this.makeDirectory(i_DirFullName);
+        
+        return true;
+    }
+    
+    
+    
+    /**
+     * 打开上传文件的数据流
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_IsAppend        追加模式（断点续传）
+     * @return                  服务端拒绝时（如目录不存在）返回 null
+     * @throws IOException
+     */
+    private OutputStream openUploadStream(String i_RemoteFullName ,boolean i_IsAppend) throws IOException
+    {
+        if ( i_IsAppend )
+        {
+            return this.ftpClient.appendFileStream(toFTPName(i_RemoteFullName));
+        }
+        else
+        {
+            return this.ftpClient.storeFileStream(toFTPName(i_RemoteFullName));
+        }
+    }
+    
+    
+    
+    /**
+     * 获取本FTP服务的目录缓存
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @return
+     */
+    public FTPDirectoryCache getDirectoryCache()
+    {
+        return FTPDirectoryCache.getInstance(this.ftpInfo);
+    }
+    
+    
+    
+    /**
+     * 创建FTP目录。可连续创建多级目录
+     * 
+     * 1. 支持中文目录
+     * 2. 已确认存在的目录（见 FTPDirectoryCache）不再发送 MKD 命令
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2020-05-20
+     * @version     v1.0
+     *
+     * @param i_DirFullName   目录的全路径名称
+     * @return                返回值表示创建的目录数量
+     */
+    public int makeDirectory(String i_DirFullName)
+    {
+        if ( Help.isNull(i_DirFullName) )
+        {
+            return 0;
+        }
+        
+        if ( this.ftpClient == null )
+        {
+            return -99;
+        }
+        
+        try
+        {
+            FTPDirectoryCache v_DirCache      = this.getDirectoryCache();
+            String []         v_DirFullNameArr = i_DirFullName.trim().split("/");
+            List<String>      v_Dirs           = new ArrayList<String>(v_DirFullNameArr.length);
+            StringBuilder     v_DirBuffer      = new StringBuilder();
+            int               v_ExistsCount    = 0;
+            int               v_CreateCount    = 0;
+            
+            for (String v_DirName : v_DirFullNameArr)
+            {
+                if ( Help.isNull(v_DirName) )
+                {
+                    continue;
+                }
+                
+                v_DirBuffer.append("/").append(v_DirName);
+                v_Dirs.add(v_DirBuffer.toString());
+            }
+            
+            // 从最深一级向上查找已确认存在的目录，其及其上级目录均不再发送 MKD 命令
+            for (int v_Index=v_Dirs.size() - 1; v_Index>=0; v_Index--)
+            {
+                if ( v_DirCache.isExists(v_Dirs.get(v_Index)) )
+                {
+                    v_ExistsCount = v_Index + 1;
+                    break;
+                }
+            }
+            v_DirCache.countSkip(v_ExistsCount);
+            
+            for (int v_Index=v_ExistsCount; v_Index<v_Dirs.size(); v_Index++)
+            {
+                v_DirCache.countMKD();
+                
+                if ( this.ftpClient.makeDirectory(toFTPName(v_Dirs.get(v_Index))) )
+                {
+                    v_DirCache.put(v_Dirs.get(v_Index) ,this.ftpInfo.getDirCacheTimeout());
+                    v_CreateCount++;
+                }
+            }
+            
+            return v_CreateCount;
+        }
+        catch (Exception exce)
+        {
+            exce.printStackTrace();
+        }
+        
+        return -1;
+    }
+    
+    
+    
+    /**
+     * 新建一个独立的（未连接的）FTPHelp，与本对象用相同的FTP服务、连接池、传输设置及事件监听器
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @return
+     */
+    private FTPHelp newFTPHelp()
+    {
+        FTPHelp v_FTPHelp = new FTPHelp(this.ftpInfo ,this.ftpPool);
+        
+        v_FTPHelp.setDataSafe(this.dataSafe);
+        v_FTPHelp.setCompress(this.compress);
+        v_FTPHelp.setCompressLevel(this.compressLevel);
+        v_FTPHelp.setChecksumType(this.checksumType);
+        v_FTPHelp.setChecksumVerify(this.checksumVerify);
+        v_FTPHelp.setSkipIfIdentical(this.skipIfIdentical);
+        v_FTPHelp.setProcessSize(this.processSize);
+        v_FTPHelp.setProcessInterval(this.processInterval);
+        v_FTPHelp.setProcessAsync(this.processAsync);
+        v_FTPHelp.setRateLimiter(this.rateLimiter);
+        for (TransferTransform v_Transform : this.transforms.getTransforms())
+        {
+            v_FTPHelp.addTransform(v_Transform);
+        }
+        if ( this.ftpListeners != null )
+        {
+            for (FTPListener v_Listener : this.ftpListeners)
+            {
+                v_FTPHelp.addFTPListener(v_Listener);
+            }
+        }
+        
+        return v_FTPHelp;
+    }
+    
+    
+    
+    /**
+     * 异步上传文件
+     * 
+     * 用独立的连接（有连接池时从连接池中借出）在 asyncExecutor 中执行，不占用本对象的连接，可同时发起多个。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  传输结果的 Future。传输失败时也是正常完成的，由 FTPTransferResult.isSucceed() 判定。
+     *          Future.cancel() 时，在下次传输中事件时中止传输
+     */
+    public CompletableFuture<FTPTransferResult> uploadAsync(String i_LocalFullName ,String i_RemoteFullName)
+    {
+        return this.async(new FTPTransferResult(1 ,i_LocalFullName ,i_RemoteFullName) ,v_FTPHelp -> v_FTPHelp.upload(i_LocalFullName ,i_RemoteFullName));
+    }
+    
+    
+    
+    /**
+     * 异步下载文件（见 uploadAsync() 的说明）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> downloadAsync(String i_RemoteFullName ,String i_SaveFullName)
+    {
+        return this.async(new FTPTransferResult(2 ,i_SaveFullName ,i_RemoteFullName) ,v_FTPHelp -> v_FTPHelp.download(i_RemoteFullName ,i_SaveFullName));
+    }
+    
+    
+    
+    /**
+     * 异步删除文件（见 uploadAsync() 的说明）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> deleteAsync(String i_RemoteFullName)
+    {
+        return this.async(new FTPTransferResult(3 ,null ,i_RemoteFullName) ,v_FTPHelp -> v_FTPHelp.deleteFile(i_RemoteFullName));
+    }
+    
+    
+    
+    /**
+     * 在独立的连接上异步执行
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param io_Result  传输结果。执行后填充大小、异常信息及结束时间
+     * @param i_Action   执行的动作。返回异常信息，成功时返回 null
+     * @return
+     */
+    private CompletableFuture<FTPTransferResult> async(FTPTransferResult io_Result ,Function<FTPHelp ,String> i_Action)
+    {
+        CompletableFuture<FTPTransferResult> v_Future = new CompletableFuture<FTPTransferResult>();
+        
+        try
+        {
+            this.getAsyncExecutor().execute(() ->
+            {
+                // 开始前已被取消
+                if ( v_Future.isDone() )
+                {
+                    return;
+                }
+                
+                FTPHelp v_FTPHelp = this.newFTPHelp();
+                String  v_Error   = null;
+                
+                v_FTPHelp.addFTPListener(new CancelListener(v_Future));
+                io_Result.begin();
+                
+                try
+                {
+                    v_Error = v_FTPHelp.connect();
+                    if ( v_Error == null )
+                    {
+                        v_Error = i_Action.apply(v_FTPHelp);
+                    }
+                }
+                catch (Throwable exce)
+                {
+                    v_Error = exce.toString();
+                }
+                finally
+                {
+                    v_FTPHelp.close();
+                }
+                
+                if ( v_Future.isCancelled() )
+                {
+                    v_Error = "Ftp transfer is canceled.";
+                }
+                
+                io_Result.finish(io_Result.getLocalFullName() == null ? 0 : new File(io_Result.getLocalFullName()).length() ,v_Error);
+                v_Future.complete(io_Result);
+            });
+        }
+        catch (RejectedExecutionException exce)
+        {
+            io_Result.finish(0 ,exce.toString());
+            v_Future.complete(io_Result);
+        }
+        
+        return v_Future;
+    }
+    
+    
+    
+    /**
+     * 获取执行异步传输的线程池。未设置时，用全局共享的线程池（见 FTPExecutors，JDK 支持时每个传输一个虚拟线程）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @return
+     */
+    public Executor getAsyncExecutor()
+    {
+        if ( this.asyncExecutor != null )
+        {
+            return this.asyncExecutor;
+        }
+        
+        if ( $AsyncExecutor == null )
+        {
+            synchronized ( FTPHelp.class )
+            {
+                if ( $AsyncExecutor == null )
+                {
+                    $AsyncExecutor = FTPExecutors.getInstance().newExecutor("FTPHelp-Async" ,0);
+                }
+            }
+        }
+        
+        return $AsyncExecutor;
+    }
+    
+    
+    
+    /**
+     * 设置：执行异步传输的线程池。为 null 时用全局共享的线程池
+     * 
+     * @param asyncExecutor
+     */
+    public void setAsyncExecutor(Executor asyncExecutor)
+    {
+        this.asyncExecutor = asyncExecutor;
+    }
+    
+    
+    
+    /**
+     * 删除文件
+     * 
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  上传成功返回 null 。否则返回异常信息
+     */
+    public String deleteFile(String i_RemoteFullName)
+    {
+        if ( this.ftpClient == null )
+        {
+            return "Ftp Client is not connect.";
+        }
+        
+        
+        try
+        {
+            boolean v_Ret = this.ftpClient.deleteFile(new String(i_RemoteFullName.getBytes("GBK") ,"ISO-8859-1"));
+            
+            if ( !v_Ret )
+            {
+                return "Delete file is faild.";
+            }
+        }
+        catch (Exception exce)
+        {
+            return exce.toString();
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 获取远程文件的大小（SIZE 命令）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return                  文件的大小（单位：Byte）。文件不存在或服务端不支持 SIZE 命令时返回 -1
+     */
+    public long getFileSize(String i_RemoteFullName)
+    {
+        if ( this.ftpClient == null || Help.isNull(i_RemoteFullName) )
+        {
+            return -1;
+        }
+        
+        try
+        {
+            if ( this.ftpClient.sendCommand("SIZE" ,toFTPName(i_RemoteFullName)) == 213 )
+            {
+                return Long.parseLong(this.ftpClient.getReplyString().substring(3).trim());
+            }
+        }
+        catch (Exception exce)
+        {
+            // Nothing.
+        }
+        
+        return -1;
+    }
+    
+    
+    
+    /**
+     * 传输完成后，记录校验值，并按需与服务端的校验值比较
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Checksum         网络上传输的数据的校验。为 null 时不校验
+     * @param i_RemoteFullName   远程文件的全路径
+     * @param i_IsWhole          校验的是否为整个文件（追加模式时不是）
+     * @param io_Event           传送文件的事件
+     * @return  校验不一致时返回异常信息。否则返回 null
+     */
+    private String finishChecksum(FTPChecksum i_Checksum ,String i_RemoteFullName ,boolean i_IsWhole ,DefaultFTPEvent io_Event)
+    {
+        if ( i_Checksum == null )
+        {
+            return null;
+        }
+        
+        this.lastChecksum = i_Checksum.getValue();
+        io_Event.setChecksum(this.lastChecksum);
+        
+        if ( !this.checksumVerify || !i_IsWhole )
+        {
+            return null;
+        }
+        
+        // 被监听器中止的传输，只传输了一部分
+        if ( io_Event.getSize() > 0 && io_Event.getCompletedSize() < io_Event.getSize() )
+        {
+            return null;
+        }
+        
+        String v_Remote = this.getRemoteChecksum(i_RemoteFullName ,i_Checksum.getType());
+        if ( v_Remote != null && !v_Remote.equals(this.lastChecksum) )
+        {
+            return $ChecksumMismatch + i_Checksum.getType() + " local=" + this.lastChecksum + " remote=" + v_Remote;
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 计算本地文件在FTP服务上保存时（即数据变换之后）的校验值
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_LocalFile  本地文件
+     * @param i_Type       校验的类型（FTPChecksum.$CRC32、$MD5）
+     * @return
+     * @throws IOException
+     */
+    private FTPChecksum checksumFile(File i_LocalFile ,String i_Type) throws IOException
+    {
+        return this.checksumFile(i_LocalFile ,i_Type ,Long.MAX_VALUE);
+    }
+    
+    
+    
+    /**
+     * 计算本地文件前一部分在FTP服务上保存时（即数据变换之后）的校验值
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_LocalFile  本地文件
+     * @param i_Type       校验的类型（FTPChecksum.$CRC32、$MD5）
+     * @param i_Length     只计算文件前 i_Length 个字节
+     * @return
+     * @throws IOException
+     */
+    private FTPChecksum checksumFile(File i_LocalFile ,String i_Type ,long i_Length) throws IOException
+    {
+        FTPChecksum v_Checksum    = FTPChecksum.newInstance(i_Type);
+        byte []     v_Buffer      = FTPBufferPool.getInstance().borrow(this.getTransferBufferSize());
+        boolean     v_IsTransform = this.hasTransform();
+        long        v_Position    = 0;
+        int         v_RSize       = 0;
+        
+        try (InputStream v_Input = new FileInputStream(i_LocalFile))
+        {
+            while ( v_Position < i_Length && (v_RSize = v_Input.read(v_Buffer ,0 ,(int)Math.min(v_Buffer.length ,i_Length - v_Position))) >= 0 )
+            {
+                if ( v_IsTransform )
+                {
+                    this.encode(v_Buffer ,0 ,v_RSize ,v_Position);
+                }
+                
+                v_Checksum.update(v_Buffer ,0 ,v_RSize);
+                v_Position += v_RSize;
+            }
+        }
+        finally
+        {
+            FTPBufferPool.getInstance().giveBack(v_Buffer);
+        }
+        
+        return v_Checksum;
+    }
+    
+    
+    
+    /**
+     * 本地文件与服务端的文件是否相同：先比较大小（SIZE命令），再比较校验值
+     * 
+     * 传输时压缩时，服务端保存的是压缩后的数据，不做比较
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_LocalFile        本地文件
+     * @param i_RemoteFullName   远程文件的全路径
+     * @return
+     */
+    private boolean isIdentical(File i_LocalFile ,String i_RemoteFullName)
+    {
+        if ( this.ftpClient == null || this.compress || !i_LocalFile.isFile() )
+        {
+            return false;
+        }
+        
+        if ( this.getFileSize(i_RemoteFullName) != i_LocalFile.length() )
+        {
+            return false;
+        }
+        
+        String v_Type = this.getRemoteChecksumType();
+        if ( v_Type == null )
+        {
+            return false;
+        }
+        
+        String v_Remote = this.getRemoteChecksum(i_RemoteFullName ,v_Type);
+        if ( v_Remote == null )
+        {
+            return false;
+        }
+        
+        try
+        {
+            String v_Local = this.checksumFile(i_LocalFile ,v_Type).getValue();
+            
+            if ( v_Remote.equals(v_Local) )
+            {
+                this.lastChecksum = v_Local;
+                return true;
+            }
+        }
+        catch (IOException exce)
+        {
+            // Nothing.
+        }
+        
+        return false;
+    }
+    
+    
+    
+    /**
+     * 获取服务端支持的校验类型。优先用 checksumType，其次 MD5，再次 CRC32
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @return  服务端不支持校验时返回 null
+     */
+    private String getRemoteChecksumType()
+    {
+        String [] v_Types = {this.checksumType ,FTPChecksum.$MD5 ,FTPChecksum.$CRC32};
+        
+        for (String v_Type : v_Types)
+        {
+            if ( !Help.isNull(v_Type) && this.isRemoteChecksum(v_Type) )
+            {
+                return v_Type.toUpperCase();
+            }
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 服务端是否支持某一校验类型（通过 FEAT 命令发现，同一连接只查询一次）
+     * 
+     * @param i_Type  校验的类型（FTPChecksum.$CRC32、$MD5）
+     * @return
+     */
+    private boolean isRemoteChecksum(String i_Type)
+    {
+        try
+        {
+            return this.getHashAlgorithm(i_Type) != null 
+                || this.ftpClient.hasFeature(FTPChecksum.$CRC32.equalsIgnoreCase(i_Type) ? "XCRC" : "XMD5");
+        }
+        catch (IOException exce)
+        {
+            return false;
+        }
+    }
+    
+    
+    
+    /**
+     * 获取 HASH 命令（RFC草案 draft-bryan-ftpext-hash）中与校验类型对应的算法名称
+     * 
+     * @param i_Type  校验的类型（FTPChecksum.$CRC32、$MD5）
+     * @return  服务端不支持 HASH 命令或此算法时返回 null
+     * @throws IOException
+     */
+    private String getHashAlgorithm(String i_Type) throws IOException
+    {
+        String [] v_Values = this.ftpClient.featureValues("HASH");
+        
+        if ( v_Values == null )
+        {
+            return null;
+        }
+        
+        for (String v_Value : v_Values)
+        {
+            for (String v_Algorithm : v_Value.split(";"))
+            {
+                String v_Name = v_Algorithm.replace("*" ,"").trim();
+                
+                if ( v_Name.equalsIgnoreCase(i_Type) )
+                {
+                    return v_Name;
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 获取服务端文件的校验值。
+     * 
+     * 优先用 HASH 命令，其次用 XCRC 或 XMD5 命令。服务端支持的命令通过 FEAT 命令发现。
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_Type            校验的类型（FTPChecksum.$CRC32、$MD5）
+     * @return  大写的十六进制校验值。文件不存在或服务端不支持时返回 null
+     */
+    public String getRemoteChecksum(String i_RemoteFullName ,String i_Type)
+    {
+        if ( this.ftpClient == null || Help.isNull(i_RemoteFullName) || Help.isNull(i_Type) )
+        {
+            return null;
+        }
+        
+        try
+        {
+            String v_Name      = toFTPName(i_RemoteFullName);
+            String v_Algorithm = this.getHashAlgorithm(i_Type);
+            
+            if ( v_Algorithm != null 
+              && FTPReply.isPositiveCompletion(this.ftpClient.sendCommand("OPTS" ,"HASH " + v_Algorithm))
+              && FTPReply.isPositiveCompletion(this.ftpClient.sendCommand("HASH" ,v_Name)) )
+            {
+                return parseChecksum(this.ftpClient.getReplyString() ,i_Type);
+            }
+            
+            String v_Command = FTPChecksum.$CRC32.equalsIgnoreCase(i_Type) ? "XCRC" : "XMD5";
+            
+            if ( this.ftpClient.hasFeature(v_Command) 
+              && FTPReply.isPositiveCompletion(this.ftpClient.sendCommand(v_Command ,v_Name)) )
+            {
+                return parseChecksum(this.ftpClient.getReplyString() ,i_Type);
+            }
+        }
+        catch (Exception exce)
+        {
+            // Nothing.
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 从服务端的应答中解析校验值。
+     * 
+     * HASH 的应答如：213 MD5 0-1234 0123456789abcdef0123456789abcdef file.txt
+     * XCRC 的应答如：250 1A2B3C4D
+     * 
+     * @param i_Reply  服务端的应答
+     * @param i_Type   校验的类型
+     * @return
+     */
+    private static String parseChecksum(String i_Reply ,String i_Type)
+    {
+        boolean   v_IsCRC  = FTPChecksum.$CRC32.equalsIgnoreCase(i_Type);
+        String [] v_Tokens = i_Reply.trim().split("\\s+");
+        
+        // 第一个是应答码
+        for (int x=1; x<v_Tokens.length; x++)
+        {
+            String v_Token = v_Tokens[x].toUpperCase();
+            
+            if ( v_Token.startsWith("0X") )
+            {
+                v_Token = v_Token.substring(2);
+            }
+            
+            if ( v_Token.matches("[0-9A-F]+") && (v_IsCRC ? v_Token.length() <= 8 : v_Token.length() == 32) )
+            {
+                return FTPChecksum.normalize(i_Type ,v_Token);
+            }
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 中文目录及中文文件名称的转码
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     *
+     * @param i_Name
+     * @return
+     * @throws UnsupportedEncodingException
+     */
+    private static String toFTPName(String i_Name) throws UnsupportedEncodingException
+    {
+        return new String(i_Name.getBytes("GBK") ,"ISO-8859-1");
+    }
+    
+    
+    
+    /**
+     * 注册FTP文件事件
+     * 
+     * @param e
+     */
+    public synchronized void addFTPListener(FTPListener e)
+    {
+        if ( this.ftpListeners == null )
+        {
+            this.ftpListeners = new CopyOnWriteArraySet<FTPListener>();
+        }
+        
+        this.ftpListeners.add(e);
+    }
+    
+    
+    
+    /**
+     * 移除FTP文件事件
+     * 
+     * @param e
+     */
+    public void removeFTPListener(FTPListener e)
+    {
+        if ( this.ftpListeners == null )
+        {
+            return;
+        }
+        
+        this.ftpListeners.remove(e);
+    }
+    
+    
+    
+    /**
+     * 触发FTP传送文件之前的事件
+     * 
+     * @param i_Event
+     * @return   返回值表示是否继续
+     */
+    protected boolean fireFTPBeforeListener(FTPEvent i_Event)
+    {
+        if ( this.ftpListeners == null )
+        {
+            return true;
+        }
+        
+        return notifyFTPBeforeListeners(i_Event);
+    }
+    
+    
+    
+    /**
+     * 触发FTP传送文件事件
+     * 
+     * 按 processSize、processInterval 节流。异步分发时，事件监听器的取消在下次触发时生效
+     * 
+     * @param io_Event
+     * @return   返回值表示是否继续
+     */
+    protected boolean fireFTPingListener(DefaultFTPEvent io_Event)
+    {
+        if ( this.ftpListeners == null )
+        {
+            return true;
+        }
+        
+        if ( io_Event.isCancel() )
+        {
+            return false;
+        }
+        
+        if ( !io_Event.isProcessDue(this.processSize ,this.processInterval) )
+        {
+            return true;
+        }
+        
+        if ( this.processAsync )
+        {
+            return FTPProgressDispatcher.getInstance().dispatch(io_Event ,this.ftpListeners);
+        }
+        
+        return notifyFTPingListeners(io_Event);
+    }
+    
+    
+    
+    /**
+     * 触发FTP传送文件完成之后的事件
+     * 
+     * @param i_Event
+     */
+    protected void fireFTPAfterListener(FTPEvent i_Event)
+    {
+        FTPServerMetrics v_Metrics = FTPMetrics.getInstance().getServer(this.ftpInfo);
+        
+        if ( v_Metrics != null )
+        {
+            v_Metrics.addBytes(i_Event.getActionType() == 1 ,i_Event.getTransferSize());
+        }
+        
+        // 限速时的吞吐量不反映网络的带宽，不计入
+        if ( this.ftpInfo.isAutoTuning() && !this.getRateLimiter().isLimited() && i_Event.getBeginTime() != null && i_Event.getEndTime() != null )
+        {
+            FTPTuning.getInstance(this.ftpInfo).recordTransfer(i_Event.getTransferSize() ,i_Event.getEndTime().getTime() - i_Event.getBeginTime().getTime());
+        }
+        
+        if ( this.ftpListeners == null )
+        {
+            return;
+        }
+        
+        notifyFTPAfterListeners(i_Event);
+    }
+
+    
+    
+    /**
+     * 通知所有注册FTP传送文件之前的事件监听的对象
+     * 
+     * @param i_Event
+     * @return   返回值表示是否继续
+     */
+    private boolean notifyFTPBeforeListeners(FTPEvent i_Event)
+    {
+        Iterator<FTPListener> v_Iter       = this.ftpListeners.iterator();
+        boolean               v_IsContinue = true;
+
+        while ( v_IsContinue && v_Iter.hasNext() ) 
+        {
+            v_IsContinue = v_Iter.next().ftpBefore(i_Event);
+        }
+        
+        return v_IsContinue;
+    }
+    
+    
+    
+    /**
+     * 通知所有注册FTP传送文件事件监听的对象
+     * 
+     * @param i_Event
+     */
+    private boolean notifyFTPingListeners(FTPEvent i_Event)
+    {
+        Iterator<FTPListener> v_Iter       = this.ftpListeners.iterator();
+        boolean               v_IsContinue = true; 
+
+        while ( v_IsContinue && v_Iter.hasNext() ) 
+        {
+            v_IsContinue = v_Iter.next().ftpProcess(i_Event);
+        }
+        
+        return v_IsContinue;
+    }
+
+    
+    
+    /**
+     * 通知所有注册FTP传送完成之后的事件监听的对象
+     * 
+     * @param i_Event
+     */
+    private void notifyFTPAfterListeners(FTPEvent i_Event)
+    {
+        Iterator<FTPListener> v_Iter = this.ftpListeners.iterator();
+
+        while ( v_Iter.hasNext() ) 
+        {
+            v_Iter.next().ftpAfter(i_Event);
+        }
+    }
+    
+    
+    
+    /**
+     * 添加传输数据的变换（添加到变换链的链尾）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_Transform
+     */
+    public void addTransform(TransferTransform i_Transform)
+    {
+        this.transforms.add(i_Transform);
+    }
+    
+    
+    
+    /**
+     * 移除传输数据的变换
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_Transform
+     */
+    public void removeTransform(TransferTransform i_Transform)
+    {
+        this.transforms.remove(i_Transform);
+    }
+    
+    
+    
+    /**
+     * 是否有传输数据的变换（含数据安全性的加密）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    boolean hasTransform()
+    {
+        return this.dataSafe || !this.transforms.isEmpty();
+    }
+    
+    
+    
+    /**
+     * 上传前，就地编码缓存中的数据：先变换链，后数据安全性的加密
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param io_Buffer   传输用的缓存
+     * @param i_Offset    数据在缓存中的开始位置
+     * @param i_Length    数据的长度
+     * @param i_Position  数据在整个文件中的开始位置
+     */
+    void encode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position)
+    {
+        this.transforms.encode(io_Buffer ,i_Offset ,i_Length ,i_Position);
+        
+        if ( this.dataSafe )
+        {
+            XorTransform.getInstance().encode(io_Buffer ,i_Offset ,i_Length ,i_Position);
+        }
+    }
+    
+    
+    
+    /**
+     * 下载后，就地解码缓存中的数据：先数据安全性的解密，后变换链
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param io_Buffer   传输用的缓存
+     * @param i_Offset    数据在缓存中的开始位置
+     * @param i_Length    数据的长度
+     * @param i_Position  数据在整个文件中的开始位置
+     */
+    void decode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position)
+    {
+        if ( this.dataSafe )
+        {
+            XorTransform.getInstance().decode(io_Buffer ,i_Offset ,i_Length ,i_Position);
+        }
+        
+        this.transforms.decode(io_Buffer ,i_Offset ,i_Length ,i_Position);
+    }
+    
+    
+    
+    public boolean isDataSafe() 
+    {
+        return dataSafe;
     }
 
 
@@ -987,9 +3784,283 @@ public final class FTPHelp
     {
         this.dataSafe = dataSafe;
     }
+    
+    
+    
+    /**
+     * 获取：传输时压缩。如果为真，上传时压缩（已压缩过的内容除外），下载时解压（上传时压缩过的内容才解压）
+     */
+    public boolean isCompress()
+    {
+        return compress;
+    }
+    
+    
+    
+    /**
+     * 设置：传输时压缩。如果为真，上传时压缩（已压缩过的内容除外），下载时解压（上传时压缩过的内容才解压）
+     * 
+     * 注：openWrite() 打开的数据流，不识别内容是否已压缩过，总是压缩
+     * 注：下载时按文件的头部识别上传时压缩过的内容，是否压缩过不另行记录（见 FTPCompress 的局限）
+     * 
+     * @param compress
+     */
+    public void setCompress(boolean compress)
+    {
+        this.compress = compress;
+    }
+    
+    
+    
+    /**
+     * 获取：传输时压缩的压缩级别（0~9，-1为默认级别）
+     */
+    public int getCompressLevel()
+    {
+        return compressLevel;
+    }
+    
+    
+    
+    /**
+     * 设置：传输时压缩的压缩级别（0~9，-1为默认级别）
+     * 
+     * @param compressLevel
+     */
+    public void setCompressLevel(int compressLevel)
+    {
+        this.compressLevel = compressLevel;
+    }
 
 
 
+    /**
+     * 获取：传输时计算校验值的类型（FTPChecksum.$CRC32、$MD5）。为空时不计算
+     */
+    public String getChecksumType()
+    {
+        return checksumType;
+    }
+    
+    
+    
+    /**
+     * 设置：传输时计算校验值的类型（FTPChecksum.$CRC32、$MD5）。为空时不计算
+     * 
+     * 校验的是服务端保存的数据（即压缩、数据变换之后的数据），计算结果见 getLastChecksum() 及事件的 getChecksum()
+     * 
+     * @param checksumType
+     */
+    public void setChecksumType(String checksumType)
+    {
+        this.checksumType = Help.isNull(checksumType) ? null : checksumType.trim().toUpperCase();
+    }
+    
+    
+    
+    /**
+     * 获取：传输后，是否与服务端的校验值（HASH、XCRC、XMD5命令）比较。不一致时视为传输失败
+     */
+    public boolean isChecksumVerify()
+    {
+        return checksumVerify;
+    }
+    
+    
+    
+    /**
+     * 设置：传输后，是否与服务端的校验值（HASH、XCRC、XMD5命令）比较。不一致时视为传输失败
+     * 
+     * 服务端不支持校验命令时不比较。须同时设置 checksumType
+     * 
+     * @param checksumVerify
+     */
+    public void setChecksumVerify(boolean checksumVerify)
+    {
+        this.checksumVerify = checksumVerify;
+    }
+    
+    
+    
+    /**
+     * 获取：上传前，与服务端的文件比较大小及校验值，一致时不再上传
+     */
+    public boolean isSkipIfIdentical()
+    {
+        return skipIfIdentical;
+    }
+    
+    
+    
+    /**
+     * 设置：上传前，与服务端的文件比较大小及校验值，一致时不再上传
+     * 
+     * 只对上传本地文件（非追加模式）有效。服务端不支持校验命令时，总是上传
+     * 
+     * @param skipIfIdentical
+     */
+    public void setSkipIfIdentical(boolean skipIfIdentical)
+    {
+        this.skipIfIdentical = skipIfIdentical;
+    }
+    
+    
+    
+    /**
+     * 获取：数据包流模式。同一会话连续的数据包写入同一个持续打开的数据流
+     */
+    public boolean isPacketStream()
+    {
+        return packetStream;
+    }
+    
+    
+    
+    /**
+     * 设置：数据包流模式。同一会话连续的数据包写入同一个持续打开的数据流，不再每个数据包一次 APPE 命令
+     * 
+     * 1. 数据流用独立的连接打开，最后一个数据包写出后、或空闲超时后（见 FTPPacketSessions.setStreamIdleTimeout()）关闭
+     * 2. 数据包写入数据流即应答成功。数据流异常中断、且服务端丢失已应答的数据包时，会话作废，须从第一个数据包重新上传
+     * 3. 传输时压缩时不生效
+     * 4. 有连接池、且没有空闲的连接时不等待，本次仍用本对象的连接按数据包追加写出
+     * 
+     * @param packetStream
+     */
+    public void setPacketStream(boolean packetStream)
+    {
+        this.packetStream = packetStream;
+    }
+    
+    
+    
+    /**
+     * 获取：数据包的超时时长（单位：秒）
+     */
+    public long getDataPacketTimeOut()
+    {
+        return dataPacketTimeOut;
+    }
+    
+    
+    
+    /**
+     * 设置：数据包的超时时长（单位：秒）。即上传会话超时时长内没有收到数据包时，作废会话
+     * 
+     * 会话作废后，客户端继续上传之后的数据包时，按服务端文件的大小续传（见 FTPPacketSessions.resume()）
+     * 
+     * @param dataPacketTimeOut
+     */
+    public void setDataPacketTimeOut(long dataPacketTimeOut)
+    {
+        this.dataPacketTimeOut = dataPacketTimeOut;
+    }
+    
+    
+    
+    /**
+     * 获取：两次传输中事件间已完成大小的下限（单位：Byte）
+     */
+    public long getProcessSize()
+    {
+        return processSize;
+    }
+    
+    
+    
+    /**
+     * 设置：两次传输中事件间已完成大小的下限（单位：Byte）。小于等于0表示不限制，即每次读写均触发
+     * 
+     * 与 processInterval 均达到下限时才触发。传输完成的最后一次总是触发
+     * 
+     * @param processSize
+     */
+    public void setProcessSize(long processSize)
+    {
+        this.processSize = processSize;
+    }
+    
+    
+    
+    /**
+     * 获取：两次传输中事件间时长的下限（单位：毫秒）
+     */
+    public long getProcessInterval()
+    {
+        return processInterval;
+    }
+    
+    
+    
+    /**
+     * 设置：两次传输中事件间时长的下限（单位：毫秒）。小于等于0表示不限制
+     * 
+     * @param processInterval
+     */
+    public void setProcessInterval(long processInterval)
+    {
+        this.processInterval = processInterval;
+    }
+    
+    
+    
+    /**
+     * 获取：传输中事件是否异步分发
+     */
+    public boolean isProcessAsync()
+    {
+        return processAsync;
+    }
+    
+    
+    
+    /**
+     * 设置：传输中事件是否异步分发（见 FTPProgressDispatcher）。
+     * 
+     * 异步时传输线程不等待事件监听器，事件监听器返回 false 时，在下次传输中事件时停止传输。
+     * 传输之前、之后的事件仍是同步的
+     * 
+     * @param processAsync
+     */
+    public void setProcessAsync(boolean processAsync)
+    {
+        this.processAsync = processAsync;
+    }
+    
+    
+    
+    /**
+     * 获取：传输带宽的限速器。未设置时，用时才获取服务端的限速器（FTP信息为 null 时，构造器也不会异常）
+     */
+    public FTPRateLimiter getRateLimiter()
+    {
+        return this.rateLimiter == null ? FTPRateLimiter.getInstance(this.ftpInfo) : this.rateLimiter;
+    }
+    
+    
+    
+    /**
+     * 设置：传输带宽的限速器（可设置上级限速器，与其它传输共享带宽）。
+     * 为 null 时用服务端的限速器（见 FTPRateLimiter.getInstance()）
+     * 
+     * @param rateLimiter
+     */
+    public void setRateLimiter(FTPRateLimiter rateLimiter)
+    {
+        this.rateLimiter = rateLimiter;
+    }
+    
+    
+    
+    /**
+     * 获取：最后一次传输的校验值（大写的十六进制）
+     */
+    public String getLastChecksum()
+    {
+        return lastChecksum;
+    }
+    
+    
+    
     @Override
     protected void finalize() throws Throwable 
     {
@@ -1004,4 +4075,49 @@ public final class FTPHelp
         super.finalize();
     }
     
+    
+    
+    
+    
+    /**
+     * 异步传输的取消：Future 被取消时，在下次传输事件时中止传输（FTPScheduler 也用此类）
+     */
+    static class CancelListener implements FTPListener
+    {
+        
+        private final Future<?> future;
+        
+        
+        
+        public CancelListener(Future<?> i_Future)
+        {
+            this.future = i_Future;
+        }
+        
+        
+        
+        @Override
+        public boolean ftpBefore(FTPEvent e)
+        {
+            return !this.future.isCancelled();
+        }
+        
+        
+        
+        @Override
+        public boolean ftpProcess(FTPEvent e)
+        {
+            return !this.future.isCancelled();
+        }
+        
+        
+        
+        @Override
+        public void ftpAfter(FTPEvent e)
+        {
+            // Nothing.
+        }
+    
+    }
+
 }
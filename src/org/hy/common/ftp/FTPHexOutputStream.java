@@ -0,0 +1,71 @@
+package org.hy.common.ftp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.hy.common.StringHelp;
+
+
+
+
+
+/**
+ * 十六进制编码的输出流。
+ *
+ * 写入的字节，边写边编码为十六进制的字符（与 StringHelp.bytesToHex() 相同），并追加到 Appendable 中。
+ * 不在内存中保留全部的字节内容，适用于仍需十六进制内容的调用者。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPHexOutputStream extends OutputStream
+{
+    
+    /** 十六进制字符的写入处。如 Writer、StringBuilder */
+    private final Appendable hex;
+    
+    
+    
+    /**
+     * 构造器
+     *
+     * @param io_Hex  十六进制字符的写入处。如 Writer、StringBuilder
+     */
+    public FTPHexOutputStream(Appendable io_Hex)
+    {
+        this.hex = io_Hex;
+    }
+    
+    
+    
+    @Override
+    public void write(int i_Byte) throws IOException
+    {
+        this.hex.append(StringHelp.bytesToHex(new byte[] {(byte)i_Byte} ,0 ,1));
+    }
+    
+    
+    
+    @Override
+    public void write(byte [] i_Bytes ,int i_Offset ,int i_Length) throws IOException
+    {
+        if ( i_Length <= 0 )
+        {
+            return;
+        }
+        
+        this.hex.append(StringHelp.bytesToHex(i_Bytes ,i_Offset ,i_Length));
+    }
+    
+    
+    
+    /**
+     * 获取：十六进制字符的写入处
+     */
+    public Appendable getHex()
+    {
+        return this.hex;
+    }
+
+}
@@ -13,6 +13,10 @@ import org.hy.common.Help;
  * @author   ZhengWei(HY)
  * @version  V1.0  2012-03-27
  *           V2.0  2020-05-28  添加：继承 FTPClient 父类
+ *           V3.0  2026-10-17  添加：1. 已存在目录的缓存时长 dirCacheTimeout
+ *                             添加：2. 传输缓存的大小 transferBufferSize
+ *                             添加：3. 是否允许零拷贝的传输 zeroCopy
+ *                             添加：4. 按测得的往返时延及吞吐量，自动调优缓存 autoTuning
  */
 public class FTPInfo extends FTPClient implements Cloneable
 {
@@ -23,6 +27,9 @@ public class FTPInfo extends FTPClient implements Cloneable
     /** 读取文件的超时时长 */
     public static final int $ReadTimeOut    = 2 * 60 * 1000; 
     
+    /** 默认的传输缓存大小。按吞吐量而不是按节省内存来设定 */
+    public static final int $TransferBufferSize = 256 * 1024;
+    
     
     
     /** 文件服务器IP */
@@ -52,6 +59,18 @@ public class FTPInfo extends FTPClient implements Cloneable
     /** 读取文件的超时时长 */
     private int              dataTimeout;
     
+    /** 已存在目录的缓存时长（单位：秒）。小于等于0时不缓存，每次上传都逐级发送 MKD 命令 */
+    private long             dirCacheTimeout;
+    
+    /** 上传及下载时拷贝数据用的缓存大小（单位：Byte） */
+    private int              transferBufferSize;
+    
+    /** 本地文件与数据连接间，是否允许零拷贝的传输（数据不加密、没有事件监听器时才生效） */
+    private boolean          zeroCopy;
+    
+    /** 是否按测得的往返时延及吞吐量，自动调优数据连接的Socket缓存及拷贝缓存（见 FTPTuning） */
+    private boolean          autoTuning;
+    
     
     
     public FTPInfo()
@@ -79,6 +98,10 @@ public class FTPInfo extends FTPClient implements Cloneable
         this.setLocalPassiveMode(false);
         this.setRemotePassiveMode(false);
         this.setDataTimeout($ReadTimeOut);
+        this.setDirCacheTimeout(10 * 60);
+        this.setTransferBufferSize($TransferBufferSize);
+        this.setZeroCopy(true);
+        this.setAutoTuning(false);
     }
 
 
@@ -276,6 +299,95 @@ public class FTPInfo extends FTPClient implements Cloneable
     
     
     
+    /**
+     * 获取：已存在目录的缓存时长（单位：秒）
+     */
+    public long getDirCacheTimeout()
+    {
+        return dirCacheTimeout;
+    }
+
+
+    
+    /**
+     * 设置：已存在目录的缓存时长（单位：秒）。小于等于0时不缓存，每次上传都逐级发送 MKD 命令
+     * 
+     * @param dirCacheTimeout 
+     */
+    public void setDirCacheTimeout(long dirCacheTimeout)
+    {
+        this.dirCacheTimeout = dirCacheTimeout;
+    }
+    
+    
+    
+    /**
+     * 获取：上传及下载时拷贝数据用的缓存大小（单位：Byte）
+     */
+    public int getTransferBufferSize()
+    {
+        return transferBufferSize;
+    }
+
+
+    
+    /**
+     * 设置：上传及下载时拷贝数据用的缓存大小（单位：Byte）。小于等于0时为默认值
+     * 
+     * @param transferBufferSize 
+     */
+    public void setTransferBufferSize(int transferBufferSize)
+    {
+        this.transferBufferSize = transferBufferSize > 0 ? transferBufferSize : $TransferBufferSize;
+    }
+    
+    
+    
+    /**
+     * 获取：本地文件与数据连接间，是否允许零拷贝的传输（数据不加密、没有事件监听器时才生效）
+     */
+    public boolean isZeroCopy()
+    {
+        return zeroCopy;
+    }
+
+
+    
+    /**
+     * 设置：本地文件与数据连接间，是否允许零拷贝的传输（数据不加密、没有事件监听器时才生效）
+     * 
+     * @param zeroCopy 
+     */
+    public void setZeroCopy(boolean zeroCopy)
+    {
+        this.zeroCopy = zeroCopy;
+    }
+    
+    
+    
+    /**
+     * 获取：是否按测得的往返时延及吞吐量，自动调优数据连接的Socket缓存及拷贝缓存（见 FTPTuning）
+     */
+    public boolean isAutoTuning()
+    {
+        return autoTuning;
+    }
+    
+    
+    
+    /**
+     * 设置：是否按测得的往返时延及吞吐量，自动调优数据连接的Socket缓存及拷贝缓存（见 FTPTuning）。
+     * 调优后的拷贝缓存代替 transferBufferSize
+     * 
+     * @param autoTuning 
+     */
+    public void setAutoTuning(boolean autoTuning)
+    {
+        this.autoTuning = autoTuning;
+    }
+    
+    
+    
     /**
      * Get the current receivedBuffer size
      * @return the size, or -1 if not initialised
@@ -312,6 +424,10 @@ public class FTPInfo extends FTPClient implements Cloneable
         v_Clone.setInitPath(this.initPath);
         v_Clone.setSecurity(this.security);
         v_Clone.setControlEncoding(this.getControlEncoding());
+        v_Clone.setDirCacheTimeout(this.dirCacheTimeout);
+        v_Clone.setTransferBufferSize(this.transferBufferSize);
+        v_Clone.setZeroCopy(this.zeroCopy);
+        v_Clone.setAutoTuning(this.autoTuning);
         
         return v_Clone;
     }
@@ -0,0 +1,236 @@
+package org.hy.common.ftp;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+
+
+/**
+ * 耗时的统计（直方图）。
+ *
+ * 按微秒记录，每个2的幂次区间再均分为 8 个桶，分位值的误差不超过 12.5%。记录时无锁，可被多线程同时调用。
+ *
+ * 通过 JMX 查看时（见 FTPServerMetricsMXBean），本类的 getter 方法映射为复合数据（CompositeData）的各项。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPLatency
+{
+    
+    /** 每个2的幂次区间内桶的数量的位数（即 8 个桶） */
+    private static final int $SubBits     = 3;
+    
+    private static final int $SubCount    = 1 << $SubBits;
+    
+    /** 桶的总数量。可记录到 2的40次方微秒（约12天） */
+    private static final int $BucketCount = $SubCount + (40 - $SubBits) * $SubCount;
+    
+    
+    
+    /** 每个桶的次数 */
+    private final AtomicLongArray buckets;
+    
+    /** 总次数 */
+    private final LongAdder       count;
+    
+    /** 总耗时（单位：微秒） */
+    private final LongAdder       totalMicros;
+    
+    /** 最大耗时（单位：微秒） */
+    private final AtomicLong      maxMicros;
+    
+    
+    
+    public FTPLatency()
+    {
+        this.buckets     = new AtomicLongArray($BucketCount);
+        this.count       = new LongAdder();
+        this.totalMicros = new LongAdder();
+        this.maxMicros   = new AtomicLong(0);
+    }
+    
+    
+    
+    /**
+     * 记录一次耗时
+     *
+     * @param i_Nanos  耗时（单位：纳秒）
+     */
+    public void record(long i_Nanos)
+    {
+        long v_Micros = Math.max(i_Nanos / 1000 ,0);
+        
+        this.buckets.incrementAndGet(toBucket(v_Micros));
+        this.count.increment();
+        this.totalMicros.add(v_Micros);
+        this.maxMicros.accumulateAndGet(v_Micros ,Math::max);
+    }
+    
+    
+    
+    /**
+     * 清空统计
+     */
+    public void reset()
+    {
+        for (int x=0; x<$BucketCount; x++)
+        {
+            this.buckets.set(x ,0);
+        }
+        this.count.reset();
+        this.totalMicros.reset();
+        this.maxMicros.set(0);
+    }
+    
+    
+    
+    /**
+     * 获取：总次数
+     */
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+    
+    
+    
+    /**
+     * 获取：平均耗时（单位：毫秒）
+     */
+    public double getMeanMillis()
+    {
+        long v_Count = this.count.sum();
+        
+        return v_Count <= 0 ? 0D : this.totalMicros.sum() / 1000D / v_Count;
+    }
+    
+    
+    
+    /**
+     * 获取：最大耗时（单位：毫秒）
+     */
+    public double getMaxMillis()
+    {
+        return this.maxMicros.get() / 1000D;
+    }
+    
+    
+    
+    /**
+     * 获取：50% 分位的耗时（单位：毫秒）
+     */
+    public double getP50Millis()
+    {
+        return this.getPercentileMillis(0.50D);
+    }
+    
+    
+    
+    /**
+     * 获取：99% 分位的耗时（单位：毫秒）
+     */
+    public double getP99Millis()
+    {
+        return this.getPercentileMillis(0.99D);
+    }
+    
+    
+    
+    /**
+     * 获取：99.9% 分位的耗时（单位：毫秒）
+     */
+    public double getP999Millis()
+    {
+        return this.getPercentileMillis(0.999D);
+    }
+    
+    
+    
+    /**
+     * 获取分位的耗时（单位：毫秒）。返回所在桶的上限，且不超过最大耗时
+     *
+     * @param i_Percentile  分位（0 ~ 1）
+     * @return
+     */
+    public double getPercentileMillis(double i_Percentile)
+    {
+        long [] v_Counts = new long[$BucketCount];
+        long    v_Total  = 0;
+        
+        // 先取快照，统计中途的记录不影响本次计算
+        for (int x=0; x<$BucketCount; x++)
+        {
+            v_Counts[x] = this.buckets.get(x);
+            v_Total    += v_Counts[x];
+        }
+        
+        if ( v_Total <= 0 )
+        {
+            return 0D;
+        }
+        
+        long v_Rank = Math.max((long)Math.ceil(v_Total * i_Percentile) ,1L);
+        long v_Sum  = 0;
+        
+        for (int x=0; x<$BucketCount; x++)
+        {
+            v_Sum += v_Counts[x];
+            
+            if ( v_Sum >= v_Rank )
+            {
+                return Math.min(toUpperMicros(x) ,this.maxMicros.get()) / 1000D;
+            }
+        }
+        
+        return this.getMaxMillis();
+    }
+    
+    
+    
+    /**
+     * 耗时所在的桶
+     *
+     * @param i_Micros
+     * @return
+     */
+    private static int toBucket(long i_Micros)
+    {
+        if ( i_Micros < $SubCount )
+        {
+            return (int)i_Micros;
+        }
+        
+        int v_Exponent = 63 - Long.numberOfLeadingZeros(i_Micros);
+        int v_Sub      = (int)(i_Micros >>> (v_Exponent - $SubBits)) & ($SubCount - 1);
+        
+        return Math.min($SubCount + (v_Exponent - $SubBits) * $SubCount + v_Sub ,$BucketCount - 1);
+    }
+    
+    
+    
+    /**
+     * 桶的上限（单位：微秒）
+     *
+     * @param i_Bucket
+     * @return
+     */
+    private static long toUpperMicros(int i_Bucket)
+    {
+        if ( i_Bucket < $SubCount )
+        {
+            return i_Bucket;
+        }
+        
+        int  v_Exponent = (i_Bucket - $SubCount) / $SubCount + $SubBits;
+        int  v_Sub      = (i_Bucket - $SubCount) % $SubCount;
+        long v_Lower    = ((long)($SubCount + v_Sub)) << (v_Exponent - $SubBits);
+        
+        return v_Lower + (1L << (v_Exponent - $SubBits)) - 1;
+    }
+
+}
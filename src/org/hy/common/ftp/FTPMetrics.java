@@ -0,0 +1,204 @@
+package org.hy.common.ftp;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+
+
+
+/**
+ * FTP传输指标的注册中心。
+ *
+ * 按服务端（FTPInfo 的 ip:port）分别统计，每个服务端首次连接时创建 FTPServerMetrics，并注册到平台的 MBeanServer。
+ *
+ * 1. 耗时：建立连接、登录、创建目录、打开数据连接、传输数据、完成命令（见 FTPLatency）
+ * 2. 流量：上传及下载的大小、速度
+ * 3. 正在传输的数据连接的数量
+ * 4. 按原因统计的失败次数
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPMetrics
+{
+    
+    private static final FTPMetrics $Instance = new FTPMetrics();
+    
+    /** JMX 对象名称的域 */
+    public  static final String     $Domain   = "org.hy.common.ftp";
+    
+    
+    
+    /** 各服务端的指标。Map.key 为 ip:port */
+    private final Map<String ,FTPServerMetrics>  servers;
+    
+    /** 是否统计。关闭后新建的连接不再统计 */
+    private boolean                              enabled;
+    
+    /** 是否注册到 JMX */
+    private boolean                              jmxEnabled;
+    
+    
+    
+    /**
+     * 获取全局共享的指标注册中心
+     *
+     * @return
+     */
+    public static FTPMetrics getInstance()
+    {
+        return $Instance;
+    }
+    
+    
+    
+    private FTPMetrics()
+    {
+        this.servers    = new ConcurrentHashMap<String ,FTPServerMetrics>();
+        this.enabled    = true;
+        this.jmxEnabled = true;
+    }
+    
+    
+    
+    /**
+     * 获取服务端的指标，不存在时新建（并注册到 JMX）。
+     *
+     * @param i_FTPInfo
+     * @return  不统计时返回 null
+     */
+    public FTPServerMetrics getServer(FTPInfo i_FTPInfo)
+    {
+        if ( !this.enabled || i_FTPInfo == null )
+        {
+            return null;
+        }
+        
+        return this.servers.computeIfAbsent(i_FTPInfo.getIp() + ":" + i_FTPInfo.getPort() ,this::newServer);
+    }
+    
+    
+    
+    /**
+     * 获取所有服务端的指标
+     *
+     * @return
+     */
+    public List<FTPServerMetrics> getServers()
+    {
+        return new ArrayList<FTPServerMetrics>(this.servers.values());
+    }
+    
+    
+    
+    /**
+     * 新建服务端的指标，并注册到 JMX。注册失败（如同名的已被其它类加载器注册）时只是不能通过 JMX 查看
+     *
+     * @param i_Server  ip:port
+     * @return
+     */
+    private FTPServerMetrics newServer(String i_Server)
+    {
+        FTPServerMetrics v_Metrics = new FTPServerMetrics(i_Server);
+        
+        if ( this.jmxEnabled )
+        {
+            try
+            {
+                MBeanServer v_MBeanServer = ManagementFactory.getPlatformMBeanServer();
+                ObjectName  v_Name        = toObjectName(i_Server);
+                
+                if ( !v_MBeanServer.isRegistered(v_Name) )
+                {
+                    v_MBeanServer.registerMBean(v_Metrics ,v_Name);
+                }
+            }
+            catch (Exception exce)
+            {
+                exce.printStackTrace();
+            }
+        }
+        
+        return v_Metrics;
+    }
+    
+    
+    
+    /**
+     * 服务端指标的 JMX 对象名称
+     *
+     * @param i_Server  ip:port
+     * @return
+     * @throws Exception
+     */
+    public static ObjectName toObjectName(String i_Server) throws Exception
+    {
+        return new ObjectName($Domain + ":type=FTPMetrics,server=" + ObjectName.quote(i_Server));
+    }
+    
+    
+    
+    /**
+     * 清空所有服务端的统计
+     */
+    public void reset()
+    {
+        for (FTPServerMetrics v_Metrics : this.servers.values())
+        {
+            v_Metrics.reset();
+        }
+    }
+    
+    
+    
+    /**
+     * 获取：是否统计
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+    
+    
+    
+    /**
+     * 设置：是否统计。关闭后新建的连接不再统计，已有的连接继续统计
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+    
+    
+    
+    /**
+     * 获取：是否注册到 JMX
+     */
+    public boolean isJmxEnabled()
+    {
+        return jmxEnabled;
+    }
+    
+    
+    
+    /**
+     * 设置：是否注册到 JMX。须在首次连接前设置
+     *
+     * @param jmxEnabled
+     */
+    public void setJmxEnabled(boolean jmxEnabled)
+    {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+}
@@ -0,0 +1,288 @@
+package org.hy.common.ftp;
+
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+
+import org.hy.common.ftp.event.FTPListener;
+
+
+
+
+
+/**
+ * 一次传输的选项（见 FTPService）。
+ *
+ * 每次调用都新建 FTPHelp 并设置这些选项，不同调用间的选项互不影响。
+ * 各项的含义与 FTPHelp 的同名属性相同。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPOptions
+{
+    
+    /** 数据安全性。如果为真，将对上传的文件进行数据加密 */
+    private boolean                  dataSafe;
+    
+    /** 传输时压缩（见 FTPHelp.setCompress()） */
+    private boolean                  compress;
+    
+    /** 压缩级别（见 FTPHelp.setCompressLevel()） */
+    private int                      compressLevel;
+    
+    /** 传输时计算校验值的类型（见 FTPHelp.setChecksumType()） */
+    private String                   checksumType;
+    
+    /** 传输后与服务端的校验值比较（见 FTPHelp.setChecksumVerify()） */
+    private boolean                  checksumVerify;
+    
+    /** 上传前，与服务端的文件比较，一致时不再上传（见 FTPHelp.setSkipIfIdentical()） */
+    private boolean                  skipIfIdentical;
+    
+    /** 两次传输中事件间已完成大小的下限（见 FTPHelp.setProcessSize()） */
+    private long                     processSize;
+    
+    /** 两次传输中事件间时长的下限（见 FTPHelp.setProcessInterval()） */
+    private long                     processInterval;
+    
+    /** 传输中事件是否异步分发（见 FTPHelp.setProcessAsync()） */
+    private boolean                  processAsync;
+    
+    /** 传输带宽的限速器（见 FTPHelp.setRateLimiter()）。为 null 时用服务端的限速器 */
+    private FTPRateLimiter           rateLimiter;
+    
+    /** 事件监听器 */
+    private Collection<FTPListener>  ftpListeners;
+    
+    
+    
+    public FTPOptions()
+    {
+        this.dataSafe        = false;
+        this.compress        = false;
+        this.compressLevel   = Deflater.DEFAULT_COMPRESSION;
+        this.checksumType    = null;
+        this.checksumVerify  = false;
+        this.skipIfIdentical = false;
+        this.processSize     = 0;
+        this.processInterval = 0;
+        this.processAsync    = false;
+        this.rateLimiter     = null;
+        this.ftpListeners    = new CopyOnWriteArrayList<FTPListener>();
+    }
+    
+    
+    
+    /**
+     * 构造器。复制另一个选项
+     *
+     * @param i_Options
+     */
+    public FTPOptions(FTPOptions i_Options)
+    {
+        this.dataSafe        = i_Options.dataSafe;
+        this.compress        = i_Options.compress;
+        this.compressLevel   = i_Options.compressLevel;
+        this.checksumType    = i_Options.checksumType;
+        this.checksumVerify  = i_Options.checksumVerify;
+        this.skipIfIdentical = i_Options.skipIfIdentical;
+        this.processSize     = i_Options.processSize;
+        this.processInterval = i_Options.processInterval;
+        this.processAsync    = i_Options.processAsync;
+        this.rateLimiter     = i_Options.rateLimiter;
+        this.ftpListeners    = new CopyOnWriteArrayList<FTPListener>(i_Options.ftpListeners);
+    }
+    
+    
+    
+    /**
+     * 将选项设置到 FTPHelp 上
+     *
+     * @param io_FTPHelp
+     */
+    void applyTo(FTPHelp io_FTPHelp)
+    {
+        io_FTPHelp.setDataSafe(this.dataSafe);
+        io_FTPHelp.setCompress(this.compress);
+        io_FTPHelp.setCompressLevel(this.compressLevel);
+        io_FTPHelp.setChecksumType(this.checksumType);
+        io_FTPHelp.setChecksumVerify(this.checksumVerify);
+        io_FTPHelp.setSkipIfIdentical(this.skipIfIdentical);
+        io_FTPHelp.setProcessSize(this.processSize);
+        io_FTPHelp.setProcessInterval(this.processInterval);
+        io_FTPHelp.setProcessAsync(this.processAsync);
+        io_FTPHelp.setRateLimiter(this.rateLimiter);
+        
+        for (FTPListener v_Listener : this.ftpListeners)
+        {
+            io_FTPHelp.addFTPListener(v_Listener);
+        }
+    }
+    
+    
+    
+    /**
+     * 注册事件监听器
+     *
+     * @param i_Listener
+     */
+    public void addFTPListener(FTPListener i_Listener)
+    {
+        this.ftpListeners.add(i_Listener);
+    }
+    
+    
+    
+    /**
+     * 移除事件监听器
+     *
+     * @param i_Listener
+     */
+    public void removeFTPListener(FTPListener i_Listener)
+    {
+        this.ftpListeners.remove(i_Listener);
+    }
+    
+    
+    
+    public boolean isDataSafe()
+    {
+        return dataSafe;
+    }
+    
+    
+    
+    public void setDataSafe(boolean dataSafe)
+    {
+        this.dataSafe = dataSafe;
+    }
+    
+    
+    
+    public boolean isCompress()
+    {
+        return compress;
+    }
+    
+    
+    
+    public void setCompress(boolean compress)
+    {
+        this.compress = compress;
+    }
+    
+    
+    
+    public int getCompressLevel()
+    {
+        return compressLevel;
+    }
+    
+    
+    
+    public void setCompressLevel(int compressLevel)
+    {
+        this.compressLevel = compressLevel;
+    }
+    
+    
+    
+    public String getChecksumType()
+    {
+        return checksumType;
+    }
+    
+    
+    
+    public void setChecksumType(String checksumType)
+    {
+        this.checksumType = checksumType;
+    }
+    
+    
+    
+    public boolean isChecksumVerify()
+    {
+        return checksumVerify;
+    }
+    
+    
+    
+    public void setChecksumVerify(boolean checksumVerify)
+    {
+        this.checksumVerify = checksumVerify;
+    }
+    
+    
+    
+    public boolean isSkipIfIdentical()
+    {
+        return skipIfIdentical;
+    }
+    
+    
+    
+    public void setSkipIfIdentical(boolean skipIfIdentical)
+    {
+        this.skipIfIdentical = skipIfIdentical;
+    }
+    
+    
+    
+    public long getProcessSize()
+    {
+        return processSize;
+    }
+    
+    
+    
+    public void setProcessSize(long processSize)
+    {
+        this.processSize = processSize;
+    }
+    
+    
+    
+    public long getProcessInterval()
+    {
+        return processInterval;
+    }
+    
+    
+    
+    public void setProcessInterval(long processInterval)
+    {
+        this.processInterval = processInterval;
+    }
+    
+    
+    
+    public boolean isProcessAsync()
+    {
+        return processAsync;
+    }
+    
+    
+    
+    public void setProcessAsync(boolean processAsync)
+    {
+        this.processAsync = processAsync;
+    }
+
+    
+    
+    public FTPRateLimiter getRateLimiter()
+    {
+        return rateLimiter;
+    }
+    
+    
+    
+    public void setRateLimiter(FTPRateLimiter rateLimiter)
+    {
+        this.rateLimiter = rateLimiter;
+    }
+
+}
@@ -0,0 +1,644 @@
+package org.hy.common.ftp;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hy.common.file.FileDataPacket;
+
+
+
+
+
+/**
+ * 文件数据包（FileDataPacket）上传的会话管理。
+ *
+ * 按会话ID区分每个上传中的文件，不同客户端上传的同名文件互不干扰。
+ *
+ * 1. 分段锁：会话ID按哈希值分配到固定数量的锁上。同一会话的数据包串行处理，不同会话可并行处理
+ * 2. 重排缓存：先到达的（序号大于期望序号的）数据包暂存在会话中，缺失的数据包到达后，与暂存的数据包一起按序号连续写出
+ * 3. 内存上限：每个会话暂存的数据包数量、所有会话暂存的总大小均有上限，超出时拒收，由客户端稍后重发
+ * 4. 超时：超时时长内没有收到数据包的会话自动作废。已完成的会话也保留到超时，以应答迟到的重复数据包
+ * 5. 数据包流模式（见 FTPHelp.setPacketStream()）：会话持有一个持续打开的写入数据流，空闲超时后自动关闭
+ * 6. 续传：新建的会话收到的不是第一个数据包时（如服务重启、会话超时后客户端继续上传），按服务端文件的大小确定续传的位置（见 resume()）
+ *
+ * 数据包的序号（dataNo）从 1 开始，到数据包总数（dataCount）结束。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPPacketSessions
+{
+    
+    private static final FTPPacketSessions $Instance = new FTPPacketSessions();
+    
+    /** 分段锁的数量 */
+    private static final int               $LockCount = 256;
+    
+    /** 清理超时会话的最小间隔（单位：毫秒） */
+    private static final long              $ExpireInterval = 10 * 1000;
+    
+    
+    
+    /** 分段锁 */
+    private final ReentrantLock []       locks;
+    
+    /** 上传中的（及已完成但未超时的）会话。Map.key 为会话ID */
+    private final Map<String ,Session>   sessions;
+    
+    /** 所有会话暂存的数据包的总大小（单位：Byte） */
+    private final AtomicLong             pendingSize;
+    
+    /** 最后一次清理超时会话的时间 */
+    private final AtomicLong             expireTime;
+    
+    /** 每个会话最多暂存的数据包数量 */
+    private int                          maxPendingCount;
+    
+    /** 所有会话暂存的数据包的总大小上限（单位：Byte） */
+    private long                         maxPendingSize;
+    
+    /** 数据包流模式下，数据流的空闲时长上限（单位：秒）。超时后关闭数据流，之后的数据包到达时重新打开 */
+    private long                         streamIdleTimeout;
+    
+    /** 定时关闭空闲数据流的线程。首次打开数据流时才创建 */
+    private ScheduledExecutorService     idleCloser;
+    
+    
+    
+    /**
+     * 获取全局共享的会话管理
+     *
+     * @return
+     */
+    public static FTPPacketSessions getInstance()
+    {
+        return $Instance;
+    }
+    
+    
+    
+    private FTPPacketSessions()
+    {
+        this.locks             = new ReentrantLock[$LockCount];
+        this.sessions          = new ConcurrentHashMap<String ,Session>();
+        this.pendingSize       = new AtomicLong(0);
+        this.expireTime        = new AtomicLong(System.currentTimeMillis());
+        this.maxPendingCount   = 64;
+        this.maxPendingSize    = 256L * 1024 * 1024;
+        this.streamIdleTimeout = 30;
+        
+        for (int x=0; x<$LockCount; x++)
+        {
+            this.locks[x] = new ReentrantLock();
+        }
+    }
+    
+    
+    
+    /**
+     * 获取会话的锁。会话的所有操作均须在此锁内进行
+     * 
+     * 锁内有网络I/O（写入数据流），用 ReentrantLock 而非 synchronized，虚拟线程阻塞时不会被固定在平台线程上
+     *
+     * @param i_SessionID  会话ID
+     * @return
+     */
+    ReentrantLock getLock(String i_SessionID)
+    {
+        int v_Hash = i_SessionID.hashCode();
+        
+        return this.locks[(v_Hash ^ (v_Hash >>> 16)) & ($LockCount - 1)];
+    }
+    
+    
+    
+    /**
+     * 获取会话，不存在时新建。
+     *
+     * 已有会话未超时、且上传的文件（名称及数据包总数）与数据包的相同时，返回已有会话。
+     * 此时再次收到的第一个数据包（如应答丢失后的重发，或会话完成后迟到的数据包）按重复的数据包处理，
+     * 不会重新开始上传而覆盖已写出的文件。
+     *
+     * 已有会话超时、或上传的文件与数据包的不同时，视为重新开始上传，丢弃原会话。
+     *
+     * @param i_SessionID  会话ID
+     * @param i_Packet     数据包
+     * @param i_Timeout    会话的超时时长（单位：秒）
+     * @return
+     */
+    Session getSession(String i_SessionID ,FileDataPacket i_Packet ,long i_Timeout)
+    {
+        Session v_Session = this.sessions.get(i_SessionID);
+        
+        if ( v_Session != null )
+        {
+            if ( !v_Session.isExpired()
+              && v_Session.name.equals(i_Packet.getName())
+              && v_Session.dataCount == i_Packet.getDataCount().intValue() )
+            {
+                v_Session.touch(i_Timeout);
+                return v_Session;
+            }
+            
+            this.remove(i_SessionID);
+        }
+        
+        v_Session = new Session(i_Packet.getName() ,i_Packet.getDataCount().intValue());
+        v_Session.touch(i_Timeout);
+        this.sessions.put(i_SessionID ,v_Session);
+        
+        return v_Session;
+    }
+    
+    
+    
+    /**
+     * 数据包的序号是否有效：1 <= dataNo <= dataCount
+     *
+     * @param i_Packet  数据包
+     * @return
+     */
+    static boolean isValid(FileDataPacket i_Packet)
+    {
+        return i_Packet.getDataNo()    != null
+            && i_Packet.getDataCount() != null
+            && i_Packet.getDataByte()  != null
+            && i_Packet.getDataNo().intValue() >= 1
+            && i_Packet.getDataNo().intValue() <= i_Packet.getDataCount().intValue();
+    }
+    
+    
+    
+    /**
+     * 续传：确定新建会话的续传位置。新建的会话收到的第一个数据包不是序号1时调用
+     *
+     * 会话超时前已写出的数据包大小相同，服务端文件的大小应正好是 k 个数据包的大小，客户端从第 k+1 个数据包开始继续上传。
+     *
+     * 1. 服务端的大小是本数据包大小的整数倍（k 个），且本数据包的序号不小于 k+1 时，从序号 k+1 开始续传
+     * 2. 本数据包是最后一个数据包（大小可能不足）时，服务端的大小是 dataCount-1 个数据包的大小时续传
+     * 3. 传输时压缩时，服务端的大小无法按数据包的大小换算，与之前的版本一样，将本数据包追加在服务端文件的末尾
+     * 4. 否则（服务端没有此文件、或是上次残留的其它内容），视为重新开始上传：从序号1开始，本数据包暂存（正常的乱序到达）
+     *
+     * @param io_Session     会话
+     * @param i_Packet       数据包
+     * @param i_RemoteSize   服务端文件的大小。小于0时表示没有此文件
+     * @param i_IsFixedSize  服务端的大小是否可按数据包的大小换算（传输时不压缩）
+     */
+    void resume(Session io_Session ,FileDataPacket i_Packet ,long i_RemoteSize ,boolean i_IsFixedSize)
+    {
+        int  v_DataNo = i_Packet.getDataNo().intValue();
+        long v_Length = i_Packet.getDataByte().length;
+        
+        io_Session.isNew = false;
+        
+        if ( i_RemoteSize <= 0 )
+        {
+            return;
+        }
+        
+        if ( !i_IsFixedSize )
+        {
+            io_Session.nextNo = v_DataNo;
+            io_Session.size   = i_RemoteSize;
+            return;
+        }
+        
+        if ( v_DataNo < io_Session.dataCount )
+        {
+            if ( v_Length > 0
+              && i_RemoteSize % v_Length == 0
+              && i_RemoteSize / v_Length <  v_DataNo )
+            {
+                io_Session.nextNo = (int)(i_RemoteSize / v_Length) + 1;
+                io_Session.size   = i_RemoteSize;
+            }
+        }
+        else if ( io_Session.dataCount > 1
+               && i_RemoteSize % (io_Session.dataCount - 1) == 0
+               && i_RemoteSize / (io_Session.dataCount - 1) >= v_Length )
+        {
+            io_Session.nextNo = v_DataNo;
+            io_Session.size   = i_RemoteSize;
+        }
+    }
+    
+    
+    
+    /**
+     * 暂存先到达的数据包
+     *
+     * @param io_Session  会话
+     * @param i_Packet    数据包
+     * @return            序号无效（见 isValid()）、或超出内存上限时返回 false
+     */
+    boolean hold(Session io_Session ,FileDataPacket i_Packet)
+    {
+        if ( !isValid(i_Packet) || i_Packet.getDataNo().intValue() > io_Session.dataCount )
+        {
+            return false;
+        }
+        
+        Integer v_DataNo = i_Packet.getDataNo();
+        
+        if ( io_Session.pendings.containsKey(v_DataNo) )
+        {
+            return true;
+        }
+        
+        if ( io_Session.pendings.size() >= this.maxPendingCount )
+        {
+            return false;
+        }
+        
+        long v_Size = i_Packet.getDataByte().length;
+        if ( this.pendingSize.addAndGet(v_Size) > this.maxPendingSize )
+        {
+            this.pendingSize.addAndGet(-v_Size);
+            return false;
+        }
+        
+        io_Session.pendings.put(v_DataNo ,i_Packet);
+        return true;
+    }
+    
+    
+    
+    /**
+     * 获取从期望序号开始连续的、已暂存的数据包（不含期望序号的数据包本身）。不从会话中移除
+     *
+     * @param i_Session  会话
+     * @return
+     */
+    List<FileDataPacket> getContinuous(Session i_Session)
+    {
+        List<FileDataPacket> v_Packets = new ArrayList<FileDataPacket>();
+        int                  v_DataNo  = i_Session.nextNo + 1;
+        FileDataPacket       v_Packet  = null;
+        
+        while ( (v_Packet = i_Session.pendings.get(v_DataNo)) != null )
+        {
+            v_Packets.add(v_Packet);
+            v_DataNo++;
+        }
+        
+        return v_Packets;
+    }
+    
+    
+    
+    /**
+     * 数据包已写出，期望序号前移，并释放已写出的暂存数据包
+     *
+     * @param io_Session  会话
+     * @param i_Count     已写出的数据包数量
+     * @param i_Size      已写出的数据包的总大小（单位：Byte）
+     */
+    void advance(Session io_Session ,int i_Count ,long i_Size)
+    {
+        io_Session.isNew = false;
+        io_Session.size += i_Size;
+        
+        
+        for (int x=0; x<i_Count; x++)
+        {
+            FileDataPacket v_Packet = io_Session.pendings.remove(io_Session.nextNo);
+            
+            if ( v_Packet != null )
+            {
+                this.pendingSize.addAndGet(-v_Packet.getDataByte().length);
+            }
+            
+            io_Session.nextNo++;
+        }
+    }
+    
+    
+    
+    /**
+     * 移除会话，并释放暂存的数据包
+     *
+     * @param i_SessionID  会话ID
+     */
+    void remove(String i_SessionID)
+    {
+        Session v_Session = this.sessions.remove(i_SessionID);
+        
+        if ( v_Session != null )
+        {
+            for (FileDataPacket v_Packet : v_Session.pendings.values())
+            {
+                this.pendingSize.addAndGet(-v_Packet.getDataByte().length);
+            }
+            
+            v_Session.pendings.clear();
+            closeOutput(v_Session);
+        }
+    }
+    
+    
+    
+    /**
+     * 设置会话持续打开的写入数据流，并按需启动定时关闭空闲数据流的线程
+     *
+     * @param io_Session  会话
+     * @param i_Output    写入远程文件的数据流
+     */
+    void setOutput(Session io_Session ,OutputStream i_Output)
+    {
+        io_Session.output     = i_Output;
+        io_Session.activeTime = System.currentTimeMillis();
+        
+        if ( this.idleCloser == null )
+        {
+            synchronized ( this )
+            {
+                if ( this.idleCloser == null )
+                {
+                    ScheduledExecutorService v_Closer = Executors.newSingleThreadScheduledExecutor(v_Runnable ->
+                    {
+                        Thread v_Thread = new Thread(v_Runnable ,"FTPPacketSessions-Idle");
+                        v_Thread.setDaemon(true);
+                        return v_Thread;
+                    });
+                    
+                    v_Closer.scheduleWithFixedDelay(this::closeIdle ,1 ,1 ,TimeUnit.SECONDS);
+                    this.idleCloser = v_Closer;
+                }
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 关闭会话持续打开的写入数据流（完成本次 APPE 命令），并忽略异常
+     *
+     * @param io_Session  会话
+     */
+    static void closeOutput(Session io_Session)
+    {
+        OutputStream v_Output = io_Session.output;
+        
+        io_Session.output = null;
+        
+        if ( v_Output != null )
+        {
+            try
+            {
+                v_Output.close();
+            }
+            catch (Exception exce)
+            {
+                // Nothing.
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 关闭空闲超时的写入数据流
+     */
+    public void closeIdle()
+    {
+        long v_IdleTime = System.currentTimeMillis() - this.streamIdleTimeout * 1000;
+        
+        for (Map.Entry<String ,Session> v_Item : this.sessions.entrySet())
+        {
+            if ( v_Item.getValue().output == null )
+            {
+                continue;
+            }
+            
+            ReentrantLock v_Lock = this.getLock(v_Item.getKey());
+            
+            v_Lock.lock();
+            try
+            {
+                Session v_Session = v_Item.getValue();
+                
+                if ( v_Session.output != null && v_Session.activeTime < v_IdleTime )
+                {
+                    closeOutput(v_Session);
+                }
+            }
+            finally
+            {
+                v_Lock.unlock();
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 清理超时的会话。距上次清理不足 $ExpireInterval 时不清理
+     */
+    public void expire()
+    {
+        long v_Now  = System.currentTimeMillis();
+        long v_Last = this.expireTime.get();
+        
+        if ( v_Now - v_Last < $ExpireInterval || !this.expireTime.compareAndSet(v_Last ,v_Now) )
+        {
+            return;
+        }
+        
+        Iterator<Map.Entry<String ,Session>> v_Iter = this.sessions.entrySet().iterator();
+        while ( v_Iter.hasNext() )
+        {
+            String        v_SessionID = v_Iter.next().getKey();
+            ReentrantLock v_Lock      = this.getLock(v_SessionID);
+            
+            v_Lock.lock();
+            try
+            {
+                Session v_Session = this.sessions.get(v_SessionID);
+                
+                if ( v_Session != null && v_Session.isExpired() )
+                {
+                    this.remove(v_SessionID);
+                }
+            }
+            finally
+            {
+                v_Lock.unlock();
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 会话数量（含已完成但未超时的）
+     *
+     * @return
+     */
+    public int getSessionCount()
+    {
+        return this.sessions.size();
+    }
+    
+    
+    
+    /**
+     * 获取：所有会话暂存的数据包的总大小（单位：Byte）
+     */
+    public long getPendingSize()
+    {
+        return this.pendingSize.get();
+    }
+    
+    
+    
+    /**
+     * 获取：每个会话最多暂存的数据包数量
+     */
+    public int getMaxPendingCount()
+    {
+        return maxPendingCount;
+    }
+    
+    
+    
+    /**
+     * 设置：每个会话最多暂存的数据包数量
+     *
+     * @param maxPendingCount
+     */
+    public void setMaxPendingCount(int maxPendingCount)
+    {
+        this.maxPendingCount = maxPendingCount;
+    }
+    
+    
+    
+    /**
+     * 获取：所有会话暂存的数据包的总大小上限（单位：Byte）
+     */
+    public long getMaxPendingSize()
+    {
+        return maxPendingSize;
+    }
+    
+    
+    
+    /**
+     * 设置：所有会话暂存的数据包的总大小上限（单位：Byte）
+     *
+     * @param maxPendingSize
+     */
+    public void setMaxPendingSize(long maxPendingSize)
+    {
+        this.maxPendingSize = maxPendingSize;
+    }
+    
+    
+    
+    /**
+     * 获取：数据包流模式下，数据流的空闲时长上限（单位：秒）
+     */
+    public long getStreamIdleTimeout()
+    {
+        return streamIdleTimeout;
+    }
+    
+    
+    
+    /**
+     * 设置：数据包流模式下，数据流的空闲时长上限（单位：秒）。超时后关闭数据流，之后的数据包到达时重新打开
+     *
+     * @param streamIdleTimeout
+     */
+    public void setStreamIdleTimeout(long streamIdleTimeout)
+    {
+        this.streamIdleTimeout = streamIdleTimeout;
+    }
+    
+    
+    
+    
+    
+    /**
+     * 一个文件的上传会话
+     */
+    static class Session
+    {
+        /** 上传的远程文件的全路径 */
+        final String                                name;
+        
+        /** 数据包的总数量 */
+        final int                                   dataCount;
+        
+        /** 先到达的数据包。Map.key 为数据包的序号 */
+        final TreeMap<Integer ,FileDataPacket>      pendings;
+        
+        /** 期望的下一个数据包的序号 */
+        int                                         nextNo;
+        
+        /** 已按序写出的大小（单位：Byte） */
+        long                                        size;
+        
+        /** 数据包流模式下，持续打开的写入远程文件的数据流 */
+        OutputStream                                output;
+        
+        /** 最后一次写入数据流的时间 */
+        long                                        activeTime;
+        
+        /** 新建的、还未确定续传位置的会话（见 FTPPacketSessions.resume()） */
+        boolean                                     isNew;
+        
+        /** 会话的过期时间 */
+        long                                        expireTime;
+        
+        
+        
+        private Session(String i_Name ,int i_DataCount)
+        {
+            this.name      = i_Name;
+            this.dataCount = i_DataCount;
+            this.pendings  = new TreeMap<Integer ,FileDataPacket>();
+            this.nextNo    = 1;
+            this.size      = 0;
+            this.isNew     = true;
+        }
+        
+        
+        
+        private void touch(long i_Timeout)
+        {
+            this.expireTime = System.currentTimeMillis() + i_Timeout * 1000;
+        }
+        
+        
+        
+        private boolean isExpired()
+        {
+            return System.currentTimeMillis() > this.expireTime;
+        }
+        
+        
+        
+        /**
+         * 是否所有数据包均已写出
+         *
+         * @return
+         */
+        boolean isFinish()
+        {
+            return this.nextNo > this.dataCount;
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+package org.hy.common.ftp;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hy.common.ftp.event.DefaultFTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+
+
+
+
+
+/**
+ * 传输中事件（FTPListener.ftpProcess()）的异步分发。
+ *
+ * 传输线程只提交通知，由独立的线程执行事件监听器，慢的事件监听器（如写数据库）不再拖慢数据连接。
+ *
+ * 1. 有界队列：队列满时丢弃本次通知（下次传输中事件时再通知）
+ * 2. 合并：同一传输的通知未执行前，不再重复提交。执行时读取事件的最新进度，即多次进度合并为一次通知
+ * 3. 取消：事件监听器返回 false 时标记事件为已取消，传输线程在下次传输中事件时（不受节流的限制）立即停止传输
+ *
+ * 首次分发时才创建线程池，之后再设置线程数量及队列大小不生效。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPProgressDispatcher
+{
+    
+    private static final FTPProgressDispatcher $Instance = new FTPProgressDispatcher();
+    
+    
+    
+    /** 执行事件监听器的线程数量 */
+    private int                           threadCount;
+    
+    /** 等待执行的通知的队列大小 */
+    private int                           queueSize;
+    
+    /** 因队列满而丢弃的通知数量 */
+    private final AtomicInteger           rejectedCount;
+    
+    /** 执行事件监听器的线程池。首次分发时才创建 */
+    private volatile ThreadPoolExecutor   executor;
+    
+    
+    
+    /**
+     * 获取全局共享的异步分发
+     *
+     * @return
+     */
+    public static FTPProgressDispatcher getInstance()
+    {
+        return $Instance;
+    }
+    
+    
+    
+    private FTPProgressDispatcher()
+    {
+        this.threadCount   = 2;
+        this.queueSize     = 1024;
+        this.rejectedCount = new AtomicInteger(0);
+    }
+    
+    
+    
+    /**
+     * 提交传输中事件的通知
+     *
+     * @param io_Event      事件
+     * @param i_Listeners   事件监听器
+     * @return              返回值表示是否继续（事件已被取消时返回 false）
+     */
+    boolean dispatch(DefaultFTPEvent io_Event ,Collection<FTPListener> i_Listeners)
+    {
+        if ( io_Event.isCancel() )
+        {
+            return false;
+        }
+        
+        if ( !io_Event.lockProcess() )
+        {
+            // 上次的通知还未执行，本次的进度合并到上次的通知中
+            return true;
+        }
+        
+        try
+        {
+            this.getExecutor().execute(() ->
+            {
+                io_Event.unlockProcess();
+                
+                for (FTPListener v_Listener : i_Listeners)
+                {
+                    if ( io_Event.isCancel() )
+                    {
+                        return;
+                    }
+                    
+                    try
+                    {
+                        if ( !v_Listener.ftpProcess(io_Event) )
+                        {
+                            io_Event.setCancel();
+                        }
+                    }
+                    catch (Exception exce)
+                    {
+                        exce.printStackTrace();
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException exce)
+        {
+            io_Event.unlockProcess();
+            this.rejectedCount.incrementAndGet();
+        }
+        
+        return true;
+    }
+    
+    
+    
+    /**
+     * 获取线程池，不存在时新建
+     *
+     * @return
+     */
+    private ThreadPoolExecutor getExecutor()
+    {
+        if ( this.executor == null )
+        {
+            synchronized ( this )
+            {
+                if ( this.executor == null )
+                {
+                    AtomicInteger v_No = new AtomicInteger(0);
+                    
+                    this.executor = new ThreadPoolExecutor(this.threadCount ,this.threadCount ,60 ,TimeUnit.SECONDS
+                                                          ,new ArrayBlockingQueue<Runnable>(this.queueSize)
+                                                          ,v_Runnable ->
+                    {
+                        Thread v_Thread = new Thread(v_Runnable ,"FTPProgressDispatcher-" + v_No.incrementAndGet());
+                        v_Thread.setDaemon(true);
+                        return v_Thread;
+                    });
+                    this.executor.allowCoreThreadTimeOut(true);
+                }
+            }
+        }
+        
+        return this.executor;
+    }
+    
+    
+    
+    /**
+     * 获取：执行事件监听器的线程数量
+     */
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+    
+    
+    
+    /**
+     * 设置：执行事件监听器的线程数量。首次分发前设置才生效
+     *
+     * @param threadCount
+     */
+    public void setThreadCount(int threadCount)
+    {
+        this.threadCount = Math.max(threadCount ,1);
+    }
+    
+    
+    
+    /**
+     * 获取：等待执行的通知的队列大小
+     */
+    public int getQueueSize()
+    {
+        return queueSize;
+    }
+    
+    
+    
+    /**
+     * 设置：等待执行的通知的队列大小。首次分发前设置才生效
+     *
+     * @param queueSize
+     */
+    public void setQueueSize(int queueSize)
+    {
+        this.queueSize = Math.max(queueSize ,1);
+    }
+    
+    
+    
+    /**
+     * 获取：因队列满而丢弃的通知数量
+     */
+    public int getRejectedCount()
+    {
+        return this.rejectedCount.get();
+    }
+    
+    
+    
+    /**
+     * 获取：等待执行的通知数量
+     */
+    public int getQueueCount()
+    {
+        ThreadPoolExecutor v_Executor = this.executor;
+        
+        return v_Executor == null ? 0 : v_Executor.getQueue().size();
+    }
+
+}
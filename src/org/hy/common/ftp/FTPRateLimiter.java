@@ -0,0 +1,238 @@
+package org.hy.common.ftp;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+
+
+
+
+/**
+ * 传输带宽的限速（令牌桶）。
+ *
+ * 统计的是网络上传输的大小，即数据安全性、变换链、压缩之后的大小。
+ *
+ * 1. 分级：每个限速器可有上级限速器，传输须同时满足本级及所有上级的限速。
+ *    默认的层级为：FTPHelp.setRateLimiter() 的限速器 -> 服务端的限速器（getInstance()） -> JVM全局的限速器（getGlobal()）
+ * 2. 共享：同一限速器被多个传输同时使用时，按实际传输的大小排队分配带宽，总和不超过限速
+ * 3. 突发：空闲时最多积累 $BurstTime 毫秒的令牌
+ * 4. 运行时调整：setRate() 立即生效。速率小于等于0时不限速（默认）
+ *
+ * 等待令牌时不持有锁，虚拟线程不会被固定在平台线程上。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPRateLimiter
+{
+    
+    /** 空闲时最多积累的令牌（单位：毫秒） */
+    private static final long $BurstTime = 200;
+    
+    /** JVM全局的限速器 */
+    private static final FTPRateLimiter              $Global  = new FTPRateLimiter(0 ,null);
+    
+    /** 每个服务端的限速器。Map.key 为 ip:port */
+    private static final Map<String ,FTPRateLimiter> $Servers = new ConcurrentHashMap<String ,FTPRateLimiter>();
+    
+    
+    
+    /** 上级限速器。可为 null */
+    private final FTPRateLimiter  parent;
+    
+    /** 速率（单位：Byte/秒）。小于等于0时不限速 */
+    private volatile long         rate;
+    
+    /** 桶中的令牌（单位：Byte）。小于0时表示已预支的令牌 */
+    private double                tokens;
+    
+    /** 上次计算令牌的时间（单位：纳秒） */
+    private long                  lastTime;
+    
+    
+    
+    /**
+     * 获取JVM全局的限速器
+     *
+     * @return
+     */
+    public static FTPRateLimiter getGlobal()
+    {
+        return $Global;
+    }
+    
+    
+    
+    /**
+     * 获取某一服务端的限速器（上级为JVM全局的限速器）
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public static FTPRateLimiter getInstance(FTPInfo i_FTPInfo)
+    {
+        return $Servers.computeIfAbsent(i_FTPInfo.getIp() + ":" + i_FTPInfo.getPort() ,k -> new FTPRateLimiter(0 ,$Global));
+    }
+    
+    
+    
+    /**
+     * 构造器（无上级限速器）
+     *
+     * @param i_Rate  速率（单位：Byte/秒）。小于等于0时不限速
+     */
+    public FTPRateLimiter(long i_Rate)
+    {
+        this(i_Rate ,null);
+    }
+    
+    
+    
+    /**
+     * 构造器
+     *
+     * @param i_Rate    速率（单位：Byte/秒）。小于等于0时不限速
+     * @param i_Parent  上级限速器。可为 null
+     */
+    public FTPRateLimiter(long i_Rate ,FTPRateLimiter i_Parent)
+    {
+        this.parent   = i_Parent;
+        this.rate     = i_Rate;
+        this.tokens   = 0;
+        this.lastTime = System.nanoTime();
+    }
+    
+    
+    
+    /**
+     * 获取令牌。令牌不足时等待，直到本级及所有上级的令牌都足够
+     *
+     * @param i_Size  传输的大小（单位：Byte）
+     * @throws InterruptedIOException  等待时线程被中断
+     */
+    public void acquire(long i_Size) throws InterruptedIOException
+    {
+        if ( i_Size <= 0 )
+        {
+            return;
+        }
+        
+        for (FTPRateLimiter v_Limiter = this; v_Limiter != null; v_Limiter = v_Limiter.parent)
+        {
+            if ( v_Limiter.rate > 0 )
+            {
+                v_Limiter.await(v_Limiter.reserve(i_Size));
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 本级或任一上级是否限速
+     *
+     * @return
+     */
+    public boolean isLimited()
+    {
+        for (FTPRateLimiter v_Limiter = this; v_Limiter != null; v_Limiter = v_Limiter.parent)
+        {
+            if ( v_Limiter.rate > 0 )
+            {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    
+    
+    /**
+     * 预支令牌，返回须等待的时长
+     *
+     * @param i_Size  传输的大小（单位：Byte）
+     * @return        须等待的时长（单位：纳秒）
+     */
+    private synchronized long reserve(long i_Size)
+    {
+        long v_Rate = this.rate;
+        long v_Now  = System.nanoTime();
+        
+        if ( v_Rate <= 0 )
+        {
+            return 0;
+        }
+        
+        this.tokens   = Math.min(this.tokens + (v_Now - this.lastTime) * v_Rate / 1000000000D ,v_Rate * $BurstTime / 1000D);
+        this.lastTime = v_Now;
+        this.tokens  -= i_Size;
+        
+        return this.tokens >= 0 ? 0 : (long)(-this.tokens * 1000000000D / v_Rate);
+    }
+    
+    
+    
+    /**
+     * 等待（不持有锁）
+     *
+     * @param i_Nanos  等待的时长（单位：纳秒）
+     * @throws InterruptedIOException  等待时线程被中断
+     */
+    private void await(long i_Nanos) throws InterruptedIOException
+    {
+        long v_Deadline = System.nanoTime() + i_Nanos;
+        long v_Remain   = i_Nanos;
+        
+        while ( v_Remain > 0 )
+        {
+            LockSupport.parkNanos(this ,v_Remain);
+            
+            if ( Thread.interrupted() )
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("FTP rate limiter is interrupted.");
+            }
+            
+            v_Remain = v_Deadline - System.nanoTime();
+        }
+    }
+    
+    
+    
+    /**
+     * 获取：上级限速器
+     */
+    public FTPRateLimiter getParent()
+    {
+        return parent;
+    }
+    
+    
+    
+    /**
+     * 获取：速率（单位：Byte/秒）。小于等于0时不限速
+     */
+    public long getRate()
+    {
+        return rate;
+    }
+    
+    
+    
+    /**
+     * 设置：速率（单位：Byte/秒）。小于等于0时不限速。立即生效，已积累及已预支的令牌清零
+     *
+     * @param rate
+     */
+    public synchronized void setRate(long rate)
+    {
+        this.rate     = rate;
+        this.tokens   = 0;
+        this.lastTime = System.nanoTime();
+    }
+
+}
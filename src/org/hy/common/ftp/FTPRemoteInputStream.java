@@ -0,0 +1,97 @@
+package org.hy.common.ftp;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.hy.common.ftp.event.DefaultFTPEvent;
+
+
+
+
+
+/**
+ * 读取远程文件的数据流（见 FTPHelp.openRead()）。
+ *
+ * 1. 有数据变换（数据安全性、变换链）时，边读边就地解码
+ * 2. 每次读取触发一次传送文件进度的事件，监听器返回 false 时，读取抛出异常
+ * 3. 关闭时完成本次 RETR 命令（completePendingCommand），并按需关闭连接
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+class FTPRemoteInputStream extends FTPWireInputStream
+{
+    
+    private final DefaultFTPEvent event;
+    
+    /** 关闭数据流时，是否同时关闭连接 */
+    private final boolean         autoClose;
+    
+    /** 是否已读到文件末尾 */
+    private boolean               isEOF;
+    
+    private boolean               isClosed;
+    
+    
+    
+    FTPRemoteInputStream(FTPHelp i_FTPHelp ,InputStream i_Input ,DefaultFTPEvent i_Event ,FTPChecksum i_Checksum ,boolean i_AutoClose)
+    {
+        super(i_FTPHelp ,i_Input ,i_Checksum);
+        
+        this.event     = i_Event;
+        this.autoClose = i_AutoClose;
+        this.isEOF     = false;
+        this.isClosed  = false;
+    }
+    
+    
+    
+    @Override
+    public int read(byte [] io_Bytes ,int i_Offset ,int i_Length) throws IOException
+    {
+        int v_RSize = super.read(io_Bytes ,i_Offset ,i_Length);
+        
+        if ( v_RSize < 0 )
+        {
+            this.isEOF = true;
+            return v_RSize;
+        }
+        
+        this.event.setCompleteSize(this.getWireSize());
+        
+        if ( !this.ftpHelp.fireFTPingListener(this.event) )
+        {
+            throw new IOException("Ftp transfer is canceled.");
+        }
+        
+        return v_RSize;
+    }
+    
+    
+    
+    /**
+     * 关闭数据流，完成本次 RETR 命令。
+     *
+     * 未读到文件末尾就关闭时，服务端可能回复传输中止，此时不视为异常
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( this.isClosed )
+        {
+            return;
+        }
+        this.isClosed = true;
+        
+        try
+        {
+            super.close();
+        }
+        finally
+        {
+            this.ftpHelp.finishStream(this.event ,null ,this.checksum ,this.isEOF ,this.autoClose);
+        }
+    }
+
+}
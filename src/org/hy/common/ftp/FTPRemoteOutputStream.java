@@ -0,0 +1,94 @@
+package org.hy.common.ftp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.hy.common.ftp.event.DefaultFTPEvent;
+
+
+
+
+
+/**
+ * 写入远程文件的数据流（见 FTPHelp.openWrite()）。
+ *
+ * 1. 有数据变换（数据安全性、变换链）时，先拷贝到本流的缓存中，再就地编码（不改动调用者的数组）
+ * 2. 每次写入触发一次传送文件进度的事件，监听器返回 false 时，写入抛出异常
+ * 3. 关闭时完成本次 STOR / APPE 命令（completePendingCommand），并按需关闭连接
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+class FTPRemoteOutputStream extends FTPWireOutputStream
+{
+    
+    private final DefaultFTPEvent event;
+    
+    /** 远程文件的上级目录。上传成功后记入目录缓存 */
+    private final String          dirFullName;
+    
+    /** 关闭数据流时，是否同时关闭连接 */
+    private final boolean         autoClose;
+    
+    private boolean               isClosed;
+    
+    
+    
+    FTPRemoteOutputStream(FTPHelp i_FTPHelp ,OutputStream i_Output ,DefaultFTPEvent i_Event ,String i_DirFullName ,int i_BufferSize ,FTPChecksum i_Checksum ,boolean i_AutoClose)
+    {
+        super(i_FTPHelp ,i_Output ,i_BufferSize ,i_Checksum);
+        
+        this.event       = i_Event;
+        this.dirFullName = i_DirFullName;
+        this.autoClose   = i_AutoClose;
+        this.isClosed    = false;
+    }
+    
+    
+    
+    @Override
+    public void write(byte [] i_Bytes ,int i_Offset ,int i_Length) throws IOException
+    {
+        if ( i_Length <= 0 )
+        {
+            return;
+        }
+        
+        super.write(i_Bytes ,i_Offset ,i_Length);
+        
+        this.event.setCompleteSize(this.getWireSize());
+        
+        if ( !this.ftpHelp.fireFTPingListener(this.event) )
+        {
+            throw new IOException("Ftp transfer is canceled.");
+        }
+    }
+    
+    
+    
+    /**
+     * 关闭数据流，完成本次 STOR / APPE 命令
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( this.isClosed )
+        {
+            return;
+        }
+        this.isClosed = true;
+        
+        try
+        {
+            this.out.flush();
+            this.out.close();
+        }
+        finally
+        {
+            this.release();
+            this.ftpHelp.finishStream(this.event ,this.dirFullName ,this.checksum ,true ,this.autoClose);
+        }
+    }
+
+}
@@ -0,0 +1,595 @@
+package org.hy.common.ftp;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+
+
+
+
+/**
+ * 传输的调度。在 FTPService 之前排队，最多同时执行 concurrency 个传输。
+ *
+ * 选择下一个执行的传输的规则（按先后）：
+ *   1. 防饿死：等待超过 maxWaitTime 毫秒的传输，按提交的先后最先执行
+ *   2. 优先级：优先级的数值小的先执行（$Priority_High、$Priority_Normal、$Priority_Low）
+ *   3. 租户间公平（加权公平排队）：同一优先级中，按租户已执行的传输大小除以租户的权重（虚拟时间）最小的租户先执行。
+ *      新加入（或空闲后再加入）的租户从当前的虚拟时间开始，不能用空闲时积累的额度抢占其它租户
+ *   4. 短作业优先：同一租户中，文件小的先执行，大小相同时按提交的先后
+ *
+ * 传输的大小：上传取本地文件的大小，下载取传入的文件大小（未知时按 0 处理，即视为小文件）。
+ *
+ * 返回的 Future 在传输失败时也是正常完成的，由 FTPTransferResult.isSucceed() 判定。
+ * Future.cancel() 时，未开始的传输不再执行，传输中的传输在下次传输事件时中止。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPScheduler
+{
+    
+    /** 优先级：高 */
+    public static final int     $Priority_High   = 0;
+    
+    /** 优先级：普通 */
+    public static final int     $Priority_Normal = 1;
+    
+    /** 优先级：低 */
+    public static final int     $Priority_Low    = 2;
+    
+    /** 默认的租户 */
+    public static final String  $DefaultTenant   = "";
+    
+    /** 租户间公平时，每个传输的最小大小（单位：Byte），即每个传输的固定开销（如删除文件） */
+    private static final long   $MinCost         = 64 * 1024;
+    
+    
+    
+    private final FTPService                       ftpService;
+    
+    /** 执行传输的线程池 */
+    private final ExecutorService                  executor;
+    
+    /** 最多同时执行的传输数量 */
+    private volatile int                           concurrency;
+    
+    /** 最长的等待时长（单位：毫秒）。超过时优先执行，防止大文件或低优先级的传输被饿死 */
+    private volatile long                          maxWaitTime;
+    
+    /** 等待中的传输。按提交的先后排序 */
+    private final TreeSet<Task>                    waitings;
+    
+    /** 各优先级的排队。Map.key 为优先级 */
+    private final TreeMap<Integer ,PriorityLevel>  priorities;
+    
+    /** 租户的权重。Map.key 为租户，未设置的权重为 1 */
+    private final Map<String ,Integer>             weights;
+    
+    /** 执行中的传输数量 */
+    private int                                    runningCount;
+    
+    /** 提交的序号 */
+    private long                                   serialNo;
+    
+    
+    
+    /**
+     * 构造器
+     *
+     * @param i_FTPService
+     * @param i_Concurrency  最多同时执行的传输数量
+     */
+    public FTPScheduler(FTPService i_FTPService ,int i_Concurrency)
+    {
+        this.ftpService   = i_FTPService;
+        this.concurrency  = Math.max(i_Concurrency ,1);
+        this.maxWaitTime  = 60 * 1000;
+        this.executor     = FTPExecutors.getInstance().newExecutor("FTPScheduler" ,this.concurrency);
+        this.waitings     = new TreeSet<Task>(Comparator.comparingLong(v_Task -> v_Task.serialNo));
+        this.priorities   = new TreeMap<Integer ,PriorityLevel>();
+        this.weights      = new HashMap<String ,Integer>();
+        this.runningCount = 0;
+        this.serialNo     = 0;
+    }
+    
+    
+    
+    /**
+     * 提交上传文件
+     *
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_Priority        优先级（$Priority_*）
+     * @param i_Tenant          租户。为 null 时为默认的租户
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> upload(String i_LocalFullName ,String i_RemoteFullName ,int i_Priority ,String i_Tenant)
+    {
+        return this.submit(new FTPTransferResult(1 ,i_LocalFullName ,i_RemoteFullName)
+                          ,new File(i_LocalFullName).length()
+                          ,i_Priority
+                          ,i_Tenant
+                          ,v_Options -> this.ftpService.upload(i_LocalFullName ,i_RemoteFullName ,v_Options));
+    }
+    
+    
+    
+    /**
+     * 提交下载文件
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时视为小文件，且下载时用 SIZE 命令获取远程文件的大小
+     * @param i_Priority        优先级（$Priority_*）
+     * @param i_Tenant          租户。为 null 时为默认的租户
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> download(String i_RemoteFullName ,String i_SaveFullName ,long i_FileSize ,int i_Priority ,String i_Tenant)
+    {
+        return this.submit(new FTPTransferResult(2 ,i_SaveFullName ,i_RemoteFullName)
+                          ,i_FileSize
+                          ,i_Priority
+                          ,i_Tenant
+                          ,v_Options -> this.ftpService.download(i_RemoteFullName ,i_SaveFullName ,i_FileSize ,v_Options));
+    }
+    
+    
+    
+    /**
+     * 提交删除文件
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_Priority        优先级（$Priority_*）
+     * @param i_Tenant          租户。为 null 时为默认的租户
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> delete(String i_RemoteFullName ,int i_Priority ,String i_Tenant)
+    {
+        return this.submit(new FTPTransferResult(3 ,null ,i_RemoteFullName)
+                          ,0
+                          ,i_Priority
+                          ,i_Tenant
+                          ,v_Options -> this.ftpService.deleteFile(i_RemoteFullName));
+    }
+    
+    
+    
+    /**
+     * 提交传输并排队
+     *
+     * @param io_Result   传输结果
+     * @param i_Size      传输的大小（单位：Byte）
+     * @param i_Priority  优先级
+     * @param i_Tenant    租户
+     * @param i_Action    执行的动作。入参为本次调用的选项，返回异常信息，成功时返回 null
+     * @return
+     */
+    private CompletableFuture<FTPTransferResult> submit(FTPTransferResult            io_Result
+                                                       ,long                         i_Size
+                                                       ,int                          i_Priority
+                                                       ,String                       i_Tenant
+                                                       ,Function<FTPOptions ,String> i_Action)
+    {
+        Task v_Task = new Task(io_Result ,Math.max(i_Size ,0) ,i_Priority ,i_Tenant == null ? $DefaultTenant : i_Tenant ,i_Action);
+        
+        synchronized ( this )
+        {
+            v_Task.serialNo = ++this.serialNo;
+            
+            PriorityLevel v_Queue  = this.priorities.computeIfAbsent(i_Priority ,k -> new PriorityLevel());
+            TenantQueue   v_Tenant = v_Queue.tenants.get(v_Task.tenant);
+            
+            if ( v_Tenant == null )
+            {
+                // 新加入的租户从当前的虚拟时间开始
+                v_Tenant = new TenantQueue(this.getWeight(v_Task.tenant));
+                v_Tenant.virtualTime = v_Queue.virtualTime;
+                v_Queue.tenants.put(v_Task.tenant ,v_Tenant);
+            }
+            
+            v_Tenant.tasks.add(v_Task);
+            this.waitings.add(v_Task);
+        }
+        
+        this.dispatch();
+        
+        return v_Task.future;
+    }
+    
+    
+    
+    /**
+     * 有空闲的执行名额时，选择下一个传输并执行
+     */
+    private void dispatch()
+    {
+        while ( true )
+        {
+            Task v_Task = null;
+            
+            synchronized ( this )
+            {
+                if ( this.runningCount >= this.concurrency || (v_Task = this.poll()) == null )
+                {
+                    return;
+                }
+                
+                this.runningCount++;
+            }
+            
+            try
+            {
+                Task v_Run = v_Task;
+                this.executor.execute(() -> this.execute(v_Run));
+            }
+            catch (RejectedExecutionException exce)
+            {
+                synchronized ( this )
+                {
+                    this.runningCount--;
+                }
+                
+                v_Task.result.finish(0 ,exce.toString());
+                v_Task.future.complete(v_Task.result);
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 选择并移出下一个执行的传输（须在锁内调用）。已被取消的传输直接丢弃
+     *
+     * @return  没有等待中的传输时返回 null
+     */
+    private Task poll()
+    {
+        while ( !this.waitings.isEmpty() )
+        {
+            Task v_Task = this.waitings.first();
+            
+            // 防饿死：等待超时的传输最先执行
+            if ( System.currentTimeMillis() - v_Task.submitTime < this.maxWaitTime )
+            {
+                v_Task = this.pollFair();
+            }
+            
+            // 已被取消的传输未执行，不计入租户的虚拟时间
+            boolean v_IsRun = !v_Task.future.isDone();
+            
+            this.remove(v_Task ,v_IsRun);
+            
+            if ( v_IsRun )
+            {
+                return v_Task;
+            }
+        }
+        
+        return null;
+    }
+    
+    
+    
+    /**
+     * 按优先级、租户间公平、短作业优先，选择下一个执行的传输（须在锁内调用）
+     *
+     * @return
+     */
+    private Task pollFair()
+    {
+        PriorityLevel v_Queue  = this.priorities.firstEntry().getValue();
+        TenantQueue   v_Tenant = null;
+        
+        for (TenantQueue v_Item : v_Queue.tenants.values())
+        {
+            if ( v_Tenant == null || v_Item.virtualTime < v_Tenant.virtualTime )
+            {
+                v_Tenant = v_Item;
+            }
+        }
+        
+        return v_Tenant.tasks.first();
+    }
+    
+    
+    
+    /**
+     * 移出等待中的传输，按需计入租户的虚拟时间（须在锁内调用）
+     *
+     * @param i_Task
+     * @param i_IsCharge  是否计入租户的虚拟时间。只有执行的传输才计入
+     */
+    private void remove(Task i_Task ,boolean i_IsCharge)
+    {
+        PriorityLevel v_Queue  = this.priorities.get(i_Task.priority);
+        TenantQueue   v_Tenant = v_Queue.tenants.get(i_Task.tenant);
+        
+        this.waitings.remove(i_Task);
+        v_Tenant.tasks.remove(i_Task);
+        
+        if ( i_IsCharge )
+        {
+            v_Queue.virtualTime   = Math.max(v_Queue.virtualTime ,v_Tenant.virtualTime);
+            v_Tenant.virtualTime += (double)Math.max(i_Task.size ,$MinCost) / v_Tenant.weight;
+        }
+        
+        if ( v_Tenant.tasks.isEmpty() )
+        {
+            v_Queue.tenants.remove(i_Task.tenant);
+            
+            if ( v_Queue.tenants.isEmpty() )
+            {
+                this.priorities.remove(i_Task.priority);
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 执行传输
+     *
+     * @param io_Task
+     */
+    private void execute(Task io_Task)
+    {
+        try
+        {
+            if ( !io_Task.future.isDone() )
+            {
+                FTPOptions v_Options = this.ftpService.getOptions();
+                String     v_Error   = null;
+                
+                v_Options.addFTPListener(new FTPHelp.CancelListener(io_Task.future));
+                io_Task.result.begin();
+                
+                try
+                {
+                    v_Error = io_Task.action.apply(v_Options);
+                }
+                catch (Throwable exce)
+                {
+                    v_Error = exce.toString();
+                }
+                
+                if ( io_Task.future.isCancelled() )
+                {
+                    v_Error = "Ftp transfer is canceled.";
+                }
+                
+                io_Task.result.finish(io_Task.result.getActionType() == 3 ? 0 : new File(io_Task.result.getLocalFullName()).length() ,v_Error);
+                io_Task.future.complete(io_Task.result);
+            }
+        }
+        finally
+        {
+            synchronized ( this )
+            {
+                this.runningCount--;
+            }
+            
+            this.dispatch();
+        }
+    }
+    
+    
+    
+    /**
+     * 关闭。不再执行等待中的传输，执行中的传输继续完成
+     */
+    public void shutdown()
+    {
+        synchronized ( this )
+        {
+            for (Task v_Task : this.waitings)
+            {
+                v_Task.result.finish(0 ,"Scheduler is shutdown.");
+                v_Task.future.complete(v_Task.result);
+            }
+        }
+        
+        this.executor.shutdown();
+    }
+    
+    
+    
+    /**
+     * 获取：租户的权重。未设置时为 1
+     *
+     * @param i_Tenant  租户
+     * @return
+     */
+    public synchronized int getWeight(String i_Tenant)
+    {
+        Integer v_Weight = this.weights.get(i_Tenant);
+        
+        return v_Weight == null ? 1 : v_Weight.intValue();
+    }
+    
+    
+    
+    /**
+     * 设置：租户的权重。权重越大，分得的传输带宽越多。对之后新加入排队的租户生效
+     *
+     * @param i_Tenant  租户
+     * @param i_Weight  权重（最小为 1）
+     */
+    public synchronized void setWeight(String i_Tenant ,int i_Weight)
+    {
+        this.weights.put(i_Tenant ,Math.max(i_Weight ,1));
+    }
+    
+    
+    
+    /**
+     * 获取：等待中的传输数量
+     */
+    public synchronized int getWaitingCount()
+    {
+        return this.waitings.size();
+    }
+    
+    
+    
+    /**
+     * 获取：执行中的传输数量
+     */
+    public synchronized int getRunningCount()
+    {
+        return this.runningCount;
+    }
+    
+    
+    
+    /**
+     * 获取：最多同时执行的传输数量
+     */
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+    
+    
+    
+    /**
+     * 设置：最多同时执行的传输数量。调大时立即执行等待中的传输；不超过线程池的线程数量
+     *
+     * @param concurrency
+     */
+    public void setConcurrency(int concurrency)
+    {
+        this.concurrency = Math.max(concurrency ,1);
+        this.dispatch();
+    }
+    
+    
+    
+    /**
+     * 获取：最长的等待时长（单位：毫秒）
+     */
+    public long getMaxWaitTime()
+    {
+        return maxWaitTime;
+    }
+    
+    
+    
+    /**
+     * 设置：最长的等待时长（单位：毫秒）。超过时优先执行，防止大文件或低优先级的传输被饿死
+     *
+     * @param maxWaitTime
+     */
+    public void setMaxWaitTime(long maxWaitTime)
+    {
+        this.maxWaitTime = maxWaitTime;
+    }
+    
+    
+    
+    
+    
+    /**
+     * 排队中的一个传输
+     */
+    private static class Task
+    {
+        
+        private final FTPTransferResult                     result;
+        
+        private final CompletableFuture<FTPTransferResult>  future;
+        
+        /** 传输的大小（单位：Byte） */
+        private final long                                  size;
+        
+        private final int                                   priority;
+        
+        private final String                                tenant;
+        
+        private final Function<FTPOptions ,String>          action;
+        
+        /** 提交的时间 */
+        private final long                                  submitTime;
+        
+        /** 提交的序号 */
+        private long                                        serialNo;
+        
+        
+        
+        public Task(FTPTransferResult i_Result ,long i_Size ,int i_Priority ,String i_Tenant ,Function<FTPOptions ,String> i_Action)
+        {
+            this.result     = i_Result;
+            this.future     = new CompletableFuture<FTPTransferResult>();
+            this.size       = i_Size;
+            this.priority   = i_Priority;
+            this.tenant     = i_Tenant;
+            this.action     = i_Action;
+            this.submitTime = System.currentTimeMillis();
+        }
+    
+    }
+    
+    
+    
+    
+    
+    /**
+     * 一个优先级的排队
+     */
+    private static class PriorityLevel
+    {
+        
+        /** 各租户的排队 */
+        private final Map<String ,TenantQueue> tenants;
+        
+        /** 虚拟时间：已执行的传输所在租户的最大虚拟时间。新加入的租户从此开始 */
+        private double                         virtualTime;
+        
+        
+        
+        public PriorityLevel()
+        {
+            this.tenants     = new HashMap<String ,TenantQueue>();
+            this.virtualTime = 0;
+        }
+    
+    }
+    
+    
+    
+    
+    
+    /**
+     * 一个租户的排队（短作业优先）
+     */
+    private static class TenantQueue
+    {
+        
+        /** 等待中的传输。按大小、提交的先后排序 */
+        private final TreeSet<Task> tasks;
+        
+        private final int           weight;
+        
+        /** 虚拟时间：已执行的传输的大小除以权重的累计 */
+        private double              virtualTime;
+        
+        
+        
+        public TenantQueue(int i_Weight)
+        {
+            this.tasks       = new TreeSet<Task>(Comparator.comparingLong((Task v_Task) -> v_Task.size).thenComparingLong(v_Task -> v_Task.serialNo));
+            this.weight      = i_Weight;
+            this.virtualTime = 0;
+        }
+    
+    }
+
+}
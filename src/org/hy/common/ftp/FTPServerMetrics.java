@@ -0,0 +1,293 @@
+package org.hy.common.ftp;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+
+
+/**
+ * 一个FTP服务端（ip:port）的传输指标。由 FTPMetrics 创建并注册到 JMX。
+ *
+ * 记录的方法均是无锁的，可被多个连接同时调用。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class FTPServerMetrics implements FTPServerMetricsMXBean
+{
+    
+    /** 服务端（ip:port） */
+    private final String                   server;
+    
+    /** 建立控制连接的耗时 */
+    private final FTPLatency               connect;
+    
+    /** 登录的耗时 */
+    private final FTPLatency               login;
+    
+    /** 创建目录的耗时 */
+    private final FTPLatency               mkd;
+    
+    /** 打开数据连接的耗时 */
+    private final FTPLatency               open;
+    
+    /** 数据连接传输数据的耗时 */
+    private final FTPLatency               data;
+    
+    /** 完成命令的耗时 */
+    private final FTPLatency               complete;
+    
+    /** 上传的大小（单位：Byte） */
+    private final LongAdder                uploadBytes;
+    
+    /** 下载的大小（单位：Byte） */
+    private final LongAdder                downloadBytes;
+    
+    /** 上传数据连接的传输耗时（单位：纳秒） */
+    private final LongAdder                uploadNanos;
+    
+    /** 下载数据连接的传输耗时（单位：纳秒） */
+    private final LongAdder                downloadNanos;
+    
+    /** 正在传输的数据连接的数量 */
+    private final AtomicInteger            activeTransfers;
+    
+    /** 按原因统计的失败次数 */
+    private final Map<String ,LongAdder>   failures;
+    
+    
+    
+    FTPServerMetrics(String i_Server)
+    {
+        this.server          = i_Server;
+        this.connect         = new FTPLatency();
+        this.login           = new FTPLatency();
+        this.mkd             = new FTPLatency();
+        this.open            = new FTPLatency();
+        this.data            = new FTPLatency();
+        this.complete        = new FTPLatency();
+        this.uploadBytes     = new LongAdder();
+        this.downloadBytes   = new LongAdder();
+        this.uploadNanos     = new LongAdder();
+        this.downloadNanos   = new LongAdder();
+        this.activeTransfers = new AtomicInteger(0);
+        this.failures        = new ConcurrentHashMap<String ,LongAdder>();
+    }
+    
+    
+    
+    /**
+     * 记录数据连接的开始
+     */
+    void transferBegin()
+    {
+        this.activeTransfers.incrementAndGet();
+    }
+    
+    
+    
+    /**
+     * 记录数据连接的结束（正常完成或异常中断）
+     *
+     * @param i_IsUpload  是否为上传
+     * @param i_Nanos     数据连接的传输耗时（单位：纳秒）
+     */
+    void transferEnd(boolean i_IsUpload ,long i_Nanos)
+    {
+        this.activeTransfers.decrementAndGet();
+        this.data.record(i_Nanos);
+        (i_IsUpload ? this.uploadNanos : this.downloadNanos).add(i_Nanos);
+    }
+    
+    
+    
+    /**
+     * 记录传输的大小
+     *
+     * @param i_IsUpload  是否为上传
+     * @param i_Bytes     网络上传输的大小（单位：Byte）
+     */
+    void addBytes(boolean i_IsUpload ,long i_Bytes)
+    {
+        if ( i_Bytes > 0 )
+        {
+            (i_IsUpload ? this.uploadBytes : this.downloadBytes).add(i_Bytes);
+        }
+    }
+    
+    
+    
+    /**
+     * 记录一次失败
+     *
+     * @param i_Phase  阶段。如 connect、login、open、complete、data
+     * @param i_Cause  原因。如异常的类名、服务端的应答码
+     */
+    void failure(String i_Phase ,String i_Cause)
+    {
+        this.failures.computeIfAbsent(i_Phase + ":" + i_Cause ,k -> new LongAdder()).increment();
+    }
+    
+    
+    
+    /**
+     * 记录一次异常的失败，原因为异常的类名
+     *
+     * @param i_Phase
+     * @param i_Exce
+     */
+    void failure(String i_Phase ,Throwable i_Exce)
+    {
+        this.failure(i_Phase ,i_Exce.getClass().getSimpleName());
+    }
+    
+    
+    
+    @Override
+    public String getServer()
+    {
+        return this.server;
+    }
+    
+    
+    
+    @Override
+    public FTPLatency getConnect()
+    {
+        return this.connect;
+    }
+    
+    
+    
+    @Override
+    public FTPLatency getLogin()
+    {
+        return this.login;
+    }
+    
+    
+    
+    @Override
+    public FTPLatency getMkd()
+    {
+        return this.mkd;
+    }
+    
+    
+    
+    @Override
+    public FTPLatency getOpen()
+    {
+        return this.open;
+    }
+    
+    
+    
+    @Override
+    public FTPLatency getData()
+    {
+        return this.data;
+    }
+    
+    
+    
+    @Override
+    public FTPLatency getComplete()
+    {
+        return this.complete;
+    }
+    
+    
+    
+    @Override
+    public long getUploadBytes()
+    {
+        return this.uploadBytes.sum();
+    }
+    
+    
+    
+    @Override
+    public long getDownloadBytes()
+    {
+        return this.downloadBytes.sum();
+    }
+    
+    
+    
+    @Override
+    public double getUploadBytesPerSecond()
+    {
+        return toRate(this.uploadBytes.sum() ,this.uploadNanos.sum());
+    }
+    
+    
+    
+    @Override
+    public double getDownloadBytesPerSecond()
+    {
+        return toRate(this.downloadBytes.sum() ,this.downloadNanos.sum());
+    }
+    
+    
+    
+    @Override
+    public int getActiveTransfers()
+    {
+        return this.activeTransfers.get();
+    }
+    
+    
+    
+    @Override
+    public Map<String ,Long> getFailures()
+    {
+        Map<String ,Long> v_Ret = new TreeMap<String ,Long>();
+        
+        for (Map.Entry<String ,LongAdder> v_Item : this.failures.entrySet())
+        {
+            v_Ret.put(v_Item.getKey() ,v_Item.getValue().sum());
+        }
+        
+        return v_Ret;
+    }
+    
+    
+    
+    @Override
+    public void reset()
+    {
+        this.connect.reset();
+        this.login.reset();
+        this.mkd.reset();
+        this.open.reset();
+        this.data.reset();
+        this.complete.reset();
+        this.uploadBytes.reset();
+        this.downloadBytes.reset();
+        this.uploadNanos.reset();
+        this.downloadNanos.reset();
+        this.failures.clear();
+    }
+    
+    
+    
+    /**
+     * 计算速度（单位：Byte/秒）
+     *
+     * @param i_Bytes
+     * @param i_Nanos
+     * @return
+     */
+    private static double toRate(long i_Bytes ,long i_Nanos)
+    {
+        return i_Nanos <= 0 ? 0D : i_Bytes * 1000000000D / i_Nanos;
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.hy.common.ftp;
+
+import java.util.Map;
+
+
+
+
+
+/**
+ * 一个FTP服务端（ip:port）的传输指标的 JMX 接口。
+ *
+ * 对象名称为 org.hy.common.ftp:type=FTPMetrics,server="ip:port"，可用 JConsole、VisualVM 等查看。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public interface FTPServerMetricsMXBean
+{
+    
+    /**
+     * 获取：服务端（ip:port）
+     */
+    public String getServer();
+    
+    
+    
+    /**
+     * 获取：建立控制连接的耗时
+     */
+    public FTPLatency getConnect();
+    
+    
+    
+    /**
+     * 获取：登录的耗时
+     */
+    public FTPLatency getLogin();
+    
+    
+    
+    /**
+     * 获取：创建目录（MKD）的耗时
+     */
+    public FTPLatency getMkd();
+    
+    
+    
+    /**
+     * 获取：打开数据连接（PASV/PORT + STOR/APPE/RETR 等，直到服务端应答 150）的耗时
+     */
+    public FTPLatency getOpen();
+    
+    
+    
+    /**
+     * 获取：数据连接传输数据的耗时（打开数据连接后，到完成命令前）
+     */
+    public FTPLatency getData();
+    
+    
+    
+    /**
+     * 获取：完成命令（completePendingCommand，等待服务端应答 226）的耗时
+     */
+    public FTPLatency getComplete();
+    
+    
+    
+    /**
+     * 获取：上传的大小（网络上传输的，单位：Byte）
+     */
+    public long getUploadBytes();
+    
+    
+    
+    /**
+     * 获取：下载的大小（网络上传输的，单位：Byte）
+     */
+    public long getDownloadBytes();
+    
+    
+    
+    /**
+     * 获取：上传的速度（单位：Byte/秒）。即上传的大小与上传数据连接的传输耗时之比
+     */
+    public double getUploadBytesPerSecond();
+    
+    
+    
+    /**
+     * 获取：下载的速度（单位：Byte/秒）。即下载的大小与下载数据连接的传输耗时之比
+     */
+    public double getDownloadBytesPerSecond();
+    
+    
+    
+    /**
+     * 获取：正在传输的数据连接的数量
+     */
+    public int getActiveTransfers();
+    
+    
+    
+    /**
+     * 获取：按原因统计的失败次数。Map.key 为 "阶段:原因"，如 connect:ConnectException、open:550、data:aborted
+     */
+    public Map<String ,Long> getFailures();
+    
+    
+    
+    /**
+     * 清空统计（正在传输的数量除外）
+     */
+    public void reset();
+
+}
@@ -0,0 +1,356 @@
+package org.hy.common.ftp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+
+
+
+
+/**
+ * 线程安全的FTP服务。整个应用可共用一个实例。
+ *
+ * FTPHelp 有可变的状态（连接、监听器、选项等），不能被多个线程同时使用。本类每次调用都新建一个 FTPHelp，
+ * 从连接池中借出一个空闲的已登录连接，调用结束后归还。即：
+ *   1. 并发度只受连接池（FTPConnectionPool.setMaxTotal()）的限制，连接池耗尽时等待空闲连接
+ *   2. 每次调用可传入自己的选项（FTPOptions），不影响其它调用。未传入时用默认选项
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPService
+{
+    
+    private final FTPInfo            ftpInfo;
+    
+    private final FTPConnectionPool  ftpPool;
+    
+    /** 默认选项。设置时复制一份，之后修改传入的对象不影响本服务 */
+    private volatile FTPOptions      options;
+    
+    /** 执行异步传输的线程池（见 FTPHelp.setAsyncExecutor()） */
+    private volatile Executor        asyncExecutor;
+    
+    
+    
+    /**
+     * 构造器。用全局共享的默认连接池
+     *
+     * @param i_FTPInfo
+     */
+    public FTPService(FTPInfo i_FTPInfo)
+    {
+        this(i_FTPInfo ,FTPConnectionPool.getInstance());
+    }
+    
+    
+    
+    /**
+     * 构造器
+     *
+     * @param i_FTPInfo
+     * @param i_FTPPool  FTP连接池
+     */
+    public FTPService(FTPInfo i_FTPInfo ,FTPConnectionPool i_FTPPool)
+    {
+        if ( i_FTPInfo == null || i_FTPPool == null )
+        {
+            throw new NullPointerException("FTPInfo or FTPConnectionPool is null.");
+        }
+        
+        this.ftpInfo = i_FTPInfo.clone();
+        this.ftpPool = i_FTPPool;
+        this.options = new FTPOptions();
+    }
+    
+    
+    
+    /**
+     * 上传文件（见 FTPHelp.upload(String ,String)）
+     *
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  成功返回 null。否则为异常信息
+     */
+    public String upload(String i_LocalFullName ,String i_RemoteFullName)
+    {
+        return this.upload(i_LocalFullName ,i_RemoteFullName ,null);
+    }
+    
+    
+    
+    /**
+     * 上传文件（见 FTPHelp.upload(String ,String)）
+     *
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_Options         本次调用的选项。为 null 时用默认选项
+     * @return  成功返回 null。否则为异常信息
+     */
+    public String upload(String i_LocalFullName ,String i_RemoteFullName ,FTPOptions i_Options)
+    {
+        return this.execute(i_Options ,v_FTPHelp -> v_FTPHelp.upload(i_LocalFullName ,i_RemoteFullName) ,v_Error -> v_Error);
+    }
+    
+    
+    
+    /**
+     * 下载文件（见 FTPHelp.download(String ,String)）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @return  成功返回 null。否则为异常信息
+     */
+    public String download(String i_RemoteFullName ,String i_SaveFullName)
+    {
+        return this.download(i_RemoteFullName ,i_SaveFullName ,null);
+    }
+    
+    
+    
+    /**
+     * 下载文件（见 FTPHelp.download(String ,String)）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @param i_Options         本次调用的选项。为 null 时用默认选项
+     * @return  成功返回 null。否则为异常信息
+     */
+    public String download(String i_RemoteFullName ,String i_SaveFullName ,FTPOptions i_Options)
+    {
+        return this.execute(i_Options ,v_FTPHelp -> v_FTPHelp.download(i_RemoteFullName ,i_SaveFullName) ,v_Error -> v_Error);
+    }
+    
+    
+    
+    /**
+     * 下载文件（见 FTPHelp.download(String ,String ,long)）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @param i_FileSize        文件的大小（单位：Byte）。小于等于0时，用 SIZE 命令获取远程文件的大小
+     * @param i_Options         本次调用的选项。为 null 时用默认选项
+     * @return  成功返回 null。否则为异常信息
+     */
+    public String download(String i_RemoteFullName ,String i_SaveFullName ,long i_FileSize ,FTPOptions i_Options)
+    {
+        if ( i_FileSize <= 0 )
+        {
+            return this.download(i_RemoteFullName ,i_SaveFullName ,i_Options);
+        }
+        
+        return this.execute(i_Options ,v_FTPHelp -> v_FTPHelp.download(i_RemoteFullName ,i_SaveFullName ,i_FileSize) ,v_Error -> v_Error);
+    }
+    
+    
+    
+    /**
+     * 下载文件的字节内容（见 FTPHelp.downloadBytes(String)）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  下载失败返回 null
+     */
+    public byte [] downloadBytes(String i_RemoteFullName)
+    {
+        return this.downloadBytes(i_RemoteFullName ,null);
+    }
+    
+    
+    
+    /**
+     * 下载文件的字节内容（见 FTPHelp.downloadBytes(String)）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_Options         本次调用的选项。为 null 时用默认选项
+     * @return  下载失败返回 null
+     */
+    public byte [] downloadBytes(String i_RemoteFullName ,FTPOptions i_Options)
+    {
+        return this.execute(i_Options ,v_FTPHelp -> v_FTPHelp.downloadBytes(i_RemoteFullName) ,v_Error -> null);
+    }
+    
+    
+    
+    /**
+     * 删除文件（见 FTPHelp.deleteFile()）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return  成功返回 null。否则为异常信息
+     */
+    public String deleteFile(String i_RemoteFullName)
+    {
+        return this.execute(null ,v_FTPHelp -> v_FTPHelp.deleteFile(i_RemoteFullName) ,v_Error -> v_Error);
+    }
+    
+    
+    
+    /**
+     * 创建FTP目录。可连续创建多级目录（见 FTPHelp.makeDirectory()）
+     *
+     * @param i_DirFullName  目录的全路径名称
+     * @return  返回值表示创建的目录数量。连接异常时返回 -99
+     */
+    public int makeDirectory(String i_DirFullName)
+    {
+        return this.execute(null ,v_FTPHelp -> v_FTPHelp.makeDirectory(i_DirFullName) ,v_Error -> -99);
+    }
+    
+    
+    
+    /**
+     * 异步上传文件（见 FTPHelp.uploadAsync()）
+     *
+     * @param i_LocalFullName   本地文件的全路径
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_Options         本次调用的选项。为 null 时用默认选项
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> uploadAsync(String i_LocalFullName ,String i_RemoteFullName ,FTPOptions i_Options)
+    {
+        return this.newFTPHelp(i_Options).uploadAsync(i_LocalFullName ,i_RemoteFullName);
+    }
+    
+    
+    
+    /**
+     * 异步下载文件（见 FTPHelp.downloadAsync()）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @param i_SaveFullName    保存文件的全路径(下载路径)
+     * @param i_Options         本次调用的选项。为 null 时用默认选项
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> downloadAsync(String i_RemoteFullName ,String i_SaveFullName ,FTPOptions i_Options)
+    {
+        return this.newFTPHelp(i_Options).downloadAsync(i_RemoteFullName ,i_SaveFullName);
+    }
+    
+    
+    
+    /**
+     * 异步删除文件（见 FTPHelp.deleteAsync()）
+     *
+     * @param i_RemoteFullName  远程文件的全路径
+     * @return
+     */
+    public CompletableFuture<FTPTransferResult> deleteAsync(String i_RemoteFullName)
+    {
+        return this.newFTPHelp(null).deleteAsync(i_RemoteFullName);
+    }
+    
+    
+    
+    /**
+     * 借出连接并执行，执行后归还连接
+     *
+     * @param i_Options       本次调用的选项。为 null 时用默认选项
+     * @param i_Action        执行的动作
+     * @param i_ConnectError  连接异常时的返回值。入参为连接的异常信息
+     * @return
+     */
+    private <R> R execute(FTPOptions i_Options ,Function<FTPHelp ,R> i_Action ,Function<String ,R> i_ConnectError)
+    {
+        FTPHelp v_FTPHelp = this.newFTPHelp(i_Options);
+        String  v_Error   = v_FTPHelp.connect();
+        
+        if ( v_Error != null )
+        {
+            v_FTPHelp.close();
+            return i_ConnectError.apply(v_Error);
+        }
+        
+        try
+        {
+            return i_Action.apply(v_FTPHelp);
+        }
+        finally
+        {
+            v_FTPHelp.close();
+        }
+    }
+    
+    
+    
+    /**
+     * 新建本次调用的 FTPHelp（未连接的）
+     *
+     * @param i_Options  本次调用的选项。为 null 时用默认选项
+     * @return
+     */
+    private FTPHelp newFTPHelp(FTPOptions i_Options)
+    {
+        FTPHelp v_FTPHelp = new FTPHelp(this.ftpInfo ,this.ftpPool);
+        
+        (i_Options == null ? this.options : i_Options).applyTo(v_FTPHelp);
+        v_FTPHelp.setAsyncExecutor(this.asyncExecutor);
+        
+        return v_FTPHelp;
+    }
+    
+    
+    
+    /**
+     * 获取：FTP基础信息（克隆的）
+     */
+    public FTPInfo getFTPInfo()
+    {
+        return this.ftpInfo.clone();
+    }
+    
+    
+    
+    /**
+     * 获取：FTP连接池
+     */
+    public FTPConnectionPool getFTPPool()
+    {
+        return this.ftpPool;
+    }
+    
+    
+    
+    /**
+     * 获取：默认选项（复制的）。修改后须再调用 setOptions() 才生效
+     */
+    public FTPOptions getOptions()
+    {
+        return new FTPOptions(this.options);
+    }
+    
+    
+    
+    /**
+     * 设置：默认选项。复制一份，之后修改传入的对象不影响本服务
+     *
+     * @param options
+     */
+    public void setOptions(FTPOptions options)
+    {
+        this.options = options == null ? new FTPOptions() : new FTPOptions(options);
+    }
+    
+    
+    
+    /**
+     * 获取：执行异步传输的线程池
+     */
+    public Executor getAsyncExecutor()
+    {
+        return asyncExecutor;
+    }
+    
+    
+    
+    /**
+     * 设置：执行异步传输的线程池。为 null 时用全局共享的线程池（见 FTPExecutors）
+     *
+     * @param asyncExecutor
+     */
+    public void setAsyncExecutor(Executor asyncExecutor)
+    {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+}
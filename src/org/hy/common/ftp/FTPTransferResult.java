@@ -0,0 +1,174 @@
+package org.hy.common.ftp;
+
+import org.hy.common.Date;
+import org.hy.common.Help;
+
+
+
+
+
+/**
+ * 一个文件的传输结果
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPTransferResult
+{
+    
+    /**
+     * FTP的动作类型
+     *
+     * 1. 上传动作
+     * 2. 下载动作
+     * 3. 删除动作（无本地文件）
+     */
+    private int           actionType;
+    
+    /** 本地文件的全路径 */
+    private String        localFullName;
+    
+    /** 远程文件的全路径 */
+    private String        remoteFullName;
+    
+    /** 传输的大小（单位：Byte） */
+    private long          size;
+    
+    /** 异常信息。为 null 时表示传输成功 */
+    private String        error;
+    
+    /** 开始时间 */
+    private Date          beginTime;
+    
+    /** 结束时间。最后赋值，其它线程看到结束时间时，也能看到传输的大小及异常信息 */
+    private volatile Date endTime;
+    
+    
+    
+    public FTPTransferResult(int i_ActionType ,String i_LocalFullName ,String i_RemoteFullName)
+    {
+        this.actionType     = i_ActionType;
+        this.localFullName  = i_LocalFullName;
+        this.remoteFullName = i_RemoteFullName;
+        this.beginTime      = new Date();
+    }
+    
+    
+    
+    /**
+     * 开始传输（重置开始时间）
+     */
+    public void begin()
+    {
+        this.beginTime = new Date();
+    }
+    
+    
+    
+    /**
+     * 传输完成
+     *
+     * @param i_Size   传输的大小
+     * @param i_Error  异常信息。为 null 时表示传输成功
+     */
+    public void finish(long i_Size ,String i_Error)
+    {
+        this.size    = i_Size;
+        this.error   = i_Error;
+        this.endTime = new Date();
+    }
+    
+    
+    
+    /**
+     * 是否传输成功
+     *
+     * @return
+     */
+    public boolean isSucceed()
+    {
+        return this.endTime != null && Help.isNull(this.error);
+    }
+    
+    
+    
+    /**
+     * 传输用时（单位：毫秒）
+     *
+     * @return
+     */
+    public long getTimeLen()
+    {
+        if ( this.endTime == null )
+        {
+            return 0;
+        }
+        
+        return this.endTime.getTime() - this.beginTime.getTime();
+    }
+    
+    
+    
+    public int getActionType()
+    {
+        return actionType;
+    }
+    
+    
+    
+    public String getLocalFullName()
+    {
+        return localFullName;
+    }
+    
+    
+    
+    public String getRemoteFullName()
+    {
+        return remoteFullName;
+    }
+    
+    
+    
+    public long getSize()
+    {
+        return size;
+    }
+    
+    
+    
+    public String getError()
+    {
+        return error;
+    }
+    
+    
+    
+    public Date getBeginTime()
+    {
+        return beginTime;
+    }
+    
+    
+    
+    public Date getEndTime()
+    {
+        return endTime;
+    }
+    
+    
+    
+    @Override
+    public String toString()
+    {
+        if ( this.actionType == 3 )
+        {
+            return "Delete " + this.remoteFullName + " : " + (this.isSucceed() ? "OK" : this.error);
+        }
+        
+        return (this.actionType == 1 ? "Upload " : "Download ") + this.localFullName + " <-> " + this.remoteFullName
+             + " : " + (this.isSucceed() ? "OK" : this.error);
+    }
+
+}
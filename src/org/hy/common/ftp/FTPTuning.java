@@ -0,0 +1,259 @@
+package org.hy.common.ftp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.net.ftp.FTPClient;
+
+
+
+
+
+/**
+ * 数据连接的Socket缓存及拷贝缓存的自动调优（每个服务端一个，见 FTPInfo.setAutoTuning()）。
+ *
+ * 1. 往返时延（RTT）：每次新建连接时，用一次 NOOP 命令测量
+ * 2. 吞吐量：每次传输（不小于 $MinSampleSize，且未限速的）完成后，按网络上传输的大小及耗时计算
+ * 3. 带宽时延积（BDP） = 吞吐量 * 往返时延。
+ *    传输完成后，吞吐量已接近当前Socket缓存的上限（缓存 / 往返时延）时，说明受限于缓存，缓存加倍；
+ *    否则（及只更新往返时延时）Socket缓存为带宽时延积的 $Headroom 倍。拷贝缓存取带宽时延积。均取2的幂次并限定在上下限内
+ * 4. 学习到的值在本JVM内按服务端缓存，之后的每个数据连接（含连接池中已有的连接）均使用
+ *
+ * 注：操作系统对Socket缓存有上限（如 Linux 的 net.core.rmem_max、wmem_max），超出时按上限生效。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class FTPTuning
+{
+    
+    /** 计算吞吐量的最小传输大小（单位：Byte）。太小的传输的耗时主要是命令的往返，不反映带宽 */
+    public  static final long   $MinSampleSize    = 1024 * 1024;
+    
+    /** Socket缓存的下限（单位：Byte） */
+    public  static final int    $MinSocketBuffer  = 256 * 1024;
+    
+    /** Socket缓存的上限（单位：Byte） */
+    public  static final int    $MaxSocketBuffer  = 16 * 1024 * 1024;
+    
+    /** 拷贝缓存的下限（单位：Byte） */
+    public  static final int    $MinCopyBuffer    = 64 * 1024;
+    
+    /** 拷贝缓存的上限（单位：Byte） */
+    public  static final int    $MaxCopyBuffer    = 4 * 1024 * 1024;
+    
+    /** Socket缓存为带宽时延积的倍数 */
+    private static final int    $Headroom         = 4;
+    
+    /** 吞吐量达到缓存上限的此比例时，认为受限于缓存 */
+    private static final double $WindowLimited    = 0.8D;
+    
+    /** 指数移动平均中新值的权重 */
+    private static final double $Alpha            = 0.3D;
+    
+    /** 每个服务端的调优。Map.key 为 ip:port */
+    private static final Map<String ,FTPTuning> $Tunings = new ConcurrentHashMap<String ,FTPTuning>();
+    
+    
+    
+    /** 往返时延（单位：纳秒）。为 0 时表示还未测量 */
+    private double       rtt;
+    
+    /** 吞吐量（单位：Byte/秒）。为 0 时表示还未测量 */
+    private double       throughput;
+    
+    /** 调优后的Socket缓存大小（单位：Byte）。为 0 时表示还未调优，用 FTPInfo 的设置 */
+    private volatile int socketBufferSize;
+    
+    /** 调优后的拷贝缓存大小（单位：Byte）。为 0 时表示还未调优，用 FTPInfo 的设置 */
+    private volatile int transferBufferSize;
+    
+    
+    
+    /**
+     * 获取某一服务端的调优
+     *
+     * @param i_FTPInfo
+     * @return
+     */
+    public static FTPTuning getInstance(FTPInfo i_FTPInfo)
+    {
+        return $Tunings.computeIfAbsent(i_FTPInfo.getIp() + ":" + i_FTPInfo.getPort() ,k -> new FTPTuning());
+    }
+    
+    
+    
+    private FTPTuning()
+    {
+        this.reset();
+    }
+    
+    
+    
+    /**
+     * 记录一次往返时延
+     *
+     * @param i_Nanos  往返时延（单位：纳秒）
+     */
+    public synchronized void recordRtt(long i_Nanos)
+    {
+        if ( i_Nanos <= 0 )
+        {
+            return;
+        }
+        
+        this.rtt = this.rtt <= 0 ? i_Nanos : this.rtt + (i_Nanos - this.rtt) * $Alpha;
+        this.retune(false);
+    }
+    
+    
+    
+    /**
+     * 记录一次传输。小于 $MinSampleSize 的传输不计入
+     *
+     * @param i_WireSize  本次网络上传输的大小（单位：Byte）。续传时不含已有的部分
+     * @param i_Millis    耗时（单位：毫秒）
+     */
+    public synchronized void recordTransfer(long i_WireSize ,long i_Millis)
+    {
+        if ( i_WireSize < $MinSampleSize || i_Millis <= 0 )
+        {
+            return;
+        }
+        
+        double v_Throughput = i_WireSize * 1000D / i_Millis;
+        
+        this.throughput = this.throughput <= 0 ? v_Throughput : this.throughput + (v_Throughput - this.throughput) * $Alpha;
+        this.retune(true);
+    }
+    
+    
+    
+    /**
+     * 按往返时延及吞吐量，重新计算缓存的大小
+     *
+     * 只有新的传输样本才能说明加倍后的缓存是否仍受限，缓存才加倍。
+     * 只更新往返时延时（每次新建连接）只按带宽时延积计算，否则每次新建连接缓存都会加倍
+     *
+     * @param i_IsTransfer  是否为新的传输样本
+     */
+    private void retune(boolean i_IsTransfer)
+    {
+        if ( this.rtt <= 0 || this.throughput <= 0 )
+        {
+            return;
+        }
+        
+        double v_BDP     = this.throughput * this.rtt / 1000000000D;
+        int    v_Current = this.socketBufferSize > 0 ? this.socketBufferSize : $MinSocketBuffer;
+        double v_Target  = 0;
+        
+        if ( i_IsTransfer && this.throughput >= v_Current * 1000000000D / this.rtt * $WindowLimited )
+        {
+            // 受限于Socket缓存，加倍后再观察
+            v_Target = v_Current * 2D;
+        }
+        else
+        {
+            v_Target = v_BDP * $Headroom;
+        }
+        
+        this.socketBufferSize   = toPowerOfTwo(v_Target ,$MinSocketBuffer ,$MaxSocketBuffer);
+        this.transferBufferSize = toPowerOfTwo(v_BDP    ,$MinCopyBuffer   ,$MaxCopyBuffer);
+    }
+    
+    
+    
+    /**
+     * 设置连接的数据连接的Socket缓存（还未调优时不设置）
+     *
+     * @param io_FTPClient
+     */
+    void apply(FTPClient io_FTPClient)
+    {
+        int v_Size = this.socketBufferSize;
+        
+        if ( v_Size > 0 )
+        {
+            io_FTPClient.setSendDataSocketBufferSize(v_Size);
+            io_FTPClient.setReceieveDataSocketBufferSize(v_Size);
+        }
+    }
+    
+    
+    
+    /**
+     * 不小于 i_Value 的2的幂次，并限定在 [i_Min ,i_Max] 内
+     *
+     * @param i_Value
+     * @param i_Min
+     * @param i_Max
+     * @return
+     */
+    private static int toPowerOfTwo(double i_Value ,int i_Min ,int i_Max)
+    {
+        int v_Size = i_Min;
+        
+        while ( v_Size < i_Value && v_Size < i_Max )
+        {
+            v_Size <<= 1;
+        }
+        
+        return Math.min(v_Size ,i_Max);
+    }
+    
+    
+    
+    /**
+     * 清空学习到的值，重新调优
+     */
+    public synchronized void reset()
+    {
+        this.rtt                = 0;
+        this.throughput         = 0;
+        this.socketBufferSize   = 0;
+        this.transferBufferSize = 0;
+    }
+    
+    
+    
+    /**
+     * 获取：往返时延（单位：毫秒）。为 0 时表示还未测量
+     */
+    public synchronized double getRttMillis()
+    {
+        return this.rtt / 1000000D;
+    }
+    
+    
+    
+    /**
+     * 获取：吞吐量（单位：Byte/秒）。为 0 时表示还未测量
+     */
+    public synchronized double getThroughput()
+    {
+        return this.throughput;
+    }
+    
+    
+    
+    /**
+     * 获取：调优后的Socket缓存大小（单位：Byte）。为 0 时表示还未调优
+     */
+    public int getSocketBufferSize()
+    {
+        return this.socketBufferSize;
+    }
+    
+    
+    
+    /**
+     * 获取：调优后的拷贝缓存大小（单位：Byte）。为 0 时表示还未调优
+     */
+    public int getTransferBufferSize()
+    {
+        return this.transferBufferSize;
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.hy.common.ftp;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+
+
+
+/**
+ * 网络一侧的输入流：从数据连接读取后，就地解码（数据安全性、变换链），并统计网络上传输的大小及校验值。
+ * 读取后按网络上传输的大小限速（见 FTPRateLimiter）。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+class FTPWireInputStream extends FilterInputStream
+{
+    
+    protected final FTPHelp ftpHelp;
+    
+    /** 是否有数据变换。如果为真，将对读取的数据进行解码 */
+    private final boolean   isTransform;
+    
+    /** 已从数据连接读取的大小 */
+    private long            wireSize;
+    
+    /** 从数据连接读取的数据（解码前）的校验。可为 null */
+    protected final FTPChecksum checksum;
+    
+    
+    
+    FTPWireInputStream(FTPHelp i_FTPHelp ,InputStream i_Input ,FTPChecksum i_Checksum)
+    {
+        super(i_Input);
+        
+        this.ftpHelp     = i_FTPHelp;
+        this.isTransform = i_FTPHelp.hasTransform();
+        this.wireSize    = 0;
+        this.checksum    = i_Checksum;
+    }
+    
+    
+    
+    @Override
+    public int read() throws IOException
+    {
+        byte [] v_Byte = new byte[1];
+        int     v_RSize;
+        
+        while ( (v_RSize = this.read(v_Byte ,0 ,1)) == 0 )
+        {
+            // 继续读取
+        }
+        
+        return v_RSize < 0 ? -1 : v_Byte[0] & 0xFF;
+    }
+    
+    
+    
+    @Override
+    public int read(byte [] io_Bytes ,int i_Offset ,int i_Length) throws IOException
+    {
+        int v_RSize = super.read(io_Bytes ,i_Offset ,i_Length);
+        
+        if ( v_RSize > 0 )
+        {
+            this.ftpHelp.getRateLimiter().acquire(v_RSize);
+            
+            if ( this.checksum != null )
+            {
+                this.checksum.update(io_Bytes ,i_Offset ,v_RSize);
+            }
+            
+            if ( this.isTransform )
+            {
+                this.ftpHelp.decode(io_Bytes ,i_Offset ,v_RSize ,this.wireSize);
+            }
+            
+            this.wireSize += v_RSize;
+        }
+        
+        return v_RSize;
+    }
+    
+    
+    
+    @Override
+    public long skip(long i_Length) throws IOException
+    {
+        byte [] v_Buffer = new byte[(int)Math.min(Math.max(i_Length ,0) ,8192)];
+        long    v_Skip   = 0;
+        int     v_RSize  = 0;
+        
+        while ( v_Skip < i_Length && (v_RSize = this.read(v_Buffer ,0 ,(int)Math.min(v_Buffer.length ,i_Length - v_Skip))) >= 0 )
+        {
+            v_Skip += v_RSize;
+        }
+        
+        return v_Skip;
+    }
+    
+    
+    
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+    
+    
+    
+    /**
+     * 获取：已从数据连接读取的大小
+     */
+    public long getWireSize()
+    {
+        return this.wireSize;
+    }
+
+}
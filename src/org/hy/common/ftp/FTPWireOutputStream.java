@@ -0,0 +1,136 @@
+package org.hy.common.ftp;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+
+
+
+/**
+ * 网络一侧的输出流：写入数据连接前，就地编码（数据安全性、变换链），并统计网络上传输的大小及校验值。
+ * 写入前按网络上传输的大小限速（见 FTPRateLimiter）。
+ *
+ * 有数据变换时，数据先拷贝到本流的缓存中再编码，不改动调用者的数组。
+ * 本流不关闭数据连接的输出流，由调用者负责。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+class FTPWireOutputStream extends FilterOutputStream
+{
+    
+    protected final FTPHelp ftpHelp;
+    
+    /** 编码用的缓存。无数据变换时为 null */
+    private byte []         buffer;
+    
+    /** 已写入数据连接的大小 */
+    private long            wireSize;
+    
+    /** 数据在整个文件中的开始位置（续传时大于0）。用于数据变换 */
+    private long            position;
+    
+    /** 写入数据连接的数据（编码后）的校验。可为 null */
+    protected final FTPChecksum checksum;
+    
+    
+    
+    FTPWireOutputStream(FTPHelp i_FTPHelp ,OutputStream i_Output ,int i_BufferSize ,FTPChecksum i_Checksum)
+    {
+        super(i_Output);
+        
+        this.ftpHelp  = i_FTPHelp;
+        this.buffer   = i_FTPHelp.hasTransform() ? FTPBufferPool.getInstance().borrow(i_BufferSize) : null;
+        this.wireSize = 0;
+        this.position = 0;
+        this.checksum = i_Checksum;
+    }
+    
+    
+    
+    @Override
+    public void write(int i_Byte) throws IOException
+    {
+        this.write(new byte[] {(byte)i_Byte} ,0 ,1);
+    }
+    
+    
+    
+    @Override
+    public void write(byte [] i_Bytes ,int i_Offset ,int i_Length) throws IOException
+    {
+        if ( i_Length <= 0 )
+        {
+            return;
+        }
+        
+        if ( this.buffer != null )
+        {
+            int v_Done = 0;
+            
+            while ( v_Done < i_Length )
+            {
+                int v_Size = Math.min(this.buffer.length ,i_Length - v_Done);
+                
+                System.arraycopy(i_Bytes ,i_Offset + v_Done ,this.buffer ,0 ,v_Size);
+                this.ftpHelp.encode(this.buffer ,0 ,v_Size ,this.position + this.wireSize + v_Done);
+                if ( this.checksum != null )
+                {
+                    this.checksum.update(this.buffer ,0 ,v_Size);
+                }
+                this.ftpHelp.getRateLimiter().acquire(v_Size);
+                this.out.write(this.buffer ,0 ,v_Size);
+                
+                v_Done += v_Size;
+            }
+        }
+        else
+        {
+            if ( this.checksum != null )
+            {
+                this.checksum.update(i_Bytes ,i_Offset ,i_Length);
+            }
+            this.ftpHelp.getRateLimiter().acquire(i_Length);
+            this.out.write(i_Bytes ,i_Offset ,i_Length);
+        }
+        
+        this.wireSize += i_Length;
+    }
+    
+    
+    
+    /**
+     * 归还编码用的缓存（不关闭数据连接的输出流）
+     */
+    public void release()
+    {
+        FTPBufferPool.getInstance().giveBack(this.buffer);
+        this.buffer = null;
+    }
+    
+    
+    
+    /**
+     * 获取：已写入数据连接的大小
+     */
+    public long getWireSize()
+    {
+        return this.wireSize;
+    }
+
+    
+    
+    /**
+     * 设置：数据在整个文件中的开始位置（续传时大于0）。须在写入数据前设置
+     * 
+     * @param i_Position
+     */
+    void setPosition(long i_Position)
+    {
+        this.position = i_Position;
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.hy.common.ftp.event;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.hy.common.Date;
 
 
@@ -13,6 +15,11 @@ import org.hy.common.Date;
  *
  * @author   ZhengWei(HY)
  * @version  V1.0  2013-03-20
+ *           V2.0  2026-10-17  添加：1. 网络上传输的大小 wireSize 的设置方法
+ *                             添加：2. 传输数据的校验值 checksum 的设置方法
+ *                             添加：3. 传输中事件的节流、异步分发的合并及取消标记
+ *                             修正：4. 未知文件大小时，成功完成后已完成的大小被清零的问题
+ *                             添加：5. 续传时开始的位置 startSize 的设置方法
  */
 public class DefaultFTPEvent extends FTPEvent
 {
@@ -21,9 +28,24 @@ public class DefaultFTPEvent extends FTPEvent
     
     
     
+    /** 最后一次通知传输中事件时，已完成的大小 */
+    private transient long             processSize;
+    
+    /** 最后一次通知传输中事件的时间 */
+    private transient long             processTime;
+    
+    /** 异步分发的通知已提交、但还未执行 */
+    private transient AtomicBoolean    processPending;
+    
+    /** 已取消传输（异步分发时，由事件监听器的返回值标记） */
+    private transient volatile boolean cancel;
+    
+    
+    
     public DefaultFTPEvent(Object i_Source)
     {
         super(i_Source);
+        this.processPending = new AtomicBoolean(false);
     }
     
     
@@ -31,6 +53,7 @@ public class DefaultFTPEvent extends FTPEvent
     public DefaultFTPEvent(Object i_Source ,long i_FileSize)
     {
         super(i_Source ,i_FileSize);
+        this.processPending = new AtomicBoolean(false);
     }
 
     
@@ -84,13 +107,136 @@ public class DefaultFTPEvent extends FTPEvent
     
     
     
+    public void setWireSize(long i_WireSize)
+    {
+        this.wireSize = i_WireSize;
+    }
+    
+    
+    
+    public void setChecksum(String i_Checksum)
+    {
+        this.checksum = i_Checksum;
+    }
+    
+    
+    
+    public void setStartSize(long i_StartSize)
+    {
+        this.startSize = i_StartSize;
+    }
+    
+    
+    
+    /**
+     * 是否到了通知传输中事件的时候（节流）。到了时，同时记录本次通知的大小及时间。
+     * 
+     * 距上次通知已完成的大小、及时长均达到下限时才通知。传输完成的最后一次总是通知
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @param i_MinSize      两次通知间已完成大小的下限（单位：Byte）。小于等于0表示不限制
+     * @param i_MinInterval  两次通知间时长的下限（单位：毫秒）。小于等于0表示不限制
+     * @return
+     */
+    public boolean isProcessDue(long i_MinSize ,long i_MinInterval)
+    {
+        long v_CompleteSize = this.getCompletedSize();
+        long v_Now          = i_MinInterval > 0 ? System.currentTimeMillis() : 0L;
+        
+        if ( v_CompleteSize < this.getSize() || this.getSize() <= 0 )
+        {
+            if ( i_MinSize > 0 && v_CompleteSize - this.processSize < i_MinSize )
+            {
+                return false;
+            }
+            
+            if ( i_MinInterval > 0 && v_Now - this.processTime < i_MinInterval )
+            {
+                return false;
+            }
+        }
+        
+        this.processSize = v_CompleteSize;
+        this.processTime = v_Now;
+        return true;
+    }
+    
+    
+    
+    /**
+     * 标记异步分发的通知已提交
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return  上次提交的通知还未执行时返回 false
+     */
+    public boolean lockProcess()
+    {
+        return this.processPending.compareAndSet(false ,true);
+    }
+    
+    
+    
+    /**
+     * 标记异步分发的通知已开始执行（之后的进度可再次提交通知）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     */
+    public void unlockProcess()
+    {
+        this.processPending.set(false);
+    }
+    
+    
+    
+    /**
+     * 是否已取消传输
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    public boolean isCancel()
+    {
+        return this.cancel;
+    }
+    
+    
+    
+    /**
+     * 取消传输。传输线程在下次传输中事件时停止传输
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     */
+    public void setCancel()
+    {
+        this.cancel = true;
+    }
+    
+    
+    
     /**
-     * 成功完成
+     * 成功完成。未知文件大小（为0）时，保留已完成的大小
      */
     public void setSucceedFinish()
     {
         this.setEndTime();
-        this.setCompleteSize(this.getSize());
+        
+        if ( this.getSize() > 0 )
+        {
+            this.setCompleteSize(this.getSize());
+        }
     }
     
 }
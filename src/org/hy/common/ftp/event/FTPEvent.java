@@ -13,6 +13,9 @@ import org.hy.common.BaseEvent;
  *
  * @author   ZhengWei(HY)
  * @version  V1.0  2013-03-20
+ *           V2.0  2026-10-17  添加：1. 网络上传输的大小 wireSize（传输时压缩，或有数据变换时）
+ *                             添加：2. 传输数据的校验值 checksum
+ *                             添加：3. 续传时开始的位置 startSize，及本次网络上传输的大小
  */
 public class FTPEvent extends BaseEvent
 {
@@ -25,13 +28,33 @@ public class FTPEvent extends BaseEvent
      * 1. 上传动作
      * 2. 下载动作
      */
-    protected int actionType;
+    protected int    actionType;
+    
+    /**
+     * 网络上传输的大小（单位：Byte）
+     * 
+     * 小于0时，表示与已完成的大小相同（即传输时未压缩）
+     */
+    protected long   wireSize;
+    
+    /**
+     * 网络上传输的数据的校验值（大写的十六进制）
+     * 
+     * 未开启校验（FTPHelp.setChecksumType()）时为 null
+     */
+    protected String checksum;
+    
+    /**
+     * 续传时开始的位置（单位：Byte），即已完成的大小的初始值。不是续传时为 0
+     */
+    protected long   startSize;
     
     
     
     public FTPEvent(Object i_Source)
     {
         super(i_Source);
+        this.wireSize = -1;
     }
     
     
@@ -39,6 +62,7 @@ public class FTPEvent extends BaseEvent
     public FTPEvent(Object i_Source, long i_Size)
     {
         super(i_Source, i_Size);
+        this.wireSize = -1;
     }
     
     
@@ -48,4 +72,95 @@ public class FTPEvent extends BaseEvent
         return this.actionType;
     }
     
+    
+    
+    /**
+     * 获取：网络上传输的大小（单位：Byte）。
+     * 
+     * 而 getCompletedSize() 为压缩前（原始内容）已完成的大小
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    public long getWireSize()
+    {
+        return this.wireSize < 0 ? this.getCompletedSize() : this.wireSize;
+    }
+    
+    
+    
+    /**
+     * 获取：续传时开始的位置（单位：Byte）。不是续传时为 0
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    public long getStartSize()
+    {
+        return this.startSize;
+    }
+    
+    
+    
+    /**
+     * 获取：本次网络上传输的大小（单位：Byte）。
+     * 
+     * 与 getWireSize() 不同的是，不含续传前已有的部分（startSize）
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    public long getTransferSize()
+    {
+        return this.wireSize < 0 ? Math.max(this.getCompletedSize() - this.startSize ,0L) : this.wireSize;
+    }
+    
+    
+    
+    /**
+     * 获取：压缩比，即原始内容的大小与网络上传输的大小之比。未压缩时为 1
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    public double getCompressRatio()
+    {
+        long v_WireSize = this.getWireSize();
+        
+        if ( v_WireSize <= 0 )
+        {
+            return 1D;
+        }
+        
+        return this.getCompletedSize() * 1D / v_WireSize;
+    }
+    
+    
+    
+    /**
+     * 获取：网络上传输的数据的校验值（大写的十六进制）。传输完成后才有值
+     * 
+     * @author      ZhengWei(HY)
+     * @createDate  2026-10-17
+     * @version     v1.0
+     * 
+     * @return
+     */
+    public String getChecksum()
+    {
+        return this.checksum;
+    }
+    
 }
@@ -0,0 +1,44 @@
+package org.hy.common.ftp.transform;
+
+
+
+
+
+/**
+ * 传输数据的变换接口（如加密、解密）。
+ *
+ * 变换在传输用的缓存上就地进行，变换前后数据的长度不变，每次变换不应再新建数组。
+ * 多个变换组成变换链（见 TransferTransformChain），上传时依次编码，下载时逆序解码。
+ *
+ * 注：同一变换会被多个线程同时调用，须是线程安全的。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public interface TransferTransform
+{
+    
+    /**
+     * 上传前，就地编码缓存中的数据
+     * 
+     * @param io_Buffer    传输用的缓存
+     * @param i_Offset     数据在缓存中的开始位置
+     * @param i_Length     数据的长度
+     * @param i_Position   数据在整个文件中的开始位置
+     */
+    public void encode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position);
+    
+    
+    
+    /**
+     * 下载后，就地解码缓存中的数据
+     * 
+     * @param io_Buffer    传输用的缓存
+     * @param i_Offset     数据在缓存中的开始位置
+     * @param i_Length     数据的长度
+     * @param i_Position   数据在整个文件中的开始位置
+     */
+    public void decode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position);
+
+}
@@ -0,0 +1,104 @@
+package org.hy.common.ftp.transform;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+
+
+
+/**
+ * 传输数据的变换链。
+ *
+ * 上传时按添加的顺序依次编码，下载时按相反的顺序依次解码。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class TransferTransformChain implements TransferTransform
+{
+    
+    private final List<TransferTransform> transforms;
+    
+    
+    
+    public TransferTransformChain()
+    {
+        this.transforms = new CopyOnWriteArrayList<TransferTransform>();
+    }
+    
+    
+    
+    /**
+     * 添加变换（添加到链尾，即最后编码、最先解码）
+     * 
+     * @param i_Transform
+     */
+    public void add(TransferTransform i_Transform)
+    {
+        if ( i_Transform != null )
+        {
+            this.transforms.add(i_Transform);
+        }
+    }
+    
+    
+    
+    /**
+     * 移除变换
+     * 
+     * @param i_Transform
+     */
+    public void remove(TransferTransform i_Transform)
+    {
+        this.transforms.remove(i_Transform);
+    }
+    
+    
+    
+    /**
+     * 变换链是否为空
+     * 
+     * @return
+     */
+    public boolean isEmpty()
+    {
+        return this.transforms.isEmpty();
+    }
+    
+    
+    
+    /**
+     * 获取：所有变换（只读的快照）
+     */
+    public List<TransferTransform> getTransforms()
+    {
+        return new CopyOnWriteArrayList<TransferTransform>(this.transforms);
+    }
+    
+    
+    
+    @Override
+    public void encode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position)
+    {
+        for (TransferTransform v_Transform : this.transforms)
+        {
+            v_Transform.encode(io_Buffer ,i_Offset ,i_Length ,i_Position);
+        }
+    }
+    
+    
+    
+    @Override
+    public void decode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position)
+    {
+        Object [] v_Transforms = this.transforms.toArray();
+        
+        for (int x=v_Transforms.length - 1; x>=0; x--)
+        {
+            ((TransferTransform)v_Transforms[x]).decode(io_Buffer ,i_Offset ,i_Length ,i_Position);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.hy.common.ftp.transform;
+
+import org.hy.common.ByteHelp;
+
+
+
+
+
+/**
+ * 内置的数据安全性变换：与 FTPHelp.setDataSafe(true) 的加密方式相同（ByteHelp.xorMV），
+ * 与历史上传的加密文件可互相解密。
+ *
+ * 历史的加密与解密按各自读取到的数据块分别调用 xorMV()，两端数据块的大小并不相同，
+ * 所以本类假定：xorMV() 逐字节变换，每个字节的结果只与该字节的值有关，与它在数组中的位置、
+ * 数组的长度及偏移量均无关。据此，在类加载时用 xorMV() 生成一张256项的变换表，之后就地查表变换，不再新建数组。
+ *
+ * 生成变换表时，用多种长度、偏移量的样本数据校验此假定。不成立时类加载失败（IllegalStateException），
+ * 而不是静默地退回逐块调用 xorMV()：此时按块加密的历史文件本身也无法可靠地解密。
+ *
+ * 异或变换是对称的，编码与解码相同。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public final class XorTransform implements TransferTransform
+{
+    
+    private static final XorTransform $Instance = new XorTransform();
+    
+    
+    
+    /** 每个字节值的变换结果 */
+    private final byte [] table;
+    
+    
+    
+    /**
+     * 获取全局共享的实例（无状态的）
+     * 
+     * @return
+     */
+    public static XorTransform getInstance()
+    {
+        return $Instance;
+    }
+    
+    
+    
+    private XorTransform()
+    {
+        this.table = makeTable();
+    }
+    
+    
+    
+    /**
+     * 用 xorMV() 生成变换表，并用多种长度、偏移量的样本数据校验变换与位置无关
+     * 
+     * @return
+     * @throws IllegalStateException  xorMV() 的变换与字节的位置有关时
+     */
+    private static byte [] makeTable()
+    {
+        byte [] v_Bytes = new byte[256];
+        
+        for (int x=0; x<256; x++)
+        {
+            v_Bytes[x] = (byte)x;
+        }
+        
+        byte [] v_Table = new byte[256];
+        System.arraycopy(ByteHelp.xorMV(v_Bytes ,0 ,256) ,0 ,v_Table ,0 ,256);
+        
+        // 样本的长度含奇数、非2的幂及超过256的，偏移量含非0的
+        int [] v_Lengths = {1 ,7 ,255 ,257 ,1000 ,4099};
+        int [] v_Offsets = {0 ,1 ,13};
+        
+        for (int v_Length : v_Lengths)
+        {
+            for (int v_Offset : v_Offsets)
+            {
+                byte [] v_Sample = new byte[v_Offset + v_Length];
+                
+                for (int x=0; x<v_Sample.length; x++)
+                {
+                    v_Sample[x] = (byte)(x * 31 + v_Length);
+                }
+                
+                byte [] v_Check = ByteHelp.xorMV(v_Sample ,v_Offset ,v_Length);
+                
+                for (int x=0; x<v_Length; x++)
+                {
+                    if ( v_Check[x] != v_Table[v_Sample[v_Offset + x] & 0xFF] )
+                    {
+                        throw new IllegalStateException("ByteHelp.xorMV() is not byte-wise: length=" + v_Length + " ,offset=" + v_Offset + " ,index=" + x + ".");
+                    }
+                }
+            }
+        }
+        
+        return v_Table;
+    }
+    
+    
+    
+    @Override
+    public void encode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position)
+    {
+        this.xor(io_Buffer ,i_Offset ,i_Length);
+    }
+    
+    
+    
+    @Override
+    public void decode(byte [] io_Buffer ,int i_Offset ,int i_Length ,long i_Position)
+    {
+        this.xor(io_Buffer ,i_Offset ,i_Length);
+    }
+    
+    
+    
+    /**
+     * 就地异或
+     * 
+     * @param io_Buffer
+     * @param i_Offset
+     * @param i_Length
+     */
+    private void xor(byte [] io_Buffer ,int i_Offset ,int i_Length)
+    {
+        if ( i_Length <= 0 )
+        {
+            return;
+        }
+        
+        byte [] v_Table = this.table;
+        int     v_End   = i_Offset + i_Length;
+        
+        for (int x=i_Offset; x<v_End; x++)
+        {
+            io_Buffer[x] = v_Table[io_Buffer[x] & 0xFF];
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPRateLimiter;
+import org.hy.common.ftp.FTPTransferResult;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 异步的上传、下载及删除：传输结果、开始前及传输中的取消，及线程池拒绝执行
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Async extends LoopbackFTPTestCase
+{
+    
+    private static byte [] $Data;
+    
+    private static File    $Local;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data  = new byte[4 * 1024 * 1024];
+        $Local = new File($LocalDir ,"data.bin");
+        
+        new Random(20).nextBytes($Data);
+        Files.write($Local.toPath() ,$Data);
+    }
+    
+    
+    
+    /**
+     * 上传、下载、删除依次异步执行，传输结果带有大小及起止时间
+     */
+    @Test
+    public void test_UploadDownloadDelete() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        File    v_Save    = new File($LocalDir ,"async.save");
+        
+        FTPTransferResult v_Upload = v_FTPHelp.uploadAsync($Local.getPath() ,"/async/data.bin").join();
+        assertTrue(v_Upload.getError() ,v_Upload.isSucceed());
+        assertEquals(1            ,v_Upload.getActionType());
+        assertEquals($Data.length ,v_Upload.getSize());
+        assertNotNull(v_Upload.getBeginTime());
+        assertNotNull(v_Upload.getEndTime());
+        assertArrayEquals($Data ,Files.readAllBytes(remoteFile("async/data.bin").toPath()));
+        
+        FTPTransferResult v_Download = v_FTPHelp.downloadAsync("/async/data.bin" ,v_Save.getPath()).join();
+        assertTrue(v_Download.getError() ,v_Download.isSucceed());
+        assertEquals(2 ,v_Download.getActionType());
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+        
+        FTPTransferResult v_Delete = v_FTPHelp.deleteAsync("/async/data.bin").join();
+        assertTrue(v_Delete.getError() ,v_Delete.isSucceed());
+        assertFalse(remoteFile("async/data.bin").exists());
+    }
+    
+    
+    
+    /**
+     * 传输失败时 Future 也是正常完成的，由传输结果判定
+     */
+    @Test
+    public void test_Failed()
+    {
+        FTPHelp           v_FTPHelp = new FTPHelp($FTPInfo);
+        FTPTransferResult v_Result  = v_FTPHelp.downloadAsync("/async/missing.bin" ,new File($LocalDir ,"missing.save").getPath()).join();
+        
+        assertFalse(v_Result.isSucceed());
+        assertNotNull(v_Result.getError());
+    }
+    
+    
+    
+    /**
+     * 开始前取消：不再执行
+     */
+    @Test
+    public void test_CancelBeforeStart()
+    {
+        FTPHelp        v_FTPHelp = new FTPHelp($FTPInfo);
+        List<Runnable> v_Pending = new CopyOnWriteArrayList<Runnable>();
+        
+        v_FTPHelp.setAsyncExecutor(v_Pending::add);
+        
+        CompletableFuture<FTPTransferResult> v_Future = v_FTPHelp.uploadAsync($Local.getPath() ,"/async/before.bin");
+        assertTrue(v_Future.cancel(true));
+        
+        v_Pending.get(0).run();
+        assertFalse(remoteFile("async/before.bin").exists());
+    }
+    
+    
+    
+    /**
+     * 传输中取消：在之后的传输中事件时中止传输，不等传完
+     */
+    @Test
+    public void test_CancelRunning() throws InterruptedException
+    {
+        FTPHelp      v_FTPHelp = new FTPHelp($FTPInfo);
+        List<Thread> v_Threads = new CopyOnWriteArrayList<Thread>();
+        File         v_Remote  = remoteFile("async/running.bin");
+        
+        // 限速让传输持续约4秒
+        v_FTPHelp.setRateLimiter(new FTPRateLimiter(1024 * 1024));
+        v_FTPHelp.setAsyncExecutor(v_Runnable ->
+        {
+            Thread v_Thread = new Thread(v_Runnable);
+            v_Threads.add(v_Thread);
+            v_Thread.start();
+        });
+        
+        CompletableFuture<FTPTransferResult> v_Future = v_FTPHelp.uploadAsync($Local.getPath() ,"/async/running.bin");
+        
+        for (int x=0; x<200 && v_Remote.length() <= 0; x++)
+        {
+            Thread.sleep(10);
+        }
+        assertTrue(v_Future.cancel(true));
+        
+        v_Threads.get(0).join(3000);
+        assertFalse(v_Threads.get(0).isAlive());
+        assertTrue(v_Future.isCancelled());
+        assertTrue(v_Remote.length() < $Data.length);
+    }
+    
+    
+    
+    /**
+     * 线程池拒绝执行时，Future 立即以失败的传输结果完成
+     */
+    @Test
+    public void test_Rejected()
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        v_FTPHelp.setAsyncExecutor(v_Runnable ->
+        {
+            throw new RejectedExecutionException("Queue is full.");
+        });
+        
+        FTPTransferResult v_Result = v_FTPHelp.deleteAsync("/async/any.bin").getNow(null);
+        assertNotNull(v_Result);
+        assertFalse(v_Result.isSucceed());
+        assertNotNull(v_Result.getEndTime());
+    }
+
+}
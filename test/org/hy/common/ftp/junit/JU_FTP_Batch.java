@@ -0,0 +1,169 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hy.common.ftp.FTPBatch;
+import org.hy.common.ftp.FTPBatchResult;
+import org.hy.common.ftp.FTPConnectionPool;
+import org.hy.common.ftp.FTPTransferResult;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 批量传输的汇总进度：失败文件的大小不计入已完成的大小。及调用线程被中断时，正在传输的文件由工作线程记录其结果
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Batch extends LoopbackFTPTestCase
+{
+    
+    @Test
+    public void test_UploadWithFailure() throws IOException
+    {
+        File                v_Good  = new File($LocalDir ,"good.bin");
+        File                v_Bad   = new File($LocalDir ,"bad.bin");
+        Map<String ,String> v_Files = new LinkedHashMap<String ,String>();
+        AtomicLong          v_Last  = new AtomicLong(-1);
+        
+        Files.write(v_Good.toPath() ,new byte[100000]);
+        Files.write(v_Bad .toPath() ,new byte[50000]);
+        v_Files.put(v_Good.getPath() ,"/batch/good.bin");
+        // 远程的上级目录是已上传的文件，上传失败。本地文件的大小不应计入已完成的大小
+        v_Files.put(v_Bad .getPath() ,"/batch/good.bin/bad.bin");
+        
+        FTPConnectionPool v_Pool  = new FTPConnectionPool();
+        FTPBatch          v_Batch = new FTPBatch($FTPInfo ,1 ,v_Pool);
+        
+        v_Pool.setEvictInterval(0);
+        v_Batch.addBatchListener(new FTPListener()
+        {
+            @Override
+            public boolean ftpBefore(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public boolean ftpProcess(FTPEvent e)
+            {
+                v_Last.set(e.getCompletedSize());
+                return true;
+            }
+            
+            @Override
+            public void ftpAfter(FTPEvent e)
+            {
+                // Nothing.
+            }
+        });
+        
+        FTPBatchResult v_Result = v_Batch.uploadAll(v_Files);
+        
+        assertEquals(1 ,v_Result.getSucceedCount());
+        assertEquals(1 ,v_Result.getFailCount());
+        assertEquals(100000 ,v_Result.getTotalSize());
+        assertEquals(100000 ,v_Last.get());
+        v_Pool.close();
+    }
+
+    
+    
+    /**
+     * 调用线程被中断时不再等待。未开始的文件标记为已取消，正在传输的文件不被改写，由其工作线程传输完成后记录
+     */
+    @Test
+    public void test_Interrupt() throws Exception
+    {
+        Map<String ,String>             v_Files   = new LinkedHashMap<String ,String>();
+        CountDownLatch                  v_Started = new CountDownLatch(1);
+        CountDownLatch                  v_Release = new CountDownLatch(1);
+        AtomicReference<FTPBatchResult> v_Result  = new AtomicReference<FTPBatchResult>();
+        
+        for (int x=0; x<3; x++)
+        {
+            File v_File = new File($LocalDir ,"interrupt" + x + ".bin");
+            
+            Files.write(v_File.toPath() ,new byte[10000]);
+            v_Files.put(v_File.getPath() ,"/batch/interrupt" + x + ".bin");
+        }
+        
+        FTPBatch v_Batch = new FTPBatch($FTPInfo ,1);
+        
+        v_Batch.addFTPListener(new FTPListener()
+        {
+            @Override
+            public boolean ftpBefore(FTPEvent e)
+            {
+                v_Started.countDown();
+                
+                // 工作线程被中断后仍继续等待，确保调用线程返回时此文件仍在传输中
+                while ( true )
+                {
+                    try
+                    {
+                        return v_Release.await(10 ,TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException exce)
+                    {
+                        // 继续等待
+                    }
+                }
+            }
+            
+            @Override
+            public boolean ftpProcess(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public void ftpAfter(FTPEvent e)
+            {
+                // Nothing.
+            }
+        });
+        
+        Thread v_Caller = new Thread(() -> v_Result.set(v_Batch.uploadAll(v_Files)));
+        v_Caller.start();
+        
+        assertTrue(v_Started.await(5 ,TimeUnit.SECONDS));
+        v_Caller.interrupt();
+        v_Caller.join(5000);
+        assertFalse(v_Caller.isAlive());
+        
+        List<FTPTransferResult> v_Tasks = v_Result.get().getResults();
+        
+        assertNull(v_Tasks.get(0).getEndTime());
+        assertEquals("Batch is canceled." ,v_Tasks.get(1).getError());
+        assertEquals("Batch is canceled." ,v_Tasks.get(2).getError());
+        
+        v_Release.countDown();
+        for (int x=0; x<100 && v_Tasks.get(0).getEndTime() == null; x++)
+        {
+            Thread.sleep(50);
+        }
+        
+        assertTrue(v_Tasks.get(0).isSucceed());
+        assertTrue(remoteFile("batch/interrupt0.bin").isFile());
+        assertFalse(remoteFile("batch/interrupt1.bin").exists());
+    }
+
+}
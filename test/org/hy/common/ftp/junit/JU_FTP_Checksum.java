@@ -0,0 +1,175 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.hy.common.ftp.FTPChecksum;
+import org.hy.common.ftp.FTPHelp;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+
+
+
+
+/**
+ * 传输时计算的校验值、与服务端的校验，及上传前与服务端文件一致时跳过上传
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class JU_FTP_Checksum extends LoopbackFTPTestCase
+{
+    
+    private static byte [] $Data;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data = new byte[1234567];
+        
+        new Random(11).nextBytes($Data);
+        Files.write(new File($LocalDir ,"data.bin").toPath() ,$Data);
+    }
+    
+    
+    
+    private static String crc32(byte [] i_Data)
+    {
+        CRC32 v_CRC = new CRC32();
+        
+        v_CRC.update(i_Data);
+        return String.format("%08X" ,v_CRC.getValue());
+    }
+    
+    
+    
+    private static String md5(byte [] i_Data) throws Exception
+    {
+        StringBuilder v_Buffer = new StringBuilder();
+        
+        for (byte v_Byte : MessageDigest.getInstance("MD5").digest(i_Data))
+        {
+            v_Buffer.append(String.format("%02X" ,v_Byte));
+        }
+        
+        return v_Buffer.toString();
+    }
+    
+    
+    
+    /**
+     * 上传时计算的校验值与本地计算的一致，并与服务端校验通过
+     */
+    @Test
+    public void test_01_UploadCRC32()
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        v_FTPHelp.setChecksumType(FTPChecksum.$CRC32);
+        v_FTPHelp.setChecksumVerify(true);
+        assertNull(v_FTPHelp.connect());
+        
+        assertNull(v_FTPHelp.upload(new File($LocalDir ,"data.bin").getPath() ,"/sum/data.bin"));
+        assertEquals(crc32($Data) ,v_FTPHelp.getLastChecksum());
+        assertEquals(crc32($Data) ,v_FTPHelp.getRemoteChecksum("/sum/data.bin" ,FTPChecksum.$CRC32));
+        
+        v_FTPHelp.close();
+    }
+    
+    
+    
+    /**
+     * 下载时计算的校验值与本地计算的一致，并与服务端校验通过
+     */
+    @Test
+    public void test_02_DownloadMD5() throws Exception
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        File    v_Save    = new File($LocalDir ,"down.bin");
+        
+        v_FTPHelp.setChecksumType(FTPChecksum.$MD5);
+        v_FTPHelp.setChecksumVerify(true);
+        assertNull(v_FTPHelp.connect());
+        
+        assertNull(v_FTPHelp.download("/sum/data.bin" ,v_Save.getPath()));
+        assertEquals(md5($Data) ,v_FTPHelp.getLastChecksum());
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+        
+        v_FTPHelp.close();
+    }
+    
+    
+    
+    /**
+     * 服务端的文件一致时不再上传；本地文件变化后重新上传
+     */
+    @Test
+    public void test_03_SkipIfIdentical() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        File    v_Local   = new File($LocalDir ,"skip.bin");
+        File    v_Remote  = remoteFile("sum/skip.bin");
+        byte [] v_Data    = $Data.clone();
+        
+        Files.write(v_Local.toPath() ,v_Data);
+        v_FTPHelp.setSkipIfIdentical(true);
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.upload(v_Local.getPath() ,"/sum/skip.bin"));
+        
+        v_Remote.setLastModified(1000000000L);
+        assertNull(v_FTPHelp.upload(v_Local.getPath() ,"/sum/skip.bin"));
+        assertEquals(1000000000L ,v_Remote.lastModified());
+        
+        v_Data[100] ^= 1;
+        Files.write(v_Local.toPath() ,v_Data);
+        assertNull(v_FTPHelp.upload(v_Local.getPath() ,"/sum/skip.bin"));
+        assertNotEquals(1000000000L ,v_Remote.lastModified());
+        assertArrayEquals(v_Data ,Files.readAllBytes(v_Remote.toPath()));
+        
+        v_FTPHelp.close();
+    }
+    
+    
+    
+    /**
+     * 数据加密时，按服务端保存的（加密后的）数据比较
+     */
+    @Test
+    public void test_04_SkipIfIdenticalDataSafe() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        File    v_Local   = new File($LocalDir ,"data.bin");
+        File    v_Remote  = remoteFile("sum/safe.bin");
+        File    v_Save    = new File($LocalDir ,"safe.bin");
+        
+        v_FTPHelp.setDataSafe(true);
+        v_FTPHelp.setSkipIfIdentical(true);
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.upload(v_Local.getPath() ,"/sum/safe.bin"));
+        assertFalse(Arrays.equals($Data ,Files.readAllBytes(v_Remote.toPath())));
+        
+        v_Remote.setLastModified(1000000000L);
+        assertNull(v_FTPHelp.upload(v_Local.getPath() ,"/sum/safe.bin"));
+        assertEquals(1000000000L ,v_Remote.lastModified());
+        
+        assertNull(v_FTPHelp.download("/sum/safe.bin" ,v_Save.getPath()));
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+        
+        v_FTPHelp.close();
+    }
+
+}
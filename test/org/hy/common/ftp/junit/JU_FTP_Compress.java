@@ -0,0 +1,195 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.hy.common.ftp.FTPHelp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 传输时压缩：上传压缩、下载解压的往返，已压缩过的内容原样传输，及损坏的GZIP尾部
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Compress extends LoopbackFTPTestCase
+{
+    
+    /** 可压缩的内容 */
+    private static byte [] $Text;
+    
+    private static File    $Local;
+    
+    private FTPHelp        ftpHelp;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        StringBuilder v_Text   = new StringBuilder();
+        Random        v_Random = new Random(10);
+        
+        while ( v_Text.length() < 2 * 1024 * 1024 )
+        {
+            v_Text.append("line ").append(v_Random.nextInt(1000)).append(" of the compressible text.\n");
+        }
+        
+        $Text  = v_Text.toString().getBytes("UTF-8");
+        $Local = new File($LocalDir ,"text.txt");
+        
+        Files.write($Local.toPath() ,$Text);
+    }
+    
+    
+    
+    @Before
+    public void connect()
+    {
+        this.ftpHelp = new FTPHelp($FTPInfo);
+        this.ftpHelp.setCompress(true);
+        assertNull(this.ftpHelp.connect());
+    }
+    
+    
+    
+    @After
+    public void close()
+    {
+        this.ftpHelp.close();
+    }
+    
+    
+    
+    private static byte [] gunzip(byte [] i_Data) throws IOException
+    {
+        ByteArrayOutputStream v_Output = new ByteArrayOutputStream();
+        InputStream           v_Input  = new GZIPInputStream(new ByteArrayInputStream(i_Data));
+        byte []               v_Buffer = new byte[8192];
+        int                   v_RSize  = 0;
+        
+        while ( (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+        {
+            v_Output.write(v_Buffer ,0 ,v_RSize);
+        }
+        v_Input.close();
+        
+        return v_Output.toByteArray();
+    }
+    
+    
+    
+    /**
+     * 上传时压缩，服务端是标准的GZIP文件；开启压缩的下载还原原始内容，未开启的下载得到GZIP文件
+     */
+    @Test
+    public void test_RoundTrip() throws IOException
+    {
+        File v_Save = new File($LocalDir ,"text.save");
+        
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/compress/text.txt"));
+        
+        byte [] v_Remote = Files.readAllBytes(remoteFile("compress/text.txt").toPath());
+        assertTrue(v_Remote.length < $Text.length / 2);
+        assertArrayEquals($Text ,gunzip(v_Remote));
+        
+        assertNull(this.ftpHelp.download("/compress/text.txt" ,v_Save.getPath()));
+        assertArrayEquals($Text ,Files.readAllBytes(v_Save.toPath()));
+        
+        FTPHelp v_Plain = new FTPHelp($FTPInfo);
+        assertNull(v_Plain.connect());
+        assertArrayEquals(v_Remote ,v_Plain.downloadBytes("/compress/text.txt"));
+        v_Plain.close();
+    }
+    
+    
+    
+    /**
+     * 数据流的读写也压缩、解压
+     */
+    @Test
+    public void test_Stream() throws IOException
+    {
+        OutputStream v_Output = this.ftpHelp.openWrite("/compress/stream.txt" ,false);
+        v_Output.write($Text);
+        v_Output.close();
+        
+        assertArrayEquals($Text ,gunzip(Files.readAllBytes(remoteFile("compress/stream.txt").toPath())));
+        
+        InputStream           v_Input  = this.ftpHelp.openRead("/compress/stream.txt");
+        ByteArrayOutputStream v_Bytes  = new ByteArrayOutputStream();
+        byte []               v_Buffer = new byte[8192];
+        int                   v_RSize  = 0;
+        
+        while ( (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+        {
+            v_Bytes.write(v_Buffer ,0 ,v_RSize);
+        }
+        v_Input.close();
+        
+        assertArrayEquals($Text ,v_Bytes.toByteArray());
+    }
+    
+    
+    
+    /**
+     * 用户原本的 .gz 文件：上传时不再压缩，下载时不解压（没有 HY 标记）
+     */
+    @Test
+    public void test_AlreadyCompressed() throws IOException
+    {
+        ByteArrayOutputStream v_Bytes = new ByteArrayOutputStream();
+        GZIPOutputStream      v_GZip  = new GZIPOutputStream(v_Bytes);
+        File                  v_Local = new File($LocalDir ,"user.gz");
+        File                  v_Save  = new File($LocalDir ,"user.save");
+        
+        v_GZip.write($Text);
+        v_GZip.close();
+        Files.write(v_Local.toPath() ,v_Bytes.toByteArray());
+        
+        assertNull(this.ftpHelp.upload(v_Local.getPath() ,"/compress/user.gz"));
+        assertArrayEquals(v_Bytes.toByteArray() ,Files.readAllBytes(remoteFile("compress/user.gz").toPath()));
+        
+        assertNull(this.ftpHelp.download("/compress/user.gz" ,v_Save.getPath()));
+        assertArrayEquals(v_Bytes.toByteArray() ,Files.readAllBytes(v_Save.toPath()));
+    }
+    
+    
+    
+    /**
+     * 服务端文件尾部的原始大小（ISIZE）被改动时，解压校验失败，下载返回异常信息
+     */
+    @Test
+    public void test_CorruptSize() throws IOException
+    {
+        File v_Save = new File($LocalDir ,"corrupt.save");
+        
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/compress/corrupt.txt"));
+        
+        File    v_Remote = remoteFile("compress/corrupt.txt");
+        byte [] v_Data   = Files.readAllBytes(v_Remote.toPath());
+        v_Data[v_Data.length - 4]++;
+        Files.write(v_Remote.toPath() ,v_Data);
+        
+        assertNotNull(this.ftpHelp.download("/compress/corrupt.txt" ,v_Save.getPath()));
+    }
+
+}
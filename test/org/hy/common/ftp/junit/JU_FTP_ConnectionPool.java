@@ -0,0 +1,215 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.hy.common.ftp.FTPConnectionPool;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+
+
+
+
+/**
+ * 连接池的借出、归还、耗尽等待、作废及空闲回收
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class JU_FTP_ConnectionPool extends LoopbackFTPTestCase
+{
+    
+    private static FTPConnectionPool newPool(int i_MaxTotal)
+    {
+        FTPConnectionPool v_Pool = new FTPConnectionPool();
+        
+        v_Pool.setEvictInterval(0);
+        v_Pool.setMaxTotal(i_MaxTotal);
+        v_Pool.setMaxWait(200);
+        
+        return v_Pool;
+    }
+    
+    
+    
+    /**
+     * 归还后再借出的是同一个连接
+     */
+    @Test
+    public void test_01_BorrowReuse() throws IOException
+    {
+        FTPConnectionPool v_Pool    = newPool(2);
+        FTPClient         v_Client1 = v_Pool.borrow($FTPInfo);
+        
+        assertTrue(v_Client1.isConnected());
+        assertEquals(1 ,v_Pool.getActiveCount($FTPInfo));
+        assertEquals(0 ,v_Pool.getIdleCount($FTPInfo));
+        
+        v_Pool.giveBack($FTPInfo ,v_Client1);
+        assertEquals(0 ,v_Pool.getActiveCount($FTPInfo));
+        assertEquals(1 ,v_Pool.getIdleCount($FTPInfo));
+        
+        FTPClient v_Client2 = v_Pool.borrow($FTPInfo);
+        
+        assertSame(v_Client1 ,v_Client2);
+        v_Pool.giveBack($FTPInfo ,v_Client2);
+        v_Pool.close();
+    }
+    
+    
+    
+    /**
+     * 借出数达到 maxTotal 时，等待 maxWait 后异常；有归还后可再借出
+     */
+    @Test
+    public void test_02_Exhausted() throws IOException
+    {
+        FTPConnectionPool v_Pool   = newPool(1);
+        FTPClient         v_Client = v_Pool.borrow($FTPInfo);
+        long              v_Begin  = System.currentTimeMillis();
+        
+        try
+        {
+            v_Pool.borrow($FTPInfo);
+            fail("Borrow should fail when the pool is exhausted.");
+        }
+        catch (IOException exce)
+        {
+            assertTrue(System.currentTimeMillis() - v_Begin >= 150);
+        }
+        
+        v_Pool.giveBack($FTPInfo ,v_Client);
+        v_Pool.giveBack($FTPInfo ,v_Pool.borrow($FTPInfo));
+        v_Pool.close();
+    }
+    
+    
+    
+    /**
+     * 作废的连接被关闭，不再放回池中，并释放借出的名额
+     */
+    @Test
+    public void test_03_Invalidate() throws IOException
+    {
+        FTPConnectionPool v_Pool   = newPool(1);
+        FTPClient         v_Client = v_Pool.borrow($FTPInfo);
+        
+        v_Pool.invalidate($FTPInfo ,v_Client);
+        
+        assertFalse(v_Client.isConnected());
+        assertEquals(0 ,v_Pool.getActiveCount($FTPInfo));
+        assertEquals(0 ,v_Pool.getIdleCount($FTPInfo));
+        
+        FTPClient v_Other = v_Pool.borrow($FTPInfo);
+        
+        assertNotSame(v_Client ,v_Other);
+        v_Pool.giveBack($FTPInfo ,v_Other);
+        v_Pool.close();
+    }
+    
+    
+    
+    /**
+     * 空闲时已断开的连接，借出时校验不通过，换为新建的连接
+     */
+    @Test
+    public void test_04_TestOnBorrow() throws IOException
+    {
+        FTPConnectionPool v_Pool   = newPool(1);
+        FTPClient         v_Client = v_Pool.borrow($FTPInfo);
+        
+        v_Pool.giveBack($FTPInfo ,v_Client);
+        v_Client.disconnect();
+        
+        FTPClient v_Other = v_Pool.borrow($FTPInfo);
+        
+        assertNotSame(v_Client ,v_Other);
+        assertTrue(v_Other.isConnected());
+        v_Pool.giveBack($FTPInfo ,v_Other);
+        v_Pool.close();
+    }
+    
+    
+    
+    /**
+     * 空闲超时的连接被回收，但保留 minIdle 个
+     */
+    @Test
+    public void test_05_Evict() throws IOException
+    {
+        FTPConnectionPool v_Pool    = newPool(3);
+        FTPClient         v_Client1 = v_Pool.borrow($FTPInfo);
+        FTPClient         v_Client2 = v_Pool.borrow($FTPInfo);
+        FTPClient         v_Client3 = v_Pool.borrow($FTPInfo);
+        
+        v_Pool.giveBack($FTPInfo ,v_Client1);
+        v_Pool.giveBack($FTPInfo ,v_Client2);
+        v_Pool.giveBack($FTPInfo ,v_Client3);
+        assertEquals(3 ,v_Pool.getIdleCount($FTPInfo));
+        
+        v_Pool.setMaxIdleTime(0);
+        v_Pool.setMinIdle(1);
+        v_Pool.evict();
+        
+        assertEquals(1 ,v_Pool.getIdleCount($FTPInfo));
+        // 后进先出：最近归还的连接被保留，队尾较早归还的连接被回收
+        assertTrue(v_Client3.isConnected());
+        assertFalse(v_Client1.isConnected());
+        assertFalse(v_Client2.isConnected());
+        
+        v_Pool.setMinIdle(0);
+        v_Pool.evict();
+        assertEquals(0 ,v_Pool.getIdleCount($FTPInfo));
+        v_Pool.close();
+    }
+    
+    
+    
+    /**
+     * 关闭连接池后归还的连接被直接关闭
+     */
+    @Test
+    public void test_06_Close() throws IOException
+    {
+        FTPConnectionPool v_Pool   = newPool(1);
+        FTPClient         v_Client = v_Pool.borrow($FTPInfo);
+        
+        v_Pool.close();
+        v_Pool.giveBack($FTPInfo ,v_Client);
+        
+        assertFalse(v_Client.isConnected());
+        assertEquals(0 ,v_Pool.getIdleCount($FTPInfo));
+    }
+
+    
+    
+    /**
+     * 不等待地借出：连接池耗尽时立即返回 null
+     */
+    @Test
+    public void test_07_TryBorrow() throws IOException
+    {
+        FTPConnectionPool v_Pool    = newPool(1);
+        FTPClient         v_Client1 = v_Pool.tryBorrow($FTPInfo);
+        
+        v_Pool.setMaxWait(30 * 1000);
+        assertTrue(v_Client1.isConnected());
+        
+        long v_Begin = System.currentTimeMillis();
+        assertNull(v_Pool.tryBorrow($FTPInfo));
+        assertTrue(System.currentTimeMillis() - v_Begin < 1000);
+        
+        v_Pool.giveBack($FTPInfo ,v_Client1);
+        assertSame(v_Client1 ,v_Pool.tryBorrow($FTPInfo));
+        
+        v_Pool.giveBack($FTPInfo ,v_Client1);
+        v_Pool.close();
+    }
+
+}
@@ -0,0 +1,181 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.hy.common.ftp.FTPDirectoryCache;
+import org.hy.common.ftp.FTPHelp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 已存在目录的缓存：省去多余的 MKD 命令、缓存过期、不缓存，及目录被外界删除后的重建
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_DirectoryCache extends LoopbackFTPTestCase
+{
+    
+    private static File $Local;
+    
+    private FTPHelp     ftpHelp;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Local = new File($LocalDir ,"data.bin");
+        
+        Files.write($Local.toPath() ,new byte[1000]);
+    }
+    
+    
+    
+    @Before
+    public void connect()
+    {
+        $FTPInfo.setDirCacheTimeout(10 * 60);
+        FTPDirectoryCache.getInstance($FTPInfo).clear();
+        
+        this.ftpHelp = new FTPHelp($FTPInfo);
+        assertNull(this.ftpHelp.connect());
+    }
+    
+    
+    
+    @After
+    public void close()
+    {
+        this.ftpHelp.close();
+    }
+    
+    
+    
+    @Test
+    public void test_Normalize()
+    {
+        assertEquals("/a/b" ,FTPDirectoryCache.normalize("a//b/"));
+        assertEquals("/a/b" ,FTPDirectoryCache.normalize(" /a/b "));
+        assertEquals("/"    ,FTPDirectoryCache.normalize("//"));
+    }
+    
+    
+    
+    /**
+     * 同一目录下的第二个文件不再发送 MKD 命令，其下级目录只发送新一级的 MKD 命令
+     */
+    @Test
+    public void test_SkipKnownDirectories()
+    {
+        FTPDirectoryCache v_Cache = this.ftpHelp.getDirectoryCache();
+        int               v_MKD   = $Server.getMKDCount();
+        
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/skip/a/b/1.bin"));
+        assertEquals(v_MKD + 3 ,$Server.getMKDCount());
+        assertTrue(v_Cache.isExists("/skip"));
+        assertTrue(v_Cache.isExists("/skip/a/b"));
+        
+        long v_Skip = v_Cache.getSkipCount();
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/skip/a/b/2.bin"));
+        assertEquals(v_MKD + 3 ,$Server.getMKDCount());
+        assertEquals(v_Skip + 3 ,v_Cache.getSkipCount());
+        
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/skip/a/b/c/3.bin"));
+        assertEquals(v_MKD + 4 ,$Server.getMKDCount());
+        assertTrue(remoteFile("skip/a/b/c/3.bin").isFile());
+    }
+    
+    
+    
+    /**
+     * 超过缓存时长后，再次逐级发送 MKD 命令
+     */
+    @Test
+    public void test_Expire() throws InterruptedException
+    {
+        $FTPInfo.setDirCacheTimeout(1);
+        
+        assertEquals(2 ,this.ftpHelp.makeDirectory("/expire/a"));
+        assertTrue(this.ftpHelp.getDirectoryCache().isExists("/expire/a"));
+        
+        int v_MKD = $Server.getMKDCount();
+        this.ftpHelp.makeDirectory("/expire/a");
+        assertEquals(v_MKD ,$Server.getMKDCount());
+        
+        Thread.sleep(1500);
+        
+        assertFalse(this.ftpHelp.getDirectoryCache().isExists("/expire/a"));
+        this.ftpHelp.makeDirectory("/expire/a");
+        assertEquals(v_MKD + 2 ,$Server.getMKDCount());
+    }
+    
+    
+    
+    /**
+     * 缓存时长小于等于0时不缓存，每次都逐级发送 MKD 命令
+     */
+    @Test
+    public void test_Disabled()
+    {
+        $FTPInfo.setDirCacheTimeout(0);
+        
+        int v_MKD = $Server.getMKDCount();
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/disabled/1.bin"));
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/disabled/2.bin"));
+        
+        assertEquals(v_MKD + 2 ,$Server.getMKDCount());
+        assertFalse(this.ftpHelp.getDirectoryCache().isExists("/disabled"));
+    }
+    
+    
+    
+    /**
+     * 缓存中的目录被外界删除后，上传时作废缓存并重建目录
+     */
+    @Test
+    public void test_RemovedDirectory() throws IOException
+    {
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/removed/a/1.bin"));
+        
+        File v_Dir = remoteFile("removed/a");
+        Files.delete(new File(v_Dir ,"1.bin").toPath());
+        Files.delete(v_Dir.toPath());
+        
+        assertNull(this.ftpHelp.upload($Local.getPath() ,"/removed/a/2.bin"));
+        assertTrue(new File(v_Dir ,"2.bin").isFile());
+        assertTrue(this.ftpHelp.getDirectoryCache().isExists("/removed/a"));
+    }
+    
+    
+    
+    /**
+     * 作废目录时，其子目录一同作废，上级及同级目录不受影响
+     */
+    @Test
+    public void test_Invalidate()
+    {
+        FTPDirectoryCache v_Cache = this.ftpHelp.getDirectoryCache();
+        
+        v_Cache.put("/inv/a/b" ,60);
+        v_Cache.put("/inv/ab"  ,60);
+        v_Cache.invalidate("/inv/a");
+        
+        assertTrue (v_Cache.isExists("/inv"));
+        assertTrue (v_Cache.isExists("/inv/ab"));
+        assertFalse(v_Cache.isExists("/inv/a"));
+        assertFalse(v_Cache.isExists("/inv/a/b"));
+    }
+
+}
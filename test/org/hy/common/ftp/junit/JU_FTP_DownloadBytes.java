@@ -0,0 +1,168 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.hy.common.StringHelp;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPHexOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 下载到内存：字节内容、ByteBuffer、十六进制的内容，及预估的大小与实际的大小不同时
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_DownloadBytes extends LoopbackFTPTestCase
+{
+    
+    private static byte [] $Data;
+    
+    private FTPHelp        ftpHelp;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data = new byte[300001];
+        
+        new Random(7).nextBytes($Data);
+        remoteFile("bytes").mkdirs();
+        Files.write(remoteFile("bytes/data.bin") .toPath() ,$Data);
+        Files.write(remoteFile("bytes/empty.bin").toPath() ,new byte[0]);
+    }
+    
+    
+    
+    @Before
+    public void connect()
+    {
+        this.ftpHelp = new FTPHelp($FTPInfo);
+        assertNull(this.ftpHelp.connect());
+    }
+    
+    
+    
+    @After
+    public void close()
+    {
+        this.ftpHelp.close();
+    }
+    
+    
+    
+    /**
+     * 用 SIZE 命令获取大小，及外部传入的大小
+     */
+    @Test
+    public void test_Bytes()
+    {
+        assertArrayEquals($Data ,this.ftpHelp.downloadBytes("/bytes/data.bin"));
+        assertArrayEquals($Data ,this.ftpHelp.downloadBytes("/bytes/data.bin" ,$Data.length));
+        assertArrayEquals(new byte[0] ,this.ftpHelp.downloadBytes("/bytes/empty.bin"));
+    }
+    
+    
+    
+    /**
+     * 预估的大小比实际的小或大时，内容仍正确，且不含多余的字节
+     */
+    @Test
+    public void test_SizeMismatch()
+    {
+        assertArrayEquals($Data ,this.ftpHelp.downloadBytes("/bytes/data.bin" ,1000));
+        assertArrayEquals($Data ,this.ftpHelp.downloadBytes("/bytes/data.bin" ,$Data.length * 2));
+    }
+    
+    
+    
+    /**
+     * ByteBuffer 的 position 为 0，limit 为文件的大小
+     */
+    @Test
+    public void test_ByteBuffer()
+    {
+        ByteBuffer v_Buffer = this.ftpHelp.downloadToByteBuffer("/bytes/data.bin" ,$Data.length + 100);
+        byte []    v_Bytes  = new byte[v_Buffer.remaining()];
+        
+        assertEquals(0            ,v_Buffer.position());
+        assertEquals($Data.length ,v_Buffer.limit());
+        
+        v_Buffer.get(v_Bytes);
+        assertArrayEquals($Data ,v_Bytes);
+    }
+    
+    
+    
+    /**
+     * 十六进制的内容与 StringHelp.bytesToHex() 相同，边下载边写入时也相同
+     */
+    @Test
+    public void test_Hex()
+    {
+        String        v_Expect = StringHelp.bytesToHex($Data);
+        StringBuilder v_Hex    = new StringBuilder();
+        
+        assertEquals(v_Expect ,this.ftpHelp.download("/bytes/data.bin"));
+        assertNull(this.ftpHelp.downloadHex("/bytes/data.bin" ,v_Hex));
+        assertEquals(v_Expect ,v_Hex.toString());
+    }
+    
+    
+    
+    /**
+     * 逐字节写入与按块写入的编码相同
+     */
+    @Test
+    public void test_HexOutputStream() throws IOException
+    {
+        byte []            v_Bytes  = Arrays.copyOf($Data ,100);
+        StringBuilder      v_Hex    = new StringBuilder();
+        FTPHexOutputStream v_Output = new FTPHexOutputStream(v_Hex);
+        
+        v_Output.write(v_Bytes ,0 ,10);
+        for (int x=10; x<v_Bytes.length; x++)
+        {
+            v_Output.write(v_Bytes[x]);
+        }
+        v_Output.write(v_Bytes ,0 ,0);
+        v_Output.close();
+        
+        assertEquals(StringHelp.bytesToHex(v_Bytes) ,v_Hex.toString());
+    }
+    
+    
+    
+    /**
+     * 远程文件不存在时，字节内容为 null，十六进制的下载返回异常信息
+     */
+    @Test
+    public void test_Missing()
+    {
+        StringBuilder v_Hex = new StringBuilder();
+        
+        assertNull(this.ftpHelp.downloadBytes("/bytes/missing.bin"));
+        assertNull(this.ftpHelp.downloadToByteBuffer("/bytes/missing.bin" ,0));
+        assertNotNull(this.ftpHelp.downloadHex("/bytes/missing.bin" ,v_Hex));
+        assertEquals(0 ,v_Hex.length());
+        
+        // 连接仍可继续使用
+        assertArrayEquals($Data ,this.ftpHelp.downloadBytes("/bytes/data.bin"));
+    }
+
+}
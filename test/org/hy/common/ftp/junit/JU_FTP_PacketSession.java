@@ -0,0 +1,329 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.hy.common.file.FileDataPacket;
+import org.hy.common.file.FileHelp;
+import org.hy.common.ftp.FTPConnectionPool;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPPacketSessions;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 按会话上传数据包：乱序到达、重复到达（含第一个数据包）、会话超时后的续传、暂存超出上限、数据包流模式下连接池耗尽及无效的序号
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_PacketSession extends LoopbackFTPTestCase
+{
+    
+    /** 每个数据包的大小 */
+    private static final int $PacketSize  = 1000;
+    
+    /** 数据包的数量。最后一个数据包不满 $PacketSize */
+    private static final int $PacketCount = 5;
+    
+    private static byte []   $Data;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data = new byte[$PacketSize * ($PacketCount - 1) + $PacketSize / 2];
+        
+        new Random(14).nextBytes($Data);
+        remoteFile("packet").mkdirs();
+    }
+    
+    
+    
+    private static FileDataPacket packet(String i_Name ,int i_DataNo)
+    {
+        FileDataPacket v_Packet = new FileDataPacket();
+        int            v_Begin  = Math.min((i_DataNo - 1) * $PacketSize ,$Data.length);
+        int            v_End    = Math.min(i_DataNo * $PacketSize ,$Data.length);
+        
+        v_Packet.setName("/packet/" + i_Name);
+        v_Packet.setDataNo(i_DataNo);
+        v_Packet.setDataCount($PacketCount);
+        v_Packet.setDataByte(Arrays.copyOfRange($Data ,Math.max(v_Begin ,0) ,Math.max(v_End ,0)));
+        
+        return v_Packet;
+    }
+    
+    
+    
+    private static File remote(String i_Name)
+    {
+        return remoteFile("packet/" + i_Name);
+    }
+    
+    
+    
+    /**
+     * 乱序到达：先到达的数据包暂存，第一个数据包到达后连续写出
+     */
+    @Test
+    public void test_OutOfOrder() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("order" ,packet("order.bin" ,3)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("order" ,packet("order.bin" ,5)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("order" ,packet("order.bin" ,2)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("order" ,packet("order.bin" ,4)));
+        assertFalse(remote("order.bin").exists());
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("order" ,packet("order.bin" ,1)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("order.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 重复到达：已写出的数据包直接应答，不再写出；完成后迟到的数据包应答已完成
+     */
+    @Test
+    public void test_Duplicate() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,1)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,2)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,2)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,4)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,4)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,3)));
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,5)));
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("dup" ,packet("dup.bin" ,3)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("dup.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 第一个数据包重复到达（应答丢失后重发、完成后迟到）：按重复的数据包应答，不重新开始上传覆盖已写出的文件
+     */
+    @Test
+    public void test_DuplicateFirst() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("first" ,packet("first.bin" ,1)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("first" ,packet("first.bin" ,2)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("first" ,packet("first.bin" ,1)));
+        assertEquals($PacketSize * 2         ,remote("first.bin").length());
+        
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("first" ,packet("first.bin" ,4)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("first" ,packet("first.bin" ,3)));
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("first" ,packet("first.bin" ,5)));
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("first" ,packet("first.bin" ,1)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("first.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 会话超时后继续上传：按服务端文件的大小续传，之前的数据包重复到达时直接应答
+     */
+    @Test
+    public void test_ExpiredSession() throws Exception
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        v_FTPHelp.setDataPacketTimeOut(1);
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("expired" ,packet("expired.bin" ,1)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("expired" ,packet("expired.bin" ,2)));
+        
+        Thread.sleep(1500);
+        
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("expired" ,packet("expired.bin" ,4)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("expired" ,packet("expired.bin" ,2)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("expired" ,packet("expired.bin" ,3)));
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("expired" ,packet("expired.bin" ,5)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("expired.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 新会话（如服务重启后）只收到最后一个数据包：追加在服务端文件的末尾
+     */
+    @Test
+    public void test_ResumeLastPacket() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Files.write(remote("last.bin").toPath() ,Arrays.copyOf($Data ,$PacketSize * ($PacketCount - 1)));
+        
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("last" ,packet("last.bin" ,$PacketCount)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("last.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 重新开始上传：第一个数据包覆盖服务端上次残留的文件
+     */
+    @Test
+    public void test_Restart() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Files.write(remote("restart.bin").toPath() ,new byte[$Data.length * 2]);
+        
+        assertNull(v_FTPHelp.connect());
+        for (int x=1; x<$PacketCount; x++)
+        {
+            assertEquals(FileHelp.$Upload_GoOn ,v_FTPHelp.upload("restart" ,packet("restart.bin" ,x)));
+        }
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("restart" ,packet("restart.bin" ,$PacketCount)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("restart.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 乱序到达的重新上传：服务端上次的文件不是续传的断点，仍等待第一个数据包覆盖
+     */
+    @Test
+    public void test_RestartOutOfOrder() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Files.write(remote("reorder.bin").toPath() ,new byte[$Data.length]);
+        
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("reorder" ,packet("reorder.bin" ,2)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("reorder" ,packet("reorder.bin" ,4)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("reorder" ,packet("reorder.bin" ,5)));
+        assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("reorder" ,packet("reorder.bin" ,3)));
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("reorder" ,packet("reorder.bin" ,1)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("reorder.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 暂存超出上限时拒收，缺失的数据包到达后，客户端重发被拒收的数据包
+     */
+    @Test
+    public void test_CapExceeded() throws IOException
+    {
+        FTPPacketSessions v_Sessions = FTPPacketSessions.getInstance();
+        int               v_OldCount = v_Sessions.getMaxPendingCount();
+        FTPHelp           v_FTPHelp  = new FTPHelp($FTPInfo);
+        
+        v_Sessions.setMaxPendingCount(2);
+        try
+        {
+            assertNull(v_FTPHelp.connect());
+            assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("cap" ,packet("cap.bin" ,3)));
+            assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("cap" ,packet("cap.bin" ,4)));
+            assertEquals(FileHelp.$Upload_Error  ,v_FTPHelp.upload("cap" ,packet("cap.bin" ,5)));
+            assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("cap" ,packet("cap.bin" ,1)));
+            assertEquals(FileHelp.$Upload_GoOn   ,v_FTPHelp.upload("cap" ,packet("cap.bin" ,2)));
+            assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("cap" ,packet("cap.bin" ,5)));
+            v_FTPHelp.close();
+        }
+        finally
+        {
+            v_Sessions.setMaxPendingCount(v_OldCount);
+        }
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("cap.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 数据包流模式下连接池已耗尽：不等待连接，按数据包追加写出
+     */
+    @Test
+    public void test_StreamPoolExhausted() throws IOException
+    {
+        FTPConnectionPool v_Pool    = new FTPConnectionPool();
+        FTPHelp           v_FTPHelp = new FTPHelp($FTPInfo ,v_Pool);
+        long              v_Begin   = System.currentTimeMillis();
+        
+        v_Pool.setEvictInterval(0);
+        v_Pool.setMaxTotal(1);
+        v_FTPHelp.setPacketStream(true);
+        
+        assertNull(v_FTPHelp.connect());
+        for (int x=1; x<$PacketCount; x++)
+        {
+            assertEquals(FileHelp.$Upload_GoOn ,v_FTPHelp.upload("stream" ,packet("stream.bin" ,x)));
+        }
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("stream" ,packet("stream.bin" ,$PacketCount)));
+        v_FTPHelp.close();
+        
+        assertTrue(System.currentTimeMillis() - v_Begin < v_Pool.getMaxWait());
+        assertEquals(0 ,v_Pool.getActiveCount($FTPInfo));
+        assertArrayEquals($Data ,Files.readAllBytes(remote("stream.bin").toPath()));
+        v_Pool.close();
+    }
+    
+    
+    
+    /**
+     * 无效的序号（不在 1 至 dataCount 之间）直接拒收，不影响会话
+     */
+    @Test
+    public void test_InvalidDataNo() throws IOException
+    {
+        FTPHelp        v_FTPHelp = new FTPHelp($FTPInfo);
+        FileDataPacket v_Zero    = packet("invalid.bin" ,1);
+        FileDataPacket v_Over    = packet("invalid.bin" ,1);
+        
+        v_Zero.setDataNo(0);
+        v_Over.setDataNo($PacketCount + 1);
+        
+        assertNull(v_FTPHelp.connect());
+        assertEquals(FileHelp.$Upload_Error  ,v_FTPHelp.upload("invalid" ,v_Zero));
+        assertEquals(FileHelp.$Upload_Error  ,v_FTPHelp.upload("invalid" ,v_Over));
+        assertFalse(remote("invalid.bin").exists());
+        
+        for (int x=1; x<$PacketCount; x++)
+        {
+            assertEquals(FileHelp.$Upload_GoOn ,v_FTPHelp.upload("invalid" ,packet("invalid.bin" ,x)));
+        }
+        assertEquals(FileHelp.$Upload_Finish ,v_FTPHelp.upload("invalid" ,packet("invalid.bin" ,$PacketCount)));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remote("invalid.bin").toPath()));
+    }
+
+}
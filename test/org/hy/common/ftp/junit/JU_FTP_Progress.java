@@ -0,0 +1,251 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPRateLimiter;
+import org.hy.common.ftp.event.DefaultFTPEvent;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 传输中事件的节流（按大小、按时长）及异步分发（在独立的线程中执行、事件监听器的取消）
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Progress extends LoopbackFTPTestCase
+{
+    
+    /** 拷贝缓存的大小，即未节流时两次传输中事件间的大小 */
+    private static final int $BufferSize = 16 * 1024;
+    
+    private static byte []   $Data;
+    
+    private static File      $Local;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data  = new byte[4 * 1024 * 1024];
+        $Local = new File($LocalDir ,"data.bin");
+        
+        new Random(16).nextBytes($Data);
+        Files.write($Local.toPath() ,$Data);
+        $FTPInfo.setTransferBufferSize($BufferSize);
+    }
+    
+    
+    
+    
+    
+    /**
+     * 记录传输中事件的事件监听器
+     */
+    private static class ProcessListener implements FTPListener
+    {
+        
+        private final AtomicInteger                count    = new AtomicInteger(0);
+        
+        private final AtomicLong                   lastSize = new AtomicLong(0);
+        
+        private final CopyOnWriteArrayList<String> threads  = new CopyOnWriteArrayList<String>();
+        
+        /** 传输中事件的返回值。为 false 时取消传输 */
+        private final boolean                      isContinue;
+        
+        
+        
+        public ProcessListener(boolean i_IsContinue)
+        {
+            this.isContinue = i_IsContinue;
+        }
+        
+        
+        
+        @Override
+        public boolean ftpBefore(FTPEvent e)
+        {
+            return true;
+        }
+        
+        
+        
+        @Override
+        public boolean ftpProcess(FTPEvent e)
+        {
+            this.count.incrementAndGet();
+            this.lastSize.set(e.getCompletedSize());
+            this.threads.addIfAbsent(Thread.currentThread().getName());
+            return this.isContinue;
+        }
+        
+        
+        
+        @Override
+        public void ftpAfter(FTPEvent e)
+        {
+            // Nothing.
+        }
+    }
+    
+    
+    
+    private static ProcessListener upload(FTPHelp io_FTPHelp ,String i_Name ,boolean i_IsContinue)
+    {
+        ProcessListener v_Listener = new ProcessListener(i_IsContinue);
+        
+        io_FTPHelp.addFTPListener(v_Listener);
+        assertNull(io_FTPHelp.connect());
+        String v_Error = io_FTPHelp.upload($Local.getPath() ,"/progress/" + i_Name);
+        io_FTPHelp.close();
+        
+        if ( i_IsContinue )
+        {
+            assertNull(v_Error);
+        }
+        
+        return v_Listener;
+    }
+    
+    
+    
+    /**
+     * 按大小节流：距上次通知已完成的大小达到下限才通知，传输完成的最后一次总是通知
+     */
+    @Test
+    public void test_ProcessDueSize()
+    {
+        DefaultFTPEvent v_Event = new DefaultFTPEvent(this ,1000);
+        
+        v_Event.setCompleteSize(50);
+        assertFalse(v_Event.isProcessDue(100 ,0));
+        v_Event.setCompleteSize(100);
+        assertTrue (v_Event.isProcessDue(100 ,0));
+        v_Event.setCompleteSize(150);
+        assertFalse(v_Event.isProcessDue(100 ,0));
+        v_Event.setCompleteSize(1000);
+        assertTrue (v_Event.isProcessDue(100 ,0));
+        assertTrue (v_Event.isProcessDue(100 ,0));
+    }
+    
+    
+    
+    /**
+     * 按时长节流：距上次通知的时长达到下限才通知，传输完成的最后一次总是通知
+     */
+    @Test
+    public void test_ProcessDueInterval() throws InterruptedException
+    {
+        DefaultFTPEvent v_Event = new DefaultFTPEvent(this ,1000);
+        
+        v_Event.setCompleteSize(10);
+        assertTrue (v_Event.isProcessDue(0 ,200));
+        v_Event.setCompleteSize(20);
+        assertFalse(v_Event.isProcessDue(0 ,200));
+        
+        Thread.sleep(300);
+        assertTrue (v_Event.isProcessDue(0 ,200));
+        
+        v_Event.setCompleteSize(1000);
+        assertTrue (v_Event.isProcessDue(0 ,200));
+    }
+    
+    
+    
+    /**
+     * 传输时按大小节流：通知的次数不超过 文件大小 / 节流大小 + 1，且最后一次的进度为文件的大小
+     */
+    @Test
+    public void test_Throttle()
+    {
+        FTPHelp v_Plain     = new FTPHelp($FTPInfo);
+        FTPHelp v_Throttled = new FTPHelp($FTPInfo);
+        
+        v_Throttled.setProcessSize(1024 * 1024);
+        
+        ProcessListener v_All  = upload(v_Plain     ,"plain.bin"     ,true);
+        ProcessListener v_Some = upload(v_Throttled ,"throttled.bin" ,true);
+        
+        assertTrue("" + v_All.count.get() ,v_All.count.get() >= $Data.length / $BufferSize);
+        assertTrue("" + v_Some.count.get() ,v_Some.count.get() >= 1);
+        assertTrue("" + v_Some.count.get() ,v_Some.count.get() <= $Data.length / (1024 * 1024) + 1);
+        assertEquals($Data.length ,v_Some.lastSize.get());
+    }
+    
+    
+    
+    /**
+     * 异步分发：事件监听器在分发的线程中执行，而不是传输线程
+     */
+    @Test
+    public void test_Async() throws Exception
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        v_FTPHelp.setProcessAsync(true);
+        
+        ProcessListener v_Listener = upload(v_FTPHelp ,"async.bin" ,true);
+        
+        awaitProcess(v_Listener);
+        assertFalse(v_Listener.threads.contains(Thread.currentThread().getName()));
+        for (String v_Thread : v_Listener.threads)
+        {
+            assertTrue(v_Thread ,v_Thread.startsWith("FTPProgressDispatcher-"));
+        }
+        assertArrayEquals($Data ,Files.readAllBytes(remoteFile("progress/async.bin").toPath()));
+    }
+    
+    
+    
+    /**
+     * 异步分发时事件监听器取消传输：传输线程在之后的传输中事件时停止传输
+     */
+    @Test
+    public void test_AsyncCancel() throws InterruptedException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        v_FTPHelp.setProcessAsync(true);
+        // 限速让传输持续约4秒，取消在传输完成前生效
+        v_FTPHelp.setRateLimiter(new FTPRateLimiter(1024 * 1024));
+        
+        ProcessListener v_Listener = upload(v_FTPHelp ,"cancel.bin" ,false);
+        
+        awaitProcess(v_Listener);
+        assertTrue(remoteFile("progress/cancel.bin").length() < $Data.length);
+    }
+    
+    
+    
+    /**
+     * 异步分发的通知在传输返回后才可能执行，等待事件监听器至少执行一次
+     */
+    private static void awaitProcess(ProcessListener i_Listener) throws InterruptedException
+    {
+        for (int x=0; x<100 && i_Listener.count.get() <= 0; x++)
+        {
+            Thread.sleep(10);
+        }
+        
+        assertTrue(i_Listener.count.get() >= 1);
+    }
+
+}
@@ -0,0 +1,239 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPRateLimiter;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 传输带宽的限速：速率、上级限速器、共享、运行时调整、中断、传输时的限速及默认的服务端限速器
+ *
+ * 限速器的令牌初始为0，按速率传输 N 个字节约需 N / rate 秒。时长的断言留有余量，以免机器繁忙时误报
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_RateLimiter extends LoopbackFTPTestCase
+{
+    
+    /** 测试用的速率（单位：Byte/秒） */
+    private static final long $Rate = 1024 * 1024;
+    
+    private static File       $Local;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        byte [] v_Data = new byte[(int)$Rate];
+        
+        $Local = new File($LocalDir ,"data.bin");
+        
+        new Random(23).nextBytes(v_Data);
+        Files.write($Local.toPath() ,v_Data);
+    }
+    
+    
+    
+    /**
+     * 按块获取令牌，返回用时（单位：毫秒）
+     */
+    private static long acquire(FTPRateLimiter i_Limiter ,long i_Size ,int i_BlockSize) throws InterruptedIOException
+    {
+        long v_Begin = System.nanoTime();
+        
+        for (long v_Size=0; v_Size<i_Size; v_Size+=i_BlockSize)
+        {
+            i_Limiter.acquire(Math.min(i_BlockSize ,i_Size - v_Size));
+        }
+        
+        return (System.nanoTime() - v_Begin) / 1000000;
+    }
+    
+    
+    
+    /**
+     * 按速率限速：半秒的数据约用半秒
+     */
+    @Test
+    public void test_Rate() throws InterruptedIOException
+    {
+        FTPRateLimiter v_Limiter = new FTPRateLimiter($Rate);
+        long           v_Millis  = acquire(v_Limiter ,$Rate / 2 ,32 * 1024);
+        
+        assertTrue(v_Limiter.isLimited());
+        assertTrue("" + v_Millis ,v_Millis >= 400);
+        assertTrue("" + v_Millis ,v_Millis <  2000);
+    }
+    
+    
+    
+    /**
+     * 本级不限速时，仍受上级限速器的限速
+     */
+    @Test
+    public void test_Parent() throws InterruptedIOException
+    {
+        FTPRateLimiter v_Parent = new FTPRateLimiter(0);
+        FTPRateLimiter v_Child  = new FTPRateLimiter(0 ,v_Parent);
+        
+        assertFalse(v_Child.isLimited());
+        assertTrue(acquire(v_Child ,$Rate * 10 ,32 * 1024) < 400);
+        
+        v_Parent.setRate($Rate);
+        assertTrue(v_Child.isLimited());
+        
+        long v_Millis = acquire(v_Child ,$Rate / 2 ,32 * 1024);
+        assertTrue("" + v_Millis ,v_Millis >= 400);
+    }
+    
+    
+    
+    /**
+     * 多个线程共享同一限速器时，总和不超过限速
+     */
+    @Test
+    public void test_Shared() throws Exception
+    {
+        FTPRateLimiter             v_Limiter = new FTPRateLimiter($Rate);
+        AtomicReference<Throwable> v_Error   = new AtomicReference<Throwable>();
+        Thread []                  v_Threads = new Thread[4];
+        long                       v_Begin   = System.nanoTime();
+        
+        for (int x=0; x<v_Threads.length; x++)
+        {
+            v_Threads[x] = new Thread(() ->
+            {
+                try
+                {
+                    acquire(v_Limiter ,$Rate / 8 ,16 * 1024);
+                }
+                catch (Throwable exce)
+                {
+                    v_Error.set(exce);
+                }
+            });
+            v_Threads[x].start();
+        }
+        
+        for (Thread v_Thread : v_Threads)
+        {
+            v_Thread.join();
+        }
+        
+        long v_Millis = (System.nanoTime() - v_Begin) / 1000000;
+        
+        assertNull(v_Error.get());
+        assertTrue("" + v_Millis ,v_Millis >= 400);
+    }
+    
+    
+    
+    /**
+     * 运行时调整：速率改为0后立即不再限速
+     */
+    @Test
+    public void test_SetRateUnlimited() throws InterruptedIOException
+    {
+        FTPRateLimiter v_Limiter = new FTPRateLimiter(1024);
+        
+        v_Limiter.setRate(0);
+        
+        assertFalse(v_Limiter.isLimited());
+        assertTrue(acquire(v_Limiter ,$Rate * 10 ,32 * 1024) < 400);
+    }
+    
+    
+    
+    /**
+     * 等待令牌时线程被中断：抛出 InterruptedIOException，并保留中断标记
+     */
+    @Test
+    public void test_Interrupt() throws Exception
+    {
+        FTPRateLimiter             v_Limiter     = new FTPRateLimiter(1024);
+        AtomicReference<Throwable> v_Error       = new AtomicReference<Throwable>();
+        boolean []                 v_Interrupted = {false};
+        Thread                     v_Thread      = new Thread(() ->
+        {
+            try
+            {
+                v_Limiter.acquire(1024 * 1024);
+            }
+            catch (Throwable exce)
+            {
+                v_Error.set(exce);
+                v_Interrupted[0] = Thread.currentThread().isInterrupted();
+            }
+        });
+        
+        v_Thread.start();
+        Thread.sleep(200);
+        v_Thread.interrupt();
+        v_Thread.join(5000);
+        
+        assertFalse(v_Thread.isAlive());
+        assertTrue(v_Error.get() instanceof InterruptedIOException);
+        assertTrue(v_Interrupted[0]);
+    }
+    
+    
+    
+    /**
+     * 传输时限速：上传的用时不少于按速率计算的时长（扣除连接期间积累的突发令牌）
+     */
+    @Test
+    public void test_Upload()
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        v_FTPHelp.setRateLimiter(new FTPRateLimiter($Rate));
+        assertNull(v_FTPHelp.connect());
+        
+        long v_Begin = System.nanoTime();
+        assertNull(v_FTPHelp.upload($Local.getPath() ,"/limit/data.bin"));
+        long v_Millis = (System.nanoTime() - v_Begin) / 1000000;
+        
+        v_FTPHelp.close();
+        
+        assertTrue("" + v_Millis ,v_Millis >= 700);
+        assertEquals($Local.length() ,remoteFile("limit/data.bin").length());
+    }
+
+    
+    
+    /**
+     * 未设置限速器时，用时才获取服务端的限速器，设置为 null 时恢复。
+     * FTP信息为 null 时，构造器不异常，连接时返回异常信息
+     */
+    @Test
+    public void test_ServerLimiter()
+    {
+        FTPHelp        v_FTPHelp = new FTPHelp($FTPInfo);
+        FTPRateLimiter v_Limiter = new FTPRateLimiter($Rate);
+        
+        assertSame(FTPRateLimiter.getInstance($FTPInfo) ,v_FTPHelp.getRateLimiter());
+        v_FTPHelp.setRateLimiter(v_Limiter);
+        assertSame(v_Limiter ,v_FTPHelp.getRateLimiter());
+        v_FTPHelp.setRateLimiter(null);
+        assertSame(FTPRateLimiter.getInstance($FTPInfo) ,v_FTPHelp.getRateLimiter());
+        
+        assertNotNull(new FTPHelp(null).connect());
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.hy.common.ftp.FTPChecksum;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPMetrics;
+import org.hy.common.ftp.FTPServerMetrics;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 下载的断点续传：以本地未下载完的文件的大小为断点，只下载剩余的部分
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_ResumeDownload extends LoopbackFTPTestCase
+{
+    
+    private static byte [] $Data;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data = new byte[777777];
+        
+        new Random(12).nextBytes($Data);
+        remoteFile("resume").mkdirs();
+        Files.write(remoteFile("resume/data.bin").toPath() ,$Data);
+    }
+    
+    
+    
+    /**
+     * 断点之前的部分不再下载：本地已有部分故意写成不同的内容，续传后仍保留
+     */
+    @Test
+    public void test_OnlyRemainder() throws IOException
+    {
+        File    v_Save    = new File($LocalDir ,"part.bin");
+        byte [] v_Prefix  = new byte[300000];
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Arrays.fill(v_Prefix ,(byte)7);
+        Files.write(v_Save.toPath() ,v_Prefix);
+        
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.download("/resume/data.bin" ,v_Save.getPath() ,true));
+        v_FTPHelp.close();
+        
+        byte [] v_Local = Files.readAllBytes(v_Save.toPath());
+        
+        assertEquals($Data.length ,v_Local.length);
+        assertArrayEquals(v_Prefix ,Arrays.copyOfRange(v_Local ,0 ,v_Prefix.length));
+        assertArrayEquals(Arrays.copyOfRange($Data ,v_Prefix.length ,$Data.length) ,Arrays.copyOfRange(v_Local ,v_Prefix.length ,v_Local.length));
+    }
+    
+    
+    
+    /**
+     * 统计的下载字节数只含续传的部分，不含本地已有的部分
+     */
+    @Test
+    public void test_MetricsOnlyRemainder() throws IOException
+    {
+        File       v_Save    = new File($LocalDir ,"metrics.bin");
+        FTPMetrics v_Metrics = FTPMetrics.getInstance();
+        boolean    v_Enabled = v_Metrics.isEnabled();
+        FTPHelp    v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Files.write(v_Save.toPath() ,Arrays.copyOf($Data ,300000));
+        v_Metrics.setEnabled(true);
+        try
+        {
+            FTPServerMetrics v_Server = v_Metrics.getServer($FTPInfo);
+            
+            v_Server.reset();
+            assertNull(v_FTPHelp.connect());
+            assertNull(v_FTPHelp.download("/resume/data.bin" ,v_Save.getPath() ,true));
+            v_FTPHelp.close();
+            
+            assertEquals($Data.length - 300000 ,v_Server.getDownloadBytes());
+        }
+        finally
+        {
+            v_Metrics.setEnabled(v_Enabled);
+        }
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+    }
+    
+    
+    
+    /**
+     * 续传后整个文件的校验值与服务端的一致
+     */
+    @Test
+    public void test_ChecksumVerify() throws IOException
+    {
+        File    v_Save    = new File($LocalDir ,"verify.bin");
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Files.write(v_Save.toPath() ,Arrays.copyOf($Data ,123456));
+        v_FTPHelp.setChecksumType(FTPChecksum.$MD5);
+        v_FTPHelp.setChecksumVerify(true);
+        
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.download("/resume/data.bin" ,v_Save.getPath() ,true));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+    }
+    
+    
+    
+    /**
+     * 本地文件比远程文件还大（不是同一文件）、或不存在时，重新下载整个文件
+     */
+    @Test
+    public void test_FullDownload() throws IOException
+    {
+        File    v_Larger  = new File($LocalDir ,"larger.bin");
+        File    v_Missing = new File($LocalDir ,"missing.bin");
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Files.write(v_Larger.toPath() ,new byte[$Data.length + 1]);
+        v_Missing.delete();
+        
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.download("/resume/data.bin" ,v_Larger .getPath() ,true));
+        assertNull(v_FTPHelp.download("/resume/data.bin" ,v_Missing.getPath() ,true));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Larger .toPath()));
+        assertArrayEquals($Data ,Files.readAllBytes(v_Missing.toPath()));
+    }
+
+}
@@ -0,0 +1,194 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.hy.common.ftp.FTPChecksum;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPMetrics;
+import org.hy.common.ftp.FTPServerMetrics;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 上传的断点续传：以服务端已有的大小为断点，只用 APPE 命令上传剩余的部分
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_ResumeUpload extends LoopbackFTPTestCase
+{
+    
+    private static File    $Local;
+    
+    private static byte [] $Data;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Local = new File($LocalDir ,"data.bin");
+        $Data  = new byte[654321];
+        
+        new Random(13).nextBytes($Data);
+        Files.write($Local.toPath() ,$Data);
+        remoteFile("resume").mkdirs();
+    }
+    
+    
+    
+    private static File remote(String i_Name ,byte [] i_Data) throws IOException
+    {
+        File v_Remote = remoteFile("resume/" + i_Name);
+        
+        if ( i_Data == null )
+        {
+            v_Remote.delete();
+        }
+        else
+        {
+            Files.write(v_Remote.toPath() ,i_Data);
+        }
+        
+        return v_Remote;
+    }
+    
+    
+    
+    /**
+     * 服务端已有的部分不再上传：已有部分故意写成不同的内容，续传后仍保留
+     */
+    @Test
+    public void test_OnlyRemainder() throws IOException
+    {
+        byte [] v_Prefix  = new byte[200000];
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Arrays.fill(v_Prefix ,(byte)9);
+        File v_Remote = remote("part.bin" ,v_Prefix);
+        
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/part.bin"));
+        v_FTPHelp.close();
+        
+        byte [] v_Data = Files.readAllBytes(v_Remote.toPath());
+        
+        assertEquals($Data.length ,v_Data.length);
+        assertArrayEquals(v_Prefix ,Arrays.copyOfRange(v_Data ,0 ,v_Prefix.length));
+        assertArrayEquals(Arrays.copyOfRange($Data ,v_Prefix.length ,$Data.length) ,Arrays.copyOfRange(v_Data ,v_Prefix.length ,v_Data.length));
+    }
+    
+    
+    
+    /**
+     * 统计的上传字节数只含续传的部分，不含服务端已有的部分
+     */
+    @Test
+    public void test_MetricsOnlyRemainder() throws IOException
+    {
+        FTPMetrics v_Metrics = FTPMetrics.getInstance();
+        boolean    v_Enabled = v_Metrics.isEnabled();
+        FTPHelp    v_FTPHelp = new FTPHelp($FTPInfo);
+        File       v_Remote  = remote("metrics.bin" ,Arrays.copyOf($Data ,200000));
+        
+        v_Metrics.setEnabled(true);
+        try
+        {
+            FTPServerMetrics v_Server = v_Metrics.getServer($FTPInfo);
+            
+            v_Server.reset();
+            assertNull(v_FTPHelp.connect());
+            assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/metrics.bin"));
+            v_FTPHelp.close();
+            
+            assertEquals($Data.length - 200000 ,v_Server.getUploadBytes());
+        }
+        finally
+        {
+            v_Metrics.setEnabled(v_Enabled);
+        }
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Remote.toPath()));
+    }
+    
+    
+    
+    /**
+     * 开启校验比较时，服务端已有的部分与本地不一致，重新上传整个文件
+     */
+    @Test
+    public void test_ChecksumMismatch() throws IOException
+    {
+        byte [] v_Prefix  = new byte[200000];
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        Arrays.fill(v_Prefix ,(byte)9);
+        File v_Remote = remote("mismatch.bin" ,v_Prefix);
+        
+        v_FTPHelp.setChecksumType(FTPChecksum.$CRC32);
+        v_FTPHelp.setChecksumVerify(true);
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/mismatch.bin"));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Remote.toPath()));
+    }
+    
+    
+    
+    /**
+     * 开启校验比较时，服务端已有的部分正确，续传后整个文件一致
+     */
+    @Test
+    public void test_ChecksumMatch() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        File    v_Remote  = remote("match.bin" ,Arrays.copyOf($Data ,100000));
+        
+        v_FTPHelp.setChecksumType(FTPChecksum.$MD5);
+        v_FTPHelp.setChecksumVerify(true);
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/match.bin"));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Remote.toPath()));
+    }
+    
+    
+    
+    /**
+     * 服务端没有此文件、或比本地文件还大时，重新上传整个文件；大小相同时不再上传
+     */
+    @Test
+    public void test_FullOrSkip() throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp($FTPInfo);
+        File    v_Missing = remote("missing.bin" ,null);
+        File    v_Larger  = remote("larger.bin"  ,new byte[$Data.length + 1]);
+        File    v_Same    = remote("same.bin"    ,$Data);
+        
+        v_Same.setLastModified(1000000000L);
+        
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/missing.bin"));
+        assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/larger.bin"));
+        assertNull(v_FTPHelp.resumeUpload($Local.getPath() ,"/resume/same.bin"));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Missing.toPath()));
+        assertArrayEquals($Data ,Files.readAllBytes(v_Larger .toPath()));
+        assertEquals(1000000000L ,v_Same.lastModified());
+    }
+
+}
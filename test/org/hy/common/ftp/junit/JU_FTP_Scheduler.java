@@ -0,0 +1,243 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hy.common.ftp.FTPOptions;
+import org.hy.common.ftp.FTPScheduler;
+import org.hy.common.ftp.FTPService;
+import org.hy.common.ftp.FTPTransferResult;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 传输的调度：优先级、短作业优先、租户间公平，及被取消的传输不计入租户的虚拟时间
+ *
+ * 同时只执行一个传输。第一个传输（阻塞者）在开始前等待，其它传输都排队后再放行，之后按完成的先后即为执行的先后
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Scheduler extends LoopbackFTPTestCase
+{
+    
+    /** 每个文件的大小。大于调度的最小开销，租户间按此大小计入虚拟时间 */
+    private static final int           $FileSize = 100 * 1024;
+    
+    private FTPScheduler               scheduler;
+    
+    /** 放行阻塞者 */
+    private CountDownLatch             release;
+    
+    /** 按执行的先后记录的远程文件名 */
+    private List<String>               orders;
+    
+    /** 记录远程文件名的后续动作 */
+    private List<CompletableFuture<?>> records;
+    
+    
+    
+    @Before
+    public void newScheduler() throws IOException
+    {
+        FTPService    v_Service = new FTPService($FTPInfo);
+        FTPOptions    v_Options = v_Service.getOptions();
+        AtomicBoolean v_IsFirst = new AtomicBoolean(true);
+        
+        this.release = new CountDownLatch(1);
+        this.orders  = Collections.synchronizedList(new ArrayList<String>());
+        this.records = new ArrayList<CompletableFuture<?>>();
+        
+        v_Options.addFTPListener(new FTPListener()
+        {
+            @Override
+            public boolean ftpBefore(FTPEvent e)
+            {
+                if ( v_IsFirst.compareAndSet(true ,false) )
+                {
+                    try
+                    {
+                        return release.await(10 ,TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException exce)
+                    {
+                        return false;
+                    }
+                }
+                
+                return true;
+            }
+            
+            @Override
+            public boolean ftpProcess(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public void ftpAfter(FTPEvent e)
+            {
+                // Nothing.
+            }
+        });
+        v_Service.setOptions(v_Options);
+        
+        this.scheduler = new FTPScheduler(v_Service ,1);
+        this.submit("blocker" ,$FileSize ,FTPScheduler.$Priority_High ,"blocker");
+    }
+    
+    
+    
+    @After
+    public void shutdown()
+    {
+        this.scheduler.shutdown();
+    }
+    
+    
+    
+    /**
+     * 提交上传，执行完成后记录远程文件名
+     */
+    private CompletableFuture<FTPTransferResult> submit(String i_Name ,int i_Size ,int i_Priority ,String i_Tenant) throws IOException
+    {
+        File v_Local = new File($LocalDir ,i_Name);
+        
+        Files.write(v_Local.toPath() ,new byte[i_Size]);
+        
+        CompletableFuture<FTPTransferResult> v_Future = this.scheduler.upload(v_Local.getPath() ,"/schedule/" + i_Name ,i_Priority ,i_Tenant);
+        this.records.add(v_Future.thenAccept(v_Result -> this.orders.add(i_Name)));
+        
+        return v_Future;
+    }
+    
+    
+    
+    /**
+     * 放行阻塞者，并等待所有传输完成、及记录完成（被取消的传输的记录异常完成）
+     */
+    private List<String> run(List<CompletableFuture<FTPTransferResult>> i_Futures) throws Exception
+    {
+        assertEquals(1 ,this.scheduler.getRunningCount());
+        
+        this.release.countDown();
+        CompletableFuture.allOf(this.records.toArray(new CompletableFuture[0])).handle((v_Void ,v_Error) -> null).get(30 ,TimeUnit.SECONDS);
+        
+        for (CompletableFuture<FTPTransferResult> v_Future : i_Futures)
+        {
+            assertTrue(v_Future.get().isSucceed());
+        }
+        
+        return new ArrayList<String>(this.orders.subList(1 ,this.orders.size()));
+    }
+    
+    
+    
+    /**
+     * 优先级高的先执行，与提交的先后无关
+     */
+    @Test
+    public void test_Priority() throws Exception
+    {
+        List<CompletableFuture<FTPTransferResult>> v_Futures = new ArrayList<CompletableFuture<FTPTransferResult>>();
+        
+        v_Futures.add(this.submit("low.bin"    ,$FileSize ,FTPScheduler.$Priority_Low    ,null));
+        v_Futures.add(this.submit("normal.bin" ,$FileSize ,FTPScheduler.$Priority_Normal ,null));
+        v_Futures.add(this.submit("high.bin"   ,$FileSize ,FTPScheduler.$Priority_High   ,null));
+        
+        assertEquals(3 ,this.scheduler.getWaitingCount());
+        assertEquals(Arrays.asList("high.bin" ,"normal.bin" ,"low.bin") ,this.run(v_Futures));
+    }
+    
+    
+    
+    /**
+     * 同一租户中，文件小的先执行
+     */
+    @Test
+    public void test_SmallFirst() throws Exception
+    {
+        List<CompletableFuture<FTPTransferResult>> v_Futures = new ArrayList<CompletableFuture<FTPTransferResult>>();
+        
+        v_Futures.add(this.submit("large.bin"  ,$FileSize * 3 ,FTPScheduler.$Priority_Normal ,null));
+        v_Futures.add(this.submit("small.bin"  ,$FileSize     ,FTPScheduler.$Priority_Normal ,null));
+        v_Futures.add(this.submit("medium.bin" ,$FileSize * 2 ,FTPScheduler.$Priority_Normal ,null));
+        
+        assertEquals(Arrays.asList("small.bin" ,"medium.bin" ,"large.bin") ,this.run(v_Futures));
+    }
+    
+    
+    
+    /**
+     * 租户间公平：先提交的租户不能独占，两个租户交替执行
+     */
+    @Test
+    public void test_TenantFairness() throws Exception
+    {
+        List<CompletableFuture<FTPTransferResult>> v_Futures = new ArrayList<CompletableFuture<FTPTransferResult>>();
+        
+        for (int x=1; x<=3; x++)
+        {
+            v_Futures.add(this.submit("a" + x + ".bin" ,$FileSize ,FTPScheduler.$Priority_Normal ,"A"));
+        }
+        for (int x=1; x<=3; x++)
+        {
+            v_Futures.add(this.submit("b" + x + ".bin" ,$FileSize ,FTPScheduler.$Priority_Normal ,"B"));
+        }
+        
+        List<String> v_Orders = this.run(v_Futures);
+        
+        assertEquals(6 ,v_Orders.size());
+        for (int x=1; x<v_Orders.size(); x++)
+        {
+            assertNotEquals(v_Orders.toString() ,v_Orders.get(x - 1).charAt(0) ,v_Orders.get(x).charAt(0));
+        }
+    }
+    
+    
+    
+    /**
+     * 被取消的传输不执行，也不计入租户的虚拟时间：租户A取消了三个传输，剩下的传输不排在租户B的所有传输之后
+     */
+    @Test
+    public void test_CancelledNotCharged() throws Exception
+    {
+        List<CompletableFuture<FTPTransferResult>> v_Futures = new ArrayList<CompletableFuture<FTPTransferResult>>();
+        
+        for (int x=1; x<=3; x++)
+        {
+            this.submit("a" + x + ".bin" ,$FileSize ,FTPScheduler.$Priority_Normal ,"A").cancel(true);
+        }
+        v_Futures.add(this.submit("a4.bin" ,$FileSize ,FTPScheduler.$Priority_Normal ,"A"));
+        for (int x=1; x<=3; x++)
+        {
+            v_Futures.add(this.submit("b" + x + ".bin" ,$FileSize ,FTPScheduler.$Priority_Normal ,"B"));
+        }
+        
+        List<String> v_Orders = this.run(v_Futures);
+        
+        assertEquals(4 ,v_Orders.size());
+        assertTrue(v_Orders.toString() ,v_Orders.indexOf("a4.bin") <= 1);
+        assertFalse(remoteFile("schedule/a1.bin").exists());
+    }
+
+}
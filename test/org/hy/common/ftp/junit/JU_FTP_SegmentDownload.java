@@ -0,0 +1,187 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 分段并行下载：各段拼接成完整的文件、服务端不支持 REST 时的退化，及失败、中止后删除未下载完的文件
+ *
+ * 文件的大小不是分段大小的整数倍，最后一段比其它段小
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_SegmentDownload extends LoopbackFTPTestCase
+{
+    
+    /** 分段的数量 */
+    private static final int $SegmentCount = 4;
+    
+    private static byte []   $Data;
+    
+    private FTPHelp          ftpHelp;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data = new byte[3 * 1024 * 1024 + 12345];
+        
+        new Random(2).nextBytes($Data);
+        Files.write(remoteFile("segment.bin").toPath() ,$Data);
+    }
+    
+    
+    
+    @Before
+    public void connect()
+    {
+        this.ftpHelp = new FTPHelp($FTPInfo);
+        assertNull(this.ftpHelp.connect());
+    }
+    
+    
+    
+    @After
+    public void close()
+    {
+        this.ftpHelp.close();
+        $Server.setRestEnabled(true);
+        $Server.setSendLimit(-1);
+    }
+    
+    
+    
+    private String download(File i_Save)
+    {
+        return this.ftpHelp.download("/segment.bin" ,i_Save.getPath() ,$Data.length ,$SegmentCount);
+    }
+    
+    
+    
+    /**
+     * 各段按字节区间写入对应的位置，拼接后与远程文件相同。汇总的进度等于文件的大小
+     */
+    @Test
+    public void test_Concatenate() throws IOException
+    {
+        File       v_Save     = new File($LocalDir ,"concatenate.bin");
+        AtomicLong v_Complete = new AtomicLong(-1);
+        
+        this.ftpHelp.addFTPListener(new FTPListener()
+        {
+            @Override
+            public boolean ftpBefore(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public boolean ftpProcess(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public void ftpAfter(FTPEvent e)
+            {
+                v_Complete.set(e.getCompletedSize());
+            }
+        });
+        
+        int v_Commands = $Server.getCommandCount();
+        assertNull(this.download(v_Save));
+        
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+        assertEquals($Data.length ,v_Complete.get());
+        // 每段一个 RETR 命令，多于单连接下载的命令数
+        assertTrue($Server.getCommandCount() - v_Commands > $SegmentCount * 2);
+    }
+    
+    
+    
+    /**
+     * 服务端不支持 REST 命令时，退化为单连接下载
+     */
+    @Test
+    public void test_RestRejected() throws IOException
+    {
+        File v_Save = new File($LocalDir ,"rest.bin");
+        
+        $Server.setRestEnabled(false);
+        
+        assertNull(this.download(v_Save));
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+    }
+    
+    
+    
+    /**
+     * 某段的数据连接中断时，下载失败，并删除已预先分配大小的本地文件
+     */
+    @Test
+    public void test_SegmentFailed()
+    {
+        File v_Save = new File($LocalDir ,"failed.bin");
+        
+        $Server.setSendLimit(100 * 1024);
+        
+        assertNotNull(this.download(v_Save));
+        assertFalse(v_Save.exists());
+    }
+    
+    
+    
+    /**
+     * 监听器中止下载时，也删除本地未下载完的文件
+     */
+    @Test
+    public void test_Cancel()
+    {
+        File v_Save = new File($LocalDir ,"cancel.bin");
+        
+        this.ftpHelp.addFTPListener(new FTPListener()
+        {
+            @Override
+            public boolean ftpBefore(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public boolean ftpProcess(FTPEvent e)
+            {
+                return e.getCompletedSize() < $Data.length / 2;
+            }
+            
+            @Override
+            public void ftpAfter(FTPEvent e)
+            {
+                // Nothing.
+            }
+        });
+        
+        this.download(v_Save);
+        assertFalse(v_Save.exists());
+    }
+
+}
@@ -0,0 +1,223 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hy.common.ftp.FTPConnectionPool;
+import org.hy.common.ftp.FTPInfo;
+import org.hy.common.ftp.FTPOptions;
+import org.hy.common.ftp.FTPService;
+import org.hy.common.ftp.FTPTransferResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 线程安全的FTP服务：连接的借出与归还、多线程并发、每次调用的选项、连接异常时的返回值及异步传输
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Service extends LoopbackFTPTestCase
+{
+    
+    private static byte []    $Data;
+    
+    private static File       $Local;
+    
+    private FTPConnectionPool ftpPool;
+    
+    private FTPService        ftpService;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data  = new byte[512 * 1024 + 9];
+        $Local = new File($LocalDir ,"data.bin");
+        
+        // 可压缩的内容
+        for (int x=0; x<$Data.length; x++)
+        {
+            $Data[x] = (byte)('a' + x % 7);
+        }
+        Files.write($Local.toPath() ,$Data);
+    }
+    
+    
+    
+    @Before
+    public void newService()
+    {
+        this.ftpPool = new FTPConnectionPool();
+        this.ftpPool.setEvictInterval(0);
+        this.ftpPool.setMaxTotal(2);
+        
+        this.ftpService = new FTPService($FTPInfo ,this.ftpPool);
+    }
+    
+    
+    
+    @After
+    public void closePool()
+    {
+        this.ftpPool.close();
+    }
+    
+    
+    
+    @Test(expected=NullPointerException.class)
+    public void test_NullInfo()
+    {
+        new FTPService(null ,this.ftpPool);
+    }
+    
+    
+    
+    /**
+     * 每次调用后归还连接，连接可被之后的调用复用
+     */
+    @Test
+    public void test_GiveBack() throws IOException
+    {
+        File v_Save = new File($LocalDir ,"service.save");
+        
+        assertNull(this.ftpService.upload($Local.getPath() ,"/service/a/data.bin"));
+        assertEquals(0 ,this.ftpPool.getActiveCount($FTPInfo));
+        assertEquals(1 ,this.ftpPool.getIdleCount($FTPInfo));
+        
+        assertNull(this.ftpService.download("/service/a/data.bin" ,v_Save.getPath()));
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+        assertArrayEquals($Data ,this.ftpService.downloadBytes("/service/a/data.bin"));
+        assertEquals(1 ,this.ftpService.makeDirectory("/service/a/b"));
+        assertNull(this.ftpService.deleteFile("/service/a/data.bin"));
+        assertFalse(remoteFile("service/a/data.bin").exists());
+        
+        assertEquals(0 ,this.ftpPool.getActiveCount($FTPInfo));
+        assertEquals(1 ,this.ftpPool.getIdleCount($FTPInfo));
+    }
+    
+    
+    
+    /**
+     * 多线程共用一个实例：并发度受连接池的限制，所有调用均成功，结束后连接全部归还
+     */
+    @Test
+    public void test_Concurrent() throws Exception
+    {
+        ExecutorService      v_Executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> v_Futures  = new ArrayList<Future<String>>();
+        
+        for (int x=0; x<16; x++)
+        {
+            String v_Remote = "/service/concurrent/" + x + ".bin";
+            
+            v_Futures.add(v_Executor.submit(() -> this.ftpService.upload($Local.getPath() ,v_Remote)));
+        }
+        
+        for (Future<String> v_Future : v_Futures)
+        {
+            assertNull(v_Future.get());
+        }
+        v_Executor.shutdown();
+        
+        for (int x=0; x<16; x++)
+        {
+            assertArrayEquals($Data ,Files.readAllBytes(remoteFile("service/concurrent/" + x + ".bin").toPath()));
+        }
+        assertEquals(0 ,this.ftpPool.getActiveCount($FTPInfo));
+        assertTrue(this.ftpPool.getIdleCount($FTPInfo) <= 2);
+    }
+    
+    
+    
+    /**
+     * 每次调用的选项只影响本次调用。设置默认选项时复制一份，之后修改传入的对象不影响本服务
+     */
+    @Test
+    public void test_Options()
+    {
+        FTPOptions v_Compress = new FTPOptions();
+        
+        v_Compress.setCompress(true);
+        
+        assertNull(this.ftpService.upload($Local.getPath() ,"/service/options/compress.bin" ,v_Compress));
+        assertNull(this.ftpService.upload($Local.getPath() ,"/service/options/plain.bin"));
+        assertTrue(remoteFile("service/options/compress.bin").length() < $Data.length);
+        assertEquals($Data.length ,remoteFile("service/options/plain.bin").length());
+        
+        FTPOptions v_Default = new FTPOptions();
+        this.ftpService.setOptions(v_Default);
+        v_Default.setCompress(true);
+        
+        assertFalse(this.ftpService.getOptions().isCompress());
+        assertNull(this.ftpService.upload($Local.getPath() ,"/service/options/default.bin"));
+        assertEquals($Data.length ,remoteFile("service/options/default.bin").length());
+    }
+    
+    
+    
+    /**
+     * 连接异常时，按各方法约定的返回值返回
+     */
+    @Test
+    public void test_ConnectError() throws IOException
+    {
+        int v_Port = 0;
+        
+        try (ServerSocket v_Socket = new ServerSocket(0))
+        {
+            v_Port = v_Socket.getLocalPort();
+        }
+        
+        FTPService v_Service = new FTPService(new FTPInfo($Server.getIp() ,v_Port ,"ftp" ,"ftp") ,this.ftpPool);
+        
+        assertNotNull(v_Service.upload($Local.getPath() ,"/service/error.bin"));
+        assertNull(v_Service.downloadBytes("/service/error.bin"));
+        assertEquals(-99 ,v_Service.makeDirectory("/service/error"));
+    }
+    
+    
+    
+    /**
+     * 异步传输用本服务设置的线程池
+     */
+    @Test
+    public void test_Async()
+    {
+        AtomicInteger v_Count = new AtomicInteger(0);
+        
+        this.ftpService.setAsyncExecutor(v_Runnable ->
+        {
+            v_Count.incrementAndGet();
+            v_Runnable.run();
+        });
+        
+        FTPTransferResult v_Result = this.ftpService.uploadAsync($Local.getPath() ,"/service/async.bin" ,null).join();
+        assertTrue(v_Result.getError() ,v_Result.isSucceed());
+        assertEquals(1 ,v_Count.get());
+        assertEquals(0 ,this.ftpPool.getActiveCount($FTPInfo));
+        
+        v_Result = this.ftpService.deleteAsync("/service/async.bin").join();
+        assertTrue(v_Result.getError() ,v_Result.isSucceed());
+        assertFalse(remoteFile("service/async.bin").exists());
+    }
+
+}
@@ -0,0 +1,237 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hy.common.ftp.FTPChecksum;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.event.FTPEvent;
+import org.hy.common.ftp.event.FTPListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 读写远程文件的数据流：关闭数据流时完成传输命令、读一半就关闭、打开失败，及自动关闭连接
+ *
+ * 每个用例在数据流关闭后再执行一次FTP操作，确认连接仍可继续使用
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Stream extends LoopbackFTPTestCase
+{
+    
+    private static byte [] $Data;
+    
+    private FTPHelp        ftpHelp;
+    
+    /** 传输完成的事件的次数 */
+    private AtomicInteger  afterCount;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data = new byte[1024 * 1024 + 3];
+        
+        new Random(8).nextBytes($Data);
+        remoteFile("stream").mkdirs();
+        Files.write(remoteFile("stream/read.bin").toPath() ,$Data);
+    }
+    
+    
+    
+    @Before
+    public void connect()
+    {
+        this.ftpHelp    = new FTPHelp($FTPInfo);
+        this.afterCount = new AtomicInteger(0);
+        
+        this.ftpHelp.setChecksumType(FTPChecksum.$CRC32);
+        this.ftpHelp.addFTPListener(new FTPListener()
+        {
+            @Override
+            public boolean ftpBefore(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public boolean ftpProcess(FTPEvent e)
+            {
+                return true;
+            }
+            
+            @Override
+            public void ftpAfter(FTPEvent e)
+            {
+                afterCount.incrementAndGet();
+            }
+        });
+        
+        assertNull(this.ftpHelp.connect());
+    }
+    
+    
+    
+    @After
+    public void close()
+    {
+        this.ftpHelp.close();
+    }
+    
+    
+    
+    /**
+     * 数据流关闭后，连接仍可继续使用
+     */
+    private void assertReusable()
+    {
+        assertArrayEquals($Data ,this.ftpHelp.downloadBytes("/stream/read.bin"));
+    }
+    
+    
+    
+    private static byte [] readAll(InputStream i_Input) throws IOException
+    {
+        ByteArrayOutputStream v_Output = new ByteArrayOutputStream();
+        byte []               v_Buffer = new byte[8192];
+        int                   v_RSize  = 0;
+        
+        while ( (v_RSize = i_Input.read(v_Buffer)) >= 0 )
+        {
+            v_Output.write(v_Buffer ,0 ,v_RSize);
+        }
+        
+        return v_Output.toByteArray();
+    }
+    
+    
+    
+    /**
+     * 读到文件末尾后关闭，完成 RETR 命令，并记录校验值。重复关闭无副作用
+     */
+    @Test
+    public void test_Read() throws IOException
+    {
+        InputStream v_Input = this.ftpHelp.openRead("/stream/read.bin");
+        
+        assertArrayEquals($Data ,readAll(v_Input));
+        v_Input.close();
+        v_Input.close();
+        
+        assertEquals(1 ,this.afterCount.get());
+        assertNotNull(this.ftpHelp.getLastChecksum());
+        this.assertReusable();
+    }
+    
+    
+    
+    /**
+     * 未读到文件末尾就关闭时，服务端回复传输中止也不抛出异常，且不记录校验值
+     */
+    @Test
+    public void test_ReadPartial() throws IOException
+    {
+        InputStream v_Input  = this.ftpHelp.openRead("/stream/read.bin");
+        byte []     v_Buffer = new byte[1000];
+        
+        assertEquals(v_Buffer.length ,v_Input.read(v_Buffer));
+        assertArrayEquals(Arrays.copyOf($Data ,v_Buffer.length) ,v_Buffer);
+        v_Input.close();
+        
+        assertEquals(1 ,this.afterCount.get());
+        assertNull(this.ftpHelp.getLastChecksum());
+        this.assertReusable();
+    }
+    
+    
+    
+    /**
+     * 远程文件不存在时抛出异常，并触发传输完成的事件
+     */
+    @Test
+    public void test_ReadMissing()
+    {
+        try
+        {
+            this.ftpHelp.openRead("/stream/missing.bin");
+            fail("Missing file is opened.");
+        }
+        catch (IOException exce)
+        {
+            // 预期的异常
+        }
+        
+        assertEquals(1 ,this.afterCount.get());
+        this.assertReusable();
+    }
+    
+    
+    
+    /**
+     * 写入后关闭，完成 STOR 命令。上级目录不存在时自动创建。追加模式续写在文件末尾
+     */
+    @Test
+    public void test_Write() throws IOException
+    {
+        OutputStream v_Output = this.ftpHelp.openWrite("/stream/new/write.bin" ,false);
+        
+        v_Output.write($Data ,0 ,1000);
+        v_Output.close();
+        v_Output.close();
+        
+        assertEquals(1 ,this.afterCount.get());
+        assertNotNull(this.ftpHelp.getLastChecksum());
+        this.assertReusable();
+        
+        v_Output = this.ftpHelp.openWrite("/stream/new/write.bin" ,true);
+        v_Output.write($Data ,1000 ,$Data.length - 1000);
+        v_Output.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remoteFile("stream/new/write.bin").toPath()));
+        this.assertReusable();
+    }
+    
+    
+    
+    /**
+     * 本对象未连接时，自动连接，关闭数据流时同时关闭连接
+     */
+    @Test
+    public void test_AutoClose() throws IOException
+    {
+        FTPHelp     v_FTPHelp = new FTPHelp($FTPInfo);
+        InputStream v_Input   = v_FTPHelp.openRead("/stream/read.bin");
+        
+        assertArrayEquals($Data ,readAll(v_Input));
+        v_Input.close();
+        
+        // 连接已关闭
+        assertNull(v_FTPHelp.downloadBytes("/stream/read.bin"));
+        
+        OutputStream v_Output = v_FTPHelp.openWrite("/stream/auto.bin" ,false ,true);
+        v_Output.write($Data);
+        v_Output.close();
+        
+        assertNull(v_FTPHelp.downloadBytes("/stream/auto.bin"));
+        assertArrayEquals($Data ,Files.readAllBytes(remoteFile("stream/auto.bin").toPath()));
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPInfo;
+import org.hy.common.ftp.FTPTuning;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 自动调优：受限于Socket缓存时只在传输完成后加倍，往返时延的更新只按带宽时延积计算，续传时只按本次传输的大小计算吞吐量
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_Tuning extends LoopbackFTPTestCase
+{
+    
+    /** 1毫秒（单位：纳秒） */
+    private static final long $RttNanos = 1000 * 1000;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData()
+    {
+        $FTPInfo.setAutoTuning(true);
+    }
+    
+    
+    
+    @AfterClass
+    public static void resetTuning()
+    {
+        FTPTuning.getInstance($FTPInfo).reset();
+    }
+    
+    
+    
+    /**
+     * 吞吐量 1000MB/秒，往返时延 1 毫秒：初始的缓存 256KB 的上限约 256MB/秒，受限于缓存
+     */
+    private static FTPTuning windowLimited()
+    {
+        FTPTuning v_Tuning = FTPTuning.getInstance(new FTPInfo("192.0.2.1" ,21 ,"ftp" ,"ftp"));
+        
+        v_Tuning.reset();
+        v_Tuning.recordRtt($RttNanos);
+        v_Tuning.recordTransfer(1000L * 1024 * 1024 ,1000);
+        
+        return v_Tuning;
+    }
+    
+    
+    
+    /**
+     * 受限于缓存时，传输完成后缓存加倍
+     */
+    @Test
+    public void test_TransferDoubles()
+    {
+        FTPTuning v_Tuning = windowLimited();
+        
+        assertEquals(FTPTuning.$MinSocketBuffer * 2 ,v_Tuning.getSocketBufferSize());
+        
+        v_Tuning.recordTransfer(1000L * 1024 * 1024 ,1000);
+        assertEquals(FTPTuning.$MinSocketBuffer * 4 ,v_Tuning.getSocketBufferSize());
+    }
+    
+    
+    
+    /**
+     * 每次新建连接时的往返时延不使缓存加倍：按带宽时延积的4倍（4MB）计算，重复的样本结果不变
+     */
+    @Test
+    public void test_RttDoesNotDouble()
+    {
+        FTPTuning v_Tuning = windowLimited();
+        
+        for (int x=0; x<5; x++)
+        {
+            v_Tuning.recordRtt($RttNanos);
+            assertEquals(4 * 1024 * 1024 ,v_Tuning.getSocketBufferSize());
+        }
+    }
+    
+    
+    
+    /**
+     * 续传时只按本次传输的大小计算吞吐量：剩余的部分小于 $MinSampleSize 时不计入
+     */
+    @Test
+    public void test_ResumeOnlyRemainder() throws IOException
+    {
+        byte []   v_Data    = new byte[(int)FTPTuning.$MinSampleSize + 512 * 1024];
+        File      v_Save    = new File($LocalDir ,"resume.bin");
+        FTPTuning v_Tuning  = FTPTuning.getInstance($FTPInfo);
+        FTPHelp   v_FTPHelp = new FTPHelp($FTPInfo);
+        
+        new Random(25).nextBytes(v_Data);
+        Files.write(remoteFile("resume.bin").toPath() ,v_Data);
+        Files.write(v_Save.toPath() ,Arrays.copyOf(v_Data ,(int)FTPTuning.$MinSampleSize));
+        
+        assertNull(v_FTPHelp.connect());
+        v_Tuning.reset();
+        assertNull(v_FTPHelp.download("/resume.bin" ,v_Save.getPath() ,true));
+        v_FTPHelp.close();
+        
+        assertArrayEquals(v_Data ,Files.readAllBytes(v_Save.toPath()));
+        assertEquals(0D ,v_Tuning.getThroughput() ,0D);
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.hy.common.ByteHelp;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.transform.XorTransform;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 内置的数据安全性变换：查表变换与 ByteHelp.xorMV() 的结果相同，与数据块的切分、偏移量无关
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_XorTransform extends LoopbackFTPTestCase
+{
+    
+    /**
+     * 按不同的块大小、在数组的不同偏移量上就地变换，结果均与整体调用一次 xorMV() 相同
+     */
+    @Test
+    public void test_Chunks()
+    {
+        byte [] v_Data   = new byte[10007];
+        byte [] v_Expect = null;
+        int  [] v_Chunks = {1 ,3 ,256 ,1000 ,4096 ,v_Data.length};
+        
+        new Random(9).nextBytes(v_Data);
+        v_Expect = ByteHelp.xorMV(v_Data ,0 ,v_Data.length);
+        
+        for (int v_Chunk : v_Chunks)
+        {
+            for (int v_Offset : new int[] {0 ,5})
+            {
+                byte [] v_Buffer = new byte[v_Offset + v_Chunk];
+                byte [] v_Actual = new byte[v_Data.length];
+                
+                for (int v_Pos=0; v_Pos<v_Data.length; v_Pos+=v_Chunk)
+                {
+                    int v_Len = Math.min(v_Chunk ,v_Data.length - v_Pos);
+                    
+                    System.arraycopy(v_Data ,v_Pos ,v_Buffer ,v_Offset ,v_Len);
+                    XorTransform.getInstance().encode(v_Buffer ,v_Offset ,v_Len ,v_Pos);
+                    System.arraycopy(v_Buffer ,v_Offset ,v_Actual ,v_Pos ,v_Len);
+                }
+                
+                assertArrayEquals("chunk=" + v_Chunk + " ,offset=" + v_Offset ,v_Expect ,v_Actual);
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 编码后再解码还原原数据，且不改动偏移量之外的字节
+     */
+    @Test
+    public void test_Symmetric()
+    {
+        byte [] v_Data   = new byte[300];
+        byte [] v_Buffer = null;
+        
+        new Random(10).nextBytes(v_Data);
+        v_Buffer = v_Data.clone();
+        
+        XorTransform.getInstance().encode(v_Buffer ,10 ,280 ,0);
+        assertArrayEquals(Arrays.copyOf(v_Data ,10) ,Arrays.copyOf(v_Buffer ,10));
+        assertArrayEquals(Arrays.copyOfRange(v_Data ,290 ,300) ,Arrays.copyOfRange(v_Buffer ,290 ,300));
+        
+        XorTransform.getInstance().decode(v_Buffer ,10 ,280 ,0);
+        assertArrayEquals(v_Data ,v_Buffer);
+    }
+    
+    
+    
+    /**
+     * 数据安全性的上传：远程文件等于整体调用一次 xorMV() 的结果，下载后还原
+     */
+    @Test
+    public void test_DataSafe() throws IOException
+    {
+        byte [] v_Data  = new byte[1024 * 1024 + 17];
+        File    v_Local = new File($LocalDir ,"safe.bin");
+        File    v_Save  = new File($LocalDir ,"safe.save");
+        FTPHelp v_Help  = new FTPHelp($FTPInfo);
+        
+        new Random(11).nextBytes(v_Data);
+        Files.write(v_Local.toPath() ,v_Data);
+        v_Help.setDataSafe(true);
+        
+        assertNull(v_Help.connect());
+        assertNull(v_Help.upload(v_Local.getPath() ,"/safe.bin"));
+        assertNull(v_Help.download("/safe.bin" ,v_Save.getPath()));
+        v_Help.close();
+        
+        assertArrayEquals(ByteHelp.xorMV(v_Data ,0 ,v_Data.length) ,Files.readAllBytes(remoteFile("safe.bin").toPath()));
+        assertArrayEquals(v_Data ,Files.readAllBytes(v_Save.toPath()));
+    }
+
+}
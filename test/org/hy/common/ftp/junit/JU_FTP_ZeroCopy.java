@@ -0,0 +1,128 @@
+package org.hy.common.ftp.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.apache.commons.net.SocketClient;
+import org.apache.commons.net.ftp.FTPClient;
+import org.hy.common.ftp.FTPConnectionPool;
+import org.hy.common.ftp.FTPHelp;
+import org.hy.common.ftp.FTPInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+
+
+
+/**
+ * 零拷贝：主动及被动模式的上传下载，及控制连接不使用由 SocketChannel 创建的 Socket
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class JU_FTP_ZeroCopy extends LoopbackFTPTestCase
+{
+    
+    private static byte [] $Data;
+    
+    private static File    $Local;
+    
+    
+    
+    @BeforeClass
+    public static void prepareData() throws IOException
+    {
+        $Data  = new byte[3 * 1024 * 1024 + 7];
+        $Local = new File($LocalDir ,"data.bin");
+        
+        new Random(6).nextBytes($Data);
+        Files.write($Local.toPath() ,$Data);
+    }
+    
+    
+    
+    private static FTPInfo newFTPInfo(boolean i_IsPassive)
+    {
+        FTPInfo v_FTPInfo = new FTPInfo($Server.getIp() ,$Server.getPort() ,"ftp" ,"ftp");
+        
+        v_FTPInfo.setLocalPassiveMode(i_IsPassive);
+        assertTrue(v_FTPInfo.isZeroCopy());
+        
+        return v_FTPInfo;
+    }
+    
+    
+    
+    /**
+     * 没有事件监听器时走零拷贝的方式，上传后再下载，与本地文件相同
+     */
+    private static void roundTrip(FTPInfo i_FTPInfo ,String i_Name) throws IOException
+    {
+        FTPHelp v_FTPHelp = new FTPHelp(i_FTPInfo);
+        File    v_Save    = new File($LocalDir ,i_Name);
+        
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.upload($Local.getPath() ,"/zero/" + i_Name));
+        assertNull(v_FTPHelp.download("/zero/" + i_Name ,v_Save.getPath() ,$Data.length));
+        v_FTPHelp.close();
+        
+        assertArrayEquals($Data ,Files.readAllBytes(remoteFile("zero/" + i_Name).toPath()));
+        assertArrayEquals($Data ,Files.readAllBytes(v_Save.toPath()));
+    }
+    
+    
+    
+    @Test
+    public void test_Active() throws IOException
+    {
+        roundTrip(newFTPInfo(false) ,"active.bin");
+    }
+    
+    
+    
+    @Test
+    public void test_Passive() throws IOException
+    {
+        roundTrip(newFTPInfo(true) ,"passive.bin");
+    }
+    
+    
+    
+    /**
+     * 开启零拷贝时，控制连接仍是普通的 Socket，打开过数据连接后也是
+     */
+    @Test
+    public void test_ControlSocketPlain() throws Exception
+    {
+        FTPConnectionPool v_Pool    = new FTPConnectionPool();
+        FTPInfo           v_FTPInfo = newFTPInfo(true);
+        Field             v_Socket  = SocketClient.class.getDeclaredField("_socket_");
+        
+        v_Pool.setEvictInterval(0);
+        v_Socket.setAccessible(true);
+        
+        FTPClient v_Client = v_Pool.borrow(v_FTPInfo);
+        assertNull(((Socket)v_Socket.get(v_Client)).getChannel());
+        v_Pool.giveBack(v_FTPInfo ,v_Client);
+        
+        FTPHelp v_FTPHelp = new FTPHelp(v_FTPInfo ,v_Pool);
+        assertNull(v_FTPHelp.connect());
+        assertNull(v_FTPHelp.upload($Local.getPath() ,"/zero/control.bin"));
+        v_FTPHelp.close();
+        
+        v_Client = v_Pool.borrow(v_FTPInfo);
+        assertNull(((Socket)v_Socket.get(v_Client)).getChannel());
+        assertTrue(v_Client.sendNoOp());
+        v_Pool.giveBack(v_FTPInfo ,v_Client);
+        v_Pool.close();
+    }
+
+}
@@ -0,0 +1,562 @@
+package org.hy.common.ftp.junit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+
+
+
+
+/**
+ * 本机回环的FTP服务（仅用于基准测试、压力测试及单元测试）
+ *
+ * 只实现了 FTPHelp 用到的命令子集：
+ *   USER、PASS、SYST、TYPE、PWD、CWD、NOOP、FEAT、OPTS、QUIT
+ *   PASV、EPSV、PORT、EPRT
+ *   RETR、STOR、APPE、REST、SIZE、MKD、DELE、XCRC
+ *
+ * 文件均保存在本机的根目录 rootDir 下，用户名及密码不做校验。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public class LoopbackFTPServer
+{
+    
+    private static final Charset $Charset = Charset.forName("ISO-8859-1");
+    
+    
+    
+    /** 文件的根目录 */
+    private final File            rootDir;
+    
+    private final ServerSocket    serverSocket;
+    
+    private final ExecutorService executor;
+    
+    /** 已接收的控制命令的总数量 */
+    private final AtomicInteger   commandCount;
+    
+    /** 已接收的MKD命令的总数量 */
+    private final AtomicInteger   mkdCount;
+    
+    private volatile boolean      isRunning;
+    
+    /** 是否支持 REST 命令。不支持时应答 502，模拟不能续传的服务端 */
+    private volatile boolean      restEnabled;
+    
+    /** 每次 RETR 最多发送的字节数，之后断开数据连接，模拟传输中断。小于0时不限制 */
+    private volatile long         sendLimit;
+    
+    
+    
+    /**
+     * 构造器。启动监听本机回环地址的随机端口
+     *
+     * @param i_RootDir  文件的根目录
+     * @throws IOException
+     */
+    public LoopbackFTPServer(File i_RootDir) throws IOException
+    {
+        this.rootDir      = i_RootDir;
+        this.serverSocket = new ServerSocket(0 ,512 ,InetAddress.getLoopbackAddress());
+        this.executor     = Executors.newCachedThreadPool(v_Runnable ->
+        {
+            Thread v_Thread = new Thread(v_Runnable ,"LoopbackFTPServer");
+            v_Thread.setDaemon(true);
+            return v_Thread;
+        });
+        this.commandCount = new AtomicInteger(0);
+        this.mkdCount     = new AtomicInteger(0);
+        this.isRunning    = true;
+        this.restEnabled  = true;
+        this.sendLimit    = -1;
+        
+        this.rootDir.mkdirs();
+        this.executor.execute(this::acceptLoop);
+    }
+    
+    
+    
+    public String getIp()
+    {
+        return this.serverSocket.getInetAddress().getHostAddress();
+    }
+    
+    
+    
+    public int getPort()
+    {
+        return this.serverSocket.getLocalPort();
+    }
+    
+    
+    
+    public File getRootDir()
+    {
+        return this.rootDir;
+    }
+    
+    
+    
+    public int getCommandCount()
+    {
+        return this.commandCount.get();
+    }
+    
+    
+    
+    public int getMKDCount()
+    {
+        return this.mkdCount.get();
+    }
+    
+    
+    
+    public void setRestEnabled(boolean i_RestEnabled)
+    {
+        this.restEnabled = i_RestEnabled;
+    }
+    
+    
+    
+    public void setSendLimit(long i_SendLimit)
+    {
+        this.sendLimit = i_SendLimit;
+    }
+    
+    
+    
+    /**
+     * 停止服务
+     */
+    public void close()
+    {
+        this.isRunning = false;
+        
+        try
+        {
+            this.serverSocket.close();
+        }
+        catch (IOException exce)
+        {
+            // Nothing.
+        }
+        
+        this.executor.shutdownNow();
+    }
+    
+    
+    
+    private void acceptLoop()
+    {
+        while ( this.isRunning )
+        {
+            try
+            {
+                Socket v_Control = this.serverSocket.accept();
+                
+                // 应答（如 150 之后的 226）不等待客户端的 ACK，否则 Nagle 算法与延迟确认叠加，每次传输多出约 40 毫秒
+                v_Control.setTcpNoDelay(true);
+                this.executor.execute(() -> this.session(v_Control));
+            }
+            catch (IOException exce)
+            {
+                // 服务停止时的正常现象
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 一个控制连接的会话
+     *
+     * @param i_Control
+     */
+    private void session(Socket i_Control)
+    {
+        ServerSocket      v_Passive  = null;
+        InetSocketAddress v_Active   = null;
+        long              v_Restart  = 0;
+        String            v_HashAlgo = "MD5";
+        String            v_WorkDir  = "/";
+        
+        try
+        {
+            BufferedReader v_Reader = new BufferedReader(new InputStreamReader(i_Control.getInputStream() ,$Charset));
+            OutputStream   v_Writer = i_Control.getOutputStream();
+            String         v_Line   = null;
+            
+            reply(v_Writer ,"220 Loopback FTP ready");
+            
+            while ( (v_Line = v_Reader.readLine()) != null )
+            {
+                this.commandCount.incrementAndGet();
+                
+                int    v_Space = v_Line.indexOf(' ');
+                String v_Cmd   = (v_Space < 0 ? v_Line : v_Line.substring(0 ,v_Space)).toUpperCase();
+                String v_Arg   = v_Space < 0 ? "" : v_Line.substring(v_Space + 1);
+                
+                switch ( v_Cmd )
+                {
+                    case "USER":
+                        reply(v_Writer ,"331 Password required");
+                        break;
+                    case "PASS":
+                        reply(v_Writer ,"230 Logged in");
+                        break;
+                    case "SYST":
+                        reply(v_Writer ,"215 UNIX Type: L8");
+                        break;
+                    case "TYPE":
+                        reply(v_Writer ,"200 OK");
+                        break;
+                    case "OPTS":
+                        if ( v_Arg.toUpperCase().startsWith("HASH ") )
+                        {
+                            v_HashAlgo = v_Arg.substring(5).trim().toUpperCase();
+                        }
+                        reply(v_Writer ,"200 OK");
+                        break;
+                    case "NOOP":
+                        reply(v_Writer ,"200 NOOP ok");
+                        break;
+                    case "FEAT":
+                        reply(v_Writer ,"211-Features:\r\n SIZE\r\n REST STREAM\r\n XCRC\r\n XMD5\r\n HASH CRC32;MD5*\r\n211 End");
+                        break;
+                    case "PWD":
+                        reply(v_Writer ,"257 \"" + v_WorkDir + "\"");
+                        break;
+                    case "CWD":
+                        v_WorkDir = this.toPath(v_WorkDir ,v_Arg);
+                        reply(v_Writer ,this.toFile(v_WorkDir).isDirectory() ? "250 OK" : "550 No such directory");
+                        break;
+                    case "QUIT":
+                        reply(v_Writer ,"221 Bye");
+                        return;
+                    case "PASV":
+                        v_Passive = closePassive(v_Passive);
+                        v_Active  = null;
+                        v_Passive = new ServerSocket(0 ,1 ,InetAddress.getLoopbackAddress());
+                        reply(v_Writer ,"227 Entering Passive Mode (127,0,0,1," + (v_Passive.getLocalPort() >> 8) + "," + (v_Passive.getLocalPort() & 0xFF) + ")");
+                        break;
+                    case "EPSV":
+                        v_Passive = closePassive(v_Passive);
+                        v_Active  = null;
+                        v_Passive = new ServerSocket(0 ,1 ,InetAddress.getLoopbackAddress());
+                        reply(v_Writer ,"229 Entering Extended Passive Mode (|||" + v_Passive.getLocalPort() + "|)");
+                        break;
+                    case "PORT":
+                    {
+                        v_Passive = closePassive(v_Passive);
+                        String [] v_Parts = v_Arg.split(",");
+                        v_Active  = new InetSocketAddress(v_Parts[0] + "." + v_Parts[1] + "." + v_Parts[2] + "." + v_Parts[3]
+                                                         ,Integer.parseInt(v_Parts[4]) * 256 + Integer.parseInt(v_Parts[5]));
+                        reply(v_Writer ,"200 PORT ok");
+                        break;
+                    }
+                    case "EPRT":
+                    {
+                        v_Passive = closePassive(v_Passive);
+                        String [] v_Parts = v_Arg.split(Pattern.quote(v_Arg.substring(0 ,1)));
+                        v_Active  = new InetSocketAddress(v_Parts[2] ,Integer.parseInt(v_Parts[3]));
+                        reply(v_Writer ,"200 EPRT ok");
+                        break;
+                    }
+                    case "REST":
+                        if ( !this.restEnabled )
+                        {
+                            reply(v_Writer ,"502 Command not implemented");
+                            break;
+                        }
+                        v_Restart = Long.parseLong(v_Arg.trim());
+                        reply(v_Writer ,"350 Restarting at " + v_Restart);
+                        break;
+                    case "SIZE":
+                    {
+                        File v_File = this.toFile(this.toPath(v_WorkDir ,v_Arg));
+                        reply(v_Writer ,v_File.isFile() ? "213 " + v_File.length() : "550 No such file");
+                        break;
+                    }
+                    case "XCRC":
+                    {
+                        File v_File = this.toFile(this.toPath(v_WorkDir ,v_Arg));
+                        reply(v_Writer ,v_File.isFile() ? "250 " + String.format("%08X" ,crc32(v_File)) : "550 No such file");
+                        break;
+                    }
+                    case "XMD5":
+                    {
+                        File v_File = this.toFile(this.toPath(v_WorkDir ,v_Arg));
+                        reply(v_Writer ,v_File.isFile() ? "250 " + md5(v_File) : "550 No such file");
+                        break;
+                    }
+                    case "HASH":
+                    {
+                        File v_File = this.toFile(this.toPath(v_WorkDir ,v_Arg));
+                        if ( !v_File.isFile() )
+                        {
+                            reply(v_Writer ,"550 No such file");
+                            break;
+                        }
+                        String v_Hash = "CRC32".equals(v_HashAlgo) ? String.format("%08x" ,crc32(v_File)) : md5(v_File).toLowerCase();
+                        reply(v_Writer ,"213 " + v_HashAlgo + " 0-" + v_File.length() + " " + v_Hash + " " + v_Arg);
+                        break;
+                    }
+                    case "MKD":
+                    {
+                        this.mkdCount.incrementAndGet();
+                        File v_Dir = this.toFile(this.toPath(v_WorkDir ,v_Arg));
+                        if ( !v_Dir.exists() && v_Dir.mkdir() )
+                        {
+                            reply(v_Writer ,"257 Created");
+                        }
+                        else
+                        {
+                            reply(v_Writer ,"550 Exists");
+                        }
+                        break;
+                    }
+                    case "DELE":
+                        reply(v_Writer ,this.toFile(this.toPath(v_WorkDir ,v_Arg)).delete() ? "250 Deleted" : "550 No such file");
+                        break;
+                    case "RETR":
+                    case "STOR":
+                    case "APPE":
+                    {
+                        File v_File = this.toFile(this.toPath(v_WorkDir ,v_Arg));
+                        
+                        if ( "RETR".equals(v_Cmd) ? !v_File.isFile() : !v_File.getParentFile().isDirectory() )
+                        {
+                            reply(v_Writer ,"550 No such file or directory");
+                            v_Passive = closePassive(v_Passive);
+                            v_Restart = 0;
+                            break;
+                        }
+                        
+                        reply(v_Writer ,"150 Opening data connection");
+                        
+                        try (Socket v_Data = v_Passive != null ? v_Passive.accept() : new Socket(v_Active.getAddress() ,v_Active.getPort()))
+                        {
+                            if ( "RETR".equals(v_Cmd) )
+                            {
+                                this.send(v_File ,v_Restart ,v_Data.getOutputStream());
+                            }
+                            else
+                            {
+                                this.receive(v_File ,"APPE".equals(v_Cmd) ,v_Restart ,v_Data.getInputStream());
+                            }
+                            
+                            v_Data.getOutputStream().flush();
+                            reply(v_Writer ,"226 Transfer complete");
+                        }
+                        catch (IOException exce)
+                        {
+                            reply(v_Writer ,"426 Connection closed; transfer aborted");
+                        }
+                        
+                        v_Passive = closePassive(v_Passive);
+                        v_Restart = 0;
+                        break;
+                    }
+                    default:
+                        reply(v_Writer ,"502 Command not implemented");
+                        break;
+                }
+            }
+        }
+        catch (Exception exce)
+        {
+            // 客户端断开的正常现象
+        }
+        finally
+        {
+            closePassive(v_Passive);
+            
+            try
+            {
+                i_Control.close();
+            }
+            catch (IOException exce)
+            {
+                // Nothing.
+            }
+        }
+    }
+    
+    
+    
+    private void send(File i_File ,long i_Offset ,OutputStream i_Output) throws IOException
+    {
+        try (InputStream v_Input = new FileInputStream(i_File))
+        {
+            byte [] v_Buffer = new byte[64 * 1024];
+            int     v_RSize  = 0;
+            long    v_Limit  = this.sendLimit;
+            long    v_Size   = 0;
+            
+            v_Input.skip(i_Offset);
+            while ( (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+            {
+                if ( v_Limit >= 0 && v_Size + v_RSize > v_Limit )
+                {
+                    i_Output.write(v_Buffer ,0 ,(int)(v_Limit - v_Size));
+                    throw new IOException("Send limit " + v_Limit + " is reached.");
+                }
+                
+                i_Output.write(v_Buffer ,0 ,v_RSize);
+                v_Size += v_RSize;
+            }
+        }
+    }
+    
+    
+    
+    private void receive(File i_File ,boolean i_IsAppend ,long i_Offset ,InputStream i_Input) throws IOException
+    {
+        if ( !i_IsAppend && i_Offset > 0 )
+        {
+            try (RandomAccessFile v_Output = new RandomAccessFile(i_File ,"rw"))
+            {
+                byte [] v_Buffer = new byte[64 * 1024];
+                int     v_RSize  = 0;
+                
+                v_Output.setLength(i_Offset);
+                v_Output.seek(i_Offset);
+                while ( (v_RSize = i_Input.read(v_Buffer)) >= 0 )
+                {
+                    v_Output.write(v_Buffer ,0 ,v_RSize);
+                }
+            }
+            return;
+        }
+        
+        try (OutputStream v_Output = new FileOutputStream(i_File ,i_IsAppend))
+        {
+            byte [] v_Buffer = new byte[64 * 1024];
+            int     v_RSize  = 0;
+            
+            while ( (v_RSize = i_Input.read(v_Buffer)) >= 0 )
+            {
+                v_Output.write(v_Buffer ,0 ,v_RSize);
+            }
+        }
+    }
+    
+    
+    
+    private String toPath(String i_WorkDir ,String i_Arg)
+    {
+        String v_Path = i_Arg.trim();
+        
+        if ( !v_Path.startsWith("/") )
+        {
+            v_Path = (i_WorkDir.endsWith("/") ? i_WorkDir : i_WorkDir + "/") + v_Path;
+        }
+        
+        return v_Path;
+    }
+    
+    
+    
+    private File toFile(String i_Path)
+    {
+        return new File(this.rootDir ,new String(i_Path.getBytes($Charset) ,Charset.forName("GBK")));
+    }
+    
+    
+    
+    private static long crc32(File i_File) throws IOException
+    {
+        CRC32 v_CRC = new CRC32();
+        
+        try (InputStream v_Input = new FileInputStream(i_File))
+        {
+            byte [] v_Buffer = new byte[64 * 1024];
+            int     v_RSize  = 0;
+            
+            while ( (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+            {
+                v_CRC.update(v_Buffer ,0 ,v_RSize);
+            }
+        }
+        
+        return v_CRC.getValue();
+    }
+    
+    
+    
+    private static String md5(File i_File) throws IOException
+    {
+        try (InputStream v_Input = new FileInputStream(i_File))
+        {
+            MessageDigest v_MD5    = MessageDigest.getInstance("MD5");
+            byte []       v_Buffer = new byte[64 * 1024];
+            int           v_RSize  = 0;
+            
+            while ( (v_RSize = v_Input.read(v_Buffer)) >= 0 )
+            {
+                v_MD5.update(v_Buffer ,0 ,v_RSize);
+            }
+            
+            StringBuilder v_Hex = new StringBuilder();
+            for (byte v_Byte : v_MD5.digest())
+            {
+                v_Hex.append(String.format("%02X" ,v_Byte));
+            }
+            return v_Hex.toString();
+        }
+        catch (NoSuchAlgorithmException exce)
+        {
+            throw new IOException(exce);
+        }
+    }
+    
+    
+    
+    private static ServerSocket closePassive(ServerSocket i_Passive)
+    {
+        if ( i_Passive != null )
+        {
+            try
+            {
+                i_Passive.close();
+            }
+            catch (IOException exce)
+            {
+                // Nothing.
+            }
+        }
+        
+        return null;
+    }
+    
+    
+    
+    private static void reply(OutputStream i_Writer ,String i_Reply) throws IOException
+    {
+        i_Writer.write((i_Reply + "\r\n").getBytes($Charset));
+        i_Writer.flush();
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.hy.common.ftp.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.hy.common.ftp.FTPInfo;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+
+
+
+
+/**
+ * 单元测试的公共夹具：每个测试类启动一个本机回环的FTP服务，及一个本地的临时目录
+ *
+ * 子类的 @BeforeClass 在本类之后执行，可直接使用 $Server、$FTPInfo 准备测试数据。
+ * 子类的 @BeforeClass、@AfterClass 方法不要与本类的同名，否则会隐藏本类的方法。
+ *
+ * @author      ZhengWei(HY)
+ * @createDate  2026-10-17
+ * @version     v1.0
+ */
+public abstract class LoopbackFTPTestCase
+{
+    
+    protected static LoopbackFTPServer $Server;
+    
+    /** 连接回环服务的FTP信息。每个测试类一个新的实例 */
+    protected static FTPInfo           $FTPInfo;
+    
+    /** 本地的临时目录 */
+    protected static File              $LocalDir;
+    
+    
+    
+    @BeforeClass
+    public static void startLoopbackServer() throws IOException
+    {
+        $Server   = new LoopbackFTPServer(Files.createTempDirectory("JU_FTP").toFile());
+        $FTPInfo  = new FTPInfo($Server.getIp() ,$Server.getPort() ,"ftp" ,"ftp");
+        $LocalDir = Files.createTempDirectory("JU_FTP_Local").toFile();
+    }
+    
+    
+    
+    @AfterClass
+    public static void stopLoopbackServer()
+    {
+        $Server.close();
+    }
+    
+    
+    
+    /**
+     * 远程文件在回环服务的根目录中对应的本地文件
+     *
+     * @param i_RemotePath  远程文件的路径（相对于根目录）
+     * @return
+     */
+    protected static File remoteFile(String i_RemotePath)
+    {
+        return new File($Server.getRootDir() ,i_RemotePath);
+    }
+
+}